@@ -41,9 +41,22 @@ public class AIG_RenameGeneration implements I_AIG {
             "[None @Override]: It is recommended to preceed each method that is overriden with @Override."
     );
 
+    private ContextDescriber cdMethodSubclassOverride = new ContextDescriber(
+            CodeContext.CodeContextEnum.MethodSubclassOverride,
+            "[Method subclass override]: Subclasses that override this method no longer override it after renaming, which changes behavior of your program."
+    );
+
     AdaptiveInstructionGraph _graph = new AdaptiveInstructionGraph();
 
     public AIG_RenameGeneration() {
+        this(false);
+    }
+
+    /**
+     * @param subclassOverrides true to include the decisions on overriding subclasses, which are only detected
+     *                          through the type hierarchy index of a loaded project
+     */
+    public AIG_RenameGeneration(boolean subclassOverrides) {
         _graph.setDescription("... Remember, code is written for humans ...");
         _graph.setRefactorMechanic("Rename Method");
 
@@ -69,8 +82,16 @@ public class AIG_RenameGeneration implements I_AIG {
         Instruction i10 = new Instruction(10, "");
         Instruction i11 = new Instruction(11, "\n[None @Override]\nFor the listed methods @Override has not been added everywhere." +
                 "Before renaming any methods, Add @Override above methods\n#method-list");
+        Instruction i12 = new Instruction(12, "\n[Method Subclass Override]\nMethod #method is overridden in the following subclasses:\n#subclass-list\n" +
+                "To keep these overrides, rename #method also to your new name in: \n#subclass-list\n");
+        Instruction i13 = new Instruction(13, "");
+        Instruction i14 = new Instruction(14, "");
 
-        ContextDecision i1_d1 = new ContextDecision(CodeContext.CodeContextEnum.MethodSingleDeclaration, 2);
+        // Without subclass overrides the empty instructions 13 and 14 are skipped
+        int afterSingleDeclaration = subclassOverrides ? 13 : 2;
+        int afterOverrides = subclassOverrides ? 14 : 3;
+
+        ContextDecision i1_d1 = new ContextDecision(CodeContext.CodeContextEnum.MethodSingleDeclaration, afterSingleDeclaration);
         i1_d1.setRiskDescription("");
         ContextDecision i1_d2 = new ContextDecision(CodeContext.CodeContextEnum.MethodMultipleDeclarations, 5);
         ContextDecision i2_d1 = new ContextDecision(CodeContext.CodeContextEnum.always_true, 3);
@@ -79,12 +100,12 @@ public class AIG_RenameGeneration implements I_AIG {
         ContextDecision i5_d1 = new ContextDecision(cdMethodInterfaceDeclaration, 6);
         ContextDecision i5_d2 = new ContextDecision(CodeContext.CodeContextEnum.MethodNoneInterfaceDeclaration, 10);
         ContextDecision i10_d1 = new ContextDecision(cdMethodOverride, 7);
-        ContextDecision i10_d2 = new ContextDecision(CodeContext.CodeContextEnum.MethodNoneOverride, 3);
+        ContextDecision i10_d2 = new ContextDecision(CodeContext.CodeContextEnum.MethodNoneOverride, afterOverrides);
 
         ContextDecision i6_d1 = new ContextDecision(cdMethodOverride, 7);
         ContextDecision i6_d2 = new ContextDecision(CodeContext.CodeContextEnum.MethodNoneOverride, 4);
 
-        ContextDecision i7_d1 = new ContextDecision(CodeContext.CodeContextEnum.MethodNoneOverrideNoAnnotation, 3);
+        ContextDecision i7_d1 = new ContextDecision(CodeContext.CodeContextEnum.MethodNoneOverrideNoAnnotation, afterOverrides);
         ContextDecision i7_d2 = new ContextDecision(cdMethodOverrideNoAnnotation, 11);
 
         ContextDecision i9_d1 = new ContextDecision(CodeContext.CodeContextEnum.always_true);
@@ -92,7 +113,13 @@ public class AIG_RenameGeneration implements I_AIG {
         ContextDecision i4_d1 = new ContextDecision(cdMethodOverload, 9);
         ContextDecision i4_d2 = new ContextDecision(CodeContext.CodeContextEnum.MethodNoneOverload);
 
-        ContextDecision i11_d1 = new ContextDecision(CodeContext.CodeContextEnum.always_true, 3);
+        ContextDecision i11_d1 = new ContextDecision(CodeContext.CodeContextEnum.always_true, afterOverrides);
+
+        ContextDecision i12_d1 = new ContextDecision(CodeContext.CodeContextEnum.always_true, 3);
+        ContextDecision i13_d1 = new ContextDecision(CodeContext.CodeContextEnum.MethodNoneSubclassOverride, 2);
+        ContextDecision i13_d2 = new ContextDecision(cdMethodSubclassOverride, 12);
+        ContextDecision i14_d1 = new ContextDecision(CodeContext.CodeContextEnum.MethodNoneSubclassOverride, 3);
+        ContextDecision i14_d2 = new ContextDecision(cdMethodSubclassOverride, 12);
 
         i1.addDecision(i1_d1);
         i1.addDecision(i1_d2);
@@ -110,6 +137,11 @@ public class AIG_RenameGeneration implements I_AIG {
         i10.addDecision(i10_d1);
         i10.addDecision(i10_d2);
         i11.addDecision(i11_d1);
+        i12.addDecision(i12_d1);
+        i13.addDecision(i13_d1);
+        i13.addDecision(i13_d2);
+        i14.addDecision(i14_d1);
+        i14.addDecision(i14_d2);
 
         _graph.setFirstInstruction(i1);
 
@@ -122,6 +154,12 @@ public class AIG_RenameGeneration implements I_AIG {
         _graph.addInstruction(i9);
         _graph.addInstruction(i10);
         _graph.addInstruction(i11);
+
+        if (subclassOverrides) {
+            _graph.addInstruction(i12);
+            _graph.addInstruction(i13);
+            _graph.addInstruction(i14);
+        }
     }
 
     @Override
@@ -20,6 +20,8 @@
 
 package aig;
 
+import java.util.EnumSet;
+
 public class CodeContext {
 
     public enum contextAction {
@@ -39,6 +41,8 @@ public class CodeContext {
         MethodNoneOverride,
         MethodOverrideNoAnnotation,
         MethodNoneOverrideNoAnnotation,
+        MethodSubclassOverride,
+        MethodNoneSubclassOverride,
 
         // Extract method
         MethodExtractNoneLocalDependencies,
@@ -55,5 +59,24 @@ public class CodeContext {
 
         , always_true     // used to link multiple actions together, where no decision is required
     }
-}
 
+    // Contexts leading to the most careful instructions, assumed present when their detection did not finish
+    private static final EnumSet<CodeContextEnum> ASSUMED_WHEN_UNKNOWN = EnumSet.of(
+            CodeContextEnum.MethodMultipleDeclarations,
+            CodeContextEnum.MethodInterfaceDeclaration,
+            CodeContextEnum.MethodOverload,
+            CodeContextEnum.MethodOverride,
+            CodeContextEnum.MethodOverrideNoAnnotation,
+            CodeContextEnum.MethodSubclassOverride,
+            CodeContextEnum.MethodExtractMultiArgument,
+            CodeContextEnum.MethodExtractMultiResult,
+            CodeContextEnum.MethodExtractNameHiding,
+            CodeContextEnum.MethodExtractControlReturn);
+
+    /**
+     * @return true when the context should be taken as present while it is unknown whether it is
+     */
+    public static boolean isAssumedWhenUnknown(CodeContextEnum context) {
+        return ASSUMED_WHEN_UNKNOWN.contains(context);
+    }
+}
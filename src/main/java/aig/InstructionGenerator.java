@@ -25,14 +25,19 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class InstructionGenerator {
 
+    private static final Pattern LIST_PARAMETER = Pattern.compile("#[a-z-]+-list");
+
     AdaptiveInstructionGraph _aig = null;
     EnumSet<CodeContext.CodeContextEnum> contextSet = null;
     private Map<String, List<String>> parameterMap = null;
+    private IContextSource contextSource = null;
+    private EnumSet<CodeContext.CodeContextEnum> unknownContexts = EnumSet.noneOf(CodeContext.CodeContextEnum.class);
 
     public InstructionGenerator(AdaptiveInstructionGraph graph)   {
         _aig = graph;
@@ -43,6 +48,25 @@ public class InstructionGenerator {
     }
 
 
+    /**
+     * Lazy mode: instead of a complete context set, each context is asked from the source when a decision
+     * on it is evaluated. The decisions of an instruction are evaluated in order until one matches, so the
+     * contexts of untaken branches are never asked for. The parameter map is read after the path is known,
+     * it may be filled while the contexts are being asked for.
+     *
+     * @param source Source of the contexts, null to use the context set
+     */
+    public void setContextSource(IContextSource source) { this.contextSource = source; }
+
+    /**
+     * Contexts of which it is unknown whether they are present, e.g. because their detection timed out.
+     * The generator takes the conservative path for these: see CodeContext.isAssumedWhenUnknown. The set
+     * is read after the path is known, so a context source may fill it while being asked.
+     *
+     * @param unknown Contexts without a detection result
+     */
+    public void setUnknownContexts(EnumSet<CodeContext.CodeContextEnum> unknown) { this.unknownContexts = unknown; }
+
     /***
      * Define the values of the parameters that are parsed in the template instructions
      * @param parameters Maps variables ($<var>) in instruction to a concrete value
@@ -75,9 +99,11 @@ public class InstructionGenerator {
         List<String> generatedInstructionList = new ArrayList<>();
         List<String> parsedValuesInstructionList = new ArrayList<>();
 
+        boolean lazy = (contextSource != null);
+
         if(_aig == null) {errStr = "ERROR: AIT is null"; inputErr = true;}
         else
-        if(contextSet == null || contextSet.isEmpty()) {errStr = "ERROR: Context-set is empty or null"; inputErr = true;}
+        if(!lazy && (contextSet == null || contextSet.isEmpty())) {errStr = "ERROR: Context-set is empty or null"; inputErr = true;}
         else
         if(parameterMap == null) { errStr = "ERROR: parameterMap is null"; inputErr = true; }
 
@@ -86,15 +112,16 @@ public class InstructionGenerator {
 
         if (!inputErr)
         {
-            if(riskOverview) {
-                generatedInstructionList.add("Identified RISKS in your code that need special attention when performing " + _aig.getRefactorMechanic() + " on method #method \n");
-                SummarizeRisks(generatedInstructionList, contextSet);
-            }
+            // Contexts found present on the path, in lazy mode the only contexts that are known
+            EnumSet<CodeContext.CodeContextEnum> presentContexts = lazy ?
+                    EnumSet.of(CodeContext.CodeContextEnum.always_true) :
+                    (unknownContexts.isEmpty() ? contextSet : EnumSet.copyOf(contextSet));
+            List<String> pathInstructionList = new ArrayList<>();
 
             // built up the instruction list, based on the code context set
             Instruction _instr = _aig.getFirstInstruction();
 
-            generatedInstructionList.add(_instr.getInstructionDescription());
+            pathInstructionList.add(_instr.getInstructionDescription());
 
             String graphTrace = new String("\n");
 
@@ -103,26 +130,66 @@ public class InstructionGenerator {
                 int decisionPaths = 0;
                 Instruction prevInstr = _instr;
 
-                for (ContextDecision decision : _instr.getDecisions()) {
+                for (ContextDecision decision : prevInstr.getDecisions()) {
 
                     // Check if context for specific decision exists in code
-                    if (contextSet.contains(decision.getContextType())) {
+                    if (lazy ? isPresentInSource(decision.getContextType(), presentContexts) : contextSet.contains(decision.getContextType())) {
                         _instr = _aig.findInstruction(decision.getNextInstructionID());
 
                         if(!_instr.getInstructionDescription().isEmpty()) {
-                            generatedInstructionList.add(_instr.getInstructionDescription());
+                            pathInstructionList.add(_instr.getInstructionDescription());
                         }
                             decisionPaths++; // only one decision should be valid
                             graphTrace += " > " + decision.getNextInstructionID();
+
+                        if (lazy) {
+                            break;
+                        }
                     }
 
                 }
 
                 if(decisionPaths > 1) {System.out.println("\nINVALID GRAPH, unambiguous decision at " + prevInstr.instructionID + "\n");}
+
+                if(decisionPaths == 0) {
+                    // No detected context matches, continue on a context that is unknown. Preferably one that is
+                    // assumed present, otherwise the first unknown one.
+                    Optional<ContextDecision> fallback = fallbackDecision(prevInstr);
+
+                    if (fallback.isPresent()) {
+                        ContextDecision decision = fallback.get();
+
+                        presentContexts.add(decision.getContextType());
+                        _instr = _aig.findInstruction(decision.getNextInstructionID());
+
+                        if(!_instr.getInstructionDescription().isEmpty()) {
+                            pathInstructionList.add(_instr.getInstructionDescription());
+                        }
+                        decisionPaths++;
+                        graphTrace += " > " + decision.getNextInstructionID() + "?";
+                    }
+                }
+
+                if(decisionPaths == 0) {
+                    System.out.println("\nINVALID GRAPH, no decision matches at " + prevInstr.instructionID + "\n");
+                    break;
+                }
             }
 
             System.out.println(graphTrace);
 
+            if(!unknownContexts.isEmpty()) {
+                generatedInstructionList.add("Not all code context could be analyzed " + unknownContexts +
+                        ", the instructions below assume the most careful situation \n");
+            }
+
+            if(riskOverview) {
+                generatedInstructionList.add("Identified RISKS in your code that need special attention when performing " + _aig.getRefactorMechanic() + " on method #method \n");
+                SummarizeRisks(generatedInstructionList, presentContexts);
+            }
+
+            generatedInstructionList.addAll(pathInstructionList);
+
             // Fill in the used variables in the generated instructions, based on the parameter map
             //        1. Are there variables present
             //        2. Are all variables found present in map? (no, error)
@@ -150,6 +217,56 @@ public class InstructionGenerator {
         }
     }
 
+    /**
+     * Decision to follow when no decision matches. An assumed context leads to an instruction that lists what was
+     * found, so it is only followed when those lists have values.
+     */
+    private Optional<ContextDecision> fallbackDecision(Instruction instruction) {
+        Optional<ContextDecision> assumed = instruction.getDecisions().stream()
+                .filter(decision -> unknownContexts.contains(decision.getContextType()) &&
+                                    CodeContext.isAssumedWhenUnknown(decision.getContextType()) &&
+                                    !hasEmptyListParameter(_aig.findInstruction(decision.getNextInstructionID())))
+                .findFirst();
+
+        if (assumed.isPresent()) {
+            return assumed;
+        }
+
+        return instruction.getDecisions().stream()
+                .filter(decision -> unknownContexts.contains(decision.getContextType()) &&
+                                    !hasEmptyListParameter(_aig.findInstruction(decision.getNextInstructionID())))
+                .findFirst();
+    }
+
+    private boolean hasEmptyListParameter(Instruction instruction) {
+        Matcher listParameter = LIST_PARAMETER.matcher(instruction.getInstructionDescription());
+
+        while (listParameter.find()) {
+            List<String> values = parameterMap.get(listParameter.group());
+
+            if (values == null || values.isEmpty()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isPresentInSource(CodeContext.CodeContextEnum context,
+                                      EnumSet<CodeContext.CodeContextEnum> presentContexts) {
+        if (presentContexts.contains(context)) {
+            return true;
+        }
+
+        boolean present = contextSource.isPresent(context);
+
+        if (present) {
+            presentContexts.add(context);
+        }
+
+        return present;
+    }
+
     private static boolean exactMatchInString(String source, String subItem){
         String pattern = "\\s" + subItem;
         Pattern p=Pattern.compile(pattern);
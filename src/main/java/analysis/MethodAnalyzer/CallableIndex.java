@@ -0,0 +1,213 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.MethodAnalyzer;
+
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
+import com.github.javaparser.ast.expr.LambdaExpr;
+
+import java.util.*;
+
+/**
+ * Maps a position in a compilation unit to the innermost callable enclosing it. Callables are methods
+ * and constructors (also of inner and anonymous classes), initializer blocks and lambdas.
+ *
+ * Callables are either nested or disjoint, so the positions of a file can be split in consecutive
+ * segments that each have a single innermost callable. A lookup is a binary search over these segments.
+ * The index is built once per compilation unit and stored with it.
+ */
+public class CallableIndex {
+
+    private static final DataKey<CallableIndex> INDEX_KEY = new DataKey<CallableIndex>() { };
+
+    private static class Callable {
+        private final Node _node;
+        private final long _begin;
+        private final long _end;
+        private final int _depth;
+
+        Callable(Node node, Range range, int depth)
+        {
+            this._node = node;
+            this._begin = encode(range.begin.line, range.begin.column);
+            this._end = encode(range.end.line, range.end.column);
+            this._depth = depth;
+        }
+    }
+
+    // Segment i starts at _starts[i] and ends before _starts[i + 1], _owners[i] is null outside any callable
+    private final long[] _starts;
+    private final Callable[] _owners;
+
+    private final Map<Integer, List<Callable>> _beginningOnLine = new HashMap<>();
+    private final int _size;
+
+    private CallableIndex(CompilationUnit cu)
+    {
+        List<Callable> callables = new ArrayList<>();
+        collect(cu, 0, callables);
+
+        callables.sort(Comparator.comparingLong((Callable c) -> c._begin).thenComparingInt(c -> c._depth));
+        callables.forEach(c -> _beginningOnLine.computeIfAbsent(line(c._begin), key -> new ArrayList<>()).add(c));
+
+        List<Long> starts = new ArrayList<>();
+        List<Callable> owners = new ArrayList<>();
+        Deque<Callable> open = new ArrayDeque<>();
+
+        for (Callable callable : callables) {
+            closeUntil(callable._begin, open, starts, owners);
+            addSegment(callable._begin, callable, starts, owners);
+            open.push(callable);
+        }
+        closeUntil(Long.MAX_VALUE, open, starts, owners);
+
+        _size = callables.size();
+        _starts = new long[starts.size()];
+        _owners = owners.toArray(new Callable[0]);
+
+        for (int i = 0; i < _starts.length; i++) {
+            _starts[i] = starts.get(i);
+        }
+    }
+
+    /**
+     * @return Index of the compilation unit, built on first use
+     */
+    public static synchronized CallableIndex of(CompilationUnit cu) {
+        CallableIndex index = cu.getData(INDEX_KEY);
+
+        if (index == null) {
+            index = new CallableIndex(cu);
+            cu.setData(INDEX_KEY, index);
+        }
+
+        return index;
+    }
+
+    private static long encode(int line, int column) {
+        return ((long) line << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    private static int line(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static boolean isCallable(Node node) {
+        return node instanceof CallableDeclaration || node instanceof InitializerDeclaration || node instanceof LambdaExpr;
+    }
+
+    private static void collect(Node node, int depth, List<Callable> callables) {
+        int childDepth = depth;
+
+        if (isCallable(node) && node.getRange().isPresent()) {
+            callables.add(new Callable(node, node.getRange().get(), depth));
+            childDepth++;
+        }
+
+        for (Node child : node.getChildNodes()) {
+            collect(child, childDepth, callables);
+        }
+    }
+
+    /**
+     * Closes the open callables ending before the position, after each the enclosing callable owns the positions again
+     */
+    private static void closeUntil(long position, Deque<Callable> open, List<Long> starts, List<Callable> owners) {
+        while (!open.isEmpty() && open.peek()._end < position) {
+            Callable closed = open.pop();
+            addSegment(closed._end + 1, open.peek(), starts, owners);
+        }
+    }
+
+    private static void addSegment(long start, Callable owner, List<Long> starts, List<Callable> owners) {
+        int last = starts.size() - 1;
+
+        if (last >= 0 && starts.get(last) == start) {
+            owners.set(last, owner);
+        }
+        else {
+            starts.add(start);
+            owners.add(owner);
+        }
+    }
+
+    private Optional<Callable> innermost(long position) {
+        int low = 0;
+        int high = _starts.length - 1;
+        int found = -1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+
+            if (_starts[middle] <= position) {
+                found = middle;
+                low = middle + 1;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+
+        return (found >= 0) ? Optional.ofNullable(_owners[found]) : Optional.empty();
+    }
+
+    /**
+     * @return Innermost callable containing the position, empty when the position lies outside any callable
+     */
+    public Optional<Node> findInnermost(int line, int column) {
+        return innermost(encode(line, column)).map(c -> c._node);
+    }
+
+    /**
+     * Innermost callable the line belongs to. A callable owns the lines from its start up to and including
+     * its end. When callables start and end on the line itself, e.g. a single line lambda or method, the
+     * first of them is taken.
+     *
+     * @return Innermost callable, empty when the line lies outside any callable
+     */
+    public Optional<Node> findInnermost(int line) {
+        Optional<Callable> atStart = innermost(encode(line, 0));
+        Optional<Callable> atEnd = innermost(encode(line, Integer.MAX_VALUE));
+
+        Optional<Callable> deepest;
+        if (atStart.isPresent() && atEnd.isPresent()) {
+            deepest = (atEnd.get()._depth > atStart.get()._depth) ? atEnd : atStart;
+        }
+        else {
+            deepest = atStart.isPresent() ? atStart : atEnd;
+        }
+
+        int enclosingDepth = deepest.map(c -> c._depth).orElse(-1);
+
+        Optional<Callable> onLine = _beginningOnLine.getOrDefault(line, Collections.emptyList()).stream()
+                .filter(c -> c._depth > enclosingDepth)
+                .findFirst();
+
+        return (onLine.isPresent() ? onLine : deepest).map(c -> c._node);
+    }
+
+    public int size() {
+        return _size;
+    }
+}
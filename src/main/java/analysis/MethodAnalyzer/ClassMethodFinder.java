@@ -21,41 +21,82 @@
 package analysis.MethodAnalyzer;
 
 import analysis.ICodeAnalyzer;
+import analysis.project.MethodSummary;
+import analysis.project.TypeHierarchyIndex;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.symbolsolver.javaparser.Navigator;
-import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
 import com.github.javaparser.symbolsolver.model.declarations.ReferenceTypeDeclaration;
-import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 import com.github.javaparser.symbolsolver.model.typesystem.ReferenceType;
-import helpers.Checker;
+import helpers.Cancellation;
 import javassist.compiler.ast.MethodDecl;
 
-import java.io.File;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 public class ClassMethodFinder implements ICodeAnalyzer {
 
     private CompilationUnit _cu;
     private String _qname;
-    private TypeSolver _symbolSolver;
+    private TypeSolverService _typeSolverService;
+    private TypeHierarchyIndex _hierarchyIndex = null;
     private String _declaredInInterface;
 
     public void initialize(CompilationUnit cu, String qualifiedName) {
+        initialize(cu, qualifiedName, TypeSolverService.getProjectInstance());
+    }
+
+    /**
+     * @param typeSolverService Type solver of the project, shared between all analyzers of that project
+     */
+    public void initialize(CompilationUnit cu, String qualifiedName, TypeSolverService typeSolverService) {
         _cu = cu;
         _qname = qualifiedName;
+        _typeSolverService = typeSolverService;
+    }
+
+    public TypeSolverService getTypeSolverService() {
+        return _typeSolverService;
+    }
 
-        _symbolSolver = new CombinedTypeSolver(
-                new ReflectionTypeSolver(),
-                new JavaParserTypeSolver(new File("src/main/java/")),
-                new JavaParserTypeSolver(new File("C:\\Dropbox\\sources\\RefactorGuidance\\RefactorScenarios\\SimpleRename")));
+    /**
+     * When the analyzed class and its complete hierarchy are part of the index, super class and
+     * interface lookups are answered from the index instead of the type solver
+     * @param index Hierarchy of the project containing the class, null to always use the type solver
+     */
+    public void setTypeHierarchyIndex(TypeHierarchyIndex index) {
+        _hierarchyIndex = index;
+    }
+
+    /**
+     * @return Qualified name of the analyzed class, when the index describes the same file as the analyzed one
+     */
+    private Optional<String> indexedClassName() {
+        if (_hierarchyIndex == null) {
+            return Optional.empty();
+        }
+
+        String qualifiedName = _cu.getPackageDeclaration().map(pd -> pd.getNameAsString() + ".").orElse("") + _qname;
+        Optional<Path> analyzedFile = _cu.getStorage().map(CompilationUnit.Storage::getPath);
+
+        if (analyzedFile.isPresent() &&
+                analyzedFile.equals(_hierarchyIndex.getDeclaringFile(qualifiedName)) &&
+                _hierarchyIndex.isHierarchyComplete(qualifiedName)) {
+            return Optional.of(qualifiedName);
+        }
+
+        return Optional.empty();
+    }
+
+    private static boolean fullSignatureMatch(MethodSummary summary, MethodDescriber md) {
+        return MethodId.of(summary.getReturnType(), summary.getName(), summary.getSignature()) == md.getMethodId();
     }
 
     public String getQualifiedClassName()
@@ -63,16 +104,12 @@ public class ClassMethodFinder implements ICodeAnalyzer {
         return _qname;
     }
 
+    /**
+     * @return true when the type is in one of the packages excluded by the project configuration
+     */
     public boolean isIgnoredPackage(ReferenceTypeDeclaration rtd)
     {
-        boolean ignoredPackage = false;
-
-       if (rtd.hasName() && rtd.getPackageName().equalsIgnoreCase("java.lang") )
-       {
-           ignoredPackage = true;
-       }
-
-       return ignoredPackage;
+        return _typeSolverService.isExcluded(rtd);
     }
 
     public List<String> getAllDefinedMethods() {
@@ -91,13 +128,13 @@ public class ClassMethodFinder implements ICodeAnalyzer {
         ReferenceTypeDeclaration rtd = getReferenceTypeDeclarationOfClass();
 
          //simple test to find all declared methods in local class and all of its inherited classes
-        List<ReferenceType> rt = rtd.getAllAncestors();
+        List<ReferenceType> rt = _typeSolverService.getAllAncestors(rtd);
         rt.forEach( ancestor ->
         {
             ReferenceTypeDeclaration rtd_ancestor = ancestor.getTypeDeclaration();
 
             if (!isIgnoredPackage(rtd_ancestor)) {
-                rtd_ancestor.getDeclaredMethods().forEach(m ->
+                getDeclaredMethods(rtd_ancestor).forEach(m ->
                 {
                    //System.out.println(String.format("A:  %s", m.getQualifiedSignature()));
                    //System.out.println(String.format("declared in:  %s", m.declaringType().getName()));
@@ -138,19 +175,7 @@ public class ClassMethodFinder implements ICodeAnalyzer {
      * @return true if line number lies in method scope
      */
     public boolean isLocationInMethod(int location) {
-
-        boolean locationInMethodDefinition = false;
-
-        // Find in the AST the class declaration of the provided class in the Ctor
-        List<MethodDeclaration> lmd = getMethodDeclarations();
-
-        for (MethodDeclaration method : lmd)
-        {
-            if( Checker.inRangeInclusive(method.getRange().get().begin.line, method.getRange().get().end.line, location))
-                locationInMethodDefinition = true;
-        }
-
-        return locationInMethodDefinition;
+        return findMethodOfClassForLocation(location).isPresent();
     }
 
     /**
@@ -160,41 +185,40 @@ public class ClassMethodFinder implements ICodeAnalyzer {
      * @return Method name when location is inside a method, otherwise empty string
      */
     public MethodDescriber getMethodDescriberForLocation(int location) {
+        return findMethodOfClassForLocation(location).map(MethodDescriber::new).orElse(new MethodDescriber());
+    }
 
-        MethodDescriber methodName = new MethodDescriber();
-
-        if(isLocationInMethod(location)) {
-            // Find in the AST the class declaration of the provided class in the Ctor
-            List<MethodDeclaration> lmd = getMethodDeclarations();
-
-            for (MethodDeclaration method : lmd) {
-                if (Checker.inRangeInclusive(method.getRange().get().begin.line, method.getRange().get().end.line, location)) {
-                    methodName = new MethodDescriber(method);
-                    break;
-                }
-            }
-        }
+    public MethodDeclaration getMethodDeclarationForLocation(int location) {
+        return findMethodOfClassForLocation(location).orElse(null);
+    }
 
-        return methodName;
+    /**
+     * @return Innermost method, constructor, initializer or lambda at the position, also in inner and anonymous classes
+     */
+    public Optional<Node> getCallableForLocation(int line, int column) {
+        return CallableIndex.of(_cu).findInnermost(line, column);
     }
 
-    public MethodDeclaration getMethodDeclarationForLocation(int location) {
+    /**
+     * Method of the analyzed class enclosing the line. Lines in lambdas and anonymous classes belong to the
+     * method they are written in, lines in constructors, initializers and inner classes do not belong to a method.
+     */
+    private Optional<MethodDeclaration> findMethodOfClassForLocation(int location) {
+        Optional<Node> callable = CallableIndex.of(_cu).findInnermost(location);
 
-        MethodDeclaration methodDecl = null;
+        if (!callable.isPresent()) {
+            return Optional.empty();
+        }
 
-        if(isLocationInMethod(location)) {
-            // Find in the AST the class declaration of the provided class in the Ctor
-            List<MethodDeclaration> lmd = getMethodDeclarations();
+        ClassOrInterfaceDeclaration analyzedClass = Navigator.demandClassOrInterface(_cu, _qname);
 
-            for (MethodDeclaration method : lmd) {
-                if (Checker.inRangeInclusive(method.getRange().get().begin.line, method.getRange().get().end.line, location)) {
-                    methodDecl = method;
-                    break;
-                }
+        for (Node node = callable.get(); node != null; node = node.getParentNode().orElse(null)) {
+            if (node instanceof MethodDeclaration && node.getParentNode().orElse(null) == analyzedClass) {
+                return Optional.of((MethodDeclaration) node);
             }
         }
 
-        return methodDecl;
+        return Optional.empty();
     }
 
     /**
@@ -208,22 +232,37 @@ public class ClassMethodFinder implements ICodeAnalyzer {
 
         // When specific method is visible in class, figure out if it has been defined
         // in an interface or not
-        if (hasMethodDefined(method))
+        Optional<String> indexedClass = indexedClassName();
+
+        if (hasMethodDefined(method) && indexedClass.isPresent())
+        {
+            Optional<String> declaringInterface = _hierarchyIndex.getAllInterfaces(indexedClass.get()).stream()
+                    .filter(i -> _hierarchyIndex.getDeclaredMethods(i).stream().anyMatch(m -> fullSignatureMatch(m, method)))
+                    .findFirst();
+
+            if (declaringInterface.isPresent()) {
+                _declaredInInterface = _hierarchyIndex.getType(declaringInterface.get()).get().getName();
+                methodDeclaredInInterface = true;
+            }
+        }
+        else if (hasMethodDefined(method))
         {
             // Get type declaration of given class, so we can resolve method declaration outside
             // the class definition
             ReferenceTypeDeclaration rtd = getReferenceTypeDeclarationOfClass();
-            List<ReferenceType> rt = rtd.asClass().getAllInterfaces();
+            List<ReferenceType> rt = _typeSolverService.getAllInterfaces(rtd);
 
             for(ReferenceType ancestor : rt)
             {
+                Cancellation.checkNotCancelled();
+
                 ReferenceTypeDeclaration rtd_ancestor = ancestor.getTypeDeclaration();
 
                 // When interface declaration and not one of the ignored packages
                 // Check if provided methodName is present in the stream of declared methods
                 // of this interface
 
-                Set<com.github.javaparser.symbolsolver.model.declarations.MethodDeclaration>s = rtd_ancestor.getDeclaredMethods();
+                Set<com.github.javaparser.symbolsolver.model.declarations.MethodDeclaration>s = getDeclaredMethods(rtd_ancestor);
 
                 for(com.github.javaparser.symbolsolver.model.declarations.MethodDeclaration md : s) {
                     System.out.println(md.getName() + "\n");
@@ -233,11 +272,7 @@ public class ClassMethodFinder implements ICodeAnalyzer {
                 }
 
                 if (!isIgnoredPackage(rtd_ancestor) &&
-                        rtd_ancestor.getDeclaredMethods().stream().anyMatch(m ->
-                                m.getName().equals(method.getName()) &&
-                                m.getReturnType().describe().contentEquals(method.getType()) &&
-                                m.getSignature().contentEquals(method.getSignature())
-                        ))
+                        getDeclaredMethodIds(rtd_ancestor).containsValue(method.getMethodId()))
                 {
                     _declaredInInterface = rtd_ancestor.getName();
                     methodDeclaredInInterface = true;
@@ -255,11 +290,26 @@ public class ClassMethodFinder implements ICodeAnalyzer {
 
     public ReferenceTypeDeclaration getReferenceTypeDeclarationOfClass() {
         ClassOrInterfaceDeclaration class4Analysis = Navigator.demandClass(_cu, _qname);
-        ReferenceTypeDeclaration rtd = JavaParserFacade.get(_symbolSolver).getTypeDeclaration(class4Analysis);
+        ReferenceTypeDeclaration rtd = _typeSolverService.getTypeDeclaration(class4Analysis);
 
         return rtd;
     }
 
+    /**
+     * @return All classes and interfaces the analyzed class inherits from
+     */
+    public List<ReferenceType> getAllAncestors() {
+        return _typeSolverService.getAllAncestors(getReferenceTypeDeclarationOfClass());
+    }
+
+    public Set<com.github.javaparser.symbolsolver.model.declarations.MethodDeclaration> getDeclaredMethods(ReferenceTypeDeclaration rtd) {
+        return _typeSolverService.getDeclaredMethods(rtd);
+    }
+
+    public Map<com.github.javaparser.symbolsolver.model.declarations.MethodDeclaration, MethodId> getDeclaredMethodIds(ReferenceTypeDeclaration rtd) {
+        return _typeSolverService.getDeclaredMethodIds(rtd);
+    }
+
     public MethodDeclaration getMethodDeclarationAST(String methodName)
     {
         return Navigator.demandMethod(Navigator.demandClass(_cu, _qname), methodName);
@@ -293,26 +343,31 @@ public class ClassMethodFinder implements ICodeAnalyzer {
 
         // When specific method is visible in class, figure out if it has been defined
         // in an interface or not
-        if (hasMethodDefined(method))
+        Optional<String> indexedClass = indexedClassName();
+
+        if (hasMethodDefined(method) && indexedClass.isPresent())
+        {
+            methodDeclaredInSuperClass = _hierarchyIndex.getAllSuperClasses(indexedClass.get()).stream()
+                    .anyMatch(c -> _hierarchyIndex.getDeclaredMethods(c).stream().anyMatch(m -> fullSignatureMatch(m, method)));
+        }
+        else if (hasMethodDefined(method))
         {
             // Get type declaration of given class, so we can resolve method declaration outside
             // the class definition
             ReferenceTypeDeclaration rtd = getReferenceTypeDeclarationOfClass();
-            List<ReferenceType> rt = rtd.asClass().getAllSuperClasses();
+            List<ReferenceType> rt = _typeSolverService.getAllSuperClasses(rtd);
 
             for(ReferenceType ancestor : rt)
             {
+                Cancellation.checkNotCancelled();
+
                 ReferenceTypeDeclaration rtd_ancestor = ancestor.getTypeDeclaration();
 
                 // When interface declaration and not one of the ignored packages
                 // Check if provided methodName is present in the stream of declared methods
                 // of this interface
                 if (!isIgnoredPackage(rtd_ancestor) &&
-                    rtd_ancestor.getDeclaredMethods().stream().anyMatch(m ->
-                            m.getName().equals(method.getName()) &&
-                            m.getReturnType().describe().contentEquals(method.getType()) &&
-                            m.getSignature().contentEquals(method.getSignature())
-                    ))
+                    getDeclaredMethodIds(rtd_ancestor).containsValue(method.getMethodId()))
                 {
                     methodDeclaredInSuperClass = true;
                     break;
@@ -327,6 +382,53 @@ public class ClassMethodFinder implements ICodeAnalyzer {
         return methodDeclaredInSuperClass;
     }
 
+    /**
+     * Answers the super class, interface and overload questions for all methods of the class at once.
+     * Each ancestor is resolved and its declared methods are read only once, instead of once per method.
+     *
+     * @return One row per method declared in the analyzed class
+     */
+    public ClassMethodTable analyzeAllMethods() {
+        List<MethodDescriber> methods = new ArrayList<>();
+        getMethodDeclarations().forEach(md -> methods.add(new MethodDescriber(md)));
+
+        List<ClassMethodTable.Ancestor> superClasses = new ArrayList<>();
+        List<ClassMethodTable.Ancestor> interfaces = new ArrayList<>();
+        Optional<String> indexedClass = indexedClassName();
+
+        if (indexedClass.isPresent())
+        {
+            _hierarchyIndex.getAllSuperClasses(indexedClass.get()).forEach(c -> superClasses.add(indexedAncestor(c)));
+            _hierarchyIndex.getAllInterfaces(indexedClass.get()).forEach(i -> interfaces.add(indexedAncestor(i)));
+        }
+        else
+        {
+            ReferenceTypeDeclaration rtd = getReferenceTypeDeclarationOfClass();
+
+            _typeSolverService.getAllSuperClasses(rtd).forEach(c -> addResolvedAncestor(c, superClasses));
+            _typeSolverService.getAllInterfaces(rtd).forEach(i -> addResolvedAncestor(i, interfaces));
+        }
+
+        return ClassMethodTable.build(_qname, methods, superClasses, interfaces);
+    }
+
+    private ClassMethodTable.Ancestor indexedAncestor(String typeName) {
+        List<MethodId> ids = new ArrayList<>();
+        _hierarchyIndex.getDeclaredMethods(typeName).forEach(m ->
+                ids.add(MethodId.of(m.getReturnType(), m.getName(), m.getSignature())));
+
+        return new ClassMethodTable.Ancestor(_hierarchyIndex.getType(typeName).get().getName(), ids);
+    }
+
+    private void addResolvedAncestor(ReferenceType ancestor, List<ClassMethodTable.Ancestor> ancestors) {
+        Cancellation.checkNotCancelled();
+        ReferenceTypeDeclaration rtd_ancestor = ancestor.getTypeDeclaration();
+
+        if (!isIgnoredPackage(rtd_ancestor)) {
+            ancestors.add(new ClassMethodTable.Ancestor(rtd_ancestor.getName(), getDeclaredMethodIds(rtd_ancestor).values()));
+        }
+    }
+
     private String toFullMethod(MethodDescriber method)
     {
         return method.getType() + " " + method.getSignature();
@@ -349,9 +451,7 @@ public class ClassMethodFinder implements ICodeAnalyzer {
 
     private boolean fullSignatureMatchAST(MethodDescriber given, MethodDeclaration match) {
 
-        return  given.getType().contentEquals(match.getType().asString()) &&
-                given.getName().contentEquals(match.getName().asString()) &&
-                given.getSignature().contentEquals(match.getSignature().asString());
+        return MethodId.of(match) == given.getMethodId();
 
     }
 
@@ -359,9 +459,7 @@ public class ClassMethodFinder implements ICodeAnalyzer {
     // This is also done on the parameter signature level on types, so names of parameters are allowed to be different
     public boolean fullMethodSignatureMatch(com.github.javaparser.symbolsolver.model.declarations.MethodDeclaration m,
                                             MethodDescriber md) {
-        return  m.getReturnType().describe().contentEquals(md.getType()) &&
-                m.getName().contentEquals(md.getName()) &&
-                m.getSignature().contentEquals(md.getSignature());
+        return MethodId.of(m) == md.getMethodId();
     }
 
     public boolean MethodNameOnlyMatch(com.github.javaparser.symbolsolver.model.declarations.MethodDeclaration method,
@@ -0,0 +1,191 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.MethodAnalyzer;
+
+import java.util.*;
+
+/**
+ * Hierarchy facts of all methods declared in one class, with one row per method.
+ *
+ * The table is built from the declared methods of the super classes and interfaces of the class, each
+ * ancestor is visited once for all methods. The answers per row are the same as those of the single
+ * method questions of the ClassMethodFinder and the MethodOverride and MethodOverload detectors.
+ */
+public class ClassMethodTable {
+
+    /**
+     * Methods declared in one ancestor of the class
+     */
+    public static class Ancestor {
+
+        private final String _name;
+        private final Collection<MethodId> _methods;
+
+        public Ancestor(String name, Collection<MethodId> methods)
+        {
+            this._name = name;
+            this._methods = methods;
+        }
+
+        public String getName() { return _name; }
+        public Collection<MethodId> getMethods() { return _methods; }
+    }
+
+    /**
+     * Hierarchy facts of one declared method
+     */
+    public static class Row {
+
+        private final MethodDescriber _method;
+        private final String _originClass;
+        private final String _declaringInterface;
+        private final List<String> _overriddenIn;
+        private final List<String> _overloads;
+
+        Row(MethodDescriber method, String originClass, String declaringInterface,
+            List<String> overriddenIn, List<String> overloads)
+        {
+            this._method = method;
+            this._originClass = originClass;
+            this._declaringInterface = declaringInterface;
+            this._overriddenIn = Collections.unmodifiableList(overriddenIn);
+            this._overloads = Collections.unmodifiableList(overloads);
+        }
+
+        public MethodDescriber getMethod() { return _method; }
+
+        /**
+         * @return Most distant super class declaring the same method, the class itself when no super class does
+         */
+        public String getOriginClass() { return _originClass; }
+
+        /**
+         * @return First interface declaring the same method, in the order of ClassMethodFinder.isMethodDeclaredFirstTimeInInterface
+         */
+        public Optional<String> getDeclaringInterface() { return Optional.ofNullable(_declaringInterface); }
+
+        /**
+         * @return Super classes declaring the same method, nearest first
+         */
+        public List<String> getOverriddenIn() { return _overriddenIn; }
+
+        /**
+         * @return Methods of super classes with the same name but another signature, as "Class.signature"
+         */
+        public List<String> getOverloads() { return _overloads; }
+
+        public boolean isOverride() { return !_overriddenIn.isEmpty(); }
+        public boolean isOverload() { return !_overloads.isEmpty(); }
+        public boolean isDeclaredInInterface() { return _declaringInterface != null; }
+
+        /**
+         * @return true when the method is also declared in a super class or interface
+         */
+        public boolean hasMultipleDeclarations() { return isOverride() || isDeclaredInInterface(); }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: origin %s, interface %s, overridden in %s, overloads %s",
+                    _method.getType(), _method.getSignature(), _originClass,
+                    getDeclaringInterface().orElse("-"), _overriddenIn, _overloads);
+        }
+    }
+
+    private final String _className;
+    private final List<Row> _rows;
+    private final Map<MethodId, Row> _rowsById = new HashMap<>();
+
+    private ClassMethodTable(String className, List<Row> rows)
+    {
+        this._className = className;
+        this._rows = Collections.unmodifiableList(rows);
+
+        rows.forEach(row -> _rowsById.putIfAbsent(row.getMethod().getMethodId(), row));
+    }
+
+    /**
+     * @param className    Name of the analyzed class
+     * @param methods      Methods declared in the class
+     * @param superClasses Super classes of the class, nearest first
+     * @param interfaces   All interfaces of the class, in the order in which they are searched
+     */
+    public static ClassMethodTable build(String className, List<MethodDescriber> methods,
+                                         List<Ancestor> superClasses, List<Ancestor> interfaces) {
+        Map<MethodId, List<String>> declaringClasses = new HashMap<>();
+        Map<String, List<MethodId>> superClassMethodsByName = new HashMap<>();
+        Map<MethodId, String> ownerOfOverload = new HashMap<>();
+        Map<MethodId, String> firstInterface = new HashMap<>();
+
+        for (Ancestor superClass : superClasses) {
+            for (MethodId id : superClass.getMethods()) {
+                declaringClasses.computeIfAbsent(id, key -> new ArrayList<>()).add(superClass.getName());
+
+                if (ownerOfOverload.putIfAbsent(id, superClass.getName()) == null) {
+                    superClassMethodsByName.computeIfAbsent(id.getName(), key -> new ArrayList<>()).add(id);
+                }
+            }
+        }
+
+        for (Ancestor anInterface : interfaces) {
+            anInterface.getMethods().forEach(id -> firstInterface.putIfAbsent(id, anInterface.getName()));
+        }
+
+        List<Row> rows = new ArrayList<>();
+
+        for (MethodDescriber method : methods) {
+            MethodId id = method.getMethodId();
+            List<String> overriddenIn = declaringClasses.getOrDefault(id, Collections.emptyList());
+
+            List<String> overloads = new ArrayList<>();
+            for (MethodId sameName : superClassMethodsByName.getOrDefault(id.getName(), Collections.emptyList())) {
+                if (sameName != id) {
+                    overloads.add(ownerOfOverload.get(sameName) + "." + sameName.getSignature());
+                }
+            }
+
+            rows.add(new Row(method,
+                    overriddenIn.isEmpty() ? className : overriddenIn.get(overriddenIn.size() - 1),
+                    firstInterface.get(id),
+                    new ArrayList<>(overriddenIn),
+                    overloads));
+        }
+
+        return new ClassMethodTable(className, rows);
+    }
+
+    public String getClassName() {
+        return _className;
+    }
+
+    /**
+     * @return One row per declared method, in declaration order
+     */
+    public List<Row> getRows() {
+        return _rows;
+    }
+
+    public Optional<Row> getRow(MethodDescriber method) {
+        return Optional.ofNullable(_rowsById.get(method.getMethodId()));
+    }
+
+    public int size() {
+        return _rows.size();
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.MethodAnalyzer;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Finds the qualified name and package of a super type named in an extends or implements clause,
+ * without resolving it.
+ *
+ * The name is looked up by the rules of the compiler for a top level type: a single type import, a type
+ * of the same package, a type imported on demand (including java.lang). A candidate only counts when it
+ * is known to exist (in the project sources or the class file indexes), so a name that cannot be placed
+ * with certainty gives no name and has to be resolved by the symbol solver.
+ */
+class DeclaredSupertypes {
+
+    private final Predicate<String> _isKnownType;
+
+    /**
+     * @param isKnownType Tells whether a qualified name (with '.' between nested types) denotes an existing type
+     */
+    DeclaredSupertypes(Predicate<String> isKnownType)
+    {
+        this._isKnownType = isKnownType;
+    }
+
+    /**
+     * @param declaration Type whose extends or implements clause names the super type
+     * @return Qualified name of the named type, empty when it cannot be told without resolving
+     */
+    Optional<String> qualifiedNameOf(ClassOrInterfaceDeclaration declaration, ClassOrInterfaceType supertype) {
+        // Member types of enclosing types are in scope of a nested declaration, those are left to the solver
+        if (!(declaration.getParentNode().orElse(null) instanceof CompilationUnit)) {
+            return Optional.empty();
+        }
+
+        CompilationUnit cu = (CompilationUnit) declaration.getParentNode().get();
+        String written = writtenName(supertype);
+        int firstDot = written.indexOf('.');
+        String first = (firstDot < 0) ? written : written.substring(0, firstDot);
+        String rest = (firstDot < 0) ? "" : written.substring(firstDot);
+
+        Optional<String> qualified = qualifySimpleName(cu, first).map(name -> name + rest);
+        if (!qualified.isPresent() && firstDot >= 0) {
+            qualified = Optional.of(written);
+        }
+
+        return qualified.filter(_isKnownType);
+    }
+
+    private static String writtenName(ClassOrInterfaceType type) {
+        return type.getScope().map(scope -> writtenName(scope) + ".").orElse("") + type.getName().getId();
+    }
+
+    private Optional<String> qualifySimpleName(CompilationUnit cu, String simpleName) {
+        String packagePrefix = cu.getPackageDeclaration().map(pd -> pd.getNameAsString() + ".").orElse("");
+
+        for (ImportDeclaration importDeclaration : cu.getImports()) {
+            String imported = importDeclaration.getNameAsString();
+
+            if (importDeclaration.isStatic()) {
+                // A statically imported member type could shadow the other candidates
+                if (importDeclaration.isAsterisk() || imported.endsWith("." + simpleName)) {
+                    return Optional.empty();
+                }
+            }
+            else if (!importDeclaration.isAsterisk() && imported.endsWith("." + simpleName)) {
+                return Optional.of(imported);
+            }
+        }
+
+        for (TypeDeclaration<?> type : cu.getTypes()) {
+            if (type.getNameAsString().equals(simpleName)) {
+                return Optional.of(packagePrefix + simpleName);
+            }
+        }
+
+        if (_isKnownType.test(packagePrefix + simpleName)) {
+            return Optional.of(packagePrefix + simpleName);
+        }
+
+        String found = null;
+        for (ImportDeclaration importDeclaration : cu.getImports()) {
+            if (!importDeclaration.isStatic() && importDeclaration.isAsterisk()) {
+                String candidate = importDeclaration.getNameAsString() + "." + simpleName;
+
+                if (_isKnownType.test(candidate)) {
+                    if (found != null && !found.equals(candidate)) {
+                        return Optional.empty();
+                    }
+                    found = candidate;
+                }
+            }
+        }
+
+        String javaLang = "java.lang." + simpleName;
+        if (_isKnownType.test(javaLang)) {
+            if (found != null && !found.equals(javaLang)) {
+                return Optional.empty();
+            }
+            found = javaLang;
+        }
+
+        return Optional.ofNullable(found);
+    }
+
+    /**
+     * The package ends before the first prefix of the name that is a known type (e.g. java.util for java.util.Map.Entry)
+     *
+     * @return Package of a known type, empty for the default package
+     */
+    Optional<String> packageOf(String qualifiedName) {
+        int dot = qualifiedName.indexOf('.');
+
+        while (dot >= 0) {
+            int next = qualifiedName.indexOf('.', dot + 1);
+            String prefix = (next < 0) ? qualifiedName : qualifiedName.substring(0, next);
+
+            if (_isKnownType.test(prefix)) {
+                return Optional.of(qualifiedName.substring(0, dot));
+            }
+
+            dot = next;
+        }
+
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.MethodAnalyzer;
+
+import com.github.javaparser.symbolsolver.model.declarations.ReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.reflectionmodel.ReflectionFactory;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves compiled types that are listed in an index of class files.
+ *
+ * Whether a name denotes a type of this solver is answered by the index, so names of project types and
+ * of non-existing types are rejected without asking a class loader. A declaration is created once per
+ * indexed type and kept for the lifetime of the solver, which lives as long as the TypeSolverService
+ * of the project. The index only filters names: declarations use the reflection model of the symbol
+ * solver, so the class of an accepted name is loaded (without being initialized).
+ */
+public abstract class IndexedTypeSolver implements TypeSolver {
+
+    private TypeSolver _parent;
+
+    private Map<String, ReferenceTypeDeclaration> _declarations = new ConcurrentHashMap<>();
+    private final AtomicLong _rejected = new AtomicLong();
+
+    /**
+     * @param name Qualified name with '.' between nested types
+     * @return Name under which the class loader knows the type, empty when the type is not indexed
+     */
+    protected abstract Optional<String> findBinaryName(String name);
+
+    /**
+     * @return Loader through which the classes of the indexed types are looked up
+     */
+    protected abstract ClassLoader getClassLoader();
+
+    @Override
+    public TypeSolver getParent() {
+        return _parent;
+    }
+
+    @Override
+    public void setParent(TypeSolver parent) {
+        this._parent = parent;
+    }
+
+    @Override
+    public SymbolReference<ReferenceTypeDeclaration> tryToSolveType(String name) {
+        ReferenceTypeDeclaration declaration = _declarations.get(name);
+
+        if (declaration == null) {
+            Optional<String> binaryName = findBinaryName(name);
+
+            if (!binaryName.isPresent()) {
+                _rejected.incrementAndGet();
+                return SymbolReference.unsolved(ReferenceTypeDeclaration.class);
+            }
+
+            declaration = createDeclaration(binaryName.get());
+
+            if (declaration == null) {
+                return SymbolReference.unsolved(ReferenceTypeDeclaration.class);
+            }
+
+            ReferenceTypeDeclaration previous = _declarations.putIfAbsent(name, declaration);
+            declaration = (previous != null) ? previous : declaration;
+        }
+
+        return SymbolReference.solved(declaration);
+    }
+
+    private ReferenceTypeDeclaration createDeclaration(String binaryName) {
+        try {
+            Class<?> clazz = Class.forName(binaryName, false, getClassLoader());
+            return ReflectionFactory.typeDeclarationFor(clazz, getRoot());
+        }
+        catch (ClassNotFoundException | LinkageError e) {
+            // Indexed, but not loadable (e.g. a module that is not resolved or a missing dependency)
+            return null;
+        }
+    }
+
+    /**
+     * @return Number of types for which a declaration has been created
+     */
+    public int getDeclarationCount() {
+        return _declarations.size();
+    }
+
+    /**
+     * @return Number of lookups rejected by the index, without asking a class loader
+     */
+    public long getRejectedCount() {
+        return _rejected.get();
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.MethodAnalyzer;
+
+import analysis.project.JdkTypeIndex;
+
+import java.util.Optional;
+
+/**
+ * Resolves types of the JDK through a JdkTypeIndex
+ */
+public class JdkTypeSolver extends IndexedTypeSolver {
+
+    private final JdkTypeIndex _index;
+
+    public JdkTypeSolver(JdkTypeIndex index)
+    {
+        this._index = index;
+    }
+
+    public JdkTypeIndex getIndex() {
+        return _index;
+    }
+
+    @Override
+    protected Optional<String> findBinaryName(String name) {
+        return _index.getBinaryName(name);
+    }
+
+    @Override
+    protected ClassLoader getClassLoader() {
+        return JdkTypeSolver.class.getClassLoader();
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.MethodAnalyzer;
+
+import analysis.project.JarIndex;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Resolves types of the dependency jars of a project through their JarIndex.
+ *
+ * The classes are looked up in a loader of their own, on top of the JDK classes only, so the
+ * libraries used by this tool do not hide other versions of them used by the project. When a type
+ * is found in more than one jar, the first jar wins, like on a class path.
+ */
+public class LibraryTypeSolver extends IndexedTypeSolver {
+
+    private final List<JarIndex> _indexes;
+    private final ClassLoader _classLoader;
+
+    public LibraryTypeSolver(List<JarIndex> indexes)
+    {
+        this._indexes = new ArrayList<>(indexes);
+
+        URL[] urls = new URL[indexes.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = indexes.get(i).getJar().toUri().toURL();
+            }
+            catch (MalformedURLException e) {
+                throw new IllegalArgumentException("Invalid jar location " + indexes.get(i).getJar(), e);
+            }
+        }
+
+        // The parent of the system class loader only knows the JDK classes
+        this._classLoader = new URLClassLoader(urls, ClassLoader.getSystemClassLoader().getParent());
+    }
+
+    public List<JarIndex> getIndexes() {
+        return _indexes;
+    }
+
+    @Override
+    protected Optional<String> findBinaryName(String name) {
+        for (JarIndex index : _indexes) {
+            Optional<String> binaryName = index.getBinaryName(name);
+
+            if (binaryName.isPresent()) {
+                return binaryName;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    protected ClassLoader getClassLoader() {
+        return _classLoader;
+    }
+}
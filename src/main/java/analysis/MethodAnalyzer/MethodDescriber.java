@@ -27,6 +27,7 @@ public class MethodDescriber {
     private String _signature = new String();
     private String _type = new String();
     private MethodDeclaration _declarationAST;
+    private MethodId _methodId = null;
 
     public MethodDescriber()
     {
@@ -47,28 +48,40 @@ public class MethodDescriber {
         setMethodDeclaration(item);
     }
 
-    public boolean equals(MethodDescriber md)
-    {
-        //System.out.println(this.getType() + " " +
-          //      this.getName() + " " + this.getSignature());
-        //System.out.println(md.getType() + " " +
-          //      md.getName() + " " + md.getSignature());
-
-        return (md.getType().contentEquals(this._type) &&
-                md.getName().contentEquals(this._name) &&
-                md.getSignature().contentEquals(this._signature));
+    /**
+     * @return Interned identity of the described method
+     */
+    public MethodId getMethodId() {
+        if (_methodId == null) {
+            _methodId = MethodId.of(_type, _name, _signature);
+        }
+
+        return _methodId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return (o instanceof MethodDescriber) && ((MethodDescriber) o).getMethodId() == getMethodId();
+    }
+
+    @Override
+    public int hashCode() {
+        return getMethodId().hashCode();
     }
 
     private void setName(String nameAsString) {
         _name = nameAsString;
+        _methodId = null;
     }
 
     private void setSignature(String s) {
         _signature = s;
+        _methodId = null;
     }
 
     private void setReturnType(String t) {
         _type = t;
+        _methodId = null;
     }
 
     public String getName() { return _name; }
@@ -0,0 +1,181 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.MethodAnalyzer;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical identity of a method: return type, name and parameter signature.
+ *
+ * Instances are interned, two ids describing the same method are the same object. Comparing ids is
+ * therefore an identity (or integer) comparison, and ids can be used as keys of maps and caches.
+ * Types are compared by their simple names without type arguments: an AST describes types as written
+ * (e.g. "List<String>"), the symbol solver describes them qualified (e.g. "java.util.List<java.lang.String>"),
+ * both result in the same id "List". Methods that only differ in the package of a parameter type share an id.
+ *
+ * The intern table holds its ids weakly. An id that is no longer referenced (e.g. after the memoized
+ * lookups of a session have been evicted) is removed from the table, so it does not grow with every
+ * signature seen in a long running session. An id that is still referenced is always the one returned.
+ */
+public final class MethodId {
+
+    private static final ConcurrentMap<String, IdReference> _interned = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<MethodId> _collected = new ReferenceQueue<>();
+    private static final AtomicInteger _nextId = new AtomicInteger();
+
+    private static final Pattern TYPE_ARGUMENTS = Pattern.compile("<[^<>]*>");
+    private static final Pattern PACKAGE_QUALIFIER = Pattern.compile("\\b[a-z_$][\\w$]*\\.(?=[\\w$])");
+
+    private final String _returnType;
+    private final String _name;
+    private final String _signature;
+    private final int _id;
+    private final int _hash;
+
+    private MethodId(String returnType, String name, String signature, int id)
+    {
+        this._returnType = returnType;
+        this._name = name;
+        this._signature = signature;
+        this._id = id;
+        this._hash = (returnType + " " + signature).hashCode();
+    }
+
+    /**
+     * @param returnType Return type, e.g. "int"
+     * @param name       Name of the method, e.g. "MethodFour"
+     * @param signature  Name with parameter types, e.g. "MethodFour(boolean)"
+     * @return The interned id of this method
+     */
+    public static MethodId of(String returnType, String name, String signature) {
+        returnType = simpleTypeNames(returnType);
+        signature = simpleTypeNames(signature);
+
+        String key = returnType + " " + name + " " + signature;
+
+        removeCollected();
+
+        while (true) {
+            IdReference reference = _interned.get(key);
+            MethodId id = (reference != null) ? reference.get() : null;
+
+            if (id != null) {
+                return id;
+            }
+
+            MethodId created = new MethodId(returnType, name, signature, _nextId.getAndIncrement());
+            IdReference createdReference = new IdReference(key, created);
+
+            // Another thread may have interned the same method in the meantime, its id wins
+            boolean interned = (reference == null) ? _interned.putIfAbsent(key, createdReference) == null
+                                                   : _interned.replace(key, reference, createdReference);
+            if (interned) {
+                return created;
+            }
+        }
+    }
+
+    /**
+     * @return Text with type arguments and package qualifiers removed, e.g. "java.util.List<java.lang.String>" becomes "List"
+     */
+    static String simpleTypeNames(String text) {
+        String withoutArguments = text;
+        do {
+            text = withoutArguments;
+            withoutArguments = TYPE_ARGUMENTS.matcher(text).replaceAll("");
+        } while (!withoutArguments.equals(text));
+
+        return PACKAGE_QUALIFIER.matcher(withoutArguments).replaceAll("");
+    }
+
+    private static void removeCollected() {
+        for (Reference<? extends MethodId> collected = _collected.poll(); collected != null; collected = _collected.poll()) {
+            IdReference reference = (IdReference) collected;
+            _interned.remove(reference._key, reference);
+        }
+    }
+
+    /**
+     * @return Number of ids in the intern table, ids that are no longer referenced may still be counted
+     */
+    public static int getInternedCount() {
+        removeCollected();
+        return _interned.size();
+    }
+
+    /**
+     * @return Id of a method declaration in the AST, types as written in the source
+     */
+    public static MethodId of(MethodDeclaration method) {
+        return of(method.getType().asString(), method.getNameAsString(), method.getSignature().asString());
+    }
+
+    /**
+     * @return Id of a method resolved by the symbol solver, types as described by the solver
+     */
+    public static MethodId of(com.github.javaparser.symbolsolver.model.declarations.MethodDeclaration method) {
+        return of(method.getReturnType().describe(), method.getName(), method.getSignature());
+    }
+
+    public String getReturnType() { return _returnType; }
+    public String getName() { return _name; }
+    public String getSignature() { return _signature; }
+
+    /**
+     * @return Number unique for this method within the running process
+     */
+    public int getId() { return _id; }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return _hash;
+    }
+
+    @Override
+    public String toString() {
+        return _returnType + " " + _signature;
+    }
+
+    /**
+     * Entry of the intern table, remembers its key so it can be removed once the id is collected
+     */
+    private static final class IdReference extends WeakReference<MethodId> {
+        private final String _key;
+
+        IdReference(String key, MethodId id)
+        {
+            super(id, _collected);
+            this._key = key;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.MethodAnalyzer;
+
+import analysis.project.SignatureSource;
+import analysis.project.SymbolIndex;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.symbolsolver.javaparser.Navigator;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.model.declarations.ReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves types declared in project sources, reading only their declarations.
+ *
+ * Types resolved through this solver are reached by hierarchy resolution (super classes, interfaces),
+ * for which only the signatures of members are needed. Their files are parsed with the bodies stripped,
+ * see SignatureSource. The file declaring a type is located through a symbol index of the source roots,
+ * so files that are not placed in a directory matching their package are found as well.
+ *
+ * The class being analyzed itself is not resolved through this solver, its complete compilation unit
+ * is provided by the caller.
+ */
+public class SignatureTypeSolver implements TypeSolver {
+
+    private final SymbolIndex _symbolIndex;
+    private volatile boolean _indexBuilt = false;
+
+    private volatile TypeSolver _parent;
+
+    // Concurrent, the solver is also reached through declarations that are used from several threads
+    private final Map<Path, Optional<CompilationUnit>> _parsedFiles = new ConcurrentHashMap<>();
+    private final Map<String, ReferenceTypeDeclaration> _foundTypes = new ConcurrentHashMap<>();
+
+    public SignatureTypeSolver(List<Path> sourceRoots)
+    {
+        this._symbolIndex = new SymbolIndex(sourceRoots);
+    }
+
+    @Override
+    public TypeSolver getParent() {
+        return _parent;
+    }
+
+    @Override
+    public void setParent(TypeSolver parent) {
+        this._parent = parent;
+    }
+
+    @Override
+    public SymbolReference<ReferenceTypeDeclaration> tryToSolveType(String name) {
+        ReferenceTypeDeclaration found = _foundTypes.get(name);
+
+        if (found == null) {
+            found = solveUncached(name).orElse(null);
+
+            if (found != null) {
+                _foundTypes.put(name, found);
+            }
+        }
+
+        return (found != null) ? SymbolReference.solved(found) : SymbolReference.unsolved(ReferenceTypeDeclaration.class);
+    }
+
+    private Optional<ReferenceTypeDeclaration> solveUncached(String name) {
+        Optional<Path> file = getSymbolIndex().findFileByQualifiedName(name);
+
+        if (!file.isPresent()) {
+            return Optional.empty();
+        }
+
+        return parse(file.get()).flatMap(cu -> {
+            String packageName = cu.getPackageDeclaration().map(pd -> pd.getNameAsString() + ".").orElse("");
+            String typeName = name.startsWith(packageName) ? name.substring(packageName.length()) : name;
+
+            Optional<TypeDeclaration<?>> typeDeclaration = Navigator.findType(cu, typeName);
+
+            return typeDeclaration.map(td -> JavaParserFacade.get(this).getTypeDeclaration(td));
+        });
+    }
+
+    /**
+     * @param qualifiedName Qualified name of a type, for member types including the enclosing type
+     * @return true when the type is declared below the source roots, found without parsing
+     */
+    boolean declares(String qualifiedName) {
+        return getSymbolIndex().findFileByQualifiedName(qualifiedName).isPresent();
+    }
+
+    /**
+     * @return Signature only compilation unit of the file, empty when it cannot be read or parsed
+     */
+    Optional<CompilationUnit> parse(Path file) {
+        return _parsedFiles.computeIfAbsent(file, path -> {
+            try {
+                String source = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+                CompilationUnit cu = JavaParser.parse(SignatureSource.stripBodies(source));
+                cu.setStorage(path);
+
+                return Optional.of(cu);
+            }
+            catch (IOException | ParseProblemException e) {
+                System.out.println("Unable to read declarations of " + path + ": " + e.getMessage());
+                return Optional.empty();
+            }
+        });
+    }
+
+    private SymbolIndex getSymbolIndex() {
+        if (!_indexBuilt) {
+            synchronized (this) {
+                if (!_indexBuilt) {
+                    try {
+                        _symbolIndex.build();
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+
+                    _indexBuilt = true;
+                }
+            }
+        }
+
+        return _symbolIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "SignatureTypeSolver{" +
+                "parsedFiles=" + _parsedFiles.size() +
+                ", parent=" + _parent +
+                '}';
+    }
+}
@@ -0,0 +1,667 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.MethodAnalyzer;
+
+import analysis.project.ClassFileIndex;
+import analysis.project.JarIndex;
+import analysis.project.JdkTypeIndex;
+import analysis.project.PackageExclusions;
+import analysis.project.ProjectConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserClassDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserEnumDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserInterfaceDeclaration;
+import com.github.javaparser.symbolsolver.model.declarations.MethodDeclaration;
+import com.github.javaparser.symbolsolver.model.declarations.ReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.model.declarations.TypeDeclaration;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.model.resolution.UnsolvedSymbolException;
+import com.github.javaparser.symbolsolver.model.typesystem.LazyType;
+import com.github.javaparser.symbolsolver.model.typesystem.ReferenceType;
+import com.github.javaparser.symbolsolver.model.typesystem.ReferenceTypeImpl;
+import com.github.javaparser.symbolsolver.model.typesystem.Type;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import helpers.Cancellation;
+import helpers.ContentHash;
+import helpers.LruCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Project scoped access to the symbol solver.
+ *
+ * All analyzers of a project share one instance, so the files parsed by the SignatureTypeSolver
+ * and the declarations of JDK types are kept between requests. Results of the declaration lookups
+ * used by the analyzers are memoized in a bounded cache. The underlying symbol solver is not thread
+ * safe, therefore lookups that miss the cache are serialized. So is every type lookup through the solver of
+ * the service, including the lazy lookups of the declarations it hands out; other use of the symbol solver
+ * (e.g. a JavaParserFacade) should run inside withSolverLock.
+ *
+ * A lookup of a request that is cancelled (e.g. by a detection timeout) stops at the next cancellation
+ * point, also inside the walks over ancestors and declared methods. When it is stuck inside the symbol
+ * solver instead, it keeps the solver locked. The service is then abandoned: replaceIfAbandoned hands
+ * out a new service of the same configuration, so later requests do not wait for the stuck lookup.
+ */
+public class TypeSolverService {
+
+    public static final int DEFAULT_MEMO_CAPACITY = 4096;
+
+    public enum Lookup
+    {
+        TYPE_DECLARATION,
+        ANCESTORS,
+        DECLARED_METHODS
+    }
+
+    private static TypeSolverService _projectInstance = null;
+
+    private final ProjectConfiguration _configuration;
+    private final TypeSolver _typeSolver;
+    private final SolverLock _solverLock = new SolverLock();
+    private volatile boolean _abandoned = false;
+    private final LruCache<MemoKey, Object> _memo;
+
+    private final PackageExclusions _excludedPackages;
+    private final List<ClassFileIndex> _classFileIndexes = new ArrayList<>();
+    private final DeclaredSupertypes _declaredSupertypes;
+    private final AtomicLong _estimatedAvoidedResolutions = new AtomicLong();
+
+    private final Map<Lookup, AtomicLong> _hits = new EnumMap<>(Lookup.class);
+    private final Map<Lookup, AtomicLong> _misses = new EnumMap<>(Lookup.class);
+
+    /**
+     * @param sourceRoots  Directories with project sources used to resolve types. Roots that do not exist are skipped.
+     * @param memoCapacity Maximum number of memoized lookup results
+     */
+    public TypeSolverService(List<File> sourceRoots, int memoCapacity)
+    {
+        this(new ProjectConfiguration(Paths.get(""),
+                        sourceRoots.stream().map(File::toPath).collect(Collectors.toList()),
+                        Collections.emptyList()),
+                memoCapacity);
+    }
+
+    /**
+     * @param configuration Source roots and dependency jars of the project. Roots that do not exist are skipped,
+     *                      jars that cannot be read are reported and skipped.
+     * @param memoCapacity  Maximum number of memoized lookup results
+     */
+    public TypeSolverService(ProjectConfiguration configuration, int memoCapacity)
+    {
+        List<Path> existingRoots = configuration.getSourceRoots().stream()
+                .filter(Files::isDirectory)
+                .collect(Collectors.toList());
+
+        // JDK types are looked up in the index of the JDK class files, reflection is the fallback without one
+        Optional<JdkTypeIndex> jdkIndex = JdkTypeIndex.getDefault();
+        TypeSolver jdkSolver = jdkIndex
+                .map(index -> (TypeSolver) new JdkTypeSolver(index))
+                .orElseGet(ReflectionTypeSolver::new);
+
+        CombinedTypeSolver typeSolver = new CombinedTypeSolver(jdkSolver);
+
+        List<JarIndex> jarIndexes = openJarIndexes(configuration.getJars());
+        jdkIndex.ifPresent(_classFileIndexes::add);
+        _classFileIndexes.addAll(jarIndexes);
+        if (!jarIndexes.isEmpty()) {
+            typeSolver.add(new LibraryTypeSolver(jarIndexes));
+        }
+
+        // Project types are only reached through the hierarchy of the analyzed class, their signatures suffice
+        SignatureTypeSolver signatureSolver = new SignatureTypeSolver(existingRoots);
+        typeSolver.add(signatureSolver);
+
+        this._configuration = configuration;
+        this._typeSolver = new LockingTypeSolver(typeSolver);
+        this._memo = new LruCache<>(memoCapacity);
+        this._excludedPackages = configuration.getExcludedPackages();
+        this._declaredSupertypes = new DeclaredSupertypes(name -> signatureSolver.declares(name) ||
+                _classFileIndexes.stream().anyMatch(index -> index.contains(name)));
+
+        for (Lookup lookup : Lookup.values()) {
+            _hits.put(lookup, new AtomicLong());
+            _misses.put(lookup, new AtomicLong());
+        }
+    }
+
+    private static List<JarIndex> openJarIndexes(List<Path> jars) {
+        List<JarIndex> indexes = new ArrayList<>();
+
+        for (Path jar : jars) {
+            try {
+                indexes.add(JarIndex.open(jar, JarIndex.defaultDirectory()));
+            }
+            catch (IOException e) {
+                System.out.println("Unable to index jar " + jar + ": " + e.getMessage());
+            }
+        }
+
+        return indexes;
+    }
+
+    /**
+     * @return The instance shared by all analyzers, created with the default project configuration when not set
+     */
+    public static synchronized TypeSolverService getProjectInstance() {
+        if (_projectInstance == null) {
+            _projectInstance = new TypeSolverService(ProjectConfiguration.getDefault(), DEFAULT_MEMO_CAPACITY);
+        }
+
+        return replaceIfAbandoned(_projectInstance);
+    }
+
+    /**
+     * @return The service itself, or a new service of the same configuration when it has been abandoned.
+     *         A replaced project instance is replaced as shared instance too.
+     */
+    public static synchronized TypeSolverService replaceIfAbandoned(TypeSolverService service) {
+        if (!service.isAbandoned()) {
+            return service;
+        }
+
+        TypeSolverService replacement = new TypeSolverService(service._configuration, service._memo.getCapacity());
+        if (_projectInstance == service) {
+            _projectInstance = replacement;
+        }
+
+        return replacement;
+    }
+
+    public static synchronized void setProjectInstance(TypeSolverService service) {
+        _projectInstance = service;
+    }
+
+    public static List<File> defaultSourceRoots() {
+        return ProjectConfiguration.getDefault().getSourceRoots().stream()
+                .map(Path::toFile)
+                .collect(Collectors.toList());
+    }
+
+    public TypeSolver getTypeSolver() {
+        return _typeSolver;
+    }
+
+    /**
+     * Resolves a type by its qualified name
+     */
+    public ReferenceTypeDeclaration getTypeDeclaration(String qualifiedName) {
+        return memoized(Lookup.TYPE_DECLARATION, new MemoKey(qualifiedName, null),
+                () -> _typeSolver.solveType(qualifiedName));
+    }
+
+    /**
+     * Resolves the declaration of a class or interface that is part of a parsed compilation unit
+     */
+    public ReferenceTypeDeclaration getTypeDeclaration(ClassOrInterfaceDeclaration node) {
+        String name = node.getNameAsString();
+        return memoized(Lookup.TYPE_DECLARATION, new MemoKey(name, node),
+                () -> JavaParserFacade.get(_typeSolver).getTypeDeclaration(node));
+    }
+
+    public PackageExclusions getExcludedPackages() {
+        return _excludedPackages;
+    }
+
+    /**
+     * @return true when the type is declared in one of the excluded packages of the project
+     */
+    public boolean isExcluded(ReferenceTypeDeclaration rtd) {
+        return rtd.hasName() && _excludedPackages.isExcluded(rtd.getPackageName());
+    }
+
+    /**
+     * All direct and indirect ancestors, except for the types in excluded packages. The super types of
+     * an excluded ancestor are not resolved at all, unless they are reached through another ancestor.
+     */
+    public List<ReferenceType> getAllAncestors(ReferenceTypeDeclaration rtd) {
+        return memoized(Lookup.ANCESTORS, keyOf("ancestors", rtd), () -> {
+            List<ReferenceType> ancestors = new ArrayList<>();
+            Set<String> pruned = new HashSet<>();
+
+            collectAncestors(rtd, UnaryOperator.identity(), ancestors, pruned);
+
+            // The reflection model leaves Object out of the ancestors, the symbol solver adds it at the end
+            boolean isObject = Object.class.getCanonicalName().equals(rtd.getQualifiedName());
+            if (!isObject && !_excludedPackages.isExcluded(Object.class.getPackage().getName()) &&
+                    ancestors.stream().noneMatch(ancestor -> ancestor.getQualifiedName().equals(Object.class.getCanonicalName()))) {
+                ancestors.add(new ReferenceTypeImpl(_typeSolver.solveType(Object.class.getCanonicalName()), _typeSolver));
+            }
+
+            ancestors.forEach(ancestor -> pruned.remove(ancestor.getQualifiedName()));
+            _estimatedAvoidedResolutions.addAndGet(pruned.size());
+
+            return Collections.unmodifiableList(ancestors);
+        });
+    }
+
+    public List<ReferenceType> getAllSuperClasses(ReferenceTypeDeclaration rtd) {
+        return memoized(Lookup.ANCESTORS, keyOf("superclasses", rtd),
+                () -> Collections.unmodifiableList(getAllAncestors(rtd).stream()
+                        .filter(ancestor -> ancestor.getTypeDeclaration().isClass())
+                        .collect(Collectors.toList())));
+    }
+
+    public List<ReferenceType> getAllInterfaces(ReferenceTypeDeclaration rtd) {
+        return memoized(Lookup.ANCESTORS, keyOf("interfaces", rtd),
+                () -> Collections.unmodifiableList(getAllAncestors(rtd).stream()
+                        .filter(ancestor -> ancestor.getTypeDeclaration().isInterface())
+                        .collect(Collectors.toList())));
+    }
+
+    /**
+     * Depth first walk over the ancestors, in the order of the symbol solver. The type parameters of an
+     * ancestor are expressed in those of the type it was reached from.
+     *
+     * @param pruned Receives the excluded ancestors that were skipped by name and the super types of excluded
+     *               ancestors that are known from the class file indexes
+     */
+    private void collectAncestors(ReferenceTypeDeclaration rtd, UnaryOperator<ReferenceType> substitution,
+                                  List<ReferenceType> ancestors, Set<String> pruned) {
+        // Object is its own ancestor in some models
+        if (Object.class.getCanonicalName().equals(rtd.getQualifiedName())) {
+            return;
+        }
+
+        for (ReferenceType direct : directAncestors(rtd, pruned)) {
+            Cancellation.checkNotCancelled();
+            ReferenceType ancestor = substitution.apply(direct);
+
+            if (isExcluded(ancestor.getTypeDeclaration())) {
+                pruned.addAll(indexedSupertypes(ancestor.getQualifiedName()));
+            }
+            else if (!ancestors.contains(ancestor)) {
+                ancestors.add(ancestor);
+                collectAncestors(ancestor.getTypeDeclaration(),
+                        inherited -> ancestor.typeParametersMap().replaceAll(inherited).asReferenceType(),
+                        ancestors, pruned);
+            }
+        }
+    }
+
+    /**
+     * Direct ancestors in the order of getAncestors. For a type declared in source, the super types named
+     * in its extends and implements clauses that are known to be in an excluded package are left out before
+     * they are resolved. Other declarations (e.g. of the reflection model) build their super types from the
+     * loaded class without the type solver, those are filtered afterwards by the caller.
+     */
+    private List<ReferenceType> directAncestors(ReferenceTypeDeclaration rtd, Set<String> pruned) {
+        ClassOrInterfaceDeclaration node;
+
+        if (rtd instanceof JavaParserClassDeclaration) {
+            node = ((JavaParserClassDeclaration) rtd).getWrappedNode();
+        }
+        else if (rtd instanceof JavaParserInterfaceDeclaration) {
+            node = ((JavaParserInterfaceDeclaration) rtd).getWrappedNode();
+        }
+        else {
+            return rtd.getAncestors();
+        }
+
+        List<ClassOrInterfaceType> declared = new ArrayList<>(node.getExtendedTypes());
+        declared.addAll(node.getImplementedTypes());
+
+        List<ClassOrInterfaceType> kept = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        for (ClassOrInterfaceType supertype : declared) {
+            Optional<String> qualifiedName = _declaredSupertypes.qualifiedNameOf(node, supertype);
+
+            if (qualifiedName.flatMap(_declaredSupertypes::packageOf).filter(_excludedPackages::isExcluded).isPresent()) {
+                skipped.add(qualifiedName.get());
+            }
+            else {
+                kept.add(supertype);
+            }
+        }
+
+        if (skipped.isEmpty()) {
+            return rtd.getAncestors();
+        }
+
+        for (String name : skipped) {
+            pruned.add(name);
+            pruned.addAll(indexedSupertypes(name));
+        }
+
+        List<ReferenceType> ancestors = new ArrayList<>();
+        // A class without extends clause has Object as super class, like getSuperClass of the symbol solver
+        if (!node.isInterface() && node.getExtendedTypes().isEmpty() &&
+                !_excludedPackages.isExcluded(Object.class.getPackage().getName())) {
+            ancestors.add(new ReferenceTypeImpl(_typeSolver.solveType(Object.class.getCanonicalName()), _typeSolver));
+        }
+
+        for (ClassOrInterfaceType supertype : kept) {
+            Cancellation.checkNotCancelled();
+            ancestors.add(toReferenceType(rtd, supertype));
+        }
+
+        return ancestors;
+    }
+
+    /**
+     * Resolves a super type named in source the way the declarations of the symbol solver do
+     */
+    private ReferenceType toReferenceType(ReferenceTypeDeclaration rtd, ClassOrInterfaceType supertype) {
+        String name = supertype.getName().getId();
+        String qualifiedName = supertype.getScope().map(scope -> scope.toString() + ".").orElse("") + name;
+
+        SymbolReference<TypeDeclaration> ref = solveTypeIn(rtd, qualifiedName);
+        if (!ref.isSolved() && supertype.getScope().isPresent()) {
+            ref = solveTypeIn(rtd, supertype.getScope().get().getName().getId() + "." + name);
+        }
+        if (!ref.isSolved()) {
+            throw new UnsolvedSymbolException(name);
+        }
+
+        ReferenceTypeDeclaration declaration = ref.getCorrespondingDeclaration().asReferenceType();
+        if (!supertype.getTypeArguments().isPresent()) {
+            return new ReferenceTypeImpl(declaration, _typeSolver);
+        }
+
+        List<Type> typeArguments = supertype.getTypeArguments().get().stream()
+                .map(argument -> (Type) new LazyType(v -> JavaParserFacade.get(_typeSolver).convert(argument, argument)))
+                .collect(Collectors.toList());
+        return new ReferenceTypeImpl(declaration, typeArguments, _typeSolver);
+    }
+
+    @SuppressWarnings("deprecation")
+    private SymbolReference<TypeDeclaration> solveTypeIn(ReferenceTypeDeclaration rtd, String name) {
+        return (rtd instanceof JavaParserClassDeclaration)
+                ? ((JavaParserClassDeclaration) rtd).solveType(name, _typeSolver)
+                : ((JavaParserInterfaceDeclaration) rtd).solveType(name, _typeSolver);
+    }
+
+    private List<String> indexedSupertypes(String typeName) {
+        for (ClassFileIndex index : _classFileIndexes) {
+            if (index.contains(typeName)) {
+                return index.getAllSupertypes(typeName);
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * An estimate, not a count of lookups: excluded super types skipped by name are counted, as are the
+     * super types of excluded ancestors that are known from the JDK and jar indexes and not reached through
+     * another ancestor. Super types of excluded project types are not known and not counted.
+     *
+     * @return Estimated number of super types that were not resolved because of the excluded packages
+     */
+    public long getEstimatedAvoidedResolutionCount() {
+        return _estimatedAvoidedResolutions.get();
+    }
+
+    public Set<MethodDeclaration> getDeclaredMethods(ReferenceTypeDeclaration rtd) {
+        return memoized(Lookup.DECLARED_METHODS, keyOf("methods", rtd),
+                () -> Collections.unmodifiableSet(new LinkedHashSet<>(rtd.getDeclaredMethods())));
+    }
+
+    /**
+     * @return Interned id per declared method, in the same order as getDeclaredMethods
+     */
+    public Map<MethodDeclaration, MethodId> getDeclaredMethodIds(ReferenceTypeDeclaration rtd) {
+        return memoized(Lookup.DECLARED_METHODS, keyOf("methodIds", rtd), () -> {
+            Map<MethodDeclaration, MethodId> ids = new LinkedHashMap<>();
+            for (MethodDeclaration method : getDeclaredMethods(rtd)) {
+                Cancellation.checkNotCancelled();
+                ids.put(method, MethodId.of(method));
+            }
+            return Collections.unmodifiableMap(ids);
+        });
+    }
+
+    /**
+     * Hash over the configuration the answers of the service depend on: the source roots, the jars with their
+     * size and modification time, the JDK and the excluded packages.
+     */
+    public String getConfigurationHash() {
+        List<String> parts = new ArrayList<>();
+
+        _configuration.getSourceRoots().forEach(root -> parts.add("root " + root.toAbsolutePath()));
+
+        for (Path jar : _configuration.getJars()) {
+            try {
+                parts.add("jar " + jar.toAbsolutePath() + " " + Files.size(jar) + " " + Files.getLastModifiedTime(jar).toMillis());
+            }
+            catch (IOException e) {
+                parts.add("jar " + jar.toAbsolutePath() + " unreadable");
+            }
+        }
+
+        parts.add("jdk " + System.getProperty("java.home") + " " + System.getProperty("java.version"));
+        parts.add("excluded " + _excludedPackages.getPatterns());
+
+        return ContentHash.of(String.join("\n", parts));
+    }
+
+    /**
+     * Source files declaring the ancestors of the type, other than the file of the type itself. Ancestors
+     * from jars and the JDK have no source file, they are covered by the configuration hash.
+     *
+     * @return Empty when an ancestor is declared in a parsed compilation unit without a file
+     */
+    public Optional<Set<Path>> getAncestorSourceFiles(ReferenceTypeDeclaration rtd) {
+        CompilationUnit origin = compilationUnitOf(rtd);
+        Set<Path> files = new TreeSet<>();
+
+        for (ReferenceType ancestor : getAllAncestors(rtd)) {
+            CompilationUnit unit = compilationUnitOf(ancestor.getTypeDeclaration());
+
+            if (unit != null && unit != origin) {
+                if (!unit.getStorage().isPresent()) {
+                    return Optional.empty();
+                }
+
+                files.add(unit.getStorage().get().getPath());
+            }
+        }
+
+        return Optional.of(files);
+    }
+
+    /**
+     * @return true once the solver has been found locked by a lookup of a cancelled request
+     */
+    public boolean isAbandoned() {
+        if (!_abandoned) {
+            Thread owner = _solverLock.getOwner();
+            _abandoned = owner != null && owner.isInterrupted();
+        }
+
+        return _abandoned;
+    }
+
+    public long getHitCount(Lookup lookup) {
+        return _hits.get(lookup).get();
+    }
+
+    public long getMissCount(Lookup lookup) {
+        return _misses.get(lookup).get();
+    }
+
+    public int getMemoSize() {
+        return _memo.size();
+    }
+
+    /**
+     * Removes all memoized results, the files parsed by the symbol solver are kept
+     */
+    public void clearMemo() {
+        _memo.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T memoized(Lookup lookup, MemoKey key, Supplier<T> computation) {
+        Optional<Object> cached = _memo.get(key);
+
+        if (cached.isPresent()) {
+            _hits.get(lookup).incrementAndGet();
+            return (T) cached.get();
+        }
+
+        _misses.get(lookup).incrementAndGet();
+
+        // Resolving can take long, do not start it for a cancelled request
+        Cancellation.checkNotCancelled();
+
+        T result = withSolverLock(computation);
+
+        _memo.put(key, result);
+        return result;
+    }
+
+    /**
+     * Runs work that uses the symbol solver, serialized with all other use of the solver of this service
+     *
+     * @throws CancellationException When the thread is interrupted while waiting for the solver
+     */
+    public <T> T withSolverLock(Supplier<T> work) {
+        try {
+            _solverLock.lockInterruptibly();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Analysis cancelled");
+        }
+
+        try {
+            return work.get();
+        }
+        finally {
+            _solverLock.unlock();
+        }
+    }
+
+    /**
+     * Root of the solvers of the service, a type lookup of any of them is made under the solver lock
+     */
+    private final class LockingTypeSolver implements TypeSolver {
+
+        private final TypeSolver _solver;
+
+        LockingTypeSolver(TypeSolver solver)
+        {
+            this._solver = solver;
+            solver.setParent(this);
+        }
+
+        @Override
+        public TypeSolver getParent() {
+            return null;
+        }
+
+        @Override
+        public void setParent(TypeSolver parent) {
+            throw new UnsupportedOperationException("The solver of a TypeSolverService is a root");
+        }
+
+        @Override
+        public SymbolReference<ReferenceTypeDeclaration> tryToSolveType(String name) {
+            return withSolverLock(() -> _solver.tryToSolveType(name));
+        }
+
+        @Override
+        public String toString() {
+            return "LockingTypeSolver{" + _solver + '}';
+        }
+    }
+
+    /**
+     * Declarations that are backed by an AST are keyed on the compilation unit they come from. The same
+     * type name can be declared in different files (e.g. sample classes parsed from resources).
+     */
+    private MemoKey keyOf(String lookup, ReferenceTypeDeclaration rtd) {
+        return new MemoKey(lookup + ":" + rtd.getQualifiedName(), compilationUnitOf(rtd));
+    }
+
+    /**
+     * @return Compilation unit of a declaration that is backed by an AST, null for other declarations
+     */
+    private static CompilationUnit compilationUnitOf(ReferenceTypeDeclaration rtd) {
+        Node wrappedNode = null;
+
+        if (rtd instanceof JavaParserClassDeclaration) {
+            wrappedNode = ((JavaParserClassDeclaration) rtd).getWrappedNode();
+        }
+        else if (rtd instanceof JavaParserInterfaceDeclaration) {
+            wrappedNode = ((JavaParserInterfaceDeclaration) rtd).getWrappedNode();
+        }
+        else if (rtd instanceof JavaParserEnumDeclaration) {
+            wrappedNode = ((JavaParserEnumDeclaration) rtd).getWrappedNode();
+        }
+
+        return wrappedNode == null ? null : wrappedNode.getAncestorOfType(CompilationUnit.class).orElse(null);
+    }
+
+    private static final class SolverLock extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected Thread getOwner() {
+            return super.getOwner();
+        }
+    }
+
+    /**
+     * Key of a memoized result. The origin (an AST node or null) is compared on identity,
+     * structurally equal nodes from different parses are different origins.
+     */
+    private static final class MemoKey {
+        private final String _name;
+        private final Object _origin;
+
+        MemoKey(String name, Object origin)
+        {
+            this._name = name;
+            this._origin = origin;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MemoKey)) return false;
+
+            MemoKey other = (MemoKey) o;
+            return _origin == other._origin && _name.equals(other._name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * _name.hashCode() + System.identityHashCode(_origin);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+/**
+ * A single request for instructions: which refactoring to apply on which lines of a class
+ */
+public class RefactoringSelection {
+
+    private final String _refactorAction;
+    private final String _className;
+    private final String _newMethodName;
+    private final int _lineNumberStart;
+    private final int _lineNumberEnd;
+
+    /**
+     * @param refactorAction  "Rename" or "ExtractMethod"
+     * @param className       Class containing the selected lines
+     * @param newMethodName   Name of the renamed or extracted method
+     * @param lineNumberStart First selected line, for Rename any line of the method
+     * @param lineNumberEnd   Last selected line, not used for Rename
+     */
+    public RefactoringSelection(String refactorAction, String className, String newMethodName,
+                                int lineNumberStart, int lineNumberEnd)
+    {
+        this._refactorAction = refactorAction;
+        this._className = className;
+        this._newMethodName = newMethodName;
+        this._lineNumberStart = lineNumberStart;
+        this._lineNumberEnd = lineNumberEnd;
+    }
+
+    public String getRefactorAction() { return _refactorAction; }
+    public String getClassName() { return _className; }
+    public String getNewMethodName() { return _newMethodName; }
+    public int getLineNumberStart() { return _lineNumberStart; }
+    public int getLineNumberEnd() { return _lineNumberEnd; }
+
+    @Override
+    public String toString() {
+        return _refactorAction + " " + _className + ":" + _lineNumberStart + "-" + _lineNumberEnd;
+    }
+}
@@ -21,7 +21,6 @@
 package analysis;
 
 import java.io.IOException;
-import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 
 import aig.*;
@@ -31,17 +30,155 @@ import analysis.context.CodeSection;
 import analysis.context.ContextAnalyzer;
 import analysis.context.ContextConfiguration;
 import analysis.context.ContextDetectorSetBuilder;
+import analysis.context.DetectionResultCache;
+import analysis.MethodAnalyzer.TypeSolverService;
+import analysis.dataflow.MethodDataFlowAnalyzer;
+import analysis.project.AnalysisSession;
+import analysis.project.CallSiteIndex;
+import analysis.project.ProjectConfiguration;
+import analysis.project.ProjectWorkspace;
+import analysis.project.SummaryCache;
+import analysis.project.TypeHierarchyIndex;
 import com.github.javaparser.JavaParser;
-import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.utils.SourceRoot;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import helpers.ContentHash;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.nio.file.Paths;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 public class RenameMethodAnalyzer {
 
+    private Path _projectRoot = ProjectConfiguration.getDefault().getProjectRoot();
+
+    /**
+     * Root directory of the project that is loaded when instructions are not generated from a resource
+     * @param projectRoot Directory containing the .java files of the project
+     */
+    public void setProjectRoot(Path projectRoot) {
+        this._projectRoot = projectRoot;
+    }
+
+    private SummaryCache _summaryCache = new SummaryCache(SummaryCache.defaultDirectory());
+
+    /**
+     * Cache of file summaries, used when the project root is not the one of the default workspace
+     * @param cache Cache to use, null to parse all project files when they are first loaded
+     */
+    public void setSummaryCache(SummaryCache cache) {
+        this._summaryCache = cache;
+    }
+
+    private ProjectWorkspace _workspace = null;
+
+    /**
+     * Loaded project from which the classes are taken when instructions are not generated from a resource.
+     * Its files and indexes are kept between requests, a file is only loaded again when it changed.
+     * @param workspace Workspace to use, null to use the default workspace when it is of the project root
+     */
+    public void setWorkspace(ProjectWorkspace workspace) {
+        this._workspace = workspace;
+    }
+
+    private ProjectWorkspace getWorkspace() {
+        if (_workspace == null) {
+            ProjectWorkspace shared = ProjectWorkspace.getDefault();
+            _workspace = shared.getRoot().equals(_projectRoot) ? shared : new ProjectWorkspace(_projectRoot, _summaryCache);
+        }
+
+        return _workspace;
+    }
+
+    private AnalysisSession _session = null;
+
+    /**
+     * Session that owns the type solver used for each request
+     * @param session Session to use, null to use the default session of the project
+     */
+    public void setSession(AnalysisSession session) {
+        this._session = session;
+    }
+
+    private TypeHierarchyIndex _hierarchyIndex = null;
+
+    /**
+     * Hierarchy of the project, used to answer super type questions without the type solver
+     * @param index Index built from the project root, null to use the one of the workspace when it has been loaded
+     */
+    public void setTypeHierarchyIndex(TypeHierarchyIndex index) {
+        this._hierarchyIndex = index;
+    }
+
+    private CallSiteIndex _callSiteIndex = null;
+
+    /**
+     * Calls of all methods in the project, used to list the calls that change when a method is renamed
+     * @param index Index built from the project, null to use the one of the workspace when it has been loaded
+     */
+    public void setCallSiteIndex(CallSiteIndex index) {
+        this._callSiteIndex = index;
+    }
+
+    private int _detectorParallelism = 1;
+
+    /**
+     * @param parallelism Maximum number of context detectors evaluated at the same time, 1 to evaluate them one by one
+     */
+    public void setDetectorParallelism(int parallelism) {
+        this._detectorParallelism = parallelism;
+    }
+
+    private boolean _costScheduling = false;
+
+    /**
+     * @param scheduling true to run cheap detectors first and expensive detectors in the background,
+     *                   see ContextAnalyzer.setCostScheduling
+     */
+    public void setCostScheduling(boolean scheduling) {
+        this._costScheduling = scheduling;
+    }
+
+    private boolean _lazyDetection = false;
+
+    /**
+     * @param lazy true to run a context detector only when the generator reaches a decision on its context,
+     *             false to run all detectors of the graph up front
+     */
+    public void setLazyDetection(boolean lazy) {
+        this._lazyDetection = lazy;
+    }
+
+    private DetectionResultCache _detectionCache = new DetectionResultCache(DetectionResultCache.DEFAULT_CAPACITY);
+
+    /**
+     * Cache of detection results, so a request on unchanged code does not run the context detectors again.
+     * By default results are kept in memory only.
+     * @param cache Cache to use, null to run the detectors on each request
+     */
+    public void setDetectionResultCache(DetectionResultCache cache) {
+        this._detectionCache = cache;
+    }
+
+    private long _detectorTimeoutMillis = 0;
+    private long _requestTimeoutMillis = 0;
+
+    /**
+     * Bounds the time spent on context detection. A detector that overruns is reported as unknown and the
+     * instructions take the conservative path for its context.
+     *
+     * @param detectorTimeoutMillis Budget of a single detector, 0 for no limit
+     * @param requestTimeoutMillis  Budget of all detectors of a request together, 0 for no limit
+     */
+    public void setDetectionTimeouts(long detectorTimeoutMillis, long requestTimeoutMillis) {
+        this._detectorTimeoutMillis = detectorTimeoutMillis;
+        this._requestTimeoutMillis = requestTimeoutMillis;
+    }
+
     public List<String> generateInstructions(String refactorAction,
                                              String testResource,
                                              String className,
@@ -60,38 +197,133 @@ public class RenameMethodAnalyzer {
                                              int lineNumberStart,
                                              int lineNumberEnd,
                                              boolean fromResource) {
-        CompilationUnit cu = null;
-
-       if(fromResource) {
-           // load java class from the resource set
-           InputStream parseStream = this.getClass().getClassLoader().getResourceAsStream(testResource);
-
-           if (parseStream == null) {
-               throw new RuntimeException("Unable to find sample " + testResource);
-           }
-
-           cu = JavaParser.parse(parseStream);
-       }
-       else
-       {
-           List<ParseResult<CompilationUnit>> results = null;
-           Path projectRoot = Paths.get("C:\\Dropbox\\sources\\RefactorGuidance\\RefactorScenarios\\SimpleRename");
-           SourceRoot sr = new SourceRoot(projectRoot);
-
-           try {
-               results = sr.tryToParse();
-           } catch (IOException e) {
-               e.printStackTrace();
-           }
-
-           List<CompilationUnit> cus = sr.getCompilationUnits();
-           cu = cus.get(3);
-       }
-
-        // set up analyzer to make it possible to retrieve method-number based on line number
-        // @todo: This should be taken out of analyzer class
-        ClassMethodFinder cmf = new ClassMethodFinder();
-        cmf.initialize(cu, className);
+        RefactoringSelection selection = new RefactoringSelection(refactorAction, className, newMethodName,
+                                                                  lineNumberStart, lineNumberEnd);
+
+        return generateInstructions(Collections.singletonList(selection), testResource, fromResource).get(0);
+    }
+
+    /**
+     * Generates the instructions of many selections in one go. The selections share the parsed compilation
+     * units, a single type solver request, the method finder of each class and the data flow analysis of each
+     * selected section. Selections are handled one after another, so they also share the memoized lookups.
+     *
+     * @param selections   Selections in the resource, or in the classes of the project
+     * @param testResource Resource containing the classes of all selections, not used when not fromResource
+     * @param fromResource true to read the classes from the resource, false to load them from the project root
+     * @return Instructions per selection, in the order of the selections
+     */
+    public List<List<String>> generateInstructions(List<RefactoringSelection> selections,
+                                                   String testResource,
+                                                   boolean fromResource) {
+        Map<String, SourceUnit> units = new HashMap<>();
+        SourceUnit resource = fromResource ? loadResource(testResource) : null;
+        ProjectWorkspace workspace = fromResource ? null : getWorkspace();
+
+        if (workspace != null) {
+            workspace.refresh();
+        }
+
+        for (RefactoringSelection selection : selections) {
+            units.computeIfAbsent(selection.getClassName(), className ->
+                    fromResource ? resource : loadDeclaring(workspace, className));
+        }
+
+        // The indexes of the workspace describe the project, not the classes of a resource
+        TypeHierarchyIndex hierarchyIndex = (_hierarchyIndex != null || fromResource) ? _hierarchyIndex : workspace.getTypeHierarchyIndex();
+        CallSiteIndex callSiteIndex = (_callSiteIndex != null || fromResource) ? _callSiteIndex : workspace.getCallSiteIndex();
+
+        AnalysisSession session = (_session != null) ? _session : AnalysisSession.getDefault();
+        TypeSolverService typeSolverService = session.startRequest();
+
+        Map<String, ClassMethodFinder> finders = new HashMap<>();
+        Map<String, MethodDataFlowAnalyzer> dataFlows = new HashMap<>();
+        List<List<String>> instructions = new ArrayList<>(selections.size());
+
+        for (RefactoringSelection selection : selections) {
+            SourceUnit unit = units.get(selection.getClassName());
+
+            // set up analyzer to make it possible to retrieve method-number based on line number
+            // @todo: This should be taken out of analyzer class
+            ClassMethodFinder cmf = finders.computeIfAbsent(selection.getClassName(), className -> {
+                ClassMethodFinder finder = new ClassMethodFinder();
+                finder.initialize(unit.cu, className, typeSolverService);
+                finder.setTypeHierarchyIndex(hierarchyIndex);
+                return finder;
+            });
+
+            instructions.add(generateInstructions(selection, unit, typeSolverService, hierarchyIndex, callSiteIndex, cmf, dataFlows));
+        }
+
+        return instructions;
+    }
+
+    /**
+     * Parsed source of a class, with the bytes it was parsed from
+     */
+    private static class SourceUnit {
+        final CompilationUnit cu;
+        final byte[] source;
+
+        SourceUnit(CompilationUnit cu, byte[] source)
+        {
+            this.cu = cu;
+            this.source = source;
+        }
+    }
+
+    private SourceUnit loadResource(String testResource) {
+        // load java class from the resource set
+        InputStream parseStream = this.getClass().getClassLoader().getResourceAsStream(testResource);
+
+        if (parseStream == null) {
+            throw new RuntimeException("Unable to find sample " + testResource);
+        }
+
+        byte[] source = readAll(parseStream);
+
+        return new SourceUnit(JavaParser.parse(new ByteArrayInputStream(source)), source);
+    }
+
+    private SourceUnit loadDeclaring(ProjectWorkspace workspace, String className) {
+        Optional<CompilationUnit> declaringUnit = Optional.empty();
+
+        try {
+            declaringUnit = workspace.loadDeclaring(className);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load project " + _projectRoot, e);
+        }
+
+        workspace.getFailures().forEach((file, problems) ->
+                System.out.println("Unable to parse " + file + ": " + String.join(", ", problems)));
+
+        CompilationUnit cu = declaringUnit.orElseThrow(() ->
+                new RuntimeException("Unable to find class " + className + " in project " + _projectRoot));
+
+        byte[] source = null;
+
+        try {
+            source = Files.readAllBytes(cu.getStorage().get().getPath());
+        } catch (IOException e) {
+            System.out.println("Unable to read source of " + className + ", detection results are not cached");
+        }
+
+        return new SourceUnit(cu, source);
+    }
+
+    private List<String> generateInstructions(RefactoringSelection selection,
+                                              SourceUnit unit,
+                                              TypeSolverService typeSolverService,
+                                              TypeHierarchyIndex hierarchyIndex,
+                                              CallSiteIndex callSiteIndex,
+                                              ClassMethodFinder cmf,
+                                              Map<String, MethodDataFlowAnalyzer> dataFlows) {
+        String refactorAction = selection.getRefactorAction();
+        String className = selection.getClassName();
+        int lineNumberStart = selection.getLineNumberStart();
+        int lineNumberEnd = selection.getLineNumberEnd();
+        CompilationUnit cu = unit.cu;
+        byte[] source = unit.source;
 
         // Determine name based on location
         MethodDescriber selectedMethod = cmf.getMethodDescriberForLocation(lineNumberStart);
@@ -107,7 +339,7 @@ public class RenameMethodAnalyzer {
             // SELECT refactoring
             AdaptiveInstructionGraph graph = null;
             if(refactorAction.contentEquals("Rename"))
-                graph = new AIG_RenameGeneration().getAdaptiveInstructionGraph();
+                graph = new AIG_RenameGeneration(hierarchyIndex != null).getAdaptiveInstructionGraph();
             else if(refactorAction.contentEquals("ExtractMethod")) {
                 graph = new AIG_ExtractMethodGeneration().getAdaptiveInstructionGraph();
                 cac.setCodeSection(new CodeSection(lineNumberStart, lineNumberEnd));
@@ -117,21 +349,57 @@ public class RenameMethodAnalyzer {
             cac.setMethodDescriber(selectedMethod);
             cac.setCompilationUnit(cu);
             cac.setClassName(className);
+            cac.setTypeSolverService(typeSolverService);
+            cac.setTypeHierarchyIndex(hierarchyIndex);
+            cac.setCallSiteIndex(callSiteIndex);
+
+            String cacheKey = (_detectionCache != null && source != null) ?
+                    detectionCacheKey(refactorAction, source, cac) : null;
+            Optional<DetectionResultCache.Result> cached = (cacheKey != null) ?
+                    _detectionCache.load(cacheKey) : Optional.empty();
+
+            if (cached.isPresent()) {
+                // Unchanged request, the detectors are not run again
+                InstructionGenerator generator = new InstructionGenerator(graph);
+                generator.setParameterMap(cached.get().getParameterMap());
+                generator.setContext(cached.get().getDetectedContextSet());
+
+                return generator.generateInstruction(true);
+            }
+
+            // Analyzers shared with the other selections of a batch, the builder only creates missing ones
+            String dataFlowKey = className + "." + selectedMethod.fullTypeSignature() + ":" + lineNumberStart + "-" + lineNumberEnd;
+            cac.setCMFAnalyzer(cmf);
+
+            if (!cac.getCodeSection().notDefined()) {
+                cac.setMethodDataFlowAnalyzer(dataFlows.get(dataFlowKey));
+            }
 
             ContextDetectorSetBuilder cb = new ContextDetectorSetBuilder();
             cb.setConfiguration(cac);
             cb.setAIT(graph);
 
             ContextAnalyzer ca = new ContextAnalyzer();
+            ca.setParallelism(_detectorParallelism);
+            ca.setCostScheduling(_costScheduling);
+            ca.setDetectorTimeout(_detectorTimeoutMillis, TimeUnit.MILLISECONDS);
+            ca.setRequestTimeout(_requestTimeoutMillis, TimeUnit.MILLISECONDS);
 
             try {
                 // CONFIGURE context detectors
                 // Build up specific set of context detectors belonging to the graph provided
                 ca.setContextDetectors(cb.getContextDetectors());
 
+                if (cac.getMethodDataFlowAnalyzer() != null) {
+                    dataFlows.putIfAbsent(dataFlowKey, cac.getMethodDataFlowAnalyzer());
+                }
+
                 // ANALYZE code
                 // Evaluate all detectors -> Results in set of context detected
-                ca.run();
+                // (lazy: detectors are evaluated by the generator while it walks the graph)
+                if (!_lazyDetection) {
+                    ca.run();
+                }
             }
             catch(Exception e)
             {
@@ -144,9 +412,19 @@ public class RenameMethodAnalyzer {
             // Provide concrete parameter values and detected context set
             generator.setParameterMap(ca.getParameterMap());
             generator.setContext(ca.getDetectedContextSet());
+            generator.setUnknownContexts(ca.getUnknownContextSet());
+
+            if (_lazyDetection) {
+                generator.setContextSource(ca);
+            }
 
             // GENERATE (=Filter nodes from graph + parsing of parametrized values in resulting nodes)
             instructionSteps = generator.generateInstruction(true);
+
+            // Only complete results are cached: lazy detection skips detectors, a timeout leaves contexts unknown
+            if (cacheKey != null && !_lazyDetection && ca.getUnknownContextSet().isEmpty()) {
+                _detectionCache.store(cacheKey, new DetectionResultCache.Result(ca.getDetectedContextSet(), ca.getParameterMap()));
+            }
         }
         else
         {
@@ -155,4 +433,68 @@ public class RenameMethodAnalyzer {
 
         return instructionSteps;
     }
+
+    /**
+     * Key of the detection result of a request. Besides the source and the selection, it covers the solver
+     * configuration, the source files of the ancestors resolved by the solver and, when indexed, the files of
+     * the type hierarchy and the call sites of the method, which are read by the Rename Method detectors.
+     *
+     * @return null when the input of the detectors cannot be determined, the result is not cached then
+     */
+    private String detectionCacheKey(String refactorAction, byte[] source, ContextConfiguration cac) {
+        String qualifiedClassName = cac.getQualifiedClassName();
+        TypeSolverService service = cac.getTypeSolverService();
+
+        Optional<ClassOrInterfaceDeclaration> declaration = cac.getCompilationUnit().getClassByName(cac.getClassName());
+        if (!declaration.isPresent()) {
+            declaration = cac.getCompilationUnit().getInterfaceByName(cac.getClassName());
+        }
+
+        Optional<Set<Path>> ancestorFiles;
+        try {
+            ancestorFiles = declaration.flatMap(node -> service.getAncestorSourceFiles(service.getTypeDeclaration(node)));
+        } catch (RuntimeException e) {
+            ancestorFiles = Optional.empty();
+        }
+
+        if (!ancestorFiles.isPresent()) {
+            return null;
+        }
+
+        List<String> dependencies = new ArrayList<>();
+        dependencies.add(service.getConfigurationHash());
+
+        for (Path file : ancestorFiles.get()) {
+            try {
+                dependencies.add(file + " " + ContentHash.of(Files.readAllBytes(file)));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        TypeHierarchyIndex hierarchyIndex = cac.getTypeHierarchyIndex();
+        CallSiteIndex callSiteIndex = cac.getCallSiteIndex();
+
+        dependencies.add((hierarchyIndex != null) ? hierarchyIndex.getHierarchyHash(qualifiedClassName) : "-");
+        dependencies.add((callSiteIndex != null) ?
+                callSiteIndex.getCallSites(cac.getMethodDescriber().getName()).toString() : "-");
+
+        return DetectionResultCache.keyOf(refactorAction, ContentHash.of(source), qualifiedClassName,
+                cac.getMethodDescriber(), cac.getCodeSection(), ContentHash.of(String.join("\n", dependencies)));
+    }
+
+    private static byte[] readAll(InputStream stream) {
+        try (InputStream in = stream) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                content.write(buffer, 0, read);
+            }
+
+            return content.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,68 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.context;
+
+import aig.CodeContext;
+
+import java.util.Set;
+
+/**
+ * Detector of a context that is present exactly when its base context is absent. The answer is derived from
+ * the base detector, which therefore should be memoized when it is evaluated on its own as well.
+ * A failing base detector fails this detector too, so neither context is reported.
+ */
+class ComplementDetector extends ContextDetector {
+
+    private final CodeContext.CodeContextEnum _type;
+    private final IContextDetector _base;
+
+    ComplementDetector(CodeContext.CodeContextEnum type, IContextDetector base)
+    {
+        this._type = type;
+        this._base = base;
+    }
+
+    @Override
+    public boolean detect() throws Exception {
+        return !_base.detect();
+    }
+
+    /**
+     * @return true when the answer of the base detector is already known
+     */
+    boolean isSettled() {
+        return _base instanceof MemoizedDetector && ((MemoizedDetector) _base).isSettled();
+    }
+
+    @Override
+    public CodeContext.CodeContextEnum getType() {
+        return _type;
+    }
+
+    @Override
+    public Cost getCost() {
+        return _base.getCost();
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return _base.getFactDependencies();
+    }
+}
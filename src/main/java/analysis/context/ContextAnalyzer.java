@@ -20,39 +20,534 @@
 package analysis.context;
 
 import aig.CodeContext;
+import aig.IContextSource;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Determines which specific contexts are present in a piece of code in a generic way.
  * by evaluating all given context detectors.
+ *
+ * Detectors are evaluated one after another, unless a parallelism above one is set. In that case at most that
+ * many detectors are evaluated at the same time on the shared detector pool, and the results are merged in the
+ * order of the detector list. The detected set and the parameter map are then the same as after a sequential
+ * run. Detectors that share an analyzer rely on it being safe to use from multiple threads: shared facts are
+ * computed once (see ContextFacts) and lookups of the type solver are serialized (see TypeSolverService).
+ *
+ * Instead of running all detectors, the analyzer can also be used as the context source of an instruction
+ * generator. A detector then only runs when the generator asks for its context, and its answer is remembered.
+ *
+ * Detection can be bounded in time, per detector and per request. A detector that does not finish within
+ * its budget is interrupted and its context is reported as unknown. For unknown contexts the generator
+ * assumes the conservative answer, see CodeContext.isAssumedWhenUnknown.
+ *
+ * With cost scheduling, the cost hints and fact dependencies of the detectors decide the order. Expensive
+ * detectors are started in the background first, grouped by the facts they share, so a group waits for a
+ * single computation of its facts on one thread. Meanwhile cheap and then moderate detectors run on the calling
+ * thread. A detector whose answer is already settled by its base detector is answered without new work.
+ * The decisions are recorded in the schedule trace; parameters are still merged in the order of the list.
  */
-public class ContextAnalyzer {
+public class ContextAnalyzer implements IContextSource {
+
+    // Detectors that overrun their budget keep running until their next cancellation point, a few of them
+    // may never reach one. Those keep their own thread, the pool starts new threads up to its capacity.
+    private static final DetectorPool DETECTOR_POOL =
+            new DetectorPool(Math.max(64, 8 * Runtime.getRuntime().availableProcessors()));
 
     private List<IContextDetector> _contextDetectors = new ArrayList<>();
     private EnumSet<CodeContext.CodeContextEnum> _detectedSet = EnumSet.noneOf(CodeContext.CodeContextEnum.class);
+    private EnumSet<CodeContext.CodeContextEnum> _unknownSet = EnumSet.noneOf(CodeContext.CodeContextEnum.class);
     private Map<String, List<String>> _parameterDefinitions = new HashMap<>();
+    private int _parallelism = 1;
+    private Map<CodeContext.CodeContextEnum, Boolean> _answers = new EnumMap<>(CodeContext.CodeContextEnum.class);
+    private int _detectionCount = 0;
+
+    private long _detectorTimeoutNanos = 0;
+    private long _requestTimeoutNanos = 0;
+    private long _requestDeadline = 0;
+
+    private boolean _costScheduling = false;
+    private List<String> _scheduleTrace = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Starts a detector on the detector pool. When the pool is full the detection is not started,
+     * its context is then reported as unknown.
+     */
+    private static Future<Boolean> startDetection(IContextDetector detector) {
+        try {
+            return DETECTOR_POOL.submit(detector::detect);
+        }
+        catch (RejectedExecutionException e) {
+            return rejected(detector.getType(), e);
+        }
+    }
+
+    private static CompletableFuture<Boolean> rejected(CodeContext.CodeContextEnum context, RejectedExecutionException e) {
+        System.out.println("Detection of " + context + " is not started: " + e.getMessage());
+
+        CompletableFuture<Boolean> rejected = new CompletableFuture<>();
+        rejected.completeExceptionally(new UnknownContextException(e.getMessage()));
+
+        return rejected;
+    }
+
+    /**
+     * @return Number of detections on the shared detector pool that have not stopped yet,
+     *         including detections that were cancelled but do not respond to their interruption
+     */
+    public static int getDetectionsInFlight() {
+        return DETECTOR_POOL.getInFlightCount();
+    }
 
     public void setContextDetectors(List<IContextDetector> detectors) {
         this._contextDetectors = detectors;
     }
 
+    public int getContextDetectorCount() {
+        return _contextDetectors.size();
+    }
+
+    /**
+     * Runs the detector of the given context on first request only. Contexts without a detector are not present,
+     * except always_true. A context whose detection times out gets its conservative answer.
+     */
+    @Override
+    public synchronized boolean isPresent(CodeContext.CodeContextEnum context) {
+        if (context == CodeContext.CodeContextEnum.always_true) {
+            return true;
+        }
+
+        Boolean answer = _answers.get(context);
+
+        if (answer == null) {
+            answer = _detectedSet.contains(context);
+
+            for (IContextDetector detector : _contextDetectors) {
+                if (!answer && !_unknownSet.contains(context) && detector.getType() == context) {
+                    _detectionCount++;
+
+                    if (isBounded()) {
+                        answer = collect(detector, startDetection(detector), requestDeadline());
+                    }
+                    else {
+                        try {
+                            answer = detector.detect();
+                        } catch (UnknownContextException e) {
+                            _unknownSet.add(context);
+                        } catch (Exception e) {
+                            System.out.println(e.getMessage());
+                        }
+
+                        if (answer) {
+                            _detectedSet.add(context);
+                            extendParameterDefinitions(detector);
+                        }
+                    }
+                }
+            }
+
+            if (_unknownSet.contains(context)) {
+                answer = CodeContext.isAssumedWhenUnknown(context);
+            }
+
+            _answers.put(context, answer);
+        }
+
+        return answer;
+    }
+
+    /**
+     * @return Number of detectors evaluated on request of a context source user
+     */
+    public int getDetectionCount() {
+        return _detectionCount;
+    }
+
     public EnumSet<CodeContext.CodeContextEnum> getDetectedContextSet()
     {
         return _detectedSet;
     }
 
+    /**
+     * @return Contexts of which the detection did not finish within its time budget, or that were reported unknown
+     */
+    public EnumSet<CodeContext.CodeContextEnum> getUnknownContextSet()
+    {
+        return _unknownSet;
+    }
+
+    /**
+     * @param parallelism Maximum number of detectors evaluated at the same time, 1 to evaluate them on the calling thread
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be at least 1, got " + parallelism);
+        }
+
+        this._parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return _parallelism;
+    }
+
+    /**
+     * @param timeout Maximum time to wait for a single detector, 0 to wait until it finishes
+     */
+    public void setDetectorTimeout(long timeout, TimeUnit unit) {
+        this._detectorTimeoutNanos = toNanos(timeout, unit);
+    }
+
+    /**
+     * @param timeout Maximum time to wait for all detectors of a request together, 0 to wait until they finish.
+     *                The time is counted from the start of run, or from the first question of a context source user.
+     */
+    public void setRequestTimeout(long timeout, TimeUnit unit) {
+        this._requestTimeoutNanos = toNanos(timeout, unit);
+    }
+
+    private static long toNanos(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout should not be negative, got " + timeout);
+        }
+
+        return unit.toNanos(timeout);
+    }
+
+    /**
+     * @param scheduling true to order detectors on their cost hints and fact dependencies, instead of
+     *                   evaluating them in list order. Takes precedence over the parallelism.
+     */
+    public void setCostScheduling(boolean scheduling) {
+        this._costScheduling = scheduling;
+    }
+
+    /**
+     * @return Scheduling decisions of the last cost scheduled run, in the order they were taken
+     */
+    public List<String> getScheduleTrace() {
+        synchronized (_scheduleTrace) {
+            return new ArrayList<>(_scheduleTrace);
+        }
+    }
+
+    private boolean isBounded() {
+        return _detectorTimeoutNanos > 0 || _requestTimeoutNanos > 0;
+    }
+
     public void run()
     {
-        for(IContextDetector detector : _contextDetectors)
+        if (_costScheduling) {
+            runScheduled();
+        }
+        else if (_parallelism > 1 && _contextDetectors.size() > 1) {
+            runParallel();
+        }
+        else if (isBounded()) {
+            long deadline = requestDeadline();
+
+            for (IContextDetector detector : _contextDetectors) {
+                collect(detector, startDetection(detector), deadline);
+
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        }
+        else {
+            for(IContextDetector detector : _contextDetectors)
+                try {
+                    if (detector.detect()) {
+                        _detectedSet.add(detector.getType());
+                        extendParameterDefinitions(detector);
+                    }
+                } catch (UnknownContextException e) {
+                    _unknownSet.add(detector.getType());
+                } catch (Exception e) {
+                    System.out.println(e.getMessage());
+                }
+        }
+    }
+
+    /**
+     * Evaluates all detectors on the given executor, and merges their results in the order of the detector list
+     *
+     * @param executor Executor to evaluate the detectors on, it is not shut down afterwards
+     */
+    public void run(ExecutorService executor)
+    {
+        long deadline = requestDeadline();
+        List<Future<Boolean>> detections = new ArrayList<>();
+
+        for (IContextDetector detector : _contextDetectors) {
+            detections.add(executor.submit(detector::detect));
+        }
+
+        for (int i = 0; i < detections.size(); i++) {
+            collect(_contextDetectors.get(i), detections.get(i), deadline);
+
+            if (Thread.currentThread().isInterrupted()) {
+                detections.forEach(detection -> detection.cancel(true));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Evaluates the detectors on the detector pool, at most the parallelism at the same time, and merges their
+     * results in the order of the detector list
+     */
+    private void runParallel() {
+        long deadline = requestDeadline();
+        Semaphore running = new Semaphore(_parallelism);
+        List<Future<Boolean>> detections = new ArrayList<>();
+
+        for (IContextDetector detector : _contextDetectors) {
             try {
-                if (detector.detect()) {
-                    _detectedSet.add(detector.getType());
-                    extendParameterDefinitions(detector);
+                detections.add(DETECTOR_POOL.submit(() -> {
+                    running.acquire();
+
+                    try {
+                        return detector.detect();
+                    }
+                    finally {
+                        running.release();
+                    }
+                }));
+            }
+            catch (RejectedExecutionException e) {
+                detections.add(rejected(detector.getType(), e));
+            }
+        }
+
+        for (int i = 0; i < detections.size(); i++) {
+            collect(_contextDetectors.get(i), detections.get(i), deadline);
+
+            if (Thread.currentThread().isInterrupted()) {
+                detections.forEach(detection -> detection.cancel(true));
+                return;
+            }
+        }
+    }
+
+    private void runScheduled() {
+        long deadline = requestDeadline();
+        int count = _contextDetectors.size();
+
+        _scheduleTrace.clear();
+
+        List<Future<Boolean>> detections = new ArrayList<>(Collections.nCopies(count, null));
+        Boolean[] outcomes = new Boolean[count];
+        List<Future<?>> groupTasks = new ArrayList<>();
+
+        // 1. Expensive detectors in the background, one task per group of detectors sharing facts
+        List<List<Integer>> groups = expensiveGroups();
+
+        for (int group = 0; group < groups.size(); group++) {
+            List<Integer> members = groups.get(group);
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+            for (int i : members) {
+                CompletableFuture<Boolean> result = new CompletableFuture<>();
+                detections.set(i, result);
+                results.add(result);
+            }
+
+            _scheduleTrace.add("background group " + (group + 1) + ": " + describe(members));
+
+            try {
+                groupTasks.add(DETECTOR_POOL.submit(() -> {
+                    for (int m = 0; m < members.size() && !Thread.currentThread().isInterrupted(); m++) {
+                        IContextDetector detector = _contextDetectors.get(members.get(m));
+
+                        try {
+                            traceIfSettled(detector);
+                            results.get(m).complete(detector.detect());
+                        } catch (Exception e) {
+                            results.get(m).completeExceptionally(e);
+                        }
+                    }
+
+                    results.forEach(result -> result.cancel(true));
+                }));
+            }
+            catch (RejectedExecutionException e) {
+                for (int m = 0; m < members.size(); m++) {
+                    detections.set(members.get(m), rejected(_contextDetectors.get(members.get(m)).getType(), e));
+                }
+            }
+        }
+
+        // 2. Cheap, then moderate detectors on the calling thread
+        for (IContextDetector.Cost cost : Arrays.asList(IContextDetector.Cost.CHEAP, IContextDetector.Cost.MODERATE)) {
+            for (int i = 0; i < count && !Thread.currentThread().isInterrupted(); i++) {
+                IContextDetector detector = _contextDetectors.get(i);
+
+                if (detections.get(i) == null && detector.getCost() == cost) {
+                    _scheduleTrace.add("inline " + detector.getType() + " (" + cost + ")");
+                    traceIfSettled(detector);
+
+                    Future<Boolean> detection;
+
+                    if (isBounded()) {
+                        detection = startDetection(detector);
+                    }
+                    else {
+                        FutureTask<Boolean> task = new FutureTask<>(detector::detect);
+                        task.run();
+                        detection = task;
+                    }
+
+                    detections.set(i, detection);
+                    outcomes[i] = await(detector, detection, deadline);
+                }
+            }
+        }
+
+        // 3. Join the background groups, and merge the parameters in list order
+        for (int i = 0; i < count && !Thread.currentThread().isInterrupted(); i++) {
+            IContextDetector detector = _contextDetectors.get(i);
+
+            if (outcomes[i] == null) {
+                outcomes[i] = await(detector, detections.get(i), deadline);
+                _scheduleTrace.add("joined " + detector.getType() + ": " + (outcomes[i] ? "detected" : "not detected"));
+            }
+
+            if (outcomes[i]) {
+                extendParameterDefinitions(detector);
+            }
+        }
+
+        groupTasks.forEach(task -> task.cancel(true));
+    }
+
+    /**
+     * Groups the indexes of the expensive detectors, detectors depending on a common fact end up in one group
+     */
+    private List<List<Integer>> expensiveGroups() {
+        List<List<Integer>> groups = new ArrayList<>();
+        List<Set<ContextFacts.Fact>> groupFacts = new ArrayList<>();
+
+        for (int i = 0; i < _contextDetectors.size(); i++) {
+            IContextDetector detector = _contextDetectors.get(i);
+
+            if (detector.getCost() == IContextDetector.Cost.EXPENSIVE) {
+                Set<ContextFacts.Fact> facts = EnumSet.noneOf(ContextFacts.Fact.class);
+                facts.addAll(detector.getFactDependencies());
+
+                List<Integer> members = new ArrayList<>();
+                members.add(i);
+
+                // Merge all groups sharing a fact with this detector
+                for (int g = groups.size() - 1; g >= 0; g--) {
+                    if (!Collections.disjoint(groupFacts.get(g), facts)) {
+                        members.addAll(groups.remove(g));
+                        facts.addAll(groupFacts.remove(g));
+                    }
                 }
-            } catch (Exception e) {
-                System.out.println(e.getMessage());
+
+                Collections.sort(members);
+                groups.add(members);
+                groupFacts.add(facts);
+            }
+        }
+
+        return groups;
+    }
+
+    private String describe(List<Integer> members) {
+        StringJoiner types = new StringJoiner(", ", "[", "]");
+        Set<ContextFacts.Fact> facts = EnumSet.noneOf(ContextFacts.Fact.class);
+
+        for (int i : members) {
+            types.add(_contextDetectors.get(i).getType().toString());
+            facts.addAll(_contextDetectors.get(i).getFactDependencies());
+        }
+
+        return types + " sharing " + facts;
+    }
+
+    private void traceIfSettled(IContextDetector detector) {
+        boolean settled = (detector instanceof MemoizedDetector && ((MemoizedDetector) detector).isSettled()) ||
+                          (detector instanceof ComplementDetector && ((ComplementDetector) detector).isSettled());
+
+        if (settled) {
+            _scheduleTrace.add("settled " + detector.getType() + " without detection");
+        }
+    }
+
+    /**
+     * Waits for the result of a detector within its budget, and merges its parameters when detected
+     */
+    private boolean collect(IContextDetector detector, Future<Boolean> detection, long deadline) {
+        boolean detected = await(detector, detection, deadline);
+
+        if (detected) {
+            extendParameterDefinitions(detector);
+        }
+
+        return detected;
+    }
+
+    /**
+     * Waits for the result of a detector within its budget. A detector that overruns its budget is cancelled
+     * and its context is added to the unknown set, as is the context of a detector that reports it as unknown
+     * or that failed on a cancelled computation.
+     *
+     * @param deadline Request deadline in System.nanoTime, 0 when the request is not bounded
+     * @return true when the context was detected
+     */
+    private boolean await(IContextDetector detector, Future<Boolean> detection, long deadline) {
+        try {
+            long budget = waitBudget(deadline);
+            boolean detected = (budget > 0) ? detection.get(budget, TimeUnit.NANOSECONDS) : detection.get();
+
+            if (detected) {
+                _detectedSet.add(detector.getType());
+            }
+
+            return detected;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UnknownContextException || e.getCause() instanceof CancellationException) {
+                _unknownSet.add(detector.getType());
+            }
+            else {
+                System.out.println(e.getCause().getMessage());
             }
+        } catch (TimeoutException | CancellationException e) {
+            detection.cancel(true);
+            _unknownSet.add(detector.getType());
+            System.out.println("Detection of " + detector.getType() + " did not finish in time");
+        } catch (InterruptedException e) {
+            detection.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+
+        return false;
+    }
+
+    /**
+     * @return Time left for the next detector in nanoseconds, 0 to wait without limit
+     */
+    private long waitBudget(long deadline) {
+        long budget = _detectorTimeoutNanos;
+
+        if (deadline != 0) {
+            // At least a nanosecond, a budget of 0 means no limit
+            long left = Math.max(1, deadline - System.nanoTime());
+            budget = (budget > 0) ? Math.min(budget, left) : left;
+        }
+
+        return budget;
+    }
+
+    private long requestDeadline() {
+        if (_requestTimeoutNanos > 0 && _requestDeadline == 0) {
+            _requestDeadline = System.nanoTime() + _requestTimeoutNanos;
+        }
+
+        return _requestDeadline;
     }
 
     private void extendParameterDefinitions(IContextDetector detector) {
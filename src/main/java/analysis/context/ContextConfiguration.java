@@ -21,10 +21,18 @@ package analysis.context;
 
 import analysis.MethodAnalyzer.ClassMethodFinder;
 import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.MethodAnalyzer.TypeSolverService;
 import analysis.dataflow.MethodDataFlowAnalyzer;
+import analysis.project.CallSiteIndex;
+import analysis.project.TypeHierarchyIndex;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.MethodDeclaration;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Class is a container that can be used to access specific analyzers or other type of
  * data in a generic way. All detectors should use this container construction to
@@ -38,11 +46,16 @@ public class ContextConfiguration {
     private CompilationUnit _cu;
     private String _className;
 
+    private TypeSolverService _typeSolverService;
+    private TypeHierarchyIndex _hierarchyIndex;
+    private CallSiteIndex _callSiteIndex;
     private ClassMethodFinder _cmf;
     private MethodDataFlowAnalyzer _mdfa;
 
     private CodeSection _codeSection = new CodeSection(-1, -1);
 
+    private final ContextFacts _facts = new ContextFacts(this);
+
     public void setCompilationUnit(CompilationUnit cu) {
         _cu = cu;
     }
@@ -59,11 +72,78 @@ public class ContextConfiguration {
         return _className;
     }
 
+    /**
+     * @return Name of the analyzed class prefixed with the package of the compilation unit
+     */
+    public String getQualifiedClassName() {
+        String packagePrefix = (_cu == null) ? "" :
+                _cu.getPackageDeclaration().map(pd -> pd.getNameAsString() + ".").orElse("");
+
+        return packagePrefix + _className;
+    }
+
     public String getMethodName()
     {
         return _methodName;
     }
 
+    public void setTypeSolverService(TypeSolverService typeSolverService) {
+        this._typeSolverService = typeSolverService;
+    }
+
+    /**
+     * @return Type solver for the analyzers of this request, the shared project solver when none has been set
+     */
+    public TypeSolverService getTypeSolverService() {
+        return (_typeSolverService != null) ? _typeSolverService : TypeSolverService.getProjectInstance();
+    }
+
+    public void setTypeHierarchyIndex(TypeHierarchyIndex index) {
+        this._hierarchyIndex = index;
+    }
+
+    /**
+     * @return Hierarchy of the project containing the analyzed class, null when not available
+     */
+    public TypeHierarchyIndex getTypeHierarchyIndex() {
+        return _hierarchyIndex;
+    }
+
+    public void setCallSiteIndex(CallSiteIndex index) {
+        this._callSiteIndex = index;
+    }
+
+    /**
+     * @return Calls of all methods in the project, null when not available
+     */
+    public CallSiteIndex getCallSiteIndex() {
+        return _callSiteIndex;
+    }
+
+    /**
+     * Looks up the calls of the analyzed method. Calls resolving to a declaration in a super or subtype
+     * of the analyzed class are included, these declarations are renamed together.
+     *
+     * @return Calls of the method in the project, empty when no call-site index has been set
+     */
+    public List<CallSiteIndex.CallSite> findCallSites() {
+        if (_callSiteIndex == null || _method == null || _method.getMethodDeclaration() == null) {
+            return Collections.emptyList();
+        }
+
+        String qualifiedName = getQualifiedClassName();
+
+        Set<String> declaringTypes = new HashSet<>();
+        declaringTypes.add(qualifiedName);
+
+        if (_hierarchyIndex != null) {
+            declaringTypes.addAll(_hierarchyIndex.getAllSupertypes(qualifiedName));
+            declaringTypes.addAll(_hierarchyIndex.getAllSubtypes(qualifiedName));
+        }
+
+        return _callSiteIndex.findCallSites(_method.getMethodDeclaration(), declaringTypes, getTypeSolverService());
+    }
+
     public void setCMFAnalyzer(ClassMethodFinder cmf)
     {
         this._cmf = cmf;
@@ -80,6 +160,13 @@ public class ContextConfiguration {
         return this._mdfa;
     }
 
+    /**
+     * @return Facts shared by the detectors of this request
+     */
+    public ContextFacts getFacts() {
+        return _facts;
+    }
+
     public void setMethodDescriber(MethodDescriber md) {
         this._method = md;
         this._methodName = md.getName();
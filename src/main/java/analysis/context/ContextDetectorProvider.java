@@ -0,0 +1,47 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.context;
+
+import aig.CodeContext;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Service interface through which detectors outside of this package are registered.
+ *
+ * Implementations are found with java.util.ServiceLoader, listed in
+ * META-INF/services/analysis.context.ContextDetectorProvider. A detector registered for a context
+ * replaces the built-in detector of that context.
+ */
+public interface ContextDetectorProvider {
+
+    /**
+     * @return Factory of a detector per context
+     */
+    Map<CodeContext.CodeContextEnum, ContextDetectorRegistry.DetectorFactory> getDetectors();
+
+    /**
+     * @return Base context per complement context, derived from the base detector instead of detected on its own
+     */
+    default Map<CodeContext.CodeContextEnum, CodeContext.CodeContextEnum> getComplements() {
+        return Collections.emptyMap();
+    }
+}
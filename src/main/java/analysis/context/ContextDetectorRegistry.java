@@ -0,0 +1,221 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.context;
+
+import aig.CodeContext.CodeContextEnum;
+
+import java.util.*;
+
+/**
+ * Maps each code context to the factory of its detector.
+ *
+ * The default registry is built once, from the built-in detectors and the detectors registered through
+ * a ContextDetectorProvider. A registry is validated when it is built: every context, except always_true,
+ * must have a detector. Creating the detectors of a graph is then a lookup per context.
+ *
+ * A context can be declared the complement of a base context: it is present exactly when the base context is
+ * absent. When a graph needs both, only the base detector is evaluated and the complement is derived from it.
+ */
+public final class ContextDetectorRegistry {
+
+    /**
+     * Creates a detector that reads its input from the configuration of a request
+     */
+    @FunctionalInterface
+    public interface DetectorFactory {
+        IContextDetector create(ContextConfiguration cc);
+    }
+
+    private static ContextDetectorRegistry _default = null;
+
+    private final EnumMap<CodeContextEnum, DetectorFactory> _factories;
+    private final EnumMap<CodeContextEnum, CodeContextEnum> _complements;
+
+    /**
+     * @param factories Factory per context
+     * @throws IllegalStateException when a context, other than always_true, has no factory
+     */
+    public ContextDetectorRegistry(Map<CodeContextEnum, DetectorFactory> factories)
+    {
+        this(factories, Collections.emptyMap());
+    }
+
+    /**
+     * @param factories   Factory per context
+     * @param complements Base context per complement context
+     * @throws IllegalStateException when a context, other than always_true, has no factory, or when a
+     *                               complement is its own base or is the base of another complement
+     */
+    public ContextDetectorRegistry(Map<CodeContextEnum, DetectorFactory> factories,
+                                   Map<CodeContextEnum, CodeContextEnum> complements)
+    {
+        this._factories = factories.isEmpty() ? new EnumMap<>(CodeContextEnum.class) : new EnumMap<>(factories);
+        this._complements = complements.isEmpty() ? new EnumMap<>(CodeContextEnum.class) : new EnumMap<>(complements);
+
+        _complements.forEach((complement, base) -> {
+            if (complement == base || _complements.containsKey(base)) {
+                throw new IllegalStateException("Context " + complement + " cannot be derived from " + base);
+            }
+        });
+
+        EnumSet<CodeContextEnum> missing = EnumSet.allOf(CodeContextEnum.class);
+        missing.remove(CodeContextEnum.always_true);
+        missing.removeAll(_factories.keySet());
+
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("No context detector registered for " + missing);
+        }
+    }
+
+    /**
+     * @return Registry of the built-in detectors and the detectors of all providers on the class path
+     * @throws IllegalStateException when a context has no detector
+     */
+    public static synchronized ContextDetectorRegistry getDefault() {
+        if (_default == null) {
+            _default = load(ServiceLoader.load(ContextDetectorProvider.class));
+        }
+
+        return _default;
+    }
+
+    /**
+     * @param providers Providers whose detectors and complements replace the built-in ones, in iteration order
+     */
+    public static ContextDetectorRegistry load(Iterable<ContextDetectorProvider> providers) {
+        Map<CodeContextEnum, DetectorFactory> factories = builtInDetectors();
+        Map<CodeContextEnum, CodeContextEnum> complements = builtInComplements();
+
+        providers.forEach(provider -> {
+            factories.putAll(provider.getDetectors());
+            complements.putAll(provider.getComplements());
+        });
+
+        return new ContextDetectorRegistry(factories, complements);
+    }
+
+    /**
+     * @return Factories of the detectors in this package
+     */
+    public static Map<CodeContextEnum, DetectorFactory> builtInDetectors() {
+        Map<CodeContextEnum, DetectorFactory> factories = new EnumMap<>(CodeContextEnum.class);
+
+        // Rename Method
+        factories.put(CodeContextEnum.MethodSingleDeclaration, MethodSingleDeclaration::new);
+        factories.put(CodeContextEnum.MethodMultipleDeclarations, MethodMultipleDeclarations::new);
+        factories.put(CodeContextEnum.MethodNoneInterfaceDeclaration, MethodNoneInterfaceDeclaration::new);
+        factories.put(CodeContextEnum.MethodInterfaceDeclaration, MethodInterfaceDeclaration::new);
+        factories.put(CodeContextEnum.MethodOverload, MethodOverload::new);
+        factories.put(CodeContextEnum.MethodNoneOverload, MethodNoneOverload::new);
+        factories.put(CodeContextEnum.MethodOverride, MethodOverride::new);
+        factories.put(CodeContextEnum.MethodNoneOverride, MethodNoneOverride::new);
+        factories.put(CodeContextEnum.MethodOverrideNoAnnotation, MethodOverrideNoAnnotation::new);
+        factories.put(CodeContextEnum.MethodNoneOverrideNoAnnotation, MethodNoneOverrideNoAnnotation::new);
+        factories.put(CodeContextEnum.MethodSubclassOverride, MethodSubclassOverride::new);
+        factories.put(CodeContextEnum.MethodNoneSubclassOverride, MethodNoneSubclassOverride::new);
+
+        // Extract Method
+        factories.put(CodeContextEnum.MethodExtractNoneLocalDependencies, MethodExtractNoneLocalDependencies::new);
+        factories.put(CodeContextEnum.MethodExtractSingleArgument, MethodExtractSingleArgument::new);
+        factories.put(CodeContextEnum.MethodExtractSingleResult, MethodExtractSingleResult::new);
+        factories.put(CodeContextEnum.MethodExtractMultiArgument, MethodExtractMultiArgument::new);
+        factories.put(CodeContextEnum.MethodExtractMultiResult, MethodExtractMultiResult::new);
+        factories.put(CodeContextEnum.MethodExtractNameHiding, MethodExtractNameHiding::new);
+        factories.put(CodeContextEnum.MethodExtractNoNameHiding, MethodExtractNoNameHiding::new);
+        factories.put(CodeContextEnum.MethodExtractNoneArguments, MethodExtractNoneArguments::new);
+        factories.put(CodeContextEnum.MethodExtractNoneResults, MethodExtractNoneResults::new);
+        factories.put(CodeContextEnum.MethodExtractControlReturn, MethodExtractControlReturn::new);
+        factories.put(CodeContextEnum.MethodExtractNoControlReturn, MethodExtractNoControlReturn::new);
+
+        return factories;
+    }
+
+    /**
+     * @return Base context per complement context of the detectors in this package
+     */
+    public static Map<CodeContextEnum, CodeContextEnum> builtInComplements() {
+        Map<CodeContextEnum, CodeContextEnum> complements = new EnumMap<>(CodeContextEnum.class);
+
+        // Rename Method
+        complements.put(CodeContextEnum.MethodNoneInterfaceDeclaration, CodeContextEnum.MethodInterfaceDeclaration);
+        complements.put(CodeContextEnum.MethodNoneOverload, CodeContextEnum.MethodOverload);
+        complements.put(CodeContextEnum.MethodNoneOverride, CodeContextEnum.MethodOverride);
+        complements.put(CodeContextEnum.MethodNoneOverrideNoAnnotation, CodeContextEnum.MethodOverrideNoAnnotation);
+        complements.put(CodeContextEnum.MethodNoneSubclassOverride, CodeContextEnum.MethodSubclassOverride);
+
+        // Extract Method
+        complements.put(CodeContextEnum.MethodExtractNoNameHiding, CodeContextEnum.MethodExtractNameHiding);
+        complements.put(CodeContextEnum.MethodExtractNoControlReturn, CodeContextEnum.MethodExtractControlReturn);
+
+        return complements;
+    }
+
+    public Optional<DetectorFactory> getFactory(CodeContextEnum context) {
+        return Optional.ofNullable(_factories.get(context));
+    }
+
+    /**
+     * @return Base context of which the given context is the complement, empty when it is detected on its own
+     */
+    public Optional<CodeContextEnum> getComplementBase(CodeContextEnum context) {
+        return Optional.ofNullable(_complements.get(context));
+    }
+
+    /**
+     * Creates the detectors of the given contexts, in context order. No detector is created for always_true.
+     * When both a complement and its base are given, the complement detector derives its answer from a single
+     * evaluation of the base detector.
+     *
+     * @param contexts Contexts to be detected, e.g. all contexts of an instruction graph
+     * @param cc       Configuration of the request, passed to each detector
+     */
+    public List<IContextDetector> createDetectors(EnumSet<CodeContextEnum> contexts, ContextConfiguration cc) {
+        List<IContextDetector> detectors = new ArrayList<>(contexts.size());
+        Map<CodeContextEnum, IContextDetector> sharedBases = new EnumMap<>(CodeContextEnum.class);
+
+        for (CodeContextEnum context : contexts) {
+            if (context != CodeContextEnum.always_true) {
+                CodeContextEnum base = _complements.get(context);
+
+                if (base != null && contexts.contains(base)) {
+                    detectors.add(new ComplementDetector(context, sharedBase(base, sharedBases, cc)));
+                }
+                else if (isComplementedIn(context, contexts)) {
+                    detectors.add(sharedBase(context, sharedBases, cc));
+                }
+                else {
+                    detectors.add(_factories.get(context).create(cc));
+                }
+            }
+        }
+
+        return detectors;
+    }
+
+    private boolean isComplementedIn(CodeContextEnum base, EnumSet<CodeContextEnum> contexts) {
+        return _complements.entrySet().stream()
+                .anyMatch(complement -> complement.getValue() == base && contexts.contains(complement.getKey()));
+    }
+
+    private IContextDetector sharedBase(CodeContextEnum base, Map<CodeContextEnum, IContextDetector> sharedBases,
+                                        ContextConfiguration cc) {
+        return sharedBases.computeIfAbsent(base, context -> new MemoizedDetector(_factories.get(context).create(cc)));
+    }
+}
@@ -25,7 +25,6 @@ import analysis.ICodeAnalyzer;
 import analysis.MethodAnalyzer.ClassMethodFinder;
 import analysis.dataflow.MethodDataFlowAnalyzer;
 
-import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
@@ -41,6 +40,8 @@ public class ContextDetectorSetBuilder {
 
     private ContextConfiguration _analyzerConfig = null;
 
+    private ContextDetectorRegistry _registry = ContextDetectorRegistry.getDefault();
+
     private List<IContextDetector> _contextDetectors = new ArrayList<IContextDetector>();
     private List<ICodeAnalyzer> _analyzers = new ArrayList<ICodeAnalyzer>();
 
@@ -52,6 +53,13 @@ public class ContextDetectorSetBuilder {
         this._aig = aig;
     }
 
+    /**
+     * @param registry Detector per context, replaces the default registry
+     */
+    public void setRegistry(ContextDetectorRegistry registry) {
+        this._registry = registry;
+    }
+
     public List<IContextDetector> getContextDetectors() throws Exception {
         if(_analyzerConfig == null) {
             throw new Exception("No ContextConfiguration object was defined. call setContextAnalyzerConfiguration(...) first");
@@ -104,8 +112,7 @@ public class ContextDetectorSetBuilder {
     private void BuildRenameContextDetectors(EnumSet<CodeContext.CodeContextEnum> completeCodeContext)
     {
         // 1. setup the analyzers and add them to the generic config object.
-        _analyzerConfig.setCMFAnalyzer(new ClassMethodFinder());
-        _analyzerConfig.getCMFAnalyzer().initialize(_analyzerConfig.getCompilationUnit(), _analyzerConfig.getClassName());
+        setupClassMethodFinder();
 
         // 2. Create the relevant detectors and provided them with the generic config object
         UniversalBuildContextDetectors(completeCodeContext, _analyzerConfig);
@@ -116,18 +123,33 @@ public class ContextDetectorSetBuilder {
     private void BuildExtractMethodContextDetectors(EnumSet<CodeContext.CodeContextEnum> completeCodeContext)
     {
         // 1. setup the analyzers and add them to the generic config object.
-        _analyzerConfig.setCMFAnalyzer(new ClassMethodFinder());
-        _analyzerConfig.getCMFAnalyzer().initialize(_analyzerConfig.getCompilationUnit(), _analyzerConfig.getClassName());
+        setupClassMethodFinder();
 
-        _analyzerConfig.setMethodDataFlowAnalyzer(new MethodDataFlowAnalyzer());
-        _analyzerConfig.getMethodDataFlowAnalyzer().initialize(
-                _analyzerConfig.getCMFAnalyzer().getMethodDescriberForLocation(_analyzerConfig.getCodeSection().begin()).getMethodDeclaration(),
-                _analyzerConfig.getCodeSection());
+        if (_analyzerConfig.getMethodDataFlowAnalyzer() == null) {
+            _analyzerConfig.setMethodDataFlowAnalyzer(new MethodDataFlowAnalyzer());
+            _analyzerConfig.getMethodDataFlowAnalyzer().initialize(
+                    _analyzerConfig.getCMFAnalyzer().getMethodDescriberForLocation(_analyzerConfig.getCodeSection().begin()).getMethodDeclaration(),
+                    _analyzerConfig.getCodeSection());
+        }
 
         // 2. Create the relevant detectors and provided them with the generic config object
         UniversalBuildContextDetectors(completeCodeContext, _analyzerConfig);
     }
 
+    /**
+     * Creates the class method finder, unless the configuration already has one, e.g. shared between the
+     * requests of a batch
+     */
+    private void setupClassMethodFinder()
+    {
+        if (_analyzerConfig.getCMFAnalyzer() == null) {
+            _analyzerConfig.setCMFAnalyzer(new ClassMethodFinder());
+            _analyzerConfig.getCMFAnalyzer().initialize(_analyzerConfig.getCompilationUnit(), _analyzerConfig.getClassName(),
+                    _analyzerConfig.getTypeSolverService());
+            _analyzerConfig.getCMFAnalyzer().setTypeHierarchyIndex(_analyzerConfig.getTypeHierarchyIndex());
+        }
+    }
+
     /**
      * A set of context detectors is build based on the context set that is provided.
      * The @ContextConfiguration object is used to provide detectors with necessary input in a generic way
@@ -138,60 +160,7 @@ public class ContextDetectorSetBuilder {
     private void UniversalBuildContextDetectors(EnumSet<CodeContext.CodeContextEnum> completeCodeContext,
                                                 ContextConfiguration analyzerConfig)
     {
-            if (ContextDetectorForAllContextDecisions(completeCodeContext)) {
-                try {
-                    for (CodeContext.CodeContextEnum context : completeCodeContext) {
-
-                        if (!context.toString().contentEquals(CodeContext.CodeContextEnum.always_true.toString())) {
-
-                            Class<?> classCtxt = Class.forName("analysis.context." + context.name());
-                            Class<?> classConfig = Class.forName("analysis.context.ContextConfiguration");
-
-                            Constructor<?> constructor = classCtxt.getConstructor(classConfig);
-
-                            IContextDetector instance =
-                                    (IContextDetector) constructor.newInstance(analyzerConfig);
-
-                            _contextDetectors.add(instance);
-                        }
-                    }
-                }
-                catch(ClassNotFoundException cnfe)
-                {
-                    System.out.println(cnfe.getMessage());
-                }
-                catch(Exception e)
-                {
-                    System.out.println(e.getMessage());
-                }
-            }
-        }
-
-
-    /**
-     * Internally used to validate if all requested detectors in the context set are actually
-     * present as classes in our java project
-     *
-     * @param completeCodeContext
-     * @return True, when all necessary classes could be found
-     */
-    private boolean ContextDetectorForAllContextDecisions(EnumSet<CodeContext.CodeContextEnum> completeCodeContext) {
-
-        boolean allDefined = true;
-
-        try {
-            for (CodeContext.CodeContextEnum context : completeCodeContext) {
-                if(!context.toString().contentEquals(CodeContext.CodeContextEnum.always_true.toString()))
-                    Class.forName("analysis.context." + context.name());
-            }
-        }
-        catch(ClassNotFoundException cnfe)
-        {
-            System.out.println("class " + cnfe.getMessage() + " not defined");
-            allDefined = false;
-        }
-
-        return allDefined;
+        _contextDetectors.addAll(_registry.createDetectors(completeCodeContext, analyzerConfig));
     }
 
     public void setConfiguration(ContextConfiguration configuration) {
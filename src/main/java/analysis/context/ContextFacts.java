@@ -0,0 +1,286 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.context;
+
+import analysis.MethodAnalyzer.ClassMethodFinder;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.MethodAnalyzer.MethodId;
+import analysis.dataflow.MethodDataFlowAnalyzer;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserMethodDeclaration;
+import com.github.javaparser.symbolsolver.model.declarations.MethodDeclaration;
+import com.github.javaparser.symbolsolver.model.declarations.ReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.model.typesystem.ReferenceType;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Facts about the analyzed code that are shared by the detectors of one request.
+ *
+ * Sibling detectors ask the same questions (e.g. which variables are input of the extracted code, is the
+ * method declared in a super class). Each fact is computed once, on first use, from the analyzers in the
+ * context configuration and then read by all detectors. A fact that fails to compute fails again with the
+ * same exception for every detector reading it. Facts may be read from multiple threads.
+ *
+ * A computation that is cancelled or interrupted (e.g. the detector computing it timed out) is not a result
+ * of the fact and is not kept: the detectors waiting for it compute the fact again.
+ *
+ * The store belongs to a single ContextConfiguration, a new request gets a new configuration and store.
+ */
+public class ContextFacts {
+
+    public enum Fact
+    {
+        INPUT_VARIABLES,
+        OUTPUT_VARIABLES,
+        SUPER_CLASS_DECLARATION,
+        INTERFACE_DECLARATION,
+        OVERRIDDEN_METHODS,
+        OVERLOADS
+    }
+
+    private final ContextConfiguration _configuration;
+
+    private final Map<Fact, FutureTask<Object>> _facts = new ConcurrentHashMap<>();
+    private final Map<Fact, AtomicInteger> _computations = new EnumMap<>(Fact.class);
+    private final Map<Fact, AtomicInteger> _reads = new EnumMap<>(Fact.class);
+
+    /**
+     * @param configuration Configuration of the request, its analyzers are looked up when a fact is first computed
+     */
+    public ContextFacts(ContextConfiguration configuration)
+    {
+        this._configuration = configuration;
+
+        for (Fact fact : Fact.values()) {
+            _computations.put(fact, new AtomicInteger());
+            _reads.put(fact, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Facts of a method analyzed without a complete context configuration
+     */
+    public static ContextFacts of(ClassMethodFinder cmf, MethodDescriber method) {
+        ContextConfiguration configuration = new ContextConfiguration();
+        configuration.setCMFAnalyzer(cmf);
+        configuration.setMethodDescriber(method);
+
+        return configuration.getFacts();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Fact fact, Callable<T> computation) throws Exception {
+        _reads.get(fact).incrementAndGet();
+
+        while (true) {
+            FutureTask<Object> task = new FutureTask<>(() -> {
+                _computations.get(fact).incrementAndGet();
+                return compute(fact, computation);
+            });
+
+            FutureTask<Object> existing = _facts.putIfAbsent(fact, task);
+            boolean computedHere = (existing == null);
+
+            if (computedHere) {
+                task.run();
+            }
+            else {
+                task = existing;
+            }
+
+            try {
+                return (T) task.get();
+            }
+            catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+
+                if (cause instanceof CancellationException) {
+                    _facts.remove(fact, task);
+
+                    if (!computedHere && !Thread.currentThread().isInterrupted()) {
+                        continue;
+                    }
+                }
+
+                throw (cause instanceof Exception) ? (Exception) cause : new Exception(cause);
+            }
+        }
+    }
+
+    /**
+     * Runs the computation of a fact. A failure of an interrupted computation, or one caused by an interruption,
+     * is reported as a CancellationException.
+     */
+    private static Object compute(Fact fact, Callable<?> computation) throws Exception {
+        try {
+            return computation.call();
+        }
+        catch (CancellationException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            if (Thread.currentThread().isInterrupted() || causedByInterruption(e)) {
+                CancellationException cancelled = new CancellationException("Computation of " + fact + " was interrupted");
+                cancelled.initCause(e);
+                throw cancelled;
+            }
+
+            throw e;
+        }
+    }
+
+    private static boolean causedByInterruption(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof CancellationException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private MethodDataFlowAnalyzer dataFlowAnalyzer() throws Exception {
+        MethodDataFlowAnalyzer analyzer = _configuration.getMethodDataFlowAnalyzer();
+
+        if (analyzer == null) {
+            throw new Exception("Valid MethodDataFlowAnalyzer should be provided in ContextConfiguration");
+        }
+
+        analyzer.start();
+        return analyzer;
+    }
+
+    private ClassMethodFinder classMethodFinder() throws Exception {
+        ClassMethodFinder analyzer = _configuration.getCMFAnalyzer();
+
+        if (analyzer == null) {
+            throw new Exception("Analyzer = null");
+        }
+
+        return analyzer;
+    }
+
+    /**
+     * @return Variables that are read in the extracted code and assigned a value before it
+     */
+    public List<String> getInputVariables() throws Exception {
+        return get(Fact.INPUT_VARIABLES, () -> Collections.unmodifiableList(dataFlowAnalyzer().variablesForInput()));
+    }
+
+    /**
+     * @return Variables that are assigned a value in the extracted code and used after it
+     */
+    public List<String> getOutputVariables() throws Exception {
+        return get(Fact.OUTPUT_VARIABLES, () -> Collections.unmodifiableList(dataFlowAnalyzer().variablesForOutput()));
+    }
+
+    /**
+     * @return true when the analyzed method is also declared in one of the super classes
+     */
+    public boolean isDeclaredInSuperClass() throws Exception {
+        return get(Fact.SUPER_CLASS_DECLARATION,
+                () -> classMethodFinder().isMethodDefinedInSuperClass(_configuration.getMethodDescriber()));
+    }
+
+    /**
+     * @return Name of the first interface declaring the analyzed method, empty when no interface declares it
+     */
+    public Optional<String> getDeclaringInterface() throws Exception {
+        return get(Fact.INTERFACE_DECLARATION, () -> {
+            ClassMethodFinder analyzer = classMethodFinder();
+
+            return analyzer.isMethodDeclaredFirstTimeInInterface(_configuration.getMethodDescriber()) ?
+                    Optional.of(analyzer.methodDefinedInInterface()) : Optional.<String>empty();
+        });
+    }
+
+    /**
+     * @return Declarations of the analyzed method in super classes, in ancestor order
+     */
+    public List<JavaParserMethodDeclaration> getOverriddenMethods() throws Exception {
+        return get(Fact.OVERRIDDEN_METHODS, () -> {
+            MethodDescriber method = _configuration.getMethodDescriber();
+            List<JavaParserMethodDeclaration> overridden = new ArrayList<>();
+
+            forEachSuperClassMethod((m, id) -> {
+                if (id == method.getMethodId()) {
+                    overridden.add((JavaParserMethodDeclaration) m);
+                }
+            });
+
+            return Collections.unmodifiableList(overridden);
+        });
+    }
+
+    /**
+     * @return Methods in super classes with the name of the analyzed method, but another signature or type
+     */
+    public List<MethodDeclaration> getOverloads() throws Exception {
+        return get(Fact.OVERLOADS, () -> {
+            MethodDescriber method = _configuration.getMethodDescriber();
+            List<MethodDeclaration> overloads = new ArrayList<>();
+
+            forEachSuperClassMethod((m, id) -> {
+                if (m.getName().contentEquals(method.getName()) && id != method.getMethodId()) {
+                    overloads.add(m);
+                }
+            });
+
+            return Collections.unmodifiableList(overloads);
+        });
+    }
+
+    /**
+     * Visits the declared methods of all ancestors that are classes and not in an ignored package
+     */
+    private void forEachSuperClassMethod(BiConsumer<MethodDeclaration, MethodId> visitor)
+            throws Exception {
+        ClassMethodFinder analyzer = classMethodFinder();
+
+        for (ReferenceType ancestor : analyzer.getAllAncestors()) {
+            ReferenceTypeDeclaration rtd_ancestor = ancestor.getTypeDeclaration();
+
+            if (!analyzer.isIgnoredPackage(rtd_ancestor) && !rtd_ancestor.isInterface()) {
+                analyzer.getDeclaredMethodIds(rtd_ancestor).forEach(visitor);
+            }
+        }
+    }
+
+    /**
+     * @return Number of times the fact has been computed, at most once per store
+     */
+    public int getComputationCount(Fact fact) {
+        return _computations.get(fact).get();
+    }
+
+    /**
+     * @return Number of times the fact has been asked for
+     */
+    public int getReadCount(Fact fact) {
+        return _reads.get(fact).get();
+    }
+}
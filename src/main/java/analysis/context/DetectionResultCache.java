@@ -0,0 +1,235 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.context;
+
+import aig.CodeContext.CodeContextEnum;
+import analysis.MethodAnalyzer.MethodDescriber;
+import helpers.ContentHash;
+import helpers.LruCache;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cache of context detection results, so a request on unchanged code does not run its detectors again.
+ *
+ * Results are kept in memory with least recently used eviction. When a directory is given, results are also
+ * stored on disk, one file per result, so they survive a restart. The key of a result covers everything the
+ * detectors read: the source of the compilation unit, the method, the selected code section, the files of
+ * the type hierarchy and the solver configuration. It also covers the build of the detectors, so results of
+ * other detector versions are never read. A change in any of those leads to a different key.
+ */
+public class DetectionResultCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static String _detectorFingerprint = null;
+
+    private final LruCache<String, Result> _memory;
+    private final Path _directory;
+
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+
+    /**
+     * Detected contexts and the parameters of a single request
+     */
+    public static class Result implements Serializable {
+
+        private static final long serialVersionUID = 2L;
+
+        private final EnumSet<CodeContextEnum> _detected;
+        private final Map<String, List<String>> _parameters;
+
+        public Result(EnumSet<CodeContextEnum> detected, Map<String, List<String>> parameters)
+        {
+            this._detected = EnumSet.copyOf(detected);
+            this._parameters = copyOf(parameters);
+        }
+
+        /**
+         * @return Copy of the detected contexts, which may be changed by the caller
+         */
+        public EnumSet<CodeContextEnum> getDetectedContextSet() {
+            return EnumSet.copyOf(_detected);
+        }
+
+        /**
+         * @return Copy of the parameter map, which may be changed by the caller
+         */
+        public Map<String, List<String>> getParameterMap() {
+            return copyOf(_parameters);
+        }
+
+        private static Map<String, List<String>> copyOf(Map<String, List<String>> parameters) {
+            Map<String, List<String>> copy = new HashMap<>();
+            parameters.forEach((parameter, values) -> copy.put(parameter, new ArrayList<>(values)));
+            return copy;
+        }
+    }
+
+    /**
+     * In memory cache only
+     */
+    public DetectionResultCache(int capacity)
+    {
+        this(capacity, null);
+    }
+
+    /**
+     * @param capacity  Number of results kept in memory
+     * @param directory Directory in which results are stored as well, null to keep them in memory only
+     */
+    public DetectionResultCache(int capacity, Path directory)
+    {
+        this._memory = new LruCache<>(capacity);
+        this._directory = directory;
+    }
+
+    /**
+     * @return Cache directory in the home folder of the user, shared by all projects
+     */
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".rpg", "detections");
+    }
+
+    /**
+     * Creates the key of a request
+     *
+     * @param refactoring        Name of the refactoring, the detectors depend on its graph
+     * @param sourceHash         Content hash of the source of the compilation unit
+     * @param qualifiedClassName Class containing the method
+     * @param method             Method that is refactored
+     * @param section            Selected code section, null when the refactoring has no selection
+     * @param dependencyHash     Hash of the other input the detectors read: the files of the type hierarchy
+     *                           and the solver configuration
+     */
+    public static String keyOf(String refactoring, String sourceHash, String qualifiedClassName, MethodDescriber method,
+                               CodeSection section, String dependencyHash) {
+        String sectionKey = (section == null || section.notDefined()) ? "-" : section.begin() + "-" + section.end();
+
+        return ContentHash.of(String.join("\n", detectorFingerprint(), refactoring, sourceHash, qualifiedClassName,
+                method.fullTypeSignature(), sectionKey, dependencyHash));
+    }
+
+    /**
+     * Fingerprint of the build of the detectors: the jar, or the class files when they are run from a directory.
+     * A rebuild that changes a class changes the fingerprint. When the build cannot be read, the fingerprint
+     * is unique to this run, so stored results are not used.
+     */
+    static synchronized String detectorFingerprint() {
+        if (_detectorFingerprint == null) {
+            try {
+                Path location = Paths.get(DetectionResultCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+                List<String> parts = new ArrayList<>();
+
+                try (Stream<Path> files = Files.walk(location)) {
+                    for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                        parts.add(location.relativize(file) + " " + Files.size(file) + " " + Files.getLastModifiedTime(file).toMillis());
+                    }
+                }
+
+                _detectorFingerprint = ContentHash.of(String.join("\n", parts));
+            }
+            catch (IOException | URISyntaxException | RuntimeException e) {
+                System.out.println("Unable to read the build of the detectors, detection results are not reused: " + e.getMessage());
+                _detectorFingerprint = UUID.randomUUID().toString();
+            }
+        }
+
+        return _detectorFingerprint;
+    }
+
+    /**
+     * @return The cached result, from memory or else from disk, empty when the request has not been seen
+     */
+    public Optional<Result> load(String key) {
+        Optional<Result> result = _memory.get(key);
+
+        if (!result.isPresent() && _directory != null) {
+            result = loadFromDisk(key);
+            result.ifPresent(stored -> _memory.put(key, stored));
+        }
+
+        (result.isPresent() ? _hits : _misses).incrementAndGet();
+
+        return result;
+    }
+
+    private Optional<Result> loadFromDisk(String key) {
+        Path entry = entryFor(key);
+
+        if (Files.isRegularFile(entry)) {
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+                return Optional.of((Result) in.readObject());
+            }
+            catch (IOException | ClassNotFoundException | ClassCastException e) {
+                // A damaged entry is treated as not present, it is overwritten by the next store
+                System.out.println("Ignoring unreadable cache entry " + entry + ": " + e.getMessage());
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Stores a result in memory, and on disk when a directory is set. On disk the entry is written to a
+     * temporary file first, so concurrent readers never see a partially written entry.
+     */
+    public void store(String key, Result result) {
+        _memory.put(key, result);
+
+        if (_directory != null) {
+            try {
+                Files.createDirectories(_directory);
+
+                Path temporary = Files.createTempFile(_directory, key, ".tmp");
+
+                try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                    out.writeObject(result);
+                }
+
+                Files.move(temporary, entryFor(key), StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (IOException e) {
+                System.out.println("Unable to store detection result in cache: " + e.getMessage());
+            }
+        }
+    }
+
+    private Path entryFor(String key) {
+        return _directory.resolve(key + ".detection");
+    }
+
+    public long getHitCount() {
+        return _hits.get();
+    }
+
+    public long getMissCount() {
+        return _misses.get();
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.context;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Threads on which detectors run in the background, shared by all context analyzers.
+ *
+ * Threads are created on demand and end when idle. A detector that ignores its interruption after a timeout
+ * (e.g. stuck in solver code) only keeps its own thread busy, later detections get another thread. The number
+ * of detections in flight, stuck ones included, is capped. Beyond the cap a detection is rejected instead of
+ * waiting for a thread that may never come free.
+ */
+class DetectorPool {
+
+    private final int _capacity;
+    private final Semaphore _inFlight;
+    private final ThreadPoolExecutor _executor;
+
+    /**
+     * @param capacity Maximum number of detections in flight
+     */
+    DetectorPool(int capacity)
+    {
+        this._capacity = capacity;
+        this._inFlight = new Semaphore(capacity);
+        this._executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    // Daemon threads keep stuck detectors from holding up the JVM
+                    Thread thread = new Thread(runnable, "context-detector");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * @throws RejectedExecutionException When the maximum number of detections is in flight
+     */
+    <T> Future<T> submit(Callable<T> task) {
+        if (!_inFlight.tryAcquire()) {
+            throw new RejectedExecutionException("All " + _capacity + " detector threads are busy");
+        }
+
+        InFlightTask<T> inFlight = new InFlightTask<>(task);
+
+        try {
+            _executor.execute(inFlight);
+        }
+        catch (RejectedExecutionException e) {
+            inFlight.cancel(false);
+            throw e;
+        }
+
+        return inFlight;
+    }
+
+    Future<?> submit(Runnable task) {
+        return submit(Executors.callable(task));
+    }
+
+    /**
+     * @return Number of detections that have not finished yet, including cancelled ones that are still running
+     */
+    int getInFlightCount() {
+        return _capacity - _inFlight.availablePermits();
+    }
+
+    /**
+     * Holds its place in the pool until it stops running, not until it is cancelled. A task cancelled before
+     * it started gives its place back right away.
+     */
+    private final class InFlightTask<T> extends FutureTask<T> {
+
+        private final AtomicBoolean _started = new AtomicBoolean();
+
+        InFlightTask(Callable<T> task)
+        {
+            super(task);
+        }
+
+        @Override
+        public void run() {
+            if (!_started.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                super.run();
+            }
+            finally {
+                _inFlight.release();
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (_started.compareAndSet(false, true)) {
+                _inFlight.release();
+            }
+        }
+    }
+}
@@ -21,6 +21,9 @@ package analysis.context;
 
 import aig.CodeContext;
 
+import java.util.Collections;
+import java.util.Set;
+
 // A General interface which every context class should implement
 public interface IContextDetector {
 
@@ -46,4 +49,25 @@ public interface IContextDetector {
      * @return
      */
     CodeContext.CodeContextEnum getType();
+
+    /**
+     * Rough estimate of the work done by detect, used to schedule detectors
+     */
+    enum Cost {
+        CHEAP,      // scan of the AST of the analyzed method or an index lookup
+        MODERATE,   // data flow analysis of the analyzed method
+        EXPENSIVE   // symbol resolution over the type hierarchy
+    }
+
+    default Cost getCost() {
+        return Cost.MODERATE;
+    }
+
+    /**
+     * @return Shared facts read by detect. Detectors reading the same fact wait for a single computation of it,
+     *         so they are best evaluated one after another.
+     */
+    default Set<ContextFacts.Fact> getFactDependencies() {
+        return Collections.emptySet();
+    }
 }
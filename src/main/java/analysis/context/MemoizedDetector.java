@@ -0,0 +1,86 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.context;
+
+import aig.CodeContext;
+
+import java.util.Set;
+
+/**
+ * Runs the detection of the wrapped detector once, later calls return the same answer or throw the same
+ * exception. Used when the answer of a detector is also read by the detector of its complement context.
+ */
+class MemoizedDetector implements IContextDetector {
+
+    private final IContextDetector _detector;
+
+    private volatile Boolean _detected = null;
+    private volatile Exception _failure = null;
+
+    MemoizedDetector(IContextDetector detector)
+    {
+        this._detector = detector;
+    }
+
+    @Override
+    public synchronized boolean detect() throws Exception {
+        if (_detected == null && _failure == null) {
+            try {
+                _detected = _detector.detect();
+            }
+            catch (Exception e) {
+                _failure = e;
+            }
+        }
+
+        if (_failure != null) {
+            throw _failure;
+        }
+
+        return _detected;
+    }
+
+    /**
+     * @return true when the answer is known, so detect returns without doing any work
+     */
+    boolean isSettled() {
+        return _detected != null || _failure != null;
+    }
+
+    @Override
+    public ParameterCollector getParameters() {
+        return _detector.getParameters();
+    }
+
+    @Override
+    public CodeContext.CodeContextEnum getType() {
+        return _detector.getType();
+    }
+
+    @Override
+    public Cost getCost() {
+        return _detector.getCost();
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return _detector.getFactDependencies();
+    }
+}
@@ -24,11 +24,13 @@ import analysis.dataflow.MethodDataFlowAnalyzer;
 public class MethodExtract extends ContextDetector {
 
     protected MethodDataFlowAnalyzer _analyzer = null;
+    protected ContextFacts _facts = null;
 
     public MethodExtract() {}
 
     public MethodExtract(ContextConfiguration cc) {
         this._analyzer = cc.getMethodDataFlowAnalyzer();
+        this._facts = cc.getFacts();
     }
 
     protected boolean validDataFlowAnalyzer() throws Exception {
@@ -52,6 +52,11 @@ public class MethodExtractControlReturn extends MethodExtract {
         return rf.getResult();
     }
 
+    @Override
+    public Cost getCost() {
+        return Cost.CHEAP;
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodExtractControlReturn;
@@ -21,7 +21,9 @@ package analysis.context;
 
 import aig.CodeContext;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class MethodExtractMultiResult extends MethodExtract {
 
@@ -32,8 +34,7 @@ public class MethodExtractMultiResult extends MethodExtract {
     public boolean detect() throws Exception {
 
         if (validDataFlowAnalyzer()) {
-            _analyzer.start();
-            List<String> vfo = _analyzer.variablesForOutput();
+            List<String> vfo = _facts.getOutputVariables();
 
             if (vfo.size() > 1) {
                 vfo.forEach(result ->
@@ -44,6 +45,11 @@ public class MethodExtractMultiResult extends MethodExtract {
         return !parameters.getCollection().isEmpty();
     }
 
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return EnumSet.of(ContextFacts.Fact.OUTPUT_VARIABLES);
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodExtractMultiResult;
@@ -20,6 +20,8 @@
 package analysis.context;
 import aig.CodeContext;
 
+import java.util.Set;
+
 /**
  * This class is the inverse of MethodExtractNameHiding
  */
@@ -39,6 +41,16 @@ public class MethodExtractNoControlReturn extends MethodExtract {
         return !_mecr.detect();
     }
 
+    @Override
+    public Cost getCost() {
+        return _mecr.getCost();
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return _mecr.getFactDependencies();
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodExtractNoControlReturn;
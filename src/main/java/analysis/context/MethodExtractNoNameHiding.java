@@ -21,6 +21,8 @@ package analysis.context;
 
 import aig.CodeContext;
 
+import java.util.Set;
+
 /**
  * This class is the inverse of MethodExtractNameHiding
  */
@@ -40,6 +42,16 @@ public class MethodExtractNoNameHiding extends MethodExtract {
         return !_menh.detect();
     }
 
+    @Override
+    public Cost getCost() {
+        return _menh.getCost();
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return _menh.getFactDependencies();
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodExtractNoNameHiding;
@@ -32,7 +32,7 @@ public class MethodExtractNoneArguments extends MethodExtractNoneLocalDependenci
     public boolean detect() throws Exception {
 
         super.detect();
-        return _analyzer.variablesForInput().isEmpty();
+        return _facts.getInputVariables().isEmpty();
 
     }
 
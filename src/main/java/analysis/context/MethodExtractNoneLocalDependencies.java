@@ -21,7 +21,9 @@ package analysis.context;
 
 import aig.CodeContext;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class MethodExtractNoneLocalDependencies extends MethodExtract {
 
@@ -34,10 +36,8 @@ public class MethodExtractNoneLocalDependencies extends MethodExtract {
         boolean result = false;
 
         if (validDataFlowAnalyzer()) {
-
-            _analyzer.start();
-            List<String> vfi = _analyzer.variablesForInput();
-            List<String> vfo = _analyzer.variablesForOutput();
+            List<String> vfi = _facts.getInputVariables();
+            List<String> vfo = _facts.getOutputVariables();
 
             result = vfi.isEmpty() && vfo.isEmpty();
         }
@@ -45,6 +45,11 @@ public class MethodExtractNoneLocalDependencies extends MethodExtract {
         return result;
     }
 
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return EnumSet.of(ContextFacts.Fact.INPUT_VARIABLES, ContextFacts.Fact.OUTPUT_VARIABLES);
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodExtractNoneLocalDependencies;
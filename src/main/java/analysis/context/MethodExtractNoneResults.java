@@ -29,7 +29,7 @@ public class MethodExtractNoneResults extends MethodExtractNoneLocalDependencies
 
     public boolean detect() throws Exception {
         super.detect();
-        return _analyzer.variablesForOutput().isEmpty();
+        return _facts.getOutputVariables().isEmpty();
     }
 
     @Override
@@ -21,7 +21,9 @@ package analysis.context;
 
 import aig.CodeContext;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class MethodExtractSingleArgument extends MethodExtract {
 
@@ -32,8 +34,7 @@ public class MethodExtractSingleArgument extends MethodExtract {
     public boolean detect() throws Exception {
 
         if (validDataFlowAnalyzer()) {
-            _analyzer.start();
-            List<String> vfi = _analyzer.variablesForInput();
+            List<String> vfi = _facts.getInputVariables();
 
             if (vfi.size() == 1) {
                 parameters.addArgumentName(vfi.get(0));
@@ -43,6 +44,11 @@ public class MethodExtractSingleArgument extends MethodExtract {
         return !parameters.getCollection().isEmpty();
     }
 
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return EnumSet.of(ContextFacts.Fact.INPUT_VARIABLES);
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodExtractSingleArgument;
@@ -21,7 +21,9 @@ package analysis.context;
 
 import aig.CodeContext;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class MethodExtractSingleResult extends MethodExtract {
 
@@ -32,8 +34,7 @@ public class MethodExtractSingleResult extends MethodExtract {
     public boolean detect() throws Exception {
 
         if (validDataFlowAnalyzer()) {
-            _analyzer.start();
-            List<String> vfo = _analyzer.variablesForOutput();
+            List<String> vfo = _facts.getOutputVariables();
 
             if (vfo.size() == 1) {
                 parameters.addResultName(vfo.get(0));
@@ -43,6 +44,11 @@ public class MethodExtractSingleResult extends MethodExtract {
         return !parameters.getCollection().isEmpty();
     }
 
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return EnumSet.of(ContextFacts.Fact.OUTPUT_VARIABLES);
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodExtractSingleResult;
@@ -23,19 +23,26 @@ import aig.CodeContext;
 import analysis.MethodAnalyzer.ClassMethodFinder;
 import analysis.MethodAnalyzer.MethodDescriber;
 
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
 public class MethodInterfaceDeclaration extends ContextDetector {
 
     private ClassMethodFinder _analyzer = null;
     private MethodDescriber _method = null;
+    private ContextFacts _facts = null;
 
     public MethodInterfaceDeclaration(ClassMethodFinder cmf, MethodDescriber method) {
         this._analyzer = cmf;
         this._method = method;
+        this._facts = ContextFacts.of(cmf, method);
     }
 
     public MethodInterfaceDeclaration(ContextConfiguration cc) {
         this._analyzer = cc.getCMFAnalyzer();
         this._method = cc.getMethodDescriber();
+        this._facts = cc.getFacts();
     }
 
     public boolean detect() throws Exception {
@@ -43,9 +50,11 @@ public class MethodInterfaceDeclaration extends ContextDetector {
 
         if(_analyzer != null)
         {
-            if(_analyzer.isMethodDeclaredFirstTimeInInterface(_method))
+            Optional<String> declaringInterface = _facts.getDeclaringInterface();
+
+            if(declaringInterface.isPresent())
             {
-                getParameters().addInterfaceName(_analyzer.methodDefinedInInterface());
+                getParameters().addInterfaceName(declaringInterface.get());
                 result = true;
             }
         }
@@ -57,6 +66,16 @@ public class MethodInterfaceDeclaration extends ContextDetector {
         return result;
     }
 
+    @Override
+    public Cost getCost() {
+        return Cost.EXPENSIVE;
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return EnumSet.of(ContextFacts.Fact.INTERFACE_DECLARATION);
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodInterfaceDeclaration;
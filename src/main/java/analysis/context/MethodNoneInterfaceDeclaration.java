@@ -23,6 +23,8 @@ import aig.CodeContext;
 import analysis.MethodAnalyzer.ClassMethodFinder;
 import analysis.MethodAnalyzer.MethodDescriber;
 
+import java.util.Set;
+
 public class MethodNoneInterfaceDeclaration extends ContextDetector {
 
     MethodInterfaceDeclaration _mid = null;
@@ -42,6 +44,16 @@ public class MethodNoneInterfaceDeclaration extends ContextDetector {
         return !_mid.detect();
     }
 
+    @Override
+    public Cost getCost() {
+        return _mid.getCost();
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return _mid.getFactDependencies();
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodNoneInterfaceDeclaration;
@@ -21,6 +21,8 @@ package analysis.context;
 
 import aig.CodeContext;
 
+import java.util.Set;
+
 public class MethodNoneOverload extends ContextDetector {
 
          MethodOverload _mo = null;
@@ -36,6 +38,16 @@ public class MethodNoneOverload extends ContextDetector {
             return !_mo.detect();
         }
 
+        @Override
+        public Cost getCost() {
+            return _mo.getCost();
+        }
+
+        @Override
+        public Set<ContextFacts.Fact> getFactDependencies() {
+            return _mo.getFactDependencies();
+        }
+
         @Override
         public CodeContext.CodeContextEnum getType() {
             return CodeContext.CodeContextEnum.MethodNoneOverload;
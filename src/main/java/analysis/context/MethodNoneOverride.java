@@ -23,6 +23,8 @@ import aig.CodeContext;
 import analysis.MethodAnalyzer.ClassMethodFinder;
 import analysis.MethodAnalyzer.MethodDescriber;
 
+import java.util.Set;
+
 public class MethodNoneOverride extends ContextDetector {
 
     MethodOverride _mo = null;
@@ -42,6 +44,16 @@ public class MethodNoneOverride extends ContextDetector {
         return !_mo.detect();
     }
 
+    @Override
+    public Cost getCost() {
+        return _mo.getCost();
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return _mo.getFactDependencies();
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodNoneOverride;
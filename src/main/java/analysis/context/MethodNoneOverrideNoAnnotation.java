@@ -21,6 +21,8 @@ package analysis.context;
 
 import aig.CodeContext;
 
+import java.util.Set;
+
 public class MethodNoneOverrideNoAnnotation extends ContextDetector {
 
     MethodOverrideNoAnnotation _mowna = null;
@@ -36,6 +38,16 @@ public class MethodNoneOverrideNoAnnotation extends ContextDetector {
         return !_mowna.detect();
     }
 
+    @Override
+    public Cost getCost() {
+        return _mowna.getCost();
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return _mowna.getFactDependencies();
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodNoneOverrideNoAnnotation;
@@ -0,0 +1,61 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.context;
+
+import aig.CodeContext;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.project.TypeHierarchyIndex;
+
+import java.util.Set;
+
+public class MethodNoneSubclassOverride extends ContextDetector {
+
+    MethodSubclassOverride _mso = null;
+
+    public MethodNoneSubclassOverride(ContextConfiguration cc) {
+
+        super(cc);
+        _mso = new MethodSubclassOverride(cc);
+    }
+
+    public MethodNoneSubclassOverride(TypeHierarchyIndex index, String qualifiedClassName, MethodDescriber method) {
+        _mso = new MethodSubclassOverride(index, qualifiedClassName, method);
+    }
+
+    @Override
+    public boolean detect() throws Exception {
+        return !_mso.detect();
+    }
+
+    @Override
+    public Cost getCost() {
+        return _mso.getCost();
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return _mso.getFactDependencies();
+    }
+
+    @Override
+    public CodeContext.CodeContextEnum getType() {
+        return CodeContext.CodeContextEnum.MethodNoneSubclassOverride;
+    }
+}
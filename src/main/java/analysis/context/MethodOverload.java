@@ -23,9 +23,6 @@ import aig.CodeContext;
 import analysis.MethodAnalyzer.ClassMethodFinder;
 import analysis.MethodAnalyzer.MethodDescriber;
 import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserMethodDeclaration;
-import com.github.javaparser.symbolsolver.model.declarations.ReferenceTypeDeclaration;
-import com.github.javaparser.symbolsolver.model.typesystem.ReferenceType;
-
 
 import java.util.*;
 
@@ -37,6 +34,7 @@ public class MethodOverload extends ContextDetector {
 
     private ClassMethodFinder _analyzer = null;
     private MethodDescriber _md = null;
+    private ContextFacts _facts = null;
     private List<JavaParserMethodDeclaration>  methodsMatchingInName = new ArrayList<>();
 
     public MethodOverload(ContextConfiguration cc) {
@@ -44,36 +42,32 @@ public class MethodOverload extends ContextDetector {
 
         this._analyzer = cc.getCMFAnalyzer();
         this._md = cc.getMethodDescriber();
+        this._facts = cc.getFacts();
     }
 
     @Override
     public boolean detect() throws Exception {
 
-        // Determine all classes/interfaces that are superseeding the class being analyzed
-        ReferenceTypeDeclaration rtd = _analyzer.getReferenceTypeDeclarationOfClass();
-        List<ReferenceType> _rt = rtd.getAllAncestors();
-
-        _rt.forEach( ancestor ->
+        // Methods in the super classes of the class being analyzed with the same name as the provided method
+        _facts.getOverloads().forEach(m ->
         {
-            ReferenceTypeDeclaration rtd_ancestor = ancestor.getTypeDeclaration();
-
-            if (!_analyzer.isIgnoredPackage(rtd_ancestor) && !ancestor.getTypeDeclaration().isInterface()) {
-                // when ancestor is not a interface declaration, check if any method in super classes equals name of
-                // provided method name
-                rtd_ancestor.getDeclaredMethods().forEach(m ->
-                {
-                    if(_analyzer.MethodNameOnlyMatch(m, _md) &&
-                            !_analyzer.fullMethodSignatureMatch(m, _md)) {
-                        parameters.addMethodNameToVariableList(((JavaParserMethodDeclaration)m).getWrappedNode(), m.declaringType().getClassName());
-                        methodsMatchingInName.add((JavaParserMethodDeclaration)m);
-                    }
-                });
-            }
+            parameters.addMethodNameToVariableList(((JavaParserMethodDeclaration)m).getWrappedNode(), m.declaringType().getClassName());
+            methodsMatchingInName.add((JavaParserMethodDeclaration)m);
         });
 
         return !methodsMatchingInName.isEmpty();
     }
 
+    @Override
+    public Cost getCost() {
+        return Cost.EXPENSIVE;
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return EnumSet.of(ContextFacts.Fact.OVERLOADS);
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodOverload;
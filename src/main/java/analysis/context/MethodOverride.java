@@ -23,8 +23,6 @@ import aig.CodeContext;
 import analysis.MethodAnalyzer.ClassMethodFinder;
 import analysis.MethodAnalyzer.MethodDescriber;
 import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserMethodDeclaration;
-import com.github.javaparser.symbolsolver.model.declarations.ReferenceTypeDeclaration;
-import com.github.javaparser.symbolsolver.model.typesystem.ReferenceType;
 
 import java.util.*;
 
@@ -38,7 +36,7 @@ public class MethodOverride extends ContextDetector{
     protected ClassMethodFinder _analyzer = null;
     protected MethodDescriber _method = null;
 
-    protected List<ReferenceType> _rt = null;
+    protected ContextFacts _facts = null;
 
     protected List<JavaParserMethodDeclaration>  listOfNodesForOverrideMethods = new ArrayList<>();
 
@@ -48,6 +46,7 @@ public class MethodOverride extends ContextDetector{
     public MethodOverride(ClassMethodFinder cmf, MethodDescriber md) {
         this._analyzer = cmf;
         this._method = md;
+        this._facts = ContextFacts.of(cmf, md);
     }
 
     public MethodOverride(ContextConfiguration cc) {
@@ -56,6 +55,7 @@ public class MethodOverride extends ContextDetector{
         this._analyzer = cc.getCMFAnalyzer();
         this._method = cc.getMethodDescriber();
         this._className = cc.getClassName();
+        this._facts = cc.getFacts();
     }
 
     protected List<JavaParserMethodDeclaration> getOverridenMethods()
@@ -66,36 +66,27 @@ public class MethodOverride extends ContextDetector{
     @Override
     public boolean detect() throws Exception {
 
-        // Determine all classes/interfaces that are superseeding the class being analyzed
-        ReferenceTypeDeclaration rtd = _analyzer.getReferenceTypeDeclarationOfClass();
-        _rt = rtd.getAllAncestors();
-
-        _rt.forEach( ancestor ->
+        // Declarations of the same method in the classes superseeding the class being analyzed,
+        // interfaces are left to MethodInterfaceDeclaration
+        _facts.getOverriddenMethods().forEach(m ->
         {
-            ReferenceTypeDeclaration rtd_ancestor = ancestor.getTypeDeclaration();
-
-            if (!_analyzer.isIgnoredPackage(rtd_ancestor) && !ancestor.getTypeDeclaration().isInterface()) {
-                // when ancestor is not a interface declaration, check if any method in super classes equals name of
-                // provided method name
-                rtd_ancestor.getDeclaredMethods().forEach(m ->
-                {
-                        if(_analyzer.fullMethodSignatureMatch(m, _method)) {
-                        //if (m.getName().contentEquals(_method.getName())) {
-                            //System.out.println("Class " + m.declaringType().getQualifiedName() + " has method " + nameOfMethod);
-                            //System.out.println("Full signature = " + m.getSignature());
-                            //System.out.println("Returns " + m.getReturnType().describe());
-                            //System.out.println("Returns " + m.getQualifiedSignature());
-
-                            parameters.addClassNameToVariableList((JavaParserMethodDeclaration)m);
-                            listOfNodesForOverrideMethods.add((JavaParserMethodDeclaration)m);
-                        }
-                });
-            }
+            parameters.addClassNameToVariableList(m);
+            listOfNodesForOverrideMethods.add(m);
         });
 
         return !parameters.getCollection().isEmpty();
     }
 
+    @Override
+    public Cost getCost() {
+        return Cost.EXPENSIVE;
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return EnumSet.of(ContextFacts.Fact.OVERRIDDEN_METHODS);
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodOverride;
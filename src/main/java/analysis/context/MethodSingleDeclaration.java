@@ -23,14 +23,20 @@ import aig.CodeContext;
 import analysis.MethodAnalyzer.ClassMethodFinder;
 import analysis.MethodAnalyzer.MethodDescriber;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public class MethodSingleDeclaration extends ContextDetector {
 
     private ClassMethodFinder _analyzer = null;
     private MethodDescriber _method = null;
+    private ContextConfiguration _configuration = null;
+    private ContextFacts _facts = null;
 
     public MethodSingleDeclaration(ClassMethodFinder cmf, MethodDescriber method) {
         this._analyzer = cmf;
         this._method = method;
+        this._facts = ContextFacts.of(cmf, method);
     }
 
     /**
@@ -40,6 +46,8 @@ public class MethodSingleDeclaration extends ContextDetector {
     public MethodSingleDeclaration(ContextConfiguration cc) {
         this._analyzer = cc.getCMFAnalyzer();
         this._method = cc.getMethodDescriber();
+        this._configuration = cc;
+        this._facts = cc.getFacts();
     }
 
     @Override
@@ -47,11 +55,15 @@ public class MethodSingleDeclaration extends ContextDetector {
 
         if(_analyzer != null)
         {
-            if(!_analyzer.isMethodDefinedInSuperClass(_method) &&
-                !_analyzer.isMethodDeclaredFirstTimeInInterface(_method))
+            if(!_facts.isDeclaredInSuperClass() &&
+                !_facts.getDeclaringInterface().isPresent())
             {
                 getParameters().addSingleMethodName(this._method.fullTypeSignature());
                 getParameters().addSingleClassName(this._analyzer.getQualifiedClassName());
+
+                if (_configuration != null && _configuration.getCallSiteIndex() != null) {
+                    getParameters().addCallSites(_configuration.findCallSites());
+                }
             }
         }
         else
@@ -62,6 +74,16 @@ public class MethodSingleDeclaration extends ContextDetector {
         return !getParameters().getCollection().isEmpty();
     }
 
+    @Override
+    public Cost getCost() {
+        return Cost.EXPENSIVE;
+    }
+
+    @Override
+    public Set<ContextFacts.Fact> getFactDependencies() {
+        return EnumSet.of(ContextFacts.Fact.SUPER_CLASS_DECLARATION, ContextFacts.Fact.INTERFACE_DECLARATION);
+    }
+
     @Override
     public CodeContext.CodeContextEnum getType() {
         return CodeContext.CodeContextEnum.MethodSingleDeclaration;
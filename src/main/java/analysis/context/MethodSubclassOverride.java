@@ -0,0 +1,77 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.context;
+
+import aig.CodeContext;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.project.TypeHierarchyIndex;
+
+import java.util.List;
+
+/**
+ * Determines if given method is overridden in any subclass of the analyzed class.
+ * Subclasses are looked up in the type hierarchy index of the project, without resolving any type.
+ * When no index is available the context is unknown, the Rename Method graph only asks for it with an index.
+ * A class that is not in the index has no subclasses in the project.
+ */
+public class MethodSubclassOverride extends ContextDetector {
+
+    private TypeHierarchyIndex _index = null;
+    private String _qualifiedClassName = null;
+    private MethodDescriber _method = null;
+
+    public MethodSubclassOverride(TypeHierarchyIndex index, String qualifiedClassName, MethodDescriber method) {
+        this._index = index;
+        this._qualifiedClassName = qualifiedClassName;
+        this._method = method;
+    }
+
+    public MethodSubclassOverride(ContextConfiguration cc) {
+        super(cc);
+
+        this._index = cc.getTypeHierarchyIndex();
+        this._qualifiedClassName = cc.getQualifiedClassName();
+        this._method = cc.getMethodDescriber();
+    }
+
+    @Override
+    public boolean detect() throws Exception {
+
+        if (_index == null) {
+            throw new UnknownContextException("No type hierarchy of " + _qualifiedClassName + " to find overriding subclasses");
+        }
+
+        List<TypeHierarchyIndex.DeclaredMethod> overriders = _index.findOverriders(_qualifiedClassName, _method.getSignature());
+
+        overriders.forEach(overrider -> parameters.addSubclassName(overrider.getTypeName()));
+
+        return !parameters.getCollection().isEmpty();
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.CHEAP;
+    }
+
+    @Override
+    public CodeContext.CodeContextEnum getType() {
+        return CodeContext.CodeContextEnum.MethodSubclassOverride;
+    }
+}
@@ -19,6 +19,7 @@
  */
 package analysis.context;
 
+import analysis.project.CallSiteIndex;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserMethodDeclaration;
 
@@ -36,6 +37,9 @@ public class ParameterCollector {
     private final String V_ARGUMENTS = "#argument-list";
     private final String V_RESULTS = "#result-list";
     private final String V_VARS = "#variable-list";
+    private final String V_SUBCLASS_LIST = "#subclass-list";
+    private final String V_CALL_SITES = "#call-sites";
+    private final String V_CALL_SITE_COUNT = "#call-site-count";
 
     public  String getMethodListType() {return V_METHOD_LIST;}
     public  String getClassListType() {return V_CLASS_LIST;}
@@ -45,6 +49,9 @@ public class ParameterCollector {
     public String getArgumentListType() { return  V_ARGUMENTS; }
     public String getResultListType() { return V_RESULTS; }
     public String getVariableListType() { return V_VARS; }
+    public String getSubclassListType() { return V_SUBCLASS_LIST; }
+    public String getCallSitesType() { return V_CALL_SITES; }
+    public String getCallSiteCountType() { return V_CALL_SITE_COUNT; }
 
     protected void addClassNameToVariableList(JavaParserMethodDeclaration jpClass) {
 
@@ -93,4 +100,11 @@ public class ParameterCollector {
     public void addResultName(String resultName) { addParameterValue(getResultListType(), resultName); }
 
     public void addVariableName(String resultName) { addParameterValue(getVariableListType(), resultName); }
+
+    public void addSubclassName(String subclassName) { addParameterValue(getSubclassListType(), subclassName); }
+
+    public void addCallSites(List<CallSiteIndex.CallSite> callSites) {
+        callSites.forEach(callSite -> addParameterValue(getCallSitesType(), callSite.toString()));
+        paramList.put(getCallSiteCountType(), Arrays.asList(String.valueOf(callSites.size())));
+    }
 }
@@ -19,14 +19,17 @@
  */
 package analysis.dataflow;
 
+import com.github.javaparser.Range;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.expr.*;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -49,64 +52,64 @@ public class LocalVariableReadMarker extends MarkVariableFlowList {
     @Override
     public void visit(NameExpr sn, Void args)
     {
-        _lst.getListOfVariableFlowTables().forEach( flowTable ->
-        {
-            Optional<Node> parentNode = sn.getParentNode();
-
-            if (parentNode.isPresent()) {
-
-                try {
-                    // todo: Code below can  be generalized. e.g. set of strategies. Or a chain of functionality, where new handling can be added
-                    // visitor pattern can also be a solution
-                    if (parentNode.get() instanceof AssignExpr) {
-                        AssignExpr ae = (AssignExpr) parentNode.get();
-
-                        //If specific variable is present in the children nodes of the value part of the assignment expression
-                        // then it is read
-                        if (varnamePresentInSimpleNameNodeList(ae.getValue().getChildNodesByType(SimpleName.class), flowTable.name)) {
-                            MarkFlowTable(flowTable, E_ACTION.read, toLoc(ae.getRange()));
-                        }
-                    }
-
-                    if (parentNode.get() instanceof BinaryExpr) {
-                        BinaryExpr be = (BinaryExpr) parentNode.get();
-
-                        //If specific variable is present in the children nodes of the assignment expression
-                        // then it is read
-                        if (varnamePresentInSimpleNameNodeList(be.getChildNodesByType(SimpleName.class), flowTable.name)) {
-                            MarkFlowTable(flowTable, E_ACTION.read, toLoc(be.getRange()));
-                            //}
-                        }
-                    }
-
-                    if (parentNode.get() instanceof MethodCallExpr)
-                    {
-                        MethodCallExpr mce = (MethodCallExpr) parentNode.get();
-
-                        mce.getChildNodesByType(SimpleName.class);
-                        if (varnamePresentInSimpleNameNodeList(mce.getChildNodesByType(SimpleName.class), flowTable.name)) {
-                            MarkFlowTable(flowTable, E_ACTION.read, toLoc(mce.getRange()));
-                            //}
-                        }
-                    }
-
-                    if (parentNode.get() instanceof UnaryExpr)
-                    {
-                        UnaryExpr ue = (UnaryExpr) parentNode.get();
-                        ue.getChildNodesByType(SimpleName.class);
-
-                        if (varnamePresentInSimpleNameNodeList(ue.getChildNodesByType(SimpleName.class), flowTable.name)) {
-                            MarkFlowTable(flowTable, E_ACTION.read, toLoc(ue.getRange()));
-                            //}
-                        }
-                    }
+        Optional<Node> parentNode = sn.getParentNode();
+
+        if (parentNode.isPresent()) {
+
+            try {
+                // todo: Code below can  be generalized. e.g. set of strategies. Or a chain of functionality, where new handling can be added
+                // visitor pattern can also be a solution
+                if (parentNode.get() instanceof AssignExpr) {
+                    AssignExpr ae = (AssignExpr) parentNode.get();
+
+                    //Variables present in the children nodes of the value part of the assignment expression
+                    // are read
+                    markReadVariables(ae.getValue().getChildNodesByType(SimpleName.class), ae.getRange());
                 }
-                catch(ClassCastException ce)
+
+                if (parentNode.get() instanceof BinaryExpr) {
+                    BinaryExpr be = (BinaryExpr) parentNode.get();
+
+                    //Variables present in the children nodes of the binary expression are read
+                    markReadVariables(be.getChildNodesByType(SimpleName.class), be.getRange());
+                }
+
+                if (parentNode.get() instanceof MethodCallExpr)
                 {
-                    System.out.println(ce.getMessage());
+                    MethodCallExpr mce = (MethodCallExpr) parentNode.get();
+
+                    markReadVariables(mce.getChildNodesByType(SimpleName.class), mce.getRange());
                 }
+
+                if (parentNode.get() instanceof UnaryExpr)
+                {
+                    UnaryExpr ue = (UnaryExpr) parentNode.get();
+
+                    markReadVariables(ue.getChildNodesByType(SimpleName.class), ue.getRange());
+                }
+            }
+            catch(ClassCastException ce)
+            {
+                System.out.println(ce.getMessage());
             }
-        });
+        }
+    }
+
+    /**
+     * Marks each local variable found among the given names as read once, at the given location.
+     * Names that are not local variables (methods, fields, types) have no flow table and are skipped.
+     *
+     * @param names    Names present in the expression
+     * @param range    Range of the expression
+     */
+    private void markReadVariables(List<SimpleName> names, Optional<Range> range) {
+        Set<String> variableNames = new LinkedHashSet<>();
+
+        names.forEach(name -> variableNames.add(name.toString()));
+
+        variableNames.forEach(name ->
+            _lst.findVariableFlowTable(name).ifPresent(flowTable ->
+                MarkFlowTable(flowTable, E_ACTION.read, toLoc(range))));
     }
 
     private boolean varNameIsWrittenTo(AssignExpr ae, VariableFlowTable flowTable) {
@@ -134,22 +137,4 @@ public class LocalVariableReadMarker extends MarkVariableFlowList {
 
         return found;
     }
-
-    /**
-     * Determine if name of variable can be found in a given expression
-     *
-     * @param names
-     * @param name
-     * @return true = given name found
-     */
-    private boolean varnamePresentInSimpleNameNodeList(List<SimpleName> names, String name) {
-
-        boolean found = false;
-        //List<SimpleName> names = childNodes.getChildNodesByType(SimpleName.class);
-
-        found = names.stream().filter(
-                varName -> varName.toString().contentEquals(name)).findFirst().isPresent();
-
-        return found;
-    }
 }
@@ -51,16 +51,13 @@ public class LocalVariableWrittenMarker extends MarkVariableFlowList {
     @Override
     public void visit(VariableDeclarator vd, Void args)
     {
-        _lst.getListOfVariableFlowTables().forEach( flowTable ->
+        // If a local variable has been declared AND an initializer value is present.
+        // The variable is seen as being written to.
+        if (vd.getInitializer().isPresent())
         {
-            // If a local variable has been declared AND an initializer value is present.
-            // The variable is seen as being written to.
-            if (flowTable.name.contentEquals(vd.getNameAsString()) &&
-                    vd.getInitializer().isPresent())
-            {
-                MarkFlowTable(flowTable, E_ACTION.write, toLoc(vd.getRange()));
-            }
-        });
+            _lst.findVariableFlowTable(vd.getNameAsString()).ifPresent(flowTable ->
+                MarkFlowTable(flowTable, E_ACTION.write, toLoc(vd.getRange())));
+        }
     }
 
     // Case: a++
@@ -69,27 +66,15 @@ public class LocalVariableWrittenMarker extends MarkVariableFlowList {
     {
         // In the local declared list of variables lookup, if the name found is present
         // if this is the case determine position of location and write in the correct section
-        _lst.getListOfVariableFlowTables().forEach( flowTable ->
-        {
-            if (flowTable.name.contentEquals(ue.getExpression().toString()))
-            {
-                MarkFlowTable(flowTable, E_ACTION.write, toLoc(ue.getRange()));
-            }
-        });
+        _lst.findVariableFlowTable(ue.getExpression().toString()).ifPresent(flowTable ->
+            MarkFlowTable(flowTable, E_ACTION.write, toLoc(ue.getRange())));
     }
 
     // Case: a = c + 8;
     @Override
     public void visit(AssignExpr ae, Void args)
     {
-        _lst.getListOfVariableFlowTables().forEach( flowTable ->
-        {
-            // If a local variable has been declared AND an initializer value is present.
-            // The variable is seen as being written to.
-           if (flowTable.name.contentEquals(ae.getTarget().toString()))
-            {
-                MarkFlowTable(flowTable, E_ACTION.write, toLoc(ae.getRange()));
-            }
-        });
+        _lst.findVariableFlowTable(ae.getTarget().toString()).ifPresent(flowTable ->
+            MarkFlowTable(flowTable, E_ACTION.write, toLoc(ae.getRange())));
     }
 }
@@ -88,7 +88,7 @@ public class MethodDataFlowAnalyzer implements ICodeAnalyzer {
         start(false);
     }
 
-    public void start(boolean forceAnalysis) {
+    public synchronized void start(boolean forceAnalysis) {
 
         if (!analyzed || forceAnalysis) {
             for (MarkVariableFlowList markRunner : markRunners)
@@ -21,21 +21,20 @@
 package analysis.dataflow;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public class VariableFlowSet {
 
     List<VariableFlowTable> dataFlowMethodVariables  = new ArrayList<>();
 
+    // Same tables as in dataFlowMethodVariables, indexed by variable name for the markers
+    private final Map<String, VariableFlowTable> _tablesByName = new HashMap<>();
+
     private boolean isVariableAlreadyAdded(String varName) {
-        boolean variableAlreadyAdded = false;
-        for (VariableFlowTable vi : dataFlowMethodVariables) {
-            if(vi.name.contentEquals(varName)) {
-                variableAlreadyAdded = true;
-                break;
-            }
-        }
-        return variableAlreadyAdded;
+        return _tablesByName.containsKey(varName);
     }
 
     private void addNewVariablesToVariableFLowList(String varName) {
@@ -43,7 +42,9 @@ public class VariableFlowSet {
 
         if (!variableAlreadyAdded)
         {
-            dataFlowMethodVariables.add(new VariableFlowTable(varName));
+            VariableFlowTable flowTable = new VariableFlowTable(varName);
+            dataFlowMethodVariables.add(flowTable);
+            _tablesByName.put(varName, flowTable);
         }
     }
 
@@ -59,18 +60,17 @@ public class VariableFlowSet {
     }
 
     public VariableFlowTable getVariableFlowTable(String varName) {
+        return findVariableFlowTable(varName).orElseGet(() -> new VariableFlowTable(""));
+    }
 
-        boolean variableFound = false;
-        VariableFlowTable tableForReturn = new VariableFlowTable("");
-
-        for (VariableFlowTable vi : dataFlowMethodVariables) {
-            if(vi.name.contentEquals(varName)) {
-                tableForReturn = vi;
-                break;
-            }
-        }
-
-        return tableForReturn;
+    /**
+     * Looks up the flow table of a variable in constant time
+     *
+     * @param varName Name of the local variable
+     * @return Flow table of the variable, empty when the name is not a variable of this set
+     */
+    public Optional<VariableFlowTable> findVariableFlowTable(String varName) {
+        return Optional.ofNullable(_tablesByName.get(varName));
     }
 
     public boolean areAllSectionsInTableSetFalse()
@@ -0,0 +1,159 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import analysis.MethodAnalyzer.TypeSolverService;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Owns the type solver and JavaParserFacade used for the analysis requests of one project.
+ *
+ * The facade and the memoized lookups keep references to the compilation units of every request
+ * they have seen. To keep the retained memory bounded in a long running session (e.g. the guidance
+ * tool left open all day), they are evicted after a fixed number of requests. Files parsed by the
+ * source solvers of the project are kept, these are bounded by the size of the project.
+ *
+ * A closed session releases its solver and cannot be used for new requests.
+ */
+public class AnalysisSession implements AutoCloseable {
+
+    public static final int DEFAULT_REQUESTS_PER_GENERATION = 50;
+
+    private static AnalysisSession _defaultSession = null;
+
+    private TypeSolverService _typeSolverService;
+    private final int _requestsPerGeneration;
+
+    private int _requestsInGeneration = 0;
+    private long _requestCount = 0;
+    private long _evictionCount = 0;
+
+    public AnalysisSession(List<File> sourceRoots)
+    {
+        this(new TypeSolverService(sourceRoots, TypeSolverService.DEFAULT_MEMO_CAPACITY), DEFAULT_REQUESTS_PER_GENERATION);
+    }
+
+    public AnalysisSession(ProjectConfiguration configuration)
+    {
+        this(new TypeSolverService(configuration, TypeSolverService.DEFAULT_MEMO_CAPACITY), DEFAULT_REQUESTS_PER_GENERATION);
+    }
+
+    /**
+     * @param typeSolverService     Solver of the project
+     * @param requestsPerGeneration Number of requests after which the facade and memoized lookups are evicted
+     */
+    public AnalysisSession(TypeSolverService typeSolverService, int requestsPerGeneration)
+    {
+        if (requestsPerGeneration < 1) {
+            throw new IllegalArgumentException("At least one request per generation is needed, got " + requestsPerGeneration);
+        }
+
+        this._typeSolverService = typeSolverService;
+        this._requestsPerGeneration = requestsPerGeneration;
+    }
+
+    /**
+     * @return Session on the shared project type solver, a new one is created when the previous one was closed
+     */
+    public static synchronized AnalysisSession getDefault() {
+        if (_defaultSession == null || _defaultSession.isClosed()) {
+            _defaultSession = new AnalysisSession(TypeSolverService.getProjectInstance(), DEFAULT_REQUESTS_PER_GENERATION);
+        }
+
+        return _defaultSession;
+    }
+
+    /**
+     * Registers a new analysis request. When the current generation is full, cached state of the
+     * previous requests is evicted first.
+     *
+     * @return Type solver to be used by all analyzers of this request
+     */
+    public synchronized TypeSolverService startRequest() {
+        TypeSolverService service = getTypeSolverService();
+
+        if (_requestsInGeneration >= _requestsPerGeneration) {
+            evict();
+        }
+
+        _requestsInGeneration++;
+        _requestCount++;
+
+        return service;
+    }
+
+    /**
+     * @return Solver of the session, replaced by a new one when a cancelled request left it locked
+     */
+    public synchronized TypeSolverService getTypeSolverService() {
+        if (isClosed()) {
+            throw new IllegalStateException("Analysis session has been closed");
+        }
+
+        _typeSolverService = TypeSolverService.replaceIfAbandoned(_typeSolverService);
+        return _typeSolverService;
+    }
+
+    /**
+     * @return Facade of the solver of the session, it is not thread safe: use it inside withSolverLock of the service
+     */
+    public synchronized JavaParserFacade getFacade() {
+        return JavaParserFacade.get(getTypeSolverService().getTypeSolver());
+    }
+
+    /**
+     * Drops the facade and the memoized lookups. The facade instances are held in a static map
+     * of the symbol solver that can only be cleared as a whole, so facades of other solvers are
+     * dropped as well. They are recreated on their next use.
+     */
+    public synchronized void evict() {
+        if (_typeSolverService != null) {
+            _typeSolverService.clearMemo();
+        }
+
+        JavaParserFacade.clearInstances();
+
+        _requestsInGeneration = 0;
+        _evictionCount++;
+    }
+
+    public synchronized boolean isClosed() {
+        return _typeSolverService == null;
+    }
+
+    public synchronized long getRequestCount() {
+        return _requestCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return _evictionCount;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!isClosed()) {
+            evict();
+            _typeSolverService = null;
+        }
+    }
+}
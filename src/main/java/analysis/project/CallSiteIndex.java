@@ -0,0 +1,303 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import analysis.MethodAnalyzer.TypeSolverService;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Index from method name to the locations of all calls with that name in a project.
+ *
+ * The calls of each file are collected in parallel. A call is only matched on its name and number of
+ * arguments, symbol resolution is used to narrow the calls down to a specific declaration only when the
+ * name is declared more than once in the project. Calls of library methods that happen to have the same
+ * name as a single project method are therefore counted as calls of that method.
+ *
+ * Only compilation units with a storage (e.g. loaded by the ProjectLoader) are indexed.
+ */
+public class CallSiteIndex {
+
+    /**
+     * Location of a single method call
+     */
+    public static class CallSite {
+
+        private final Path _file;
+        private final int _line;
+        private final int _column;
+        private final MethodCallExpr _call;
+
+        CallSite(Path file, MethodCallExpr call)
+        {
+            this._file = file;
+            this._line = call.getBegin().map(p -> p.line).orElse(-1);
+            this._column = call.getBegin().map(p -> p.column).orElse(-1);
+            this._call = call;
+        }
+
+        public Path getFile() { return _file; }
+        public int getLine() { return _line; }
+        public int getColumn() { return _column; }
+        public String getMethodName() { return _call.getNameAsString(); }
+        public int getArgumentCount() { return _call.getArguments().size(); }
+        public MethodCallExpr getCall() { return _call; }
+
+        @Override
+        public String toString() {
+            return _file.getFileName() + ":" + _line + ":" + _column;
+        }
+    }
+
+    /**
+     * Calls and declared method names of one file
+     */
+    private static class FileEntry {
+
+        private final Map<String, List<CallSite>> _calls = new HashMap<>();
+        private final Map<String, Integer> _declarations = new HashMap<>();
+    }
+
+    /**
+     * Visitor collects the calls and declared method names of one file
+     */
+    private static class FileScanner extends VoidVisitorAdapter<FileEntry>
+    {
+        private final Path _file;
+
+        FileScanner(Path file)
+        {
+            this._file = file;
+        }
+
+        @Override
+        public void visit(MethodCallExpr call, FileEntry entry)
+        {
+            entry._calls.computeIfAbsent(call.getNameAsString(), key -> new ArrayList<>()).add(new CallSite(_file, call));
+            super.visit(call, entry);
+        }
+
+        @Override
+        public void visit(MethodDeclaration method, FileEntry entry)
+        {
+            entry._declarations.merge(method.getNameAsString(), 1, Integer::sum);
+            super.visit(method, entry);
+        }
+    }
+
+    private final ForkJoinPool _pool;
+
+    private Map<Path, FileEntry> _files = new ConcurrentSkipListMap<>();
+    private Map<String, SortedMap<Path, List<CallSite>>> _callsByName = new HashMap<>();
+    private Map<String, Integer> _declarationCounts = new HashMap<>();
+
+    public CallSiteIndex()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool Pool on which the files are scanned during a build
+     */
+    public CallSiteIndex(ForkJoinPool pool)
+    {
+        this._pool = pool;
+    }
+
+    /**
+     * Replaces the index by the calls of the given compilation units
+     *
+     * @param units Parsed files of the project, e.g. from ProjectLoader.getCompilationUnits()
+     */
+    public synchronized void build(Collection<CompilationUnit> units) {
+        _files.clear();
+        _callsByName.clear();
+        _declarationCounts.clear();
+
+        _pool.submit(() -> units.parallelStream().forEach(cu ->
+                cu.getStorage().ifPresent(storage -> _files.put(storage.getPath(), scan(storage.getPath(), cu)))
+        )).join();
+
+        _files.forEach(this::addEntry);
+    }
+
+    /**
+     * Updates the index after a file has been changed, added or removed
+     *
+     * @param file Changed file
+     * @param cu   New compilation unit of the file, null when the file has been removed
+     */
+    public synchronized void update(Path file, CompilationUnit cu) {
+        FileEntry previous = _files.remove(file);
+
+        if (previous != null) {
+            removeEntry(file, previous);
+        }
+
+        if (cu != null) {
+            FileEntry entry = scan(file, cu);
+
+            _files.put(file, entry);
+            addEntry(file, entry);
+        }
+    }
+
+    public void remove(Path file) {
+        update(file, null);
+    }
+
+    private static FileEntry scan(Path file, CompilationUnit cu) {
+        FileEntry entry = new FileEntry();
+
+        cu.accept(new FileScanner(file), entry);
+
+        return entry;
+    }
+
+    private void addEntry(Path file, FileEntry entry) {
+        entry._calls.forEach((name, calls) -> _callsByName.computeIfAbsent(name, key -> new TreeMap<>()).put(file, calls));
+        entry._declarations.forEach((name, count) -> _declarationCounts.merge(name, count, Integer::sum));
+    }
+
+    private void removeEntry(Path file, FileEntry entry) {
+        entry._calls.keySet().forEach(name -> {
+            SortedMap<Path, List<CallSite>> calls = _callsByName.get(name);
+            calls.remove(file);
+
+            if (calls.isEmpty()) {
+                _callsByName.remove(name);
+            }
+        });
+
+        entry._declarations.forEach((name, count) -> {
+            int remaining = _declarationCounts.get(name) - count;
+
+            if (remaining > 0) {
+                _declarationCounts.put(name, remaining);
+            }
+            else {
+                _declarationCounts.remove(name);
+            }
+        });
+    }
+
+    /**
+     * @return All calls with the given method name, in file and position order
+     */
+    public synchronized List<CallSite> getCallSites(String methodName) {
+        List<CallSite> callSites = new ArrayList<>();
+
+        _callsByName.getOrDefault(methodName, Collections.emptySortedMap()).values().forEach(callSites::addAll);
+
+        return callSites;
+    }
+
+    /**
+     * @return Number of method declarations in the project with the given name, overloads included
+     */
+    public synchronized int getDeclarationCount(String methodName) {
+        return _declarationCounts.getOrDefault(methodName, 0);
+    }
+
+    /**
+     * @return true when calls with this name cannot be attributed to a declaration on name alone
+     */
+    public boolean isAmbiguous(String methodName) {
+        return getDeclarationCount(methodName) > 1;
+    }
+
+    /**
+     * Finds the calls that have to be changed when the method is renamed.
+     *
+     * Calls are matched on name and number of arguments. When the name is ambiguous, each matching
+     * call is resolved and only kept when it resolves to a method declared in one of the given types.
+     * Calls that cannot be resolved are kept, so no call that might have to be changed is left out.
+     *
+     * @param method         Declaration of the method
+     * @param declaringTypes Qualified names of the types whose declarations of the method are renamed together
+     * @param service        Type solver used to resolve the calls of an ambiguous name
+     */
+    public List<CallSite> findCallSites(MethodDeclaration method, Set<String> declaringTypes, TypeSolverService service) {
+        String name = method.getNameAsString();
+        int parameters = method.getParameters().size();
+        boolean varArgs = parameters > 0 && method.getParameter(parameters - 1).isVarArgs();
+
+        List<CallSite> callSites = new ArrayList<>();
+
+        for (CallSite callSite : getCallSites(name)) {
+            int arguments = callSite.getArgumentCount();
+
+            if (varArgs ? arguments >= parameters - 1 : arguments == parameters) {
+                callSites.add(callSite);
+            }
+        }
+
+        if (!isAmbiguous(name)) {
+            return callSites;
+        }
+
+        // The facade is not thread safe, it is only used under the lock of the solver
+        return service.withSolverLock(() -> {
+            JavaParserFacade facade = JavaParserFacade.get(service.getTypeSolver());
+            List<CallSite> resolved = new ArrayList<>();
+
+            for (CallSite callSite : callSites) {
+                Optional<String> declaringType = resolveDeclaringType(facade, callSite.getCall());
+
+                if (!declaringType.isPresent() || declaringTypes.contains(declaringType.get())) {
+                    resolved.add(callSite);
+                }
+            }
+
+            return resolved;
+        });
+    }
+
+    private static Optional<String> resolveDeclaringType(JavaParserFacade facade, MethodCallExpr call) {
+        try {
+            SymbolReference<com.github.javaparser.symbolsolver.model.declarations.MethodDeclaration> reference = facade.solve(call);
+
+            if (reference.isSolved()) {
+                return Optional.of(reference.getCorrespondingDeclaration().declaringType().getQualifiedName());
+            }
+        }
+        catch (RuntimeException e) {
+            // Unresolvable calls are reported as possible call sites
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * @return Number of indexed files
+     */
+    public synchronized int size() {
+        return _files.size();
+    }
+}
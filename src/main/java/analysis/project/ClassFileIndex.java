@@ -0,0 +1,490 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import helpers.ContentHash;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of types read from class files, stored in a file that is memory mapped for lookups.
+ *
+ * Per type only the binary name, the kind and the direct super types are kept: the index tells which
+ * names denote compiled types and which packages their super types are in, without loading any class.
+ * Declarations of the types are still created through the reflection model of the symbol solver. Type
+ * names are erased and qualified, nested types use a '.' (e.g. "java.util.Map.Entry"). Anonymous and
+ * local classes are skipped. The file holds the records sorted by name, so a type is found by binary
+ * search without reading the other records.
+ */
+public class ClassFileIndex {
+
+    // Increase when the layout of the index file changes, so old files are rebuilt
+    private static final int FORMAT_VERSION = 2;
+    private static final int MAGIC = 0x52504749;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+
+    private final Path _file;
+    private final MappedByteBuffer _buffer;
+    private final int _count;
+
+    protected ClassFileIndex(Path file, MappedByteBuffer buffer)
+    {
+        this._file = file;
+        this._buffer = buffer;
+        this._count = buffer.getInt(8);
+    }
+
+    /**
+     * Maps an index file written by write
+     *
+     * @throws IOException when the file cannot be read or has another layout version
+     */
+    protected static MappedByteBuffer mapFile(Path indexFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (channel.size() < 12 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Not an index file of version " + FORMAT_VERSION + ": " + indexFile);
+            }
+
+            return buffer;
+        }
+    }
+
+    /**
+     * @return Name of an index file, including the layout version, for the given key
+     */
+    protected static String indexFileName(String key) {
+        return "v" + FORMAT_VERSION + "-" + ContentHash.of(key).substring(0, 16) + ".idx";
+    }
+
+    public Path getFile() {
+        return _file;
+    }
+
+    /**
+     * @return Number of indexed types
+     */
+    public int size() {
+        return _count;
+    }
+
+    public boolean contains(String typeName) {
+        return find(typeName) >= 0;
+    }
+
+    /**
+     * @return Name under which a class loader knows the type, e.g. "java.util.Map$Entry"
+     */
+    public Optional<String> getBinaryName(String typeName) {
+        return record(typeName).map(record -> record._binaryName);
+    }
+
+    public boolean isInterface(String typeName) {
+        return record(typeName).map(record -> (record._flags & ACC_INTERFACE) != 0).orElse(false);
+    }
+
+    public boolean isEnum(String typeName) {
+        return record(typeName).map(record -> (record._flags & ACC_ENUM) != 0).orElse(false);
+    }
+
+    /**
+     * @return Direct super class, absent for interfaces, java.lang.Object and types not in the index
+     */
+    public Optional<String> getSuperClass(String typeName) {
+        return record(typeName).map(record -> record._superClass).filter(superClass -> !superClass.isEmpty());
+    }
+
+    public List<String> getInterfaces(String typeName) {
+        return record(typeName).map(record -> record._interfaces).orElse(Collections.emptyList());
+    }
+
+    /**
+     * @return Direct super class followed by the directly implemented or extended interfaces
+     */
+    public List<String> getSupertypes(String typeName) {
+        List<String> supertypes = new ArrayList<>();
+
+        getSuperClass(typeName).ifPresent(supertypes::add);
+        supertypes.addAll(getInterfaces(typeName));
+
+        return supertypes;
+    }
+
+    /**
+     * @return All transitive super types in depth first order, each type once
+     */
+    public List<String> getAllSupertypes(String typeName) {
+        Set<String> all = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>(getSupertypes(typeName));
+
+        while (!pending.isEmpty()) {
+            String supertype = pending.pop();
+
+            if (all.add(supertype)) {
+                List<String> next = getSupertypes(supertype);
+                for (int i = next.size() - 1; i >= 0; i--) {
+                    pending.push(next.get(i));
+                }
+            }
+        }
+
+        return new ArrayList<>(all);
+    }
+
+    /**
+     * Binary search over the sorted record offsets, comparing the UTF-8 bytes of the names
+     *
+     * @return Offset of the record, -1 when the type is not indexed
+     */
+    private int find(String typeName) {
+        byte[] name = typeName.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = _count - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int offset = _buffer.getInt(12 + 4 * middle);
+            int compared = compareName(offset, name);
+
+            if (compared < 0) {
+                low = middle + 1;
+            }
+            else if (compared > 0) {
+                high = middle - 1;
+            }
+            else {
+                return offset;
+            }
+        }
+
+        return -1;
+    }
+
+    // Records start with the flags (u2) followed by the name
+    private int compareName(int offset, byte[] name) {
+        int length = _buffer.getShort(offset + 2) & 0xFFFF;
+        int start = offset + 4;
+
+        for (int i = 0; i < Math.min(length, name.length); i++) {
+            int compared = Integer.compare(_buffer.get(start + i) & 0xFF, name[i] & 0xFF);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+
+        return Integer.compare(length, name.length);
+    }
+
+    private Optional<TypeRecord> record(String typeName) {
+        int offset = find(typeName);
+
+        return (offset < 0) ? Optional.empty() : Optional.of(new RecordReader(_buffer, offset).readRecord());
+    }
+
+    /**
+     * Reads the class files in a jar
+     *
+     * @param filter Selects the entries to read by their path in the jar
+     */
+    static void readJar(Path jar, Predicate<String> filter, List<TypeRecord> records) throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+
+                if (filter.test(entry.getName())) {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        addRecord(records, readAll(in));
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+
+        for (int read = in.read(chunk); read > 0; read = in.read(chunk)) {
+            out.write(chunk, 0, read);
+        }
+
+        return out.toByteArray();
+    }
+
+    static boolean isClassFile(String path) {
+        return path.endsWith(".class") && !path.endsWith("module-info.class") && !path.endsWith("package-info.class");
+    }
+
+    static void addRecord(List<TypeRecord> records, byte[] classFile) throws IOException {
+        TypeRecord record = new ClassFileReader(classFile).read();
+
+        if (record != null) {
+            records.add(record);
+        }
+    }
+
+    /**
+     * Stores the records sorted by name: a header with the number of records and their offsets,
+     * followed by the records themselves. The file is replaced in one move.
+     */
+    static void write(Path indexFile, List<TypeRecord> records) throws IOException {
+        List<TypeRecord> sorted = new ArrayList<>(records);
+        sorted.sort((first, second) -> compareBytes(first._name.getBytes(StandardCharsets.UTF_8),
+                                                    second._name.getBytes(StandardCharsets.UTF_8)));
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream bodyOut = new DataOutputStream(body);
+        int headerSize = 12 + 4 * sorted.size();
+        int[] offsets = new int[sorted.size()];
+
+        for (int i = 0; i < sorted.size(); i++) {
+            offsets[i] = headerSize + bodyOut.size();
+            sorted.get(i).writeTo(bodyOut);
+        }
+
+        Files.createDirectories(indexFile.toAbsolutePath().getParent());
+        Path temporary = Files.createTempFile(indexFile.toAbsolutePath().getParent(), "jdk", ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(sorted.size());
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            body.writeTo(out);
+        }
+
+        try {
+            Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static int compareBytes(byte[] first, byte[] second) {
+        for (int i = 0; i < Math.min(first.length, second.length); i++) {
+            int compared = Integer.compare(first[i] & 0xFF, second[i] & 0xFF);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+
+        return Integer.compare(first.length, second.length);
+    }
+
+    /**
+     * Type description as stored in the index
+     */
+    static class TypeRecord {
+
+        private final int _flags;
+        private final String _name;
+        private final String _binaryName;
+        private final String _superClass;
+        private final List<String> _interfaces;
+
+        TypeRecord(int flags, String name, String binaryName, String superClass, List<String> interfaces)
+        {
+            this._flags = flags;
+            this._name = name;
+            this._binaryName = binaryName;
+            this._superClass = superClass;
+            this._interfaces = interfaces;
+        }
+
+        String getName() { return _name; }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeShort(_flags);
+            writeString(out, _name);
+            writeString(out, _binaryName);
+            writeString(out, _superClass);
+
+            out.writeShort(_interfaces.size());
+            for (String name : _interfaces) {
+                writeString(out, name);
+            }
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a record from the mapped index file. Absolute reads only, so readers may run concurrently.
+     */
+    private static class RecordReader {
+
+        private final MappedByteBuffer _buffer;
+        private int _position;
+
+        RecordReader(MappedByteBuffer buffer, int position)
+        {
+            this._buffer = buffer;
+            this._position = position;
+        }
+
+        TypeRecord readRecord() {
+            int flags = readShort();
+            String name = readString();
+            String binaryName = readString();
+            String superClass = readString();
+
+            int interfaceCount = readShort();
+            List<String> interfaces = new ArrayList<>(interfaceCount);
+            for (int i = 0; i < interfaceCount; i++) {
+                interfaces.add(readString());
+            }
+
+            return new TypeRecord(flags, name, binaryName, superClass, Collections.unmodifiableList(interfaces));
+        }
+
+        private int readShort() {
+            int value = _buffer.getShort(_position) & 0xFFFF;
+            _position += 2;
+            return value;
+        }
+
+        private String readString() {
+            int length = readShort();
+            byte[] bytes = new byte[length];
+
+            for (int i = 0; i < length; i++) {
+                bytes[i] = _buffer.get(_position + i);
+            }
+
+            _position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Reads the names of a class file: this class, its super class and interfaces.
+     * Reading stops before the fields.
+     */
+    static class ClassFileReader {
+
+        private final DataInputStream _in;
+
+        private String[] _utf8;
+        private int[] _classNameIndex;
+
+        ClassFileReader(byte[] classFile)
+        {
+            this._in = new DataInputStream(new ByteArrayInputStream(classFile));
+        }
+
+        /**
+         * @return The record of the class, null for anonymous and local classes
+         */
+        TypeRecord read() throws IOException {
+            if (_in.readInt() != 0xCAFEBABE) {
+                throw new IOException("Not a class file");
+            }
+
+            _in.readUnsignedShort();
+            _in.readUnsignedShort();
+            readConstantPool();
+
+            int flags = _in.readUnsignedShort();
+            String binaryName = className(_in.readUnsignedShort()).replace('/', '.');
+            int superIndex = _in.readUnsignedShort();
+            String superClass = (superIndex == 0 || (flags & ACC_INTERFACE) != 0) ? "" : typeName(className(superIndex));
+
+            if (!isNamedType(binaryName)) {
+                return null;
+            }
+
+            int interfaceCount = _in.readUnsignedShort();
+            List<String> interfaces = new ArrayList<>(interfaceCount);
+            for (int i = 0; i < interfaceCount; i++) {
+                interfaces.add(typeName(className(_in.readUnsignedShort())));
+            }
+
+            return new TypeRecord(flags & (ACC_INTERFACE | ACC_ENUM | ACC_ANNOTATION | ACC_ABSTRACT | ACC_PUBLIC),
+                    typeName(binaryName), binaryName, superClass, interfaces);
+        }
+
+        private void readConstantPool() throws IOException {
+            int count = _in.readUnsignedShort();
+            _utf8 = new String[count];
+            _classNameIndex = new int[count];
+
+            for (int i = 1; i < count; i++) {
+                int tag = _in.readUnsignedByte();
+
+                switch (tag) {
+                    case 1: _utf8[i] = _in.readUTF(); break;
+                    case 7: _classNameIndex[i] = _in.readUnsignedShort(); break;
+                    case 8: case 16: case 19: case 20: _in.skipBytes(2); break;
+                    case 15: _in.skipBytes(3); break;
+                    case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18: _in.skipBytes(4); break;
+                    // Long and double constants take two entries
+                    case 5: case 6: _in.skipBytes(8); i++; break;
+                    default: throw new IOException("Unknown constant pool tag " + tag);
+                }
+            }
+        }
+
+        private String className(int index) {
+            return _utf8[_classNameIndex[index]];
+        }
+    }
+
+    /**
+     * @return true for top level and member classes, false for anonymous and local classes (e.g. "Outer$1Local")
+     */
+    static boolean isNamedType(String binaryName) {
+        String simpleName = binaryName.substring(binaryName.lastIndexOf('.') + 1);
+
+        for (String part : simpleName.split("\\$", -1)) {
+            if (part.isEmpty() || Character.isDigit(part.charAt(0))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static String typeName(String binaryName) {
+        return binaryName.replace('/', '.').replace('$', '.');
+    }
+}
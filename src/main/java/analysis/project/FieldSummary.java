@@ -0,0 +1,45 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import java.io.Serializable;
+
+/**
+ * Compact description of a field declared in a type
+ */
+public class FieldSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String _type;
+    private final String _name;
+    private final int _line;
+
+    public FieldSummary(String type, String name, int line)
+    {
+        this._type = type;
+        this._name = name;
+        this._line = line;
+    }
+
+    public String getType() { return _type; }
+    public String getName() { return _name; }
+    public int getLine() { return _line; }
+}
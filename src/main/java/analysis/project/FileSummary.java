@@ -0,0 +1,166 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compact summary of a parsed source file: its package, imports and all (nested) types with their
+ * super types, method signatures, fields and line ranges. A summary is identified by the hash
+ * of the file content it was created from.
+ */
+public class FileSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String _contentHash;
+    private final String _packageName;
+    private final List<String> _imports;
+    private final List<TypeSummary> _types;
+
+    public FileSummary(String contentHash, String packageName, List<String> imports, List<TypeSummary> types)
+    {
+        this._contentHash = contentHash;
+        this._packageName = packageName;
+        this._imports = imports;
+        this._types = types;
+    }
+
+    public String getContentHash() { return _contentHash; }
+    public String getPackageName() { return _packageName; }
+    public List<String> getImports() { return _imports; }
+
+    /**
+     * @return All types of the file, nested types are listed directly after their enclosing type
+     */
+    public List<TypeSummary> getTypes() { return _types; }
+
+    /**
+     * Creates the summary of a parsed compilation unit
+     *
+     * @param cu          Parsed file
+     * @param contentHash Hash of the file content the compilation unit was parsed from
+     */
+    public static FileSummary of(CompilationUnit cu, String contentHash)
+    {
+        String packageName = cu.getPackageDeclaration().map(pd -> pd.getNameAsString()).orElse("");
+
+        List<String> imports = cu.getImports().stream()
+                .map(imp -> (imp.isStatic() ? "static " : "") + imp.getNameAsString() + (imp.isAsterisk() ? ".*" : ""))
+                .collect(Collectors.toList());
+
+        List<TypeSummary> types = new ArrayList<>();
+        String prefix = packageName.isEmpty() ? "" : packageName + ".";
+
+        for (TypeDeclaration<?> type : cu.getTypes()) {
+            summarizeType(type, prefix, types);
+        }
+
+        return new FileSummary(contentHash, packageName, imports, types);
+    }
+
+    private static void summarizeType(TypeDeclaration<?> type, String prefix, List<TypeSummary> types)
+    {
+        String qualifiedName = prefix + type.getNameAsString();
+
+        TypeSummary.Kind kind = TypeSummary.Kind.CLASS;
+        List<String> extendedTypes = new ArrayList<>();
+        List<String> implementedTypes = new ArrayList<>();
+
+        if (type instanceof ClassOrInterfaceDeclaration) {
+            ClassOrInterfaceDeclaration coid = (ClassOrInterfaceDeclaration) type;
+
+            kind = coid.isInterface() ? TypeSummary.Kind.INTERFACE : TypeSummary.Kind.CLASS;
+            coid.getExtendedTypes().forEach(t -> extendedTypes.add(typeName(t)));
+            coid.getImplementedTypes().forEach(t -> implementedTypes.add(typeName(t)));
+        }
+        else if (type instanceof EnumDeclaration) {
+            kind = TypeSummary.Kind.ENUM;
+            ((EnumDeclaration) type).getImplementedTypes().forEach(t -> implementedTypes.add(typeName(t)));
+        }
+        else if (type instanceof AnnotationDeclaration) {
+            kind = TypeSummary.Kind.ANNOTATION;
+        }
+
+        List<MethodSummary> methods = new ArrayList<>();
+        List<FieldSummary> fields = new ArrayList<>();
+
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof MethodDeclaration) {
+                methods.add(summarizeMethod((MethodDeclaration) member));
+            }
+            else if (member instanceof FieldDeclaration) {
+                FieldDeclaration fd = (FieldDeclaration) member;
+                fd.getVariables().forEach(vd ->
+                        fields.add(new FieldSummary(vd.getType().asString(), vd.getNameAsString(), beginLine(vd))));
+            }
+        }
+
+        types.add(new TypeSummary(qualifiedName, kind, extendedTypes, implementedTypes, methods, fields,
+                beginLine(type), endLine(type)));
+
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof TypeDeclaration) {
+                summarizeType((TypeDeclaration<?>) member, qualifiedName + ".", types);
+            }
+        }
+    }
+
+    private static MethodSummary summarizeMethod(MethodDeclaration md)
+    {
+        List<String> modifiers = md.getModifiers().stream().map(Modifier::asString).collect(Collectors.toList());
+        List<String> annotations = md.getAnnotations().stream().map(a -> a.getNameAsString()).collect(Collectors.toList());
+
+        return new MethodSummary(md.getType().asString(), md.getNameAsString(), md.getSignature().asString(),
+                modifiers, annotations, beginLine(md), endLine(md));
+    }
+
+    /**
+     * Name of a type as written in source, including its scope but without type arguments
+     */
+    static String typeName(ClassOrInterfaceType type)
+    {
+        String name = type.getNameAsString();
+
+        if (type.getScope().isPresent()) {
+            name = typeName(type.getScope().get()) + "." + name;
+        }
+
+        return name;
+    }
+
+    private static int beginLine(Node node) {
+        return node.getRange().map((Range r) -> r.begin.line).orElse(-1);
+    }
+
+    private static int endLine(Node node) {
+        return node.getRange().map((Range r) -> r.end.line).orElse(-1);
+    }
+}
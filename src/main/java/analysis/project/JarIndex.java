@@ -0,0 +1,90 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index of the types in a dependency jar of a project.
+ *
+ * A jar is read once, the index is stored in a file named after the location, size and modification
+ * time of the jar. Later runs map that file instead of scanning the jar again, a changed jar gets a
+ * new index file.
+ */
+public class JarIndex extends ClassFileIndex {
+
+    private final Path _jar;
+
+    private JarIndex(Path jar, Path file, MappedByteBuffer buffer)
+    {
+        super(file, buffer);
+        this._jar = jar;
+    }
+
+    /**
+     * @return Directory in the home folder of the user in which the index files are stored, shared by all projects
+     */
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".rpg", "jars");
+    }
+
+    /**
+     * Maps the stored index of a jar, the jar is read and its index stored first when there is none yet
+     *
+     * @param jar       Jar with class files
+     * @param directory Directory in which index files are stored
+     * @throws IOException when the jar cannot be read or the index cannot be stored
+     */
+    public static JarIndex open(Path jar, Path directory) throws IOException {
+        Path absoluteJar = jar.toAbsolutePath().normalize();
+        String key = absoluteJar + "|" + Files.size(absoluteJar) + "|" + Files.getLastModifiedTime(absoluteJar).toMillis();
+        Path indexFile = directory.resolve(indexFileName(key));
+
+        if (Files.isRegularFile(indexFile)) {
+            try {
+                return new JarIndex(absoluteJar, indexFile, mapFile(indexFile));
+            }
+            catch (IOException e) {
+                // Outdated or damaged, build it again
+            }
+        }
+
+        List<TypeRecord> records = new ArrayList<>();
+        readJar(absoluteJar, JarIndex::isIndexedClassFile, records);
+        write(indexFile, records);
+
+        return new JarIndex(absoluteJar, indexFile, mapFile(indexFile));
+    }
+
+    public Path getJar() {
+        return _jar;
+    }
+
+    static boolean isIndexedClassFile(String path) {
+        // Versioned class files of multi release jars are left out, the base version is indexed
+        return !path.startsWith("META-INF/") && isClassFile(path);
+    }
+}
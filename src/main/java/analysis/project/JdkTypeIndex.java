@@ -0,0 +1,166 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.MappedByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index of the names and super types of the types of the running JDK, read from its class files without
+ * loading any class.
+ *
+ * On Java 9 and later the class files are read from the jrt:/ file system, on Java 8 from the jars in
+ * the lib directory of the JRE (rt.jar, jce.jar, ...). Only types in the java and javax packages are
+ * indexed, the same types the ReflectionTypeSolver resolves.
+ *
+ * The index is built once per JDK installation and stored in a file, which is memory mapped for lookups.
+ */
+public class JdkTypeIndex extends ClassFileIndex {
+
+    private static JdkTypeIndex _default = null;
+    private static boolean _defaultFailed = false;
+
+    private JdkTypeIndex(Path file, MappedByteBuffer buffer)
+    {
+        super(file, buffer);
+    }
+
+    /**
+     * @return Directory in the home folder of the user in which the index files are stored
+     */
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".rpg", "jdk");
+    }
+
+    /**
+     * @return Name of the index file of the running JDK, differs per installation and version
+     */
+    public static String indexFileName() {
+        return indexFileName(System.getProperty("java.home") + "|" + System.getProperty("java.version"));
+    }
+
+    /**
+     * @return The index of the running JDK in the default directory, built when it does not exist yet.
+     *         Empty when the class files of the JDK cannot be found or the index cannot be stored.
+     */
+    public static synchronized Optional<JdkTypeIndex> getDefault() {
+        if (_default == null && !_defaultFailed) {
+            try {
+                _default = open(defaultDirectory().resolve(indexFileName()));
+            }
+            catch (IOException e) {
+                _defaultFailed = true;
+            }
+        }
+
+        return Optional.ofNullable(_default);
+    }
+
+    /**
+     * Maps an existing index file, or builds the index of the running JDK into it when it
+     * does not exist or has an outdated layout.
+     *
+     * @throws IOException when the index cannot be built or stored
+     */
+    public static JdkTypeIndex open(Path indexFile) throws IOException {
+        if (Files.isRegularFile(indexFile)) {
+            try {
+                return new JdkTypeIndex(indexFile, mapFile(indexFile));
+            }
+            catch (IOException e) {
+                // Outdated or damaged, build it again
+            }
+        }
+
+        write(indexFile, readRunningJdk());
+
+        return new JdkTypeIndex(indexFile, mapFile(indexFile));
+    }
+
+    /**
+     * Reads the class files of the running JDK
+     *
+     * @throws IOException when neither the jrt file system nor the jars of the JRE are available
+     */
+    static List<TypeRecord> readRunningJdk() throws IOException {
+        List<TypeRecord> records = new ArrayList<>();
+
+        Optional<FileSystem> jrt = jrtFileSystem();
+
+        if (jrt.isPresent()) {
+            try (Stream<Path> files = Files.walk(jrt.get().getPath("/modules"))) {
+                for (Path file : files.filter(JdkTypeIndex::isIndexedClassFile).collect(Collectors.toList())) {
+                    addRecord(records, Files.readAllBytes(file));
+                }
+            }
+        }
+        else {
+            List<Path> jars = jreJars();
+
+            if (jars.isEmpty()) {
+                throw new IOException("No class files found for the JDK in " + System.getProperty("java.home"));
+            }
+
+            for (Path jar : jars) {
+                readJar(jar, JdkTypeIndex::isIndexedClassFile, records);
+            }
+        }
+
+        return records;
+    }
+
+    private static Optional<FileSystem> jrtFileSystem() {
+        try {
+            return Optional.of(FileSystems.getFileSystem(URI.create("jrt:/")));
+        }
+        catch (RuntimeException e) {
+            // Java 8, there are no modules
+            return Optional.empty();
+        }
+    }
+
+    private static List<Path> jreJars() throws IOException {
+        Path lib = Paths.get(System.getProperty("java.home"), "lib");
+
+        if (!Files.isDirectory(lib)) {
+            return Collections.emptyList();
+        }
+
+        try (Stream<Path> files = Files.list(lib)) {
+            return files.filter(file -> file.toString().endsWith(".jar")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isIndexedClassFile(Path file) {
+        // jrt paths are /modules/<module>/<package path>/<class>.class
+        return file.getNameCount() > 2 && isIndexedClassFile(file.subpath(2, file.getNameCount()).toString());
+    }
+
+    static boolean isIndexedClassFile(String path) {
+        String name = path.replace('\\', '/');
+
+        return (name.startsWith("java/") || name.startsWith("javax/")) && isClassFile(name);
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Compact description of a method declared in a type. Return type, name and signature
+ * are formatted in the same way as a MethodDescriber does.
+ */
+public class MethodSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String _returnType;
+    private final String _name;
+    private final String _signature;
+    private final List<String> _modifiers;
+    private final List<String> _annotations;
+    private final int _beginLine;
+    private final int _endLine;
+
+    public MethodSummary(String returnType, String name, String signature,
+                         List<String> modifiers, List<String> annotations,
+                         int beginLine, int endLine)
+    {
+        this._returnType = returnType;
+        this._name = name;
+        this._signature = signature;
+        this._modifiers = modifiers;
+        this._annotations = annotations;
+        this._beginLine = beginLine;
+        this._endLine = endLine;
+    }
+
+    public String getReturnType() { return _returnType; }
+    public String getName() { return _name; }
+    public String getSignature() { return _signature; }
+    public List<String> getModifiers() { return _modifiers; }
+    public List<String> getAnnotations() { return _annotations; }
+    public int getBeginLine() { return _beginLine; }
+    public int getEndLine() { return _endLine; }
+
+    public boolean hasModifier(String modifier) {
+        return _modifiers.contains(modifier);
+    }
+
+    public String fullTypeSignature() {
+        return _returnType + " " + _signature;
+    }
+}
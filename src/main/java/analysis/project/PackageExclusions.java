@@ -0,0 +1,130 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Set of packages whose types are left out of the analysis, stored as a trie of package name segments.
+ *
+ * A pattern ending in ".*" excludes the package and all of its sub packages (e.g. "java.*" excludes
+ * java.lang and java.util.concurrent), any other pattern excludes exactly that package. A lookup walks
+ * at most one trie node per segment of the package name.
+ */
+public class PackageExclusions {
+
+    /**
+     * Packages excluded when nothing is configured, the types of java.lang
+     */
+    public static final List<String> DEFAULT_PATTERNS = Collections.singletonList("java.lang");
+
+    private static class Node {
+        private final Map<String, Node> _children = new HashMap<>();
+        private boolean _excludesPackage = false;
+        private boolean _excludesSubPackages = false;
+    }
+
+    private final Node _root = new Node();
+    private final List<String> _patterns;
+
+    /**
+     * @param patterns Package names, optionally ending in ".*" to include the sub packages
+     */
+    public PackageExclusions(Collection<String> patterns)
+    {
+        this._patterns = Collections.unmodifiableList(patterns.stream()
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .distinct()
+                .collect(Collectors.toList()));
+
+        _patterns.forEach(this::add);
+    }
+
+    public static PackageExclusions none() {
+        return new PackageExclusions(Collections.emptyList());
+    }
+
+    public static PackageExclusions defaults() {
+        return new PackageExclusions(DEFAULT_PATTERNS);
+    }
+
+    private void add(String pattern) {
+        boolean subPackages = pattern.endsWith(".*");
+        String packageName = subPackages ? pattern.substring(0, pattern.length() - 2) : pattern;
+
+        Node node = _root;
+        for (String segment : packageName.split("\\.")) {
+            node = node._children.computeIfAbsent(segment, key -> new Node());
+        }
+
+        if (subPackages) {
+            node._excludesSubPackages = true;
+        }
+        else {
+            node._excludesPackage = true;
+        }
+    }
+
+    /**
+     * @param packageName Name of a package, empty for the default package
+     * @return true when the package matches one of the patterns
+     */
+    public boolean isExcluded(String packageName) {
+        if (packageName == null || packageName.isEmpty()) {
+            return false;
+        }
+
+        Node node = _root;
+        int start = 0;
+
+        while (node != null) {
+            if (node._excludesSubPackages) {
+                return true;
+            }
+
+            if (start > packageName.length()) {
+                return node._excludesPackage;
+            }
+
+            int end = packageName.indexOf('.', start);
+            end = (end < 0) ? packageName.length() : end;
+
+            node = node._children.get(packageName.substring(start, end));
+            start = end + 1;
+        }
+
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return _patterns.isEmpty();
+    }
+
+    public List<String> getPatterns() {
+        return _patterns;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(", ", _patterns);
+    }
+}
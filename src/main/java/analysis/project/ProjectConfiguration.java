@@ -0,0 +1,220 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Where the sources and dependency jars of the analyzed project are found.
+ *
+ * A configuration is given on the command line or read from a project file, a properties file named
+ * rpg-project.properties in the project root:
+ *
+ *     sourceRoots      = src/main/java, src/generated/java
+ *     classpath        = lib/guava.jar, lib/
+ *     excludedPackages = java.*, javax.*, org.junit.*
+ *
+ * Entries are separated by commas and paths are relative to the directory of the project file. A classpath
+ * entry that is a directory stands for all jars directly in that directory. Types in excluded packages
+ * are left out of the hierarchy of the analyzed class, see PackageExclusions.
+ */
+public class ProjectConfiguration {
+
+    public static final String PROJECT_FILE_NAME = "rpg-project.properties";
+    public static final String SOURCE_ROOTS_KEY = "sourceRoots";
+    public static final String CLASSPATH_KEY = "classpath";
+    public static final String EXCLUDED_PACKAGES_KEY = "excludedPackages";
+
+    private static ProjectConfiguration _default = null;
+
+    private final Path _projectRoot;
+    private final List<Path> _sourceRoots;
+    private final List<Path> _jars;
+    private final PackageExclusions _excludedPackages;
+
+    public ProjectConfiguration(Path projectRoot, List<Path> sourceRoots, List<Path> jars)
+    {
+        this(projectRoot, sourceRoots, jars, PackageExclusions.defaults());
+    }
+
+    /**
+     * @param projectRoot      Directory containing the .java files of the project
+     * @param sourceRoots      Directories with project sources used to resolve types
+     * @param jars             Dependency jars of the project, directories stand for the jars they contain
+     * @param excludedPackages Packages left out of the hierarchy of the analyzed class
+     */
+    public ProjectConfiguration(Path projectRoot, List<Path> sourceRoots, List<Path> jars, PackageExclusions excludedPackages)
+    {
+        this._projectRoot = projectRoot;
+        this._sourceRoots = Collections.unmodifiableList(new ArrayList<>(sourceRoots));
+        this._jars = Collections.unmodifiableList(expandJars(jars));
+        this._excludedPackages = excludedPackages;
+    }
+
+    /**
+     * @return The configuration used when none is given, the project in the working directory when not set
+     * @throws UncheckedIOException when the project file of the working directory cannot be read
+     */
+    public static synchronized ProjectConfiguration getDefault() {
+        if (_default == null) {
+            try {
+                _default = forProject(Paths.get("").toAbsolutePath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return _default;
+    }
+
+    public static synchronized void setDefault(ProjectConfiguration configuration) {
+        _default = configuration;
+    }
+
+    /**
+     * Configuration of a project directory. Its project file is read when present, otherwise
+     * src/main/java (or the directory itself when that does not exist) is the only source root.
+     *
+     * @throws IOException when the project directory does not exist or its project file cannot be read
+     */
+    public static ProjectConfiguration forProject(Path projectRoot) throws IOException {
+        if (!Files.isDirectory(projectRoot)) {
+            throw new NoSuchFileException(projectRoot.toString(), null, "project directory does not exist");
+        }
+
+        Path projectFile = projectRoot.resolve(PROJECT_FILE_NAME);
+
+        if (Files.isRegularFile(projectFile)) {
+            return read(projectFile);
+        }
+
+        Path mavenRoot = projectRoot.resolve("src").resolve("main").resolve("java");
+        Path sourceRoot = Files.isDirectory(mavenRoot) ? mavenRoot : projectRoot;
+
+        return new ProjectConfiguration(projectRoot, Collections.singletonList(sourceRoot), Collections.emptyList());
+    }
+
+    /**
+     * Reads a project file. The directory of the file is the project root. Without a sourceRoots entry
+     * the project root is the source root, without an excludedPackages entry the default exclusions apply.
+     *
+     * @throws IOException when the file cannot be read
+     */
+    public static ProjectConfiguration read(Path projectFile) throws IOException {
+        Properties properties = new Properties();
+
+        try (Reader reader = Files.newBufferedReader(projectFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        Path projectRoot = projectFile.toAbsolutePath().getParent();
+        List<Path> sourceRoots = parsePaths(projectRoot, properties.getProperty(SOURCE_ROOTS_KEY, ""));
+
+        String excludedPackages = properties.getProperty(EXCLUDED_PACKAGES_KEY);
+
+        return new ProjectConfiguration(projectRoot,
+                sourceRoots.isEmpty() ? Collections.singletonList(projectRoot) : sourceRoots,
+                parsePaths(projectRoot, properties.getProperty(CLASSPATH_KEY, "")),
+                (excludedPackages != null) ? new PackageExclusions(Arrays.asList(excludedPackages.split(",")))
+                                           : PackageExclusions.defaults());
+    }
+
+    /**
+     * @param base  Directory relative paths are resolved against
+     * @param value Comma separated list of paths, e.g. from a property or a command line option
+     */
+    public static List<Path> parsePaths(Path base, String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .map(entry -> base.resolve(entry).normalize())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return Copy of this configuration with other source roots
+     */
+    public ProjectConfiguration withSourceRoots(List<Path> sourceRoots) {
+        return new ProjectConfiguration(_projectRoot, sourceRoots, _jars, _excludedPackages);
+    }
+
+    /**
+     * @return Copy of this configuration with other dependency jars
+     */
+    public ProjectConfiguration withJars(List<Path> jars) {
+        return new ProjectConfiguration(_projectRoot, _sourceRoots, jars, _excludedPackages);
+    }
+
+    /**
+     * @return Copy of this configuration with other excluded packages
+     */
+    public ProjectConfiguration withExcludedPackages(PackageExclusions excludedPackages) {
+        return new ProjectConfiguration(_projectRoot, _sourceRoots, _jars, excludedPackages);
+    }
+
+    private static List<Path> expandJars(List<Path> entries) {
+        List<Path> jars = new ArrayList<>();
+
+        for (Path entry : entries) {
+            if (Files.isDirectory(entry)) {
+                try (Stream<Path> files = Files.list(entry)) {
+                    files.filter(file -> file.toString().endsWith(".jar")).sorted().forEach(jars::add);
+                }
+                catch (IOException e) {
+                    System.out.println("Unable to list jars in " + entry + ": " + e.getMessage());
+                }
+            }
+            else {
+                jars.add(entry);
+            }
+        }
+
+        return jars;
+    }
+
+    public Path getProjectRoot() {
+        return _projectRoot;
+    }
+
+    public List<Path> getSourceRoots() {
+        return _sourceRoots;
+    }
+
+    /**
+     * @return Dependency jars, directories in the configuration are replaced by the jars they contain
+     */
+    public List<Path> getJars() {
+        return _jars;
+    }
+
+    public PackageExclusions getExcludedPackages() {
+        return _excludedPackages;
+    }
+}
@@ -0,0 +1,370 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParseStart;
+import com.github.javaparser.Problem;
+import com.github.javaparser.Providers;
+import com.github.javaparser.ast.CompilationUnit;
+import helpers.ContentHash;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Loads all .java files below a project root into compilation units.
+ *
+ * Files are parsed in parallel on a fork-join pool. A file that cannot be parsed is reported
+ * in the failure list, but does not stop the other files from being loaded. After loading, the
+ * compilation unit declaring a specific class can be looked up by (qualified) name.
+ *
+ * When a summary cache is provided, a file whose content hash is found in the cache is not parsed
+ * during loading. Its summary is taken from the cache and its compilation unit is only parsed
+ * when it is actually requested.
+ *
+ * When only a single class is needed, loadDeclaring locates its file through a symbol index
+ * and loads just that file instead of the whole project.
+ */
+public class ProjectLoader {
+
+    // Number of files a single fork-join task parses before it stops splitting
+    private static final int FILES_PER_TASK = 8;
+
+    private final Path _root;
+    private final ForkJoinPool _pool;
+    private final SummaryCache _cache;
+
+    private Map<Path, FileSummary> _summaries = new ConcurrentSkipListMap<>();
+    private Map<Path, CompilationUnit> _units = new ConcurrentSkipListMap<>();
+    private Map<Path, List<String>> _failures = new ConcurrentSkipListMap<>();
+    // Guarded by this, lookups may run while another thread reloads a file
+    private Map<String, SortedSet<Path>> _declaringFiles = new HashMap<>();
+    private SymbolIndex _symbolIndex = null;
+
+    public ProjectLoader(Path root)
+    {
+        this(root, ForkJoinPool.commonPool());
+    }
+
+    public ProjectLoader(Path root, ForkJoinPool pool)
+    {
+        this(root, pool, null);
+    }
+
+    public ProjectLoader(Path root, SummaryCache cache)
+    {
+        this(root, ForkJoinPool.commonPool(), cache);
+    }
+
+    /**
+     * @param root  Directory containing the .java files of the project
+     * @param pool  Pool on which files are read and parsed
+     * @param cache Summary cache used to skip parsing of unchanged files, null to parse every file
+     */
+    public ProjectLoader(Path root, ForkJoinPool pool, SummaryCache cache)
+    {
+        this._root = root;
+        this._pool = pool;
+        this._cache = cache;
+    }
+
+    public Path getRoot() {
+        return _root;
+    }
+
+    /**
+     * Summarizes all java files found below the project root. Files are parsed unless
+     * their summary is present in the cache.
+     *
+     * @throws IOException when the project root does not exist or cannot be read
+     */
+    public void load() throws IOException {
+        requireRoot();
+
+        List<Path> sourceFiles = collectSourceFiles();
+
+        _summaries.clear();
+        _units.clear();
+        _failures.clear();
+
+        _pool.invoke(new ParseTask(sourceFiles, 0, sourceFiles.size()));
+
+        buildDeclarationIndex();
+    }
+
+    private void requireRoot() throws NoSuchFileException {
+        if (!Files.isDirectory(_root)) {
+            throw new NoSuchFileException(_root.toString(), null, "project root does not exist");
+        }
+    }
+
+    private List<Path> collectSourceFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(_root)) {
+            return files.filter(file -> Files.isRegularFile(file) && file.toString().endsWith(".java"))
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+
+    private void loadFile(Path file) {
+        try {
+            byte[] content = Files.readAllBytes(file);
+            String contentHash = ContentHash.of(content);
+
+            Optional<FileSummary> cached = (_cache != null) ? _cache.load(contentHash) : Optional.empty();
+
+            if (cached.isPresent()) {
+                _summaries.put(file, cached.get());
+            }
+            else {
+                Optional<CompilationUnit> cu = parse(file, content);
+
+                if (cu.isPresent()) {
+                    FileSummary summary = FileSummary.of(cu.get(), contentHash);
+
+                    if (_cache != null) {
+                        _cache.store(summary);
+                    }
+
+                    _units.put(file, cu.get());
+                    _summaries.put(file, summary);
+                }
+            }
+        }
+        catch (IOException e) {
+            _failures.put(file, Arrays.asList(String.valueOf(e.getMessage())));
+        }
+    }
+
+    private Optional<CompilationUnit> parse(Path file, byte[] content) {
+        try {
+            ParseResult<CompilationUnit> result = new JavaParser().parse(ParseStart.COMPILATION_UNIT,
+                    Providers.provider(new String(content, StandardCharsets.UTF_8)));
+
+            if (result.isSuccessful() && result.getResult().isPresent()) {
+                CompilationUnit cu = result.getResult().get();
+                cu.setStorage(file);
+                return Optional.of(cu);
+            }
+
+            _failures.put(file, result.getProblems().stream().map(Problem::getMessage).collect(Collectors.toList()));
+        }
+        catch (RuntimeException e) {
+            _failures.put(file, Arrays.asList(String.valueOf(e.getMessage())));
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Registers each (nested) type under its simple name and its qualified name
+     */
+    private synchronized void buildDeclarationIndex() {
+        _declaringFiles.clear();
+
+        _summaries.forEach(this::addDeclaringFiles);
+    }
+
+    private void addDeclaringFiles(Path file, FileSummary summary) {
+        summary.getTypes().forEach(type -> {
+            addDeclaringFile(type.getName(), file);
+            addDeclaringFile(type.getQualifiedName(), file);
+        });
+    }
+
+    private void addDeclaringFile(String name, Path file) {
+        _declaringFiles.computeIfAbsent(name, key -> new TreeSet<>()).add(file);
+    }
+
+    /**
+     * Looks up the compilation unit which declares the given class.
+     *
+     * @param className Simple or qualified name of the class. When a simple name is declared in multiple
+     *                  files, the first file in path order is taken.
+     * @return Compilation unit of the declaring file, empty when no loaded file declares the class
+     */
+    public Optional<CompilationUnit> findCompilationUnitDeclaring(String className) {
+        Optional<Path> file = findDeclaringFile(className);
+
+        return file.isPresent() ? getCompilationUnit(file.get()) : Optional.empty();
+    }
+
+    private synchronized Optional<Path> findDeclaringFile(String className) {
+        SortedSet<Path> files = _declaringFiles.get(className);
+
+        return (files == null || files.isEmpty()) ? Optional.empty() : Optional.of(files.first());
+    }
+
+    /**
+     * Loads only the file declaring the given class. The file is located with a symbol index of the
+     * project, which is built on first use.
+     *
+     * @param className Simple or qualified name of the class
+     * @return Compilation unit of the declaring file, empty when no file declares the class or it cannot be parsed
+     * @throws IOException when the project root does not exist or cannot be read
+     */
+    public synchronized Optional<CompilationUnit> loadDeclaring(String className) throws IOException {
+        if (_symbolIndex == null) {
+            requireRoot();
+            _symbolIndex = new SymbolIndex(Collections.singletonList(_root), _pool);
+            _symbolIndex.build();
+        }
+
+        Optional<Path> file = _symbolIndex.findFile(className);
+
+        if (!file.isPresent()) {
+            return Optional.empty();
+        }
+
+        if (!_summaries.containsKey(file.get())) {
+            loadFile(file.get());
+
+            FileSummary summary = _summaries.get(file.get());
+            if (summary != null) {
+                addDeclaringFiles(file.get(), summary);
+            }
+        }
+
+        return getCompilationUnit(file.get());
+    }
+
+    /**
+     * Loads a single file again, e.g. after it has been changed, added or removed. The symbol index,
+     * when built, is updated for the file as well.
+     *
+     * @param file Path of a file below the project root
+     * @return New summary of the file, empty when it no longer exists or cannot be parsed
+     */
+    public synchronized Optional<FileSummary> reload(Path file) {
+        _summaries.remove(file);
+        _units.remove(file);
+        _failures.remove(file);
+
+        if (_symbolIndex != null) {
+            _symbolIndex.update(file);
+        }
+
+        if (Files.isRegularFile(file)) {
+            loadFile(file);
+        }
+
+        buildDeclarationIndex();
+
+        return Optional.ofNullable(_summaries.get(file));
+    }
+
+    /**
+     * Returns the compilation unit of a loaded file. A file of which the summary came from the cache
+     * is parsed at this moment.
+     *
+     * @param file Path of a file below the project root
+     * @return Compilation unit, empty when the file was not loaded or cannot be parsed (anymore)
+     */
+    public Optional<CompilationUnit> getCompilationUnit(Path file) {
+        if (!_summaries.containsKey(file)) {
+            return Optional.empty();
+        }
+
+        CompilationUnit cu = _units.get(file);
+
+        if (cu == null) {
+            try {
+                cu = parse(file, Files.readAllBytes(file)).orElse(null);
+            }
+            catch (IOException e) {
+                _failures.put(file, Arrays.asList(String.valueOf(e.getMessage())));
+            }
+
+            if (cu != null) {
+                _units.put(file, cu);
+            }
+        }
+
+        return Optional.ofNullable(cu);
+    }
+
+    /**
+     * @return Compilation units of all loaded files, files not parsed during loading are parsed first
+     */
+    public Collection<CompilationUnit> getCompilationUnits() {
+        List<CompilationUnit> units = new ArrayList<>();
+
+        _summaries.keySet().forEach(file -> getCompilationUnit(file).ifPresent(units::add));
+
+        return units;
+    }
+
+    /**
+     * @return Summary per successfully loaded file
+     */
+    public Map<Path, FileSummary> getSummaries() {
+        return Collections.unmodifiableMap(_summaries);
+    }
+
+    /**
+     * @return Per file that could not be parsed the list of reported problems
+     */
+    public Map<Path, List<String>> getFailures() {
+        return Collections.unmodifiableMap(_failures);
+    }
+
+    /**
+     * Splits the list of files until a task has at most FILES_PER_TASK files left to parse
+     */
+    private class ParseTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Path> _files;
+        private final int _from;
+        private final int _to;
+
+        ParseTask(List<Path> files, int from, int to)
+        {
+            this._files = files;
+            this._from = from;
+            this._to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (_to - _from <= FILES_PER_TASK) {
+                for (int i = _from; i < _to; i++) {
+                    loadFile(_files.get(i));
+                }
+            }
+            else {
+                int middle = (_from + _to) >>> 1;
+                invokeAll(new ParseTask(_files, _from, middle), new ParseTask(_files, middle, _to));
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+/**
+ * The loaded state of one project, kept between analysis requests: the project loader with its symbol
+ * index, and the type hierarchy and call site indexes built from the loaded files.
+ *
+ * Without load only the files declaring the analyzed classes are loaded, and no indexes are available.
+ * Either way a file is parsed once. When a request finds its file changed on disk, the file is loaded
+ * again and the symbol index and the other indexes are updated for that file only. refresh does the same
+ * for all loaded files that changed, invalidate for a single file (e.g. one that was added).
+ */
+public class ProjectWorkspace {
+
+    private static ProjectWorkspace _default = null;
+
+    private final ProjectLoader _loader;
+    private final TypeHierarchyIndex _hierarchyIndex = new TypeHierarchyIndex();
+    private final CallSiteIndex _callSiteIndex = new CallSiteIndex();
+    private boolean _indexed = false;
+
+    // Modification time of each loaded file when it was read
+    private final Map<Path, FileTime> _loadedVersions = new HashMap<>();
+
+    /**
+     * @param root  Directory containing the .java files of the project
+     * @param cache Summary cache used to skip parsing of unchanged files, null to parse every file
+     */
+    public ProjectWorkspace(Path root, SummaryCache cache)
+    {
+        this._loader = new ProjectLoader(root, cache);
+    }
+
+    /**
+     * @return The workspace shared by all analyzers, created for the root of the default project configuration when not set
+     */
+    public static synchronized ProjectWorkspace getDefault() {
+        if (_default == null) {
+            _default = new ProjectWorkspace(ProjectConfiguration.getDefault().getProjectRoot(),
+                    new SummaryCache(SummaryCache.defaultDirectory()));
+        }
+
+        return _default;
+    }
+
+    public static synchronized void setDefault(ProjectWorkspace workspace) {
+        _default = workspace;
+    }
+
+    public Path getRoot() {
+        return _loader.getRoot();
+    }
+
+    /**
+     * Loads all files of the project and builds the type hierarchy and call site indexes
+     *
+     * @throws IOException when the project root itself cannot be read
+     */
+    public synchronized void load() throws IOException {
+        _loader.load();
+        _hierarchyIndex.build(_loader.getSummaries());
+        _callSiteIndex.build(_loader.getCompilationUnits());
+        _indexed = true;
+
+        _loadedVersions.clear();
+        for (Path file : _loader.getSummaries().keySet()) {
+            _loadedVersions.put(file, modificationTime(file));
+        }
+    }
+
+    /**
+     * Looks up the compilation unit declaring a class. Its file is loaded on first use, and loaded again
+     * when it changed since.
+     *
+     * @param className Simple or qualified name of the class
+     * @return Compilation unit of the declaring file, empty when no file declares the class or it cannot be parsed
+     * @throws IOException when the project root itself cannot be read
+     */
+    public synchronized Optional<CompilationUnit> loadDeclaring(String className) throws IOException {
+        Optional<CompilationUnit> cu = _loader.loadDeclaring(className);
+        Optional<Path> file = cu.flatMap(CompilationUnit::getStorage).map(CompilationUnit.Storage::getPath);
+
+        if (file.isPresent()) {
+            FileTime loadedVersion = _loadedVersions.get(file.get());
+
+            if (loadedVersion == null) {
+                _loadedVersions.put(file.get(), modificationTime(file.get()));
+            }
+            else if (!loadedVersion.equals(modificationTime(file.get()))) {
+                // The class can have moved to another file, so it is looked up again after the update
+                invalidate(file.get());
+                cu = _loader.loadDeclaring(className);
+            }
+        }
+
+        return cu;
+    }
+
+    /**
+     * Loads all loaded files that changed on disk again, and updates the indexes for them
+     *
+     * @return The changed files
+     */
+    public synchronized List<Path> refresh() {
+        List<Path> changed = new ArrayList<>();
+
+        _loadedVersions.forEach((file, loadedVersion) -> {
+            if (!loadedVersion.equals(modificationTime(file))) {
+                changed.add(file);
+            }
+        });
+
+        changed.forEach(this::invalidate);
+
+        return changed;
+    }
+
+    /**
+     * Loads a single file again, e.g. after it has been changed, added or removed, and updates the indexes for it
+     *
+     * @param file Path of a file below the project root
+     */
+    public synchronized void invalidate(Path file) {
+        Optional<FileSummary> summary = _loader.reload(file);
+
+        if (_indexed) {
+            _hierarchyIndex.update(file, summary.orElse(null));
+            _callSiteIndex.update(file, summary.isPresent() ? _loader.getCompilationUnit(file).orElse(null) : null);
+        }
+
+        if (summary.isPresent()) {
+            _loadedVersions.put(file, modificationTime(file));
+        }
+        else {
+            _loadedVersions.remove(file);
+        }
+    }
+
+    /**
+     * @return Hierarchy of the loaded project, null when the project has not been loaded as a whole
+     */
+    public synchronized TypeHierarchyIndex getTypeHierarchyIndex() {
+        return _indexed ? _hierarchyIndex : null;
+    }
+
+    /**
+     * @return Calls of the loaded project, null when the project has not been loaded as a whole
+     */
+    public synchronized CallSiteIndex getCallSiteIndex() {
+        return _indexed ? _callSiteIndex : null;
+    }
+
+    /**
+     * @return Per file that could not be parsed the list of reported problems
+     */
+    public Map<Path, List<String>> getFailures() {
+        return _loader.getFailures();
+    }
+
+    /**
+     * @return Modification time of the file, the epoch when it cannot be read (e.g. because it was removed)
+     */
+    private static FileTime modificationTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        }
+        catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
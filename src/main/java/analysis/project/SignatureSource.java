@@ -0,0 +1,209 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+/**
+ * Reduces a Java source to the declarations of its types and members.
+ *
+ * The contents of method and constructor bodies, initializer blocks, and brace groups in field
+ * initializers (array initializers, lambdas, anonymous classes) are replaced by an empty comment of the
+ * same length. Line breaks are kept, so all remaining declarations keep their original position. Parsing the result takes a fraction
+ * of the time and memory of parsing the complete source, while signatures and the type hierarchy stay intact.
+ */
+public final class SignatureSource {
+
+    private final char[] _source;
+    private int _pos = 0;
+
+    private SignatureSource(String source)
+    {
+        this._source = source.toCharArray();
+    }
+
+    /**
+     * @param source Content of a .java file
+     * @return The same source with all bodies emptied
+     */
+    public static String stripBodies(String source) {
+        return new SignatureSource(source).strip();
+    }
+
+    private String strip() {
+        // True when the current member statement contains a class, interface or enum keyword
+        boolean declaresType = false;
+        char previous = 0;
+
+        while (_pos < _source.length) {
+            char current = _source[_pos];
+
+            if (skipCommentOrLiteral()) {
+                continue;
+            }
+
+            if (Character.isJavaIdentifierStart(current)) {
+                String word = readIdentifier();
+
+                if (previous != '.' && (word.equals("class") || word.equals("interface") || word.equals("enum"))) {
+                    declaresType = true;
+                }
+
+                previous = 'a';
+                continue;
+            }
+
+            if (current == '{' && !declaresType) {
+                // Not the body of a type: keep the braces, clear the content
+                int start = _pos;
+                _pos = findMatchingBrace(start);
+                blank(start + 1, _pos);
+            }
+
+            if (current == '{' || current == '}' || current == ';') {
+                declaresType = false;
+            }
+
+            if (!Character.isWhitespace(current)) {
+                previous = current;
+            }
+
+            _pos++;
+        }
+
+        return new String(_source);
+    }
+
+    /**
+     * @return Position of the brace closing the one at start, the end of the source when it is not closed
+     */
+    private int findMatchingBrace(int start) {
+        int depth = 0;
+        _pos = start;
+
+        while (_pos < _source.length) {
+            if (skipCommentOrLiteral()) {
+                continue;
+            }
+
+            char current = _source[_pos];
+
+            if (current == '{') {
+                depth++;
+            }
+            else if (current == '}' && --depth == 0) {
+                return _pos;
+            }
+
+            _pos++;
+        }
+
+        return _source.length;
+    }
+
+    /**
+     * Clears the content between from (inclusive) and to (exclusive). When possible the content is turned
+     * into a single block comment, the parser handles long runs of whitespace recursively per character.
+     */
+    private void blank(int from, int to) {
+        to = Math.min(to, _source.length);
+
+        for (int i = from; i < to; i++) {
+            if (!isLineBreak(_source[i])) {
+                _source[i] = ' ';
+            }
+        }
+
+        int open = from;
+        while (open + 1 < to && (isLineBreak(_source[open]) || isLineBreak(_source[open + 1]))) {
+            open++;
+        }
+
+        int close = to - 1;
+        while (close - 1 > open + 1 && (isLineBreak(_source[close]) || isLineBreak(_source[close - 1]))) {
+            close--;
+        }
+
+        if (close - 1 > open + 1) {
+            _source[open] = '/';
+            _source[open + 1] = '*';
+            _source[close - 1] = '*';
+            _source[close] = '/';
+        }
+    }
+
+    private static boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r';
+    }
+
+    private String readIdentifier() {
+        int start = _pos;
+
+        while (_pos < _source.length && Character.isJavaIdentifierPart(_source[_pos])) {
+            _pos++;
+        }
+
+        return new String(_source, start, _pos - start);
+    }
+
+    private char at(int index) {
+        return index < _source.length ? _source[index] : 0;
+    }
+
+    /**
+     * Moves past a comment, string or character literal starting at the current position
+     * @return true when something was skipped
+     */
+    private boolean skipCommentOrLiteral() {
+        char current = _source[_pos];
+
+        if (current == '/' && at(_pos + 1) == '/') {
+            while (_pos < _source.length && _source[_pos] != '\n') {
+                _pos++;
+            }
+            return true;
+        }
+
+        if (current == '/' && at(_pos + 1) == '*') {
+            _pos += 2;
+            while (_pos < _source.length && !(_source[_pos] == '*' && at(_pos + 1) == '/')) {
+                _pos++;
+            }
+            _pos = Math.min(_pos + 2, _source.length);
+            return true;
+        }
+
+        if (current == '"' || current == '\'') {
+            _pos++;
+            while (_pos < _source.length) {
+                char c = _source[_pos++];
+
+                if (c == '\\') {
+                    _pos++;
+                }
+                else if (c == current || c == '\n') {
+                    break;
+                }
+            }
+            _pos = Math.min(_pos, _source.length);
+            return true;
+        }
+
+        return false;
+    }
+}
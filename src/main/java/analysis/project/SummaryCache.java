@@ -0,0 +1,117 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * On-disk cache of file summaries. Each summary is stored in its own file, named after the hash
+ * of the source content it describes. A changed source file therefore never hits a stale entry.
+ */
+public class SummaryCache {
+
+    // Increase when the layout of the summary classes changes, so old entries are no longer read
+    private static final String FORMAT_VERSION = "v1";
+
+    private final Path _directory;
+
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+
+    public SummaryCache(Path directory)
+    {
+        this._directory = directory;
+    }
+
+    /**
+     * @return Cache directory in the home folder of the user, shared by all projects
+     */
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".rpg", "summaries");
+    }
+
+    public Path getDirectory() {
+        return _directory;
+    }
+
+    private Path entryFor(String contentHash) {
+        return _directory.resolve(FORMAT_VERSION + "-" + contentHash + ".summary");
+    }
+
+    /**
+     * @param contentHash Hash of the content of a source file
+     * @return The stored summary, empty when it is not present or cannot be read
+     */
+    public Optional<FileSummary> load(String contentHash)
+    {
+        Path entry = entryFor(contentHash);
+
+        if (Files.isRegularFile(entry)) {
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+                FileSummary summary = (FileSummary) in.readObject();
+                _hits.incrementAndGet();
+                return Optional.of(summary);
+            }
+            catch (IOException | ClassNotFoundException | ClassCastException e) {
+                // A damaged entry is treated as not present, it is overwritten by the next store
+                System.out.println("Ignoring unreadable cache entry " + entry + ": " + e.getMessage());
+            }
+        }
+
+        _misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Stores a summary. The entry is written to a temporary file first, so concurrent readers
+     * never see a partially written entry.
+     */
+    public void store(FileSummary summary)
+    {
+        try {
+            Files.createDirectories(_directory);
+
+            Path temporary = Files.createTempFile(_directory, summary.getContentHash(), ".tmp");
+
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeObject(summary);
+            }
+
+            Files.move(temporary, entryFor(summary.getContentHash()), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e) {
+            System.out.println("Unable to store summary in cache: " + e.getMessage());
+        }
+    }
+
+    public long getHitCount() {
+        return _hits.get();
+    }
+
+    public long getMissCount() {
+        return _misses.get();
+    }
+}
@@ -0,0 +1,404 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Index from type name to the file declaring it, built without parsing.
+ *
+ * Each .java file below the source roots is memory mapped and scanned for its package declaration
+ * and the class, interface, enum and annotation declarations of top level and member types. Comments,
+ * string and character literals are skipped. Local and anonymous classes are not indexed, they cannot
+ * be referenced by name from another file.
+ *
+ * The index is used to find the single file that has to be parsed for a given class.
+ *
+ * Lookups may run while another thread updates the index, the name maps are only accessed while
+ * holding the lock of the index.
+ */
+public class SymbolIndex {
+
+    private final List<Path> _sourceRoots;
+    private final ForkJoinPool _pool;
+
+    private Map<Path, List<String>> _declaredTypes = new ConcurrentSkipListMap<>();
+    private Map<Path, String> _failures = new ConcurrentSkipListMap<>();
+
+    // Guarded by this
+    private Map<String, SortedSet<Path>> _byQualifiedName = new HashMap<>();
+    private Map<String, SortedSet<Path>> _bySimpleName = new HashMap<>();
+
+    public SymbolIndex(List<Path> sourceRoots)
+    {
+        this(sourceRoots, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param sourceRoots Directories containing .java files, roots that do not exist are skipped
+     * @param pool        Pool on which the files are scanned
+     */
+    public SymbolIndex(List<Path> sourceRoots, ForkJoinPool pool)
+    {
+        this._sourceRoots = new ArrayList<>(sourceRoots);
+        this._pool = pool;
+    }
+
+    /**
+     * Scans all .java files below the source roots. A previous index is replaced.
+     *
+     * @throws IOException when one of the existing source roots cannot be read
+     */
+    public void build() throws IOException {
+        List<Path> sourceFiles = new ArrayList<>();
+
+        for (Path root : _sourceRoots) {
+            if (Files.isDirectory(root)) {
+                try (Stream<Path> files = Files.walk(root)) {
+                    files.filter(file -> Files.isRegularFile(file) && file.toString().endsWith(".java"))
+                         .forEach(sourceFiles::add);
+                }
+            }
+        }
+
+        _declaredTypes.clear();
+        _failures.clear();
+
+        _pool.submit(() -> sourceFiles.parallelStream().forEach(this::indexFile)).join();
+
+        indexNames();
+    }
+
+    private synchronized void indexNames() {
+        _byQualifiedName.clear();
+        _bySimpleName.clear();
+
+        _declaredTypes.forEach(this::addNames);
+    }
+
+    private void addNames(Path file, List<String> types) {
+        types.forEach(qualifiedName -> {
+            _byQualifiedName.computeIfAbsent(qualifiedName, key -> new TreeSet<>()).add(file);
+            _bySimpleName.computeIfAbsent(simpleName(qualifiedName), key -> new TreeSet<>()).add(file);
+        });
+    }
+
+    /**
+     * Scans a single file again, e.g. after it has been changed, added or removed
+     *
+     * @param file Path of a .java file below one of the source roots
+     */
+    public synchronized void update(Path file) {
+        List<String> previous = _declaredTypes.remove(file);
+        _failures.remove(file);
+
+        if (previous != null) {
+            previous.forEach(qualifiedName -> {
+                removeFile(_byQualifiedName, qualifiedName, file);
+                removeFile(_bySimpleName, simpleName(qualifiedName), file);
+            });
+        }
+
+        if (Files.isRegularFile(file)) {
+            indexFile(file);
+            addNames(file, _declaredTypes.getOrDefault(file, Collections.emptyList()));
+        }
+    }
+
+    private static void removeFile(Map<String, SortedSet<Path>> files, String name, Path file) {
+        SortedSet<Path> declaring = files.get(name);
+
+        if (declaring != null) {
+            declaring.remove(file);
+
+            if (declaring.isEmpty()) {
+                files.remove(name);
+            }
+        }
+    }
+
+    private void indexFile(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            _declaredTypes.put(file, new DeclarationScanner(content).scan());
+        }
+        catch (IOException e) {
+            _failures.put(file, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private static String simpleName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * @param className Qualified name of a type or, when no type has that qualified name, its simple name
+     * @return First file in path order declaring the type, empty when it is not declared below the source roots
+     */
+    public synchronized Optional<Path> findFile(String className) {
+        SortedSet<Path> files = _byQualifiedName.get(className);
+
+        if (files == null) {
+            files = _bySimpleName.get(className);
+        }
+
+        return (files == null || files.isEmpty()) ? Optional.empty() : Optional.of(files.first());
+    }
+
+    /**
+     * @param qualifiedName Qualified name of a type, for member types including the enclosing type
+     * @return First file in path order declaring exactly this type
+     */
+    public synchronized Optional<Path> findFileByQualifiedName(String qualifiedName) {
+        SortedSet<Path> files = _byQualifiedName.get(qualifiedName);
+
+        return (files == null || files.isEmpty()) ? Optional.empty() : Optional.of(files.first());
+    }
+
+    /**
+     * @return Copy of all files declaring a type with the given simple name
+     */
+    public synchronized SortedSet<Path> findFilesBySimpleName(String simpleName) {
+        return Collections.unmodifiableSortedSet(new TreeSet<>(_bySimpleName.getOrDefault(simpleName, Collections.emptySortedSet())));
+    }
+
+    /**
+     * @return Qualified names of the types declared per file, member types follow their enclosing type
+     */
+    public Map<Path, List<String>> getDeclaredTypes() {
+        return Collections.unmodifiableMap(_declaredTypes);
+    }
+
+    /**
+     * @return Per file that could not be read the reason
+     */
+    public Map<Path, String> getFailures() {
+        return Collections.unmodifiableMap(_failures);
+    }
+
+    public synchronized int size() {
+        return _byQualifiedName.size();
+    }
+
+    /**
+     * Minimal lexer over the bytes of a source file. Only identifiers and the characters
+     * '{', '}', ';', '.' and '@' are significant for finding type declarations.
+     */
+    static class DeclarationScanner {
+
+        private final MappedByteBuffer _content;
+        private final int _length;
+        private int _pos = 0;
+
+        private String _packageName = "";
+        private List<String> _types = new ArrayList<>();
+
+        // Qualified names and body depth of the types enclosing the current position
+        private Deque<String> _enclosingTypes = new ArrayDeque<>();
+        private Deque<Integer> _enclosingDepths = new ArrayDeque<>();
+
+        DeclarationScanner(MappedByteBuffer content)
+        {
+            this._content = content;
+            this._length = content.limit();
+        }
+
+        List<String> scan() {
+            int depth = 0;
+            String pendingType = null;
+            String previous = "";
+
+            String token;
+            while ((token = nextToken()) != null) {
+                switch (token) {
+                    case "{":
+                        depth++;
+                        if (pendingType != null) {
+                            _enclosingTypes.push(pendingType);
+                            _enclosingDepths.push(depth);
+                            pendingType = null;
+                        }
+                        break;
+
+                    case "}":
+                        if (!_enclosingDepths.isEmpty() && _enclosingDepths.peek() == depth) {
+                            _enclosingTypes.pop();
+                            _enclosingDepths.pop();
+                        }
+                        depth--;
+                        break;
+
+                    case "package":
+                        if (depth == 0) {
+                            _packageName = readQualifiedName();
+                        }
+                        break;
+
+                    case "class":
+                    case "interface":
+                    case "enum":
+                        // Skip class literals like String.class
+                        if (!previous.equals(".") && isMemberPosition(depth)) {
+                            String name = nextToken();
+
+                            if (name != null && isIdentifier(name)) {
+                                pendingType = qualify(name);
+                                _types.add(pendingType);
+                            }
+                        }
+                        break;
+
+                    default:
+                        break;
+                }
+
+                previous = token;
+            }
+
+            return _types;
+        }
+
+        private boolean isMemberPosition(int depth) {
+            return _enclosingDepths.isEmpty() ? depth == 0 : _enclosingDepths.peek() == depth;
+        }
+
+        private String qualify(String name) {
+            if (!_enclosingTypes.isEmpty()) {
+                return _enclosingTypes.peek() + "." + name;
+            }
+
+            return _packageName.isEmpty() ? name : _packageName + "." + name;
+        }
+
+        private String readQualifiedName() {
+            StringBuilder name = new StringBuilder();
+
+            String token;
+            while ((token = nextToken()) != null && !token.equals(";")) {
+                if (!token.equals("@")) {
+                    name.append(token);
+                }
+            }
+
+            return name.toString();
+        }
+
+        private static boolean isIdentifier(String token) {
+            return Character.isJavaIdentifierStart(token.charAt(0));
+        }
+
+        private byte at(int index) {
+            return index < _length ? _content.get(index) : 0;
+        }
+
+        /**
+         * @return Next identifier or significant character, null at the end of the content
+         */
+        private String nextToken() {
+            while (_pos < _length) {
+                byte current = _content.get(_pos);
+
+                if (current == '/' && at(_pos + 1) == '/') {
+                    skipUntil((byte) '\n');
+                }
+                else if (current == '/' && at(_pos + 1) == '*') {
+                    skipBlockComment();
+                }
+                else if (current == '"' || current == '\'') {
+                    skipLiteral(current);
+                }
+                else if (isIdentifierByte(current)) {
+                    return readIdentifier();
+                }
+                else {
+                    _pos++;
+
+                    if (current == '{' || current == '}' || current == ';' || current == '.' || current == '@') {
+                        return String.valueOf((char) current);
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        // Bytes above 0x7F are parts of UTF-8 encoded (identifier) characters
+        private static boolean isIdentifierByte(byte b) {
+            return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') ||
+                    b == '_' || b == '$' || b < 0;
+        }
+
+        private String readIdentifier() {
+            int start = _pos;
+
+            while (_pos < _length && isIdentifierByte(_content.get(_pos))) {
+                _pos++;
+            }
+
+            byte[] bytes = new byte[_pos - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = _content.get(start + i);
+            }
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void skipUntil(byte end) {
+            while (_pos < _length && _content.get(_pos) != end) {
+                _pos++;
+            }
+        }
+
+        private void skipBlockComment() {
+            _pos += 2;
+
+            while (_pos < _length && !(_content.get(_pos) == '*' && at(_pos + 1) == '/')) {
+                _pos++;
+            }
+
+            _pos += 2;
+        }
+
+        private void skipLiteral(byte quote) {
+            _pos++;
+
+            while (_pos < _length) {
+                byte current = _content.get(_pos++);
+
+                if (current == '\\') {
+                    _pos++;
+                }
+                else if (current == quote || current == '\n') {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,514 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import helpers.ContentHash;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory type hierarchy of all types declared in a project, built from the file summaries.
+ *
+ * Super types as written in the source are resolved to the qualified names of project types using
+ * the enclosing types, imports and package of the declaring file. Super types outside of the project
+ * (e.g. library classes) remain unresolved. The hierarchy of a type is complete when none of its
+ * (transitive) super types is unresolved, only for such types the answers of this index are exact.
+ *
+ * Method signatures are compared as written in the source, parameter types are not resolved.
+ */
+public class TypeHierarchyIndex {
+
+    /**
+     * A method together with the type declaring it
+     */
+    public static class DeclaredMethod {
+
+        private final String _typeName;
+        private final MethodSummary _method;
+
+        public DeclaredMethod(String typeName, MethodSummary method)
+        {
+            this._typeName = typeName;
+            this._method = method;
+        }
+
+        public String getTypeName() { return _typeName; }
+        public MethodSummary getMethod() { return _method; }
+
+        @Override
+        public String toString() {
+            return _typeName + "." + _method.getSignature();
+        }
+    }
+
+    private final ForkJoinPool _pool;
+
+    private Map<Path, FileSummary> _files = new ConcurrentHashMap<>();
+    private Map<String, Path> _declaringFiles = new ConcurrentHashMap<>();
+    private Map<String, TypeSummary> _types = new ConcurrentHashMap<>();
+
+    // Resolved direct super types, the super class is absent for interfaces and types extending a library class
+    private Map<String, String> _superClasses = new ConcurrentHashMap<>();
+    private Map<String, List<String>> _interfaces = new ConcurrentHashMap<>();
+    private Map<String, List<String>> _unresolved = new ConcurrentHashMap<>();
+    private Map<String, Set<String>> _subtypes = new ConcurrentHashMap<>();
+
+    public TypeHierarchyIndex()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool Pool on which the super types are resolved during a build
+     */
+    public TypeHierarchyIndex(ForkJoinPool pool)
+    {
+        this._pool = pool;
+    }
+
+    /**
+     * Replaces the index by the hierarchy of the given files
+     *
+     * @param summaries Summary per file of the project, e.g. from ProjectLoader.getSummaries()
+     */
+    public synchronized void build(Map<Path, FileSummary> summaries) {
+        _files.clear();
+        _declaringFiles.clear();
+        _types.clear();
+        _superClasses.clear();
+        _interfaces.clear();
+        _unresolved.clear();
+        _subtypes.clear();
+
+        // Sorted, so the first file in path order wins when a type is declared twice
+        new TreeMap<>(summaries).forEach(this::addTypesOf);
+
+        _pool.submit(() -> _types.keySet().parallelStream().forEach(type -> {
+            resolveSupertypes(type);
+            linkSupertypes(type);
+        })).join();
+    }
+
+    /**
+     * Updates the index after a file has been changed or added.
+     * Only the types of the file and the types referring to its (previous) types are resolved again.
+     *
+     * @param file    Changed file
+     * @param summary New summary of the file, null when the file has been removed
+     */
+    public synchronized void update(Path file, FileSummary summary) {
+        Set<String> changedNames = new HashSet<>();
+
+        removeTypesOf(file, changedNames);
+
+        if (summary != null) {
+            addTypesOf(file, summary);
+            summary.getTypes().forEach(type -> changedNames.add(type.getName()));
+        }
+
+        List<String> affected = _types.keySet().stream()
+                .filter(type -> file.equals(_declaringFiles.get(type)) || refersTo(_types.get(type), changedNames))
+                .collect(Collectors.toList());
+
+        affected.forEach(type -> {
+            unlinkSupertypes(type);
+            resolveSupertypes(type);
+            linkSupertypes(type);
+        });
+    }
+
+    public void remove(Path file) {
+        update(file, null);
+    }
+
+    private void addTypesOf(Path file, FileSummary summary) {
+        _files.put(file, summary);
+
+        summary.getTypes().forEach(type -> {
+            if (!_types.containsKey(type.getQualifiedName())) {
+                _types.put(type.getQualifiedName(), type);
+                _declaringFiles.put(type.getQualifiedName(), file);
+            }
+        });
+    }
+
+    private void removeTypesOf(Path file, Set<String> removedNames) {
+        FileSummary previous = _files.remove(file);
+
+        if (previous == null) {
+            return;
+        }
+
+        previous.getTypes().forEach(type -> {
+            String name = type.getQualifiedName();
+
+            if (file.equals(_declaringFiles.get(name))) {
+                unlinkSupertypes(name);
+
+                _types.remove(name);
+                _declaringFiles.remove(name);
+                _superClasses.remove(name);
+                _interfaces.remove(name);
+                _unresolved.remove(name);
+                _subtypes.remove(name);
+
+                removedNames.add(type.getName());
+            }
+        });
+    }
+
+    private static boolean refersTo(TypeSummary type, Set<String> simpleNames) {
+        return concat(type.getExtendedTypes(), type.getImplementedTypes()).stream()
+                .anyMatch(written -> simpleNames.contains(written.substring(written.lastIndexOf('.') + 1)));
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private void resolveSupertypes(String typeName) {
+        TypeSummary type = _types.get(typeName);
+        FileSummary file = _files.get(_declaringFiles.get(typeName));
+
+        List<String> interfaces = new ArrayList<>();
+        List<String> unresolved = new ArrayList<>();
+        String superClass = null;
+
+        // Interfaces list the interfaces they extend as extended types
+        List<String> writtenInterfaces = type.isInterface() ? type.getExtendedTypes() : type.getImplementedTypes();
+
+        if (!type.isInterface() && !type.getExtendedTypes().isEmpty()) {
+            String written = type.getExtendedTypes().get(0);
+            superClass = resolve(written, typeName, file);
+
+            if (superClass == null) {
+                unresolved.add(written);
+            }
+        }
+
+        for (String written : writtenInterfaces) {
+            String resolved = resolve(written, typeName, file);
+
+            if (resolved != null) {
+                interfaces.add(resolved);
+            }
+            else {
+                unresolved.add(written);
+            }
+        }
+
+        if (superClass != null) {
+            _superClasses.put(typeName, superClass);
+        }
+        else {
+            _superClasses.remove(typeName);
+        }
+
+        _interfaces.put(typeName, interfaces);
+        _unresolved.put(typeName, unresolved);
+    }
+
+    private void linkSupertypes(String typeName) {
+        getSupertypes(typeName).forEach(supertype ->
+                _subtypes.computeIfAbsent(supertype, key -> new ConcurrentSkipListSet<>()).add(typeName));
+    }
+
+    private void unlinkSupertypes(String typeName) {
+        getSupertypes(typeName).forEach(supertype -> {
+            Set<String> subtypes = _subtypes.get(supertype);
+            if (subtypes != null) {
+                subtypes.remove(typeName);
+            }
+        });
+    }
+
+    /**
+     * Resolves a type name as written in the declaration of fromType to a project type
+     *
+     * @return Qualified name, null when the name does not denote a project type
+     */
+    private String resolve(String written, String fromType, FileSummary file) {
+        int dot = written.indexOf('.');
+
+        if (dot > 0) {
+            if (_types.containsKey(written)) {
+                return written;
+            }
+
+            // Member type of a type in scope, e.g. Outer.Inner
+            String scope = resolve(written.substring(0, dot), fromType, file);
+            String candidate = (scope != null) ? scope + written.substring(dot) : null;
+
+            return (candidate != null && _types.containsKey(candidate)) ? candidate : null;
+        }
+
+        // Member types of the enclosing types
+        for (String scope = enclosingType(fromType); scope != null; scope = enclosingType(scope)) {
+            if (_types.containsKey(scope + "." + written)) {
+                return scope + "." + written;
+            }
+        }
+
+        for (String imported : file.getImports()) {
+            if (!imported.startsWith("static ") && imported.endsWith("." + written) && _types.containsKey(imported)) {
+                return imported;
+            }
+        }
+
+        String samePackage = file.getPackageName().isEmpty() ? written : file.getPackageName() + "." + written;
+        if (_types.containsKey(samePackage)) {
+            return samePackage;
+        }
+
+        for (String imported : file.getImports()) {
+            if (!imported.startsWith("static ") && imported.endsWith(".*")) {
+                String candidate = imported.substring(0, imported.length() - 1) + written;
+
+                if (_types.containsKey(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private String enclosingType(String typeName) {
+        int dot = typeName.lastIndexOf('.');
+        String enclosing = (dot > 0) ? typeName.substring(0, dot) : null;
+
+        return (enclosing != null && _types.containsKey(enclosing)) ? enclosing : null;
+    }
+
+    public boolean contains(String typeName) {
+        return _types.containsKey(typeName);
+    }
+
+    public Optional<TypeSummary> getType(String typeName) {
+        return Optional.ofNullable(_types.get(typeName));
+    }
+
+    public Optional<Path> getDeclaringFile(String typeName) {
+        return Optional.ofNullable(_declaringFiles.get(typeName));
+    }
+
+    /**
+     * Hash over the content of the files declaring the type, its super types and its sub types. It changes
+     * when any file changes that can change the answer to a hierarchy question about the type.
+     *
+     * @param typeName Qualified name of a type
+     */
+    public String getHierarchyHash(String typeName) {
+        Set<String> typeNames = new HashSet<>();
+        typeNames.add(typeName);
+        typeNames.addAll(getAllSupertypes(typeName));
+        typeNames.addAll(getAllSubtypes(typeName));
+
+        String contentHashes = typeNames.stream()
+                .map(_declaringFiles::get)
+                .filter(Objects::nonNull)
+                .map(_files::get)
+                .filter(Objects::nonNull)
+                .map(FileSummary::getContentHash)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(","));
+
+        return ContentHash.of(contentHashes);
+    }
+
+    public Optional<String> getSuperClass(String typeName) {
+        return Optional.ofNullable(_superClasses.get(typeName));
+    }
+
+    public List<String> getInterfaces(String typeName) {
+        return Collections.unmodifiableList(_interfaces.getOrDefault(typeName, Collections.emptyList()));
+    }
+
+    /**
+     * @return Direct super class followed by the directly implemented or extended interfaces
+     */
+    public List<String> getSupertypes(String typeName) {
+        List<String> supertypes = new ArrayList<>();
+
+        getSuperClass(typeName).ifPresent(supertypes::add);
+        supertypes.addAll(getInterfaces(typeName));
+
+        return supertypes;
+    }
+
+    /**
+     * @return All project super types, depth first with the super class before the interfaces, without duplicates
+     */
+    public List<String> getAllSupertypes(String typeName) {
+        Set<String> all = new LinkedHashSet<>();
+        collectSupertypes(typeName, all);
+        return new ArrayList<>(all);
+    }
+
+    private void collectSupertypes(String typeName, Set<String> all) {
+        for (String supertype : getSupertypes(typeName)) {
+            if (all.add(supertype)) {
+                collectSupertypes(supertype, all);
+            }
+        }
+    }
+
+    /**
+     * @return Chain of project super classes, starting with the direct super class
+     */
+    public List<String> getAllSuperClasses(String typeName) {
+        List<String> superClasses = new ArrayList<>();
+
+        for (Optional<String> superClass = getSuperClass(typeName);
+             superClass.isPresent() && !superClasses.contains(superClass.get());
+             superClass = getSuperClass(superClass.get())) {
+            superClasses.add(superClass.get());
+        }
+
+        return superClasses;
+    }
+
+    /**
+     * @return All interfaces implemented by the type, its super classes and their super interfaces
+     */
+    public List<String> getAllInterfaces(String typeName) {
+        return getAllSupertypes(typeName).stream()
+                .filter(supertype -> _types.get(supertype).isInterface())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return Project types directly extending or implementing the type, in name order
+     */
+    public Set<String> getSubtypes(String typeName) {
+        return Collections.unmodifiableSet(_subtypes.getOrDefault(typeName, Collections.emptySet()));
+    }
+
+    /**
+     * @return All project types that (indirectly) extend or implement the type, nearest first
+     */
+    public List<String> getAllSubtypes(String typeName) {
+        Set<String> all = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>(getSubtypes(typeName));
+
+        while (!pending.isEmpty()) {
+            String subtype = pending.poll();
+
+            if (all.add(subtype)) {
+                pending.addAll(getSubtypes(subtype));
+            }
+        }
+
+        return new ArrayList<>(all);
+    }
+
+    /**
+     * @return true when the type and all of its super types are declared in the project
+     */
+    public boolean isHierarchyComplete(String typeName) {
+        if (!_types.containsKey(typeName)) {
+            return false;
+        }
+
+        List<String> types = getAllSupertypes(typeName);
+        types.add(typeName);
+
+        return types.stream().allMatch(type -> _unresolved.getOrDefault(type, Collections.emptyList()).isEmpty());
+    }
+
+    public List<MethodSummary> getDeclaredMethods(String typeName) {
+        return getType(typeName).map(TypeSummary::getMethods).orElse(Collections.emptyList());
+    }
+
+    private Optional<MethodSummary> findDeclared(String typeName, String signature) {
+        return getDeclaredMethods(typeName).stream().filter(m -> m.getSignature().equals(signature)).findFirst();
+    }
+
+    /**
+     * Where is a method first declared. Looks in the type and its super types for declarations of
+     * the signature that do not override a declaration in one of their own super types.
+     *
+     * @param typeName  Type in which the method is visible
+     * @param signature Signature as written, e.g. "compute(int)"
+     * @return Declarations not overriding another declaration, more than one when e.g. a class and an interface both declare it
+     */
+    public List<DeclaredMethod> findFirstDeclarations(String typeName, String signature) {
+        List<String> candidates = new ArrayList<>();
+        candidates.add(typeName);
+        candidates.addAll(getAllSupertypes(typeName));
+
+        List<DeclaredMethod> first = new ArrayList<>();
+
+        for (String candidate : candidates) {
+            Optional<MethodSummary> declared = findDeclared(candidate, signature);
+
+            if (declared.isPresent() &&
+                    getAllSupertypes(candidate).stream().noneMatch(s -> findDeclared(s, signature).isPresent())) {
+                first.add(new DeclaredMethod(candidate, declared.get()));
+            }
+        }
+
+        return first;
+    }
+
+    /**
+     * @return Declarations of the signature in (indirect) subtypes of the type, nearest first
+     */
+    public List<DeclaredMethod> findOverriders(String typeName, String signature) {
+        List<DeclaredMethod> overriders = new ArrayList<>();
+
+        for (String subtype : getAllSubtypes(typeName)) {
+            findDeclared(subtype, signature).ifPresent(m -> overriders.add(new DeclaredMethod(subtype, m)));
+        }
+
+        return overriders;
+    }
+
+    /**
+     * @return Methods in the type and its super types with the same name as the method, but another signature
+     */
+    public List<DeclaredMethod> findOverloads(String typeName, String methodName, String signature) {
+        List<String> types = new ArrayList<>();
+        types.add(typeName);
+        types.addAll(getAllSupertypes(typeName));
+
+        List<DeclaredMethod> overloads = new ArrayList<>();
+
+        for (String type : types) {
+            getDeclaredMethods(type).stream()
+                    .filter(m -> m.getName().equals(methodName) && !m.getSignature().equals(signature))
+                    .forEach(m -> overloads.add(new DeclaredMethod(type, m)));
+        }
+
+        return overloads;
+    }
+
+    public int size() {
+        return _types.size();
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis.project;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Compact description of a type declared in a source file. Super types are stored as written
+ * in the source (without type arguments), they are not resolved to their qualified names.
+ */
+public class TypeSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Kind
+    {
+        CLASS,
+        INTERFACE,
+        ENUM,
+        ANNOTATION
+    }
+
+    private final String _qualifiedName;
+    private final Kind _kind;
+    private final List<String> _extendedTypes;
+    private final List<String> _implementedTypes;
+    private final List<MethodSummary> _methods;
+    private final List<FieldSummary> _fields;
+    private final int _beginLine;
+    private final int _endLine;
+
+    public TypeSummary(String qualifiedName, Kind kind,
+                       List<String> extendedTypes, List<String> implementedTypes,
+                       List<MethodSummary> methods, List<FieldSummary> fields,
+                       int beginLine, int endLine)
+    {
+        this._qualifiedName = qualifiedName;
+        this._kind = kind;
+        this._extendedTypes = extendedTypes;
+        this._implementedTypes = implementedTypes;
+        this._methods = methods;
+        this._fields = fields;
+        this._beginLine = beginLine;
+        this._endLine = endLine;
+    }
+
+    public String getQualifiedName() { return _qualifiedName; }
+
+    public String getName() {
+        return _qualifiedName.substring(_qualifiedName.lastIndexOf('.') + 1);
+    }
+
+    public Kind getKind() { return _kind; }
+    public boolean isInterface() { return _kind == Kind.INTERFACE; }
+    public List<String> getExtendedTypes() { return _extendedTypes; }
+    public List<String> getImplementedTypes() { return _implementedTypes; }
+    public List<MethodSummary> getMethods() { return _methods; }
+    public List<FieldSummary> getFields() { return _fields; }
+    public int getBeginLine() { return _beginLine; }
+    public int getEndLine() { return _endLine; }
+}
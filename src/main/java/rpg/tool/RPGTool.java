@@ -19,9 +19,20 @@
  */
 package rpg.tool;
 
+import analysis.MethodAnalyzer.TypeSolverService;
+import analysis.context.ContextDetectorRegistry;
+import analysis.project.PackageExclusions;
+import analysis.project.ProjectConfiguration;
+import analysis.project.ProjectWorkspace;
+import analysis.project.SummaryCache;
 import org.apache.commons.cli.*;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 /**
  * Refactoring (with) Procedural Guidance Tool
@@ -30,6 +41,10 @@ public class RPGTool {
     public static void main(String[] args) throws Exception {
 
         System.out.println("-= Refactor with Procedural Guidance v0.01 =-");
+
+        // Fails fast when a code context has no detector
+        ContextDetectorRegistry.getDefault();
+
         Options cmdLineOptions = new Options();
 
         Option fileForAnalysis = new Option("f","file", true, "Java File to be analyzed");
@@ -39,9 +54,22 @@ public class RPGTool {
         Option typeOfSmell     = new Option("s", "smell", true, "Name of smell detected");
         typeOfSmell.setRequired(false);
 
+        Option project         = new Option("p", "project", true, "Project directory or project file (" + ProjectConfiguration.PROJECT_FILE_NAME + ")");
+        project.setRequired(false);
+        Option sourceRoots     = new Option("r", "roots", true, "Comma separated source roots, overrides the project file");
+        sourceRoots.setRequired(false);
+        Option classpath       = new Option("c", "classpath", true, "Comma separated dependency jars or directories with jars, overrides the project file");
+        classpath.setRequired(false);
+        Option exclude         = new Option("x", "exclude", true, "Comma separated packages left out of the analysis, e.g. java.*,javax.*");
+        exclude.setRequired(false);
+
         cmdLineOptions.addOption(fileForAnalysis);
         cmdLineOptions.addOption(detectedLoc);
         cmdLineOptions.addOption(typeOfSmell);
+        cmdLineOptions.addOption(project);
+        cmdLineOptions.addOption(sourceRoots);
+        cmdLineOptions.addOption(classpath);
+        cmdLineOptions.addOption(exclude);
 
         CommandLineParser parser = new DefaultParser();
         HelpFormatter formatter = new HelpFormatter();
@@ -57,6 +85,10 @@ public class RPGTool {
             //return;
         }
 
+        if (cmd != null) {
+            configureProject(cmd);
+        }
+
         //System.out.print(cmd.getOptionValue("file"));
         //System.out.print(cmd.getOptionValue("loc"));
 
@@ -66,4 +98,48 @@ public class RPGTool {
         frame.pack();
         frame.setVisible(true);
     }
+
+    /**
+     * Makes the project given on the command line the default project of all analyzers. The project is loaded
+     * up front, so the type hierarchy and call site indexes are available to every request.
+     */
+    private static void configureProject(CommandLine cmd) throws IOException {
+        if (!cmd.hasOption("project") && !cmd.hasOption("roots") && !cmd.hasOption("classpath") && !cmd.hasOption("exclude")) {
+            return;
+        }
+
+        Path workingDirectory = Paths.get("").toAbsolutePath();
+        ProjectConfiguration configuration = ProjectConfiguration.getDefault();
+
+        if (cmd.hasOption("project")) {
+            Path project = Paths.get(cmd.getOptionValue("project"));
+            configuration = Files.isDirectory(project) ? ProjectConfiguration.forProject(project)
+                                                       : ProjectConfiguration.read(project);
+        }
+
+        if (cmd.hasOption("roots")) {
+            configuration = configuration.withSourceRoots(ProjectConfiguration.parsePaths(workingDirectory, cmd.getOptionValue("roots")));
+        }
+
+        if (cmd.hasOption("classpath")) {
+            configuration = configuration.withJars(ProjectConfiguration.parsePaths(workingDirectory, cmd.getOptionValue("classpath")));
+        }
+
+        if (cmd.hasOption("exclude")) {
+            configuration = configuration.withExcludedPackages(
+                    new PackageExclusions(Arrays.asList(cmd.getOptionValue("exclude").split(","))));
+        }
+
+        ProjectConfiguration.setDefault(configuration);
+        TypeSolverService.setProjectInstance(new TypeSolverService(configuration, TypeSolverService.DEFAULT_MEMO_CAPACITY));
+
+        ProjectWorkspace workspace = new ProjectWorkspace(configuration.getProjectRoot(),
+                new SummaryCache(SummaryCache.defaultDirectory()));
+        workspace.load();
+        workspace.getFailures().forEach((file, problems) ->
+                System.out.println("Unable to parse " + file + ": " + String.join(", ", problems)));
+        System.out.println("Loaded " + workspace.getTypeHierarchyIndex().size() + " types of " + configuration.getProjectRoot());
+
+        ProjectWorkspace.setDefault(workspace);
+    }
 }
\ No newline at end of file
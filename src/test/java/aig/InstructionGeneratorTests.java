@@ -90,4 +90,25 @@ public class InstructionGeneratorTests {
         Assert.assertFalse(graph.allInstructions.get(0).decisions.get(1).getRiskDescription().isEmpty());
         Assert.assertTrue(graph.allInstructions.get(0).decisions.get(0).getRiskDescription().isEmpty());
     }
+
+    @Test
+    public void GivenUnknownSubclassOverrideWithoutSubclassesNoEmptyListIsGenerated()
+    {
+        AdaptiveInstructionGraph graph = new AIG_RenameGeneration(true).getAdaptiveInstructionGraph();
+        InstructionGenerator generator = new InstructionGenerator(graph);
+
+        Map<String, List<String>> parameterMap = new HashMap<>();
+        parameterMap.put("#method", Collections.singletonList("void m()"));
+        parameterMap.put("#class", Collections.singletonList("A"));
+
+        generator.setParameterMap(parameterMap);
+        generator.setContext(EnumSet.of(CodeContext.CodeContextEnum.MethodSingleDeclaration));
+        generator.setUnknownContexts(EnumSet.of(CodeContext.CodeContextEnum.MethodSubclassOverride,
+                CodeContext.CodeContextEnum.MethodNoneSubclassOverride));
+
+        String instructions = String.join("\n", generator.generateInstruction());
+
+        Assert.assertFalse(instructions, instructions.contains("[Method Subclass Override]"));
+        Assert.assertFalse(instructions, instructions.contains("#subclass-list"));
+    }
 }
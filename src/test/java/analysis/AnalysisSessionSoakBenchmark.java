@@ -0,0 +1,107 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.project.AnalysisSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+
+/**
+ * Retained heap of a long running analysis session.
+ * Not part of the default test run, run with mvn test -Pbenchmarks
+ */
+public class AnalysisSessionSoakBenchmark {
+
+    private static final int GENERATIONS = 40;
+    private static final int REQUESTS_PER_GENERATION = 25;
+
+    // Allowed growth of the retained heap after the warm up generations, covers noise of the collector
+    private static final long ALLOWED_GROWTH_BYTES = 16L * 1024 * 1024;
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    /**
+     * @return Heap in use after collecting until the used heap no longer shrinks
+     */
+    private static long retainedHeap() throws InterruptedException {
+        long used = Long.MAX_VALUE;
+
+        for (int attempt = 0; attempt < 10; attempt++) {
+            System.gc();
+            Thread.sleep(50);
+
+            long after = MEMORY.getHeapMemoryUsage().getUsed();
+            if (after >= used) {
+                return after;
+            }
+            used = after;
+        }
+
+        return used;
+    }
+
+    /**
+     * Runs many rename requests in one session. After every generation the retained heap is measured,
+     * it may not keep growing once the session has evicted its first generations.
+     */
+    @Test
+    public void BenchmarkRetainedHeapOverManyRequests() throws InterruptedException {
+        try (AnalysisSession session = AnalysisSessionTests.createSession(REQUESTS_PER_GENERATION)) {
+            RenameMethodAnalyzer analyzer = AnalysisSessionTests.analyzer(session);
+            List<String> expected = AnalysisSessionTests.renameRequest(analyzer);
+
+            long baseline = -1;
+            long largest = 0;
+            long start = System.nanoTime();
+
+            for (int request = 1; request < GENERATIONS * REQUESTS_PER_GENERATION; request++) {
+                Assert.assertEquals(expected, AnalysisSessionTests.renameRequest(analyzer));
+
+                int generation = (request + 1) / REQUESTS_PER_GENERATION;
+                if ((request + 1) % REQUESTS_PER_GENERATION != 0) {
+                    continue;
+                }
+
+                long retained = retainedHeap();
+
+                // The first two generations load classes and fill the shared JDK index
+                if (generation == 2) {
+                    baseline = retained;
+                }
+                else if (generation > 2) {
+                    largest = Math.max(largest, retained);
+                }
+
+                System.out.println(String.format("generation %d: %.1f MB retained", generation, retained / 1e6));
+            }
+
+            System.out.println(String.format("%d requests in %.2f s, retained after warm up %.1f MB, largest %.1f MB",
+                    GENERATIONS * REQUESTS_PER_GENERATION, (System.nanoTime() - start) / 1e9, baseline / 1e6, largest / 1e6));
+
+            Assert.assertEquals(GENERATIONS - 1, session.getEvictionCount());
+            Assert.assertTrue("Retained heap grew from " + baseline + " to " + largest + " bytes",
+                    largest <= baseline + ALLOWED_GROWTH_BYTES);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.MethodAnalyzer.TypeSolverService;
+import analysis.project.AnalysisSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class AnalysisSessionTests {
+
+    private static final int GENERATIONS = 4;
+    private static final int REQUESTS_PER_GENERATION = 10;
+
+    static AnalysisSession createSession(int requestsPerGeneration) {
+        return new AnalysisSession(new TypeSolverService(Collections.emptyList(), 256), requestsPerGeneration);
+    }
+
+    static List<String> renameRequest(RenameMethodAnalyzer analyzer) {
+        return analyzer.generateInstructions("Rename", "RenameMethod.java.txt", "MyMethod", "NewName", 22, -1);
+    }
+
+    /**
+     * @return Analyzer using the given session, every request runs its detectors instead of being
+     * answered from the detection cache
+     */
+    static RenameMethodAnalyzer analyzer(AnalysisSession session) {
+        RenameMethodAnalyzer analyzer = new RenameMethodAnalyzer();
+        analyzer.setSession(session);
+        analyzer.setDetectionResultCache(null);
+
+        return analyzer;
+    }
+
+    @Test
+    public void GivenFullGenerationCachedStateIsEvicted() {
+        try (AnalysisSession session = createSession(3)) {
+            TypeSolverService service = session.startRequest();
+            service.getTypeDeclaration("java.lang.String");
+
+            session.startRequest();
+            session.startRequest();
+            Assert.assertEquals(1, service.getMemoSize());
+
+            session.startRequest();
+            Assert.assertEquals(0, service.getMemoSize());
+            Assert.assertEquals(1, session.getEvictionCount());
+            Assert.assertEquals(4, session.getRequestCount());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void GivenClosedSessionNewRequestsAreRefused() {
+        AnalysisSession session = createSession(3);
+        session.close();
+
+        Assert.assertTrue(session.isClosed());
+        session.startRequest();
+    }
+
+    @Test
+    public void GivenClosedDefaultSessionNewDefaultIsCreated() {
+        AnalysisSession first = AnalysisSession.getDefault();
+        first.close();
+
+        AnalysisSession second = AnalysisSession.getDefault();
+
+        Assert.assertNotSame(first, second);
+        Assert.assertFalse(second.isClosed());
+        Assert.assertSame(TypeSolverService.getProjectInstance(), second.getTypeSolverService());
+    }
+
+    @Test
+    public void GivenManyGenerationsMemoStaysBounded() {
+        try (AnalysisSession session = createSession(REQUESTS_PER_GENERATION)) {
+            RenameMethodAnalyzer analyzer = analyzer(session);
+            List<String> expected = renameRequest(analyzer);
+
+            int memoAfterFirstGeneration = -1;
+
+            for (int request = 1; request < GENERATIONS * REQUESTS_PER_GENERATION; request++) {
+                Assert.assertEquals(expected, renameRequest(analyzer));
+
+                // At the end of a generation, the retained state is no larger than after the first one
+                if ((request + 1) % REQUESTS_PER_GENERATION == 0) {
+                    int memoSize = session.getTypeSolverService().getMemoSize();
+
+                    if (memoAfterFirstGeneration < 0) {
+                        memoAfterFirstGeneration = memoSize;
+                    }
+
+                    Assert.assertTrue("Memo grew to " + memoSize, memoSize <= memoAfterFirstGeneration);
+                }
+            }
+
+            Assert.assertEquals(GENERATIONS * REQUESTS_PER_GENERATION, session.getRequestCount());
+            Assert.assertEquals(GENERATIONS - 1, session.getEvictionCount());
+        }
+    }
+}
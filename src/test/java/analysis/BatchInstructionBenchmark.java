@@ -0,0 +1,66 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.project.AnalysisSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Throughput of batched instruction generation.
+ * Not part of the default test run, run with mvn test -Pbenchmarks
+ */
+public class BatchInstructionBenchmark {
+
+    private static final int BENCHMARK_RUNS = 10;
+
+    /**
+     * Compares the throughput of a batch with the same selections requested one by one. Timings are only
+     * reported, they depend too much on the machine to be asserted.
+     */
+    @Test
+    public void BenchmarkBatchAgainstSingleRequests() {
+        try (AnalysisSession session = BatchInstructionTests.createSession()) {
+            RenameMethodAnalyzer analyzer = BatchInstructionTests.analyzer(session);
+
+            // Warm up class loading and the JDK index before measuring
+            BatchInstructionTests.oneByOne(analyzer);
+            analyzer.generateInstructions(BatchInstructionTests.SELECTIONS, BatchInstructionTests.RESOURCE, true);
+
+            long singleNanos = 0;
+            long batchNanos = 0;
+
+            for (int run = 0; run < BENCHMARK_RUNS; run++) {
+                long start = System.nanoTime();
+                BatchInstructionTests.oneByOne(analyzer);
+                singleNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                analyzer.generateInstructions(BatchInstructionTests.SELECTIONS, BatchInstructionTests.RESOURCE, true);
+                batchNanos += System.nanoTime() - start;
+            }
+
+            System.out.println(String.format("%d selections over %d runs: one by one %.2f ms/run, batch %.2f ms/run",
+                    BatchInstructionTests.SELECTIONS.size(), BENCHMARK_RUNS, singleNanos / 1e6 / BENCHMARK_RUNS, batchNanos / 1e6 / BENCHMARK_RUNS));
+
+            Assert.assertTrue(singleNanos > 0 && batchNanos > 0);
+        }
+    }
+}
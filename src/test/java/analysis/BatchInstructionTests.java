@@ -0,0 +1,87 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.MethodAnalyzer.TypeSolverService;
+import analysis.project.AnalysisSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BatchInstructionTests {
+
+    static final String RESOURCE = "ExtractMethodCases.java.txt";
+
+    static final List<RefactoringSelection> SELECTIONS = Arrays.asList(
+            new RefactoringSelection("ExtractMethod", "ExtractMethodCases", "", 19, 22),
+            new RefactoringSelection("Rename", "ExtractMethodCases", "NewName", 16, -1),
+            new RefactoringSelection("ExtractMethod", "ExtractMethodCases", "", 7, 10),
+            new RefactoringSelection("ExtractMethod", "ExtractMethodCases", "", 19, 22),
+            new RefactoringSelection("Rename", "ExtractMethodCases", "NewName", 4, -1));
+
+    static RenameMethodAnalyzer analyzer(AnalysisSession session) {
+        RenameMethodAnalyzer analyzer = new RenameMethodAnalyzer();
+        analyzer.setSession(session);
+        analyzer.setDetectionResultCache(null);
+        return analyzer;
+    }
+
+    static AnalysisSession createSession() {
+        return new AnalysisSession(new TypeSolverService(Collections.emptyList(), 256),
+                                   AnalysisSession.DEFAULT_REQUESTS_PER_GENERATION);
+    }
+
+    static List<List<String>> oneByOne(RenameMethodAnalyzer analyzer) {
+        List<List<String>> instructions = new ArrayList<>();
+
+        for (RefactoringSelection selection : SELECTIONS) {
+            instructions.add(analyzer.generateInstructions(selection.getRefactorAction(), RESOURCE, selection.getClassName(),
+                    selection.getNewMethodName(), selection.getLineNumberStart(), selection.getLineNumberEnd()));
+        }
+
+        return instructions;
+    }
+
+    @Test
+    public void GivenBatchResultsEqualSingleRequestsInInputOrder() {
+        try (AnalysisSession session = createSession()) {
+            List<List<String>> single = oneByOne(analyzer(session));
+            List<List<String>> batch = analyzer(session).generateInstructions(SELECTIONS, RESOURCE, true);
+
+            Assert.assertEquals(SELECTIONS.size(), batch.size());
+            Assert.assertEquals(single, batch);
+            Assert.assertEquals(batch.get(0), batch.get(3));
+            Assert.assertNotEquals(batch.get(0), batch.get(2));
+        }
+    }
+
+    @Test
+    public void GivenBatchOneSolverRequestIsShared() {
+        try (AnalysisSession session = createSession()) {
+            analyzer(session).generateInstructions(SELECTIONS, RESOURCE, true);
+
+            Assert.assertEquals(1, session.getRequestCount());
+        }
+    }
+}
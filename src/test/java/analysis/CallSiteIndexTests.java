@@ -0,0 +1,148 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.MethodAnalyzer.TypeSolverService;
+import analysis.project.CallSiteIndex;
+import analysis.project.ProjectLoader;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class CallSiteIndexTests {
+
+    @Rule
+    public TemporaryFolder projectDir = new TemporaryFolder();
+
+    private Path writeSource(String relativePath, String content) throws IOException {
+        Path file = projectDir.getRoot().toPath().resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private ProjectLoader loadProject() throws IOException {
+        ProjectLoader loader = new ProjectLoader(projectDir.getRoot().toPath());
+        loader.load();
+        return loader;
+    }
+
+    private CallSiteIndex buildIndex(ProjectLoader loader) {
+        CallSiteIndex index = new CallSiteIndex();
+        index.build(loader.getCompilationUnits());
+        return index;
+    }
+
+    private static MethodDeclaration method(ProjectLoader loader, String className, String methodName) {
+        return loader.findCompilationUnitDeclaring(className).get()
+                .getClassByName(className).get()
+                .getMethodsByName(methodName).get(0);
+    }
+
+    private static List<String> locations(List<CallSiteIndex.CallSite> callSites) {
+        return callSites.stream().map(CallSiteIndex.CallSite::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void GivenProjectCallsAreIndexedByMethodName() throws IOException {
+        writeSource("p/Service.java", "package p;\npublic class Service {\n public void run() {}\n public void run(int times) {}\n}");
+        writeSource("p/Client.java", "package p;\npublic class Client {\n void go(Service s) {\n  s.run();\n  s.run(2);\n }\n}");
+        writeSource("p/Other.java", "package p;\npublic class Other {\n void go(Service s) {\n  s.run();\n }\n}");
+
+        CallSiteIndex index = buildIndex(loadProject());
+
+        Assert.assertEquals(3, index.size());
+        Assert.assertEquals(Arrays.asList("Client.java:4:3", "Client.java:5:3", "Other.java:4:3"),
+                locations(index.getCallSites("run")));
+        Assert.assertEquals(2, index.getDeclarationCount("run"));
+        Assert.assertTrue(index.getCallSites("unknown").isEmpty());
+    }
+
+    @Test
+    public void GivenUnambiguousNameCallsAreMatchedOnArgumentCount() throws IOException {
+        writeSource("p/Service.java", "package p;\npublic class Service {\n public void start(int times) {}\n}");
+        writeSource("p/Client.java", "package p;\npublic class Client {\n void go(Service s) {\n  s.start(1);\n  s.start();\n }\n}");
+
+        ProjectLoader loader = loadProject();
+        CallSiteIndex index = buildIndex(loader);
+
+        Assert.assertFalse(index.isAmbiguous("start"));
+
+        // Without an ambiguous name no call is resolved, so no type solver is needed
+        List<CallSiteIndex.CallSite> callSites = index.findCallSites(method(loader, "Service", "start"),
+                Collections.singleton("p.Service"), null);
+
+        Assert.assertEquals(Arrays.asList("Client.java:4:3"), locations(callSites));
+    }
+
+    @Test
+    public void GivenAmbiguousNameCallsAreNarrowedByResolution() throws IOException {
+        writeSource("p/Printer.java", "package p;\npublic class Printer {\n public void print() {}\n}");
+        writeSource("p/Plotter.java", "package p;\npublic class Plotter {\n public void print() {}\n}");
+        writeSource("p/Client.java", "package p;\npublic class Client {\n void go(Printer a, Plotter b) {\n  a.print();\n  b.print();\n }\n}");
+
+        ProjectLoader loader = loadProject();
+        CallSiteIndex index = buildIndex(loader);
+        TypeSolverService service = new TypeSolverService(
+                Collections.singletonList(projectDir.getRoot()), TypeSolverService.DEFAULT_MEMO_CAPACITY);
+
+        Assert.assertTrue(index.isAmbiguous("print"));
+
+        List<CallSiteIndex.CallSite> callSites = index.findCallSites(method(loader, "Printer", "print"),
+                new HashSet<>(Collections.singletonList("p.Printer")), service);
+
+        Assert.assertEquals(Arrays.asList("Client.java:4:3"), locations(callSites));
+    }
+
+    @Test
+    public void GivenChangedFileOnlyItsCallsAreReplaced() throws IOException {
+        writeSource("p/Service.java", "package p;\npublic class Service {\n public void run() {}\n}");
+        Path client = writeSource("p/Client.java", "package p;\npublic class Client {\n void go(Service s) {\n  s.run();\n }\n}");
+        Path other = writeSource("p/Other.java", "package p;\npublic class Other {\n void go(Service s) {\n  s.run();\n }\n}");
+
+        CallSiteIndex index = buildIndex(loadProject());
+
+        CompilationUnit changed = JavaParser.parse("package p;\npublic class Client {\n void go(Service s) {\n\n  s.run();\n  s.run();\n }\n}");
+        index.update(client, changed);
+
+        Assert.assertEquals(Arrays.asList("Client.java:5:3", "Client.java:6:3", "Other.java:4:3"),
+                locations(index.getCallSites("run")));
+
+        index.remove(other);
+        index.remove(client);
+
+        Assert.assertTrue(index.getCallSites("run").isEmpty());
+        Assert.assertEquals(1, index.getDeclarationCount("run"));
+    }
+}
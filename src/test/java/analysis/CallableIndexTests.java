@@ -0,0 +1,122 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.MethodAnalyzer.CallableIndex;
+import analysis.MethodAnalyzer.ClassMethodFinder;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CallableIndexTests {
+
+    private static final String SOURCE =
+            "public class Outer {\n" +                                        // 1
+            "    static { int x = 1; }\n" +                                   // 2
+            "    public Outer() {\n" +                                        // 3
+            "        super();\n" +                                            // 4
+            "    }\n" +                                                       // 5
+            "    void run() {\n" +                                            // 6
+            "        Runnable r = () -> {\n" +                                // 7
+            "            System.out.println();\n" +                           // 8
+            "        };\n" +                                                  // 9
+            "        Object o = new Object() {\n" +                           // 10
+            "            public String toString() { return \"anon\"; }\n" +   // 11
+            "        };\n" +                                                  // 12
+            "    }\n" +                                                       // 13
+            "    class Inner {\n" +                                           // 14
+            "        void nested() {\n" +                                     // 15
+            "        }\n" +                                                   // 16
+            "    }\n" +                                                       // 17
+            "    void a() { } void b() { }\n" +                               // 18
+            "}\n";
+
+    private CompilationUnit _cu;
+    private CallableIndex _index;
+
+    @Before
+    public void Setup()
+    {
+        _cu = JavaParser.parse(SOURCE);
+        _index = CallableIndex.of(_cu);
+    }
+
+    private String nameAt(int line) {
+        Node node = _index.findInnermost(line).get();
+        return (node instanceof MethodDeclaration) ? ((MethodDeclaration) node).getNameAsString() : node.getClass().getSimpleName();
+    }
+
+    @Test
+    public void GivenCompilationUnitAllCallablesAreIndexed()
+    {
+        // initializer, constructor, run, lambda, toString, nested, a, b
+        Assert.assertEquals(8, _index.size());
+        Assert.assertSame(_index, CallableIndex.of(_cu));
+    }
+
+    @Test
+    public void GivenLineInnermostCallableIsFound()
+    {
+        Assert.assertTrue(_index.findInnermost(2).get() instanceof InitializerDeclaration);
+        Assert.assertTrue(_index.findInnermost(4).get() instanceof ConstructorDeclaration);
+        Assert.assertEquals("run", nameAt(6));
+        Assert.assertTrue(_index.findInnermost(7).get() instanceof LambdaExpr);
+        Assert.assertTrue(_index.findInnermost(8).get() instanceof LambdaExpr);
+        Assert.assertTrue(_index.findInnermost(9).get() instanceof LambdaExpr);
+        Assert.assertEquals("run", nameAt(10));
+        Assert.assertEquals("toString", nameAt(11));
+        Assert.assertEquals("run", nameAt(13));
+        Assert.assertEquals("nested", nameAt(15));
+        Assert.assertEquals("a", nameAt(18));
+
+        Assert.assertFalse(_index.findInnermost(1).isPresent());
+        Assert.assertFalse(_index.findInnermost(14).isPresent());
+    }
+
+    @Test
+    public void GivenLineAndColumnInnermostCallableIsFound()
+    {
+        Assert.assertEquals("b", ((MethodDeclaration) _index.findInnermost(18, 24).get()).getNameAsString());
+        Assert.assertFalse(_index.findInnermost(18, 17).isPresent());
+        Assert.assertEquals("run", ((MethodDeclaration) _index.findInnermost(7, 9).get()).getNameAsString());
+        Assert.assertTrue(_index.findInnermost(7, 28).get() instanceof LambdaExpr);
+    }
+
+    @Test
+    public void GivenLineFinderReturnsMethodOfAnalyzedClassOnly()
+    {
+        ClassMethodFinder cmf = new ClassMethodFinder();
+        cmf.initialize(_cu, "Outer");
+
+        Assert.assertEquals("run", cmf.getMethodDescriberForLocation(8).getName());
+        Assert.assertEquals("run", cmf.getMethodDescriberForLocation(11).getName());
+        Assert.assertEquals("", cmf.getMethodDescriberForLocation(4).getName());
+        Assert.assertEquals("", cmf.getMethodDescriberForLocation(15).getName());
+        Assert.assertFalse(cmf.isLocationInMethod(14));
+        Assert.assertTrue(cmf.getCallableForLocation(15, 12).isPresent());
+    }
+}
@@ -20,13 +20,16 @@
 package analysis;
 
 import analysis.MethodAnalyzer.ClassMethodFinder;
+import analysis.MethodAnalyzer.ClassMethodTable;
 import analysis.MethodAnalyzer.MethodDescriber;
 import com.github.javaparser.ast.CompilationUnit;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static junit.framework.TestCase.fail;
 
@@ -207,4 +210,41 @@ public class ClassMethodFinderTest {
             fail(e.getMessage());
         }
     }
+
+    @Test
+    public void GivenClassAllMethodsAreAnalyzedInOneTable()
+    {
+        CreateCompilationUnitFromTestClass("ExtendedClassA_BWith2Methods.java.txt");
+        ClassMethodFinder cmf = new ClassMethodFinder();
+        cmf.initialize(_cu, "A");
+
+        ClassMethodTable table = cmf.analyzeAllMethods();
+        Assert.assertEquals(4, table.size());
+
+        ClassMethodTable.Row methodOne = table.getRow(new MethodDescriber("void","MethodOne","()")).get();
+        Assert.assertEquals(Arrays.asList("B"), methodOne.getOverriddenIn());
+        Assert.assertEquals("B", methodOne.getOriginClass());
+        Assert.assertEquals(Optional.of("C"), methodOne.getDeclaringInterface());
+
+        ClassMethodTable.Row methodTwo = table.getRow(new MethodDescriber("void","MethodTwo","()")).get();
+        Assert.assertFalse(methodTwo.hasMultipleDeclarations());
+        Assert.assertEquals("A", methodTwo.getOriginClass());
+
+        ClassMethodTable.Row methodEight = table.getRow(new MethodDescriber("int","MethodEight","(boolean)")).get();
+        Assert.assertFalse(methodEight.isOverride());
+        Assert.assertEquals(Arrays.asList("B.MethodEight(boolean)", "E.MethodEight(boolean)"), methodEight.getOverloads());
+    }
+
+    @Test
+    public void GivenClassTableRowsAgreeWithSingleMethodQuestions() throws Exception
+    {
+        CreateCompilationUnitFromTestClass("ExtendedClassA_BWith2Methods.java.txt");
+        ClassMethodFinder cmf = new ClassMethodFinder();
+        cmf.initialize(_cu, "B");
+
+        for (ClassMethodTable.Row row : cmf.analyzeAllMethods().getRows()) {
+            Assert.assertEquals(cmf.isMethodDefinedInSuperClass(row.getMethod()), row.isOverride());
+            Assert.assertEquals(cmf.isMethodDeclaredFirstTimeInInterface(row.getMethod()), row.isDeclaredInInterface());
+        }
+    }
 }
@@ -0,0 +1,69 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.context.CodeSection;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Marking time of the dataflow markers on generated methods of increasing size.
+ * Not part of the default test run, run with mvn test -Pbenchmarks
+ */
+public class DataFlowMarkerScalingBenchmark {
+
+    private static final int BENCHMARK_RUNS = 10;
+
+    /**
+     * Reports the marking time per statement for methods of increasing size. With a lookup per visited name
+     * the time per statement stays about the same when the number of variables grows. Timings are only
+     * reported, they depend too much on the machine to be asserted.
+     */
+    @Test
+    public void BenchmarkMarkingOfGeneratedMethods() {
+        int[][] sizes = { {25, 125}, {50, 250}, {100, 500}, {200, 1000} };
+
+        // Warm up the parser and the markers before measuring
+        MethodDeclaration warmUp = DataFlowMarkerScalingTests.generateMethod(50, 250);
+        DataFlowMarkerScalingTests.analyze(warmUp, DataFlowMarkerScalingTests.statementSection(50, 250));
+
+        for (int[] size : sizes) {
+            int variables = size[0];
+            int statements = size[1];
+            MethodDeclaration md = DataFlowMarkerScalingTests.generateMethod(variables, statements);
+            CodeSection section = DataFlowMarkerScalingTests.statementSection(variables, statements);
+
+            long nanos = 0;
+
+            for (int run = 0; run < BENCHMARK_RUNS; run++) {
+                long start = System.nanoTime();
+                DataFlowMarkerScalingTests.analyze(md, section);
+                nanos += System.nanoTime() - start;
+            }
+
+            System.out.println(String.format("Dataflow marking of %d variables, %d statements: %.2f ms/run, %.2f us/statement",
+                    variables, statements, nanos / 1e6 / BENCHMARK_RUNS, nanos / 1e3 / BENCHMARK_RUNS / statements));
+
+            Assert.assertTrue(nanos > 0);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.context.CodeSection;
+import analysis.dataflow.MethodDataFlowAnalyzer;
+import analysis.dataflow.VariableFlowTable;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs the dataflow markers on generated methods with many local variables, as produced by code generators
+ */
+public class DataFlowMarkerScalingTests {
+
+    // Line of the first variable declaration in a generated method
+    private static final int FIRST_DECLARATION_LINE = 3;
+
+    /**
+     * Generates a method declaring the given number of local variables, followed by the given number of
+     * statements which each write one variable and read two others.
+     */
+    static MethodDeclaration generateMethod(int variables, int statements) {
+        StringBuilder source = new StringBuilder("class Generated {\n    void large() {\n");
+
+        for (int v = 0; v < variables; v++) {
+            source.append(String.format("        int v%d = %d;\n", v, v));
+        }
+
+        for (int s = 0; s < statements; s++) {
+            int v = s % variables;
+            source.append(String.format("        v%d = v%d + v%d;\n", v, (v + 1) % variables, (v + 2) % variables));
+        }
+
+        source.append("    }\n}\n");
+
+        return JavaParser.parse(source.toString()).getClassByName("Generated").get().getMethodsByName("large").get(0);
+    }
+
+    static MethodDataFlowAnalyzer analyze(MethodDeclaration md, CodeSection section) {
+        MethodDataFlowAnalyzer analyzer = new MethodDataFlowAnalyzer();
+        analyzer.initialize(md, section);
+        analyzer.start();
+
+        return analyzer;
+    }
+
+    static CodeSection statementSection(int variables, int statements) {
+        int firstStatementLine = FIRST_DECLARATION_LINE + variables;
+        return new CodeSection(firstStatementLine, firstStatementLine + statements - 1);
+    }
+
+    @Test
+    public void GivenGeneratedMethodEveryVariableIsMarkedInItsOwnTable() {
+        int variables = 50;
+        int statements = 100;
+
+        MethodDataFlowAnalyzer analyzer = analyze(generateMethod(variables, statements), statementSection(variables, statements));
+
+        Assert.assertEquals(variables, analyzer.getVariableFlowSet().getListOfVariableFlowTables().size());
+
+        for (VariableFlowTable flowTable : analyzer.getVariableFlowSet().getListOfVariableFlowTables()) {
+            Assert.assertTrue(flowTable.name, flowTable.before_region.write);
+            Assert.assertFalse(flowTable.name, flowTable.before_region.read);
+            Assert.assertTrue(flowTable.name, flowTable.within_region.write);
+            Assert.assertTrue(flowTable.name, flowTable.within_region.read);
+            Assert.assertFalse(flowTable.name, flowTable.after_region.read || flowTable.after_region.write);
+
+            // Each variable is written by two statements and read by four, every name in such a statement marks all names it reads
+            Assert.assertEquals(flowTable.name, 2, flowTable.within_region.written_at.size());
+            Assert.assertEquals(flowTable.name, 12, flowTable.within_region.read_at.size());
+        }
+
+        // Only v0 is written within the section before it is read there
+        Assert.assertEquals(variables - 1, analyzer.variablesForInput().size());
+        Assert.assertFalse(analyzer.variablesForInput().contains("v0"));
+        Assert.assertTrue(analyzer.variablesForOutput().isEmpty());
+    }
+
+    @Test
+    public void GivenUnknownVariableNameEmptyLookupIsReturned() {
+        MethodDataFlowAnalyzer analyzer = analyze(generateMethod(3, 3), new CodeSection(-1, -1));
+
+        Assert.assertTrue(analyzer.getVariableFlowSet().findVariableFlowTable("v2").isPresent());
+        Assert.assertFalse(analyzer.getVariableFlowSet().findVariableFlowTable("unknown").isPresent());
+        Assert.assertEquals("", analyzer.getVariableFlowSet().getVariableFlowTable("unknown").name);
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.MethodAnalyzer.JdkTypeSolver;
+import analysis.project.JdkTypeIndex;
+import com.github.javaparser.symbolsolver.model.declarations.ReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class JdkTypeIndexTests {
+
+    private static JdkTypeIndex index() {
+        return JdkTypeIndex.getDefault().orElseThrow(() -> new AssertionError("JDK index not available"));
+    }
+
+    @Test
+    public void GivenJdkClassSupertypesAreIndexed() {
+        JdkTypeIndex index = index();
+
+        Assert.assertEquals("java.util.AbstractList", index.getSuperClass("java.util.ArrayList").get());
+        Assert.assertTrue(index.getInterfaces("java.util.ArrayList").contains("java.util.RandomAccess"));
+        Assert.assertTrue(index.getAllSupertypes("java.util.ArrayList").contains("java.util.Collection"));
+        Assert.assertTrue(index.getAllSupertypes("java.util.ArrayList").contains("java.lang.Object"));
+        Assert.assertFalse(index.getSuperClass("java.lang.Object").isPresent());
+    }
+
+    @Test
+    public void GivenInterfaceNoSuperClassIsIndexed() {
+        JdkTypeIndex index = index();
+
+        Assert.assertTrue(index.isInterface("java.lang.Comparable"));
+        Assert.assertFalse(index.getSuperClass("java.util.List").isPresent());
+        Assert.assertEquals("java.util.Collection", index.getInterfaces("java.util.List").get(0));
+    }
+
+    @Test
+    public void GivenMemberTypeItIsIndexedWithDots() {
+        JdkTypeIndex index = index();
+
+        Assert.assertTrue(index.contains("java.util.Map.Entry"));
+        Assert.assertEquals("java.util.Map$Entry", index.getBinaryName("java.util.Map.Entry").get());
+        Assert.assertFalse(index.contains("java.util.Map$Entry"));
+    }
+
+    @Test
+    public void GivenNonJdkNamesTheyAreNotIndexed() {
+        JdkTypeIndex index = index();
+
+        Assert.assertFalse(index.contains("analysis.project.JdkTypeIndex"));
+        Assert.assertFalse(index.contains("java.util.NoSuchType"));
+        Assert.assertFalse(index.contains(""));
+        Assert.assertTrue(index.getSupertypes("java.util.NoSuchType").isEmpty());
+    }
+
+    @Test
+    public void GivenStoredIndexReopeningMapsTheSameTypes() throws IOException {
+        JdkTypeIndex reopened = JdkTypeIndex.open(index().getFile());
+
+        Assert.assertEquals(index().size(), reopened.size());
+        Assert.assertEquals("java.util.AbstractList", reopened.getSuperClass("java.util.ArrayList").get());
+    }
+
+    @Test
+    public void GivenIndexedNameSolverReturnsTheSameDeclaration() {
+        JdkTypeSolver solver = new JdkTypeSolver(index());
+
+        SymbolReference<ReferenceTypeDeclaration> first = solver.tryToSolveType("java.util.Map.Entry");
+        SymbolReference<ReferenceTypeDeclaration> second = solver.tryToSolveType("java.util.Map.Entry");
+
+        Assert.assertTrue(first.isSolved());
+        Assert.assertEquals("java.util.Map.Entry", first.getCorrespondingDeclaration().getQualifiedName());
+        Assert.assertSame(first.getCorrespondingDeclaration(), second.getCorrespondingDeclaration());
+        Assert.assertEquals(1, solver.getDeclarationCount());
+    }
+
+    @Test
+    public void GivenProjectNameSolverRejectsItThroughTheIndex() {
+        JdkTypeSolver solver = new JdkTypeSolver(index());
+
+        Assert.assertFalse(solver.tryToSolveType("analysis.project.JdkTypeIndex").isSolved());
+        Assert.assertFalse(solver.tryToSolveType("java.lang.NoSuchType").isSolved());
+        Assert.assertEquals(2, solver.getRejectedCount());
+        Assert.assertEquals(0, solver.getDeclarationCount());
+    }
+}
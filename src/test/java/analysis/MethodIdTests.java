@@ -0,0 +1,103 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.MethodAnalyzer.ClassMethodFinder;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.MethodAnalyzer.MethodId;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.symbolsolver.javaparser.Navigator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MethodIdTests {
+
+    private ResourceExampleClassParser _loader;
+
+    @Before
+    public void Setup()
+    {
+        _loader = new ResourceExampleClassParser();
+    }
+
+    @Test
+    public void GivenSameMethodTheSameIdIsReturned()
+    {
+        MethodId first = MethodId.of("int", "MethodFour", "MethodFour(boolean)");
+        MethodId second = MethodId.of("int", "MethodFour", "MethodFour(boolean)");
+        MethodId other = MethodId.of("void", "MethodFour", "MethodFour(boolean)");
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(first.getId(), second.getId());
+        Assert.assertNotSame(first, other);
+        Assert.assertNotEquals(first.getId(), other.getId());
+    }
+
+    @Test
+    public void GivenQualifiedAndSimpleTypeNamesTheSameIdIsReturned()
+    {
+        MethodId simple = MethodId.of("List<String>", "m", "m(String, Map.Entry<String, Integer>, int...)");
+        MethodId qualified = MethodId.of("java.util.List<java.lang.String>", "m",
+                "m(java.lang.String, java.util.Map.Entry<java.lang.String, java.lang.Integer>, int...)");
+
+        Assert.assertSame(simple, qualified);
+        Assert.assertEquals("m(String, Map.Entry, int...)", qualified.getSignature());
+    }
+
+    @Test
+    public void GivenAstAndDescriberOfSameMethodIdsAreIdentical()
+    {
+        CompilationUnit cu = _loader.Parse("ExtendedClassA_BWith2Methods.java.txt");
+        MethodDescriber describer = new MethodDescriber("int", "MethodFour", "(boolean)");
+
+        MethodId fromAst = MethodId.of(Navigator.demandClass(cu, "B").getMethodsBySignature("MethodFour", "boolean").get(0));
+
+        Assert.assertSame(describer.getMethodId(), fromAst);
+    }
+
+    @Test
+    public void GivenResolvedMethodIdMatchesDescriber()
+    {
+        CompilationUnit cu = _loader.Parse("ExtendedClassA_BWith2Methods.java.txt");
+        ClassMethodFinder cmf = new ClassMethodFinder();
+        cmf.initialize(cu, "B");
+
+        MethodDescriber describer = new MethodDescriber("int", "MethodFour", "(boolean)");
+
+        Assert.assertTrue(cmf.getDeclaredMethodIds(cmf.getReferenceTypeDeclarationOfClass()).containsValue(describer.getMethodId()));
+    }
+
+    @Test
+    public void GivenEqualDescribersTheyCanBeUsedAsMapKey()
+    {
+        Map<MethodDescriber, String> map = new HashMap<>();
+        map.put(new MethodDescriber("void", "MethodOne", "()"), "found");
+
+        Object sameMethod = new MethodDescriber("void", "MethodOne", "()");
+
+        Assert.assertEquals(sameMethod, new MethodDescriber("void", "MethodOne", "()"));
+        Assert.assertEquals("found", map.get(sameMethod));
+        Assert.assertNull(map.get(new MethodDescriber("int", "MethodOne", "()")));
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.MethodAnalyzer.TypeSolverService;
+import analysis.project.PackageExclusions;
+import analysis.project.ProjectConfiguration;
+import com.github.javaparser.symbolsolver.model.typesystem.ReferenceType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class PackageExclusionsTests {
+
+    @Rule
+    public TemporaryFolder projectDir = new TemporaryFolder();
+
+    private void writeSource(String relativePath, String content) throws IOException {
+        Path file = projectDir.getRoot().toPath().resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private TypeSolverService serviceExcluding(PackageExclusions exclusions) {
+        Path root = projectDir.getRoot().toPath();
+        return new TypeSolverService(
+                new ProjectConfiguration(root, Collections.singletonList(root), Collections.emptyList(), exclusions), 64);
+    }
+
+    private static List<String> ancestorNames(TypeSolverService service, String typeName) {
+        return service.getAllAncestors(service.getTypeDeclaration(typeName)).stream()
+                .map(ReferenceType::getQualifiedName)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void GivenWildcardPatternSubPackagesAreExcluded() {
+        PackageExclusions exclusions = new PackageExclusions(Arrays.asList("java.*", "org.junit.*"));
+
+        Assert.assertTrue(exclusions.isExcluded("java"));
+        Assert.assertTrue(exclusions.isExcluded("java.util.concurrent"));
+        Assert.assertTrue(exclusions.isExcluded("org.junit.rules"));
+        Assert.assertFalse(exclusions.isExcluded("javax.swing"));
+        Assert.assertFalse(exclusions.isExcluded("org"));
+        Assert.assertFalse(exclusions.isExcluded("org.junitx"));
+    }
+
+    @Test
+    public void GivenExactPatternOnlyThatPackageIsExcluded() {
+        PackageExclusions exclusions = PackageExclusions.defaults();
+
+        Assert.assertTrue(exclusions.isExcluded("java.lang"));
+        Assert.assertFalse(exclusions.isExcluded("java.lang.reflect"));
+        Assert.assertFalse(exclusions.isExcluded("java"));
+        Assert.assertFalse(exclusions.isExcluded(""));
+    }
+
+    @Test
+    public void GivenExcludedSuperClassItsHierarchyIsNotResolved() throws IOException {
+        writeSource("p/MyList.java", "package p;\npublic class MyList extends java.util.ArrayList<String> { }");
+        writeSource("p/MyOtherList.java", "package p;\npublic class MyOtherList extends MyList implements Runnable { public void run() {} }");
+
+        TypeSolverService service = serviceExcluding(new PackageExclusions(Arrays.asList("java.*")));
+
+        Assert.assertEquals(Collections.singletonList("p.MyList"), ancestorNames(service, "p.MyOtherList"));
+        Assert.assertTrue(service.getEstimatedAvoidedResolutionCount() >= 8);
+    }
+
+    @Test
+    public void GivenExcludedSuperTypeInSourceItIsSkippedBeforeResolving() throws IOException {
+        // The excluded type cannot be parsed, resolving it would fail
+        writeSource("gen/Base.java", "package gen;\npublic class Base { void broken( }");
+        writeSource("p/MyType.java", "package p;\nimport gen.Base;\npublic class MyType extends Base implements Runnable { public void run() {} }");
+
+        TypeSolverService service = serviceExcluding(new PackageExclusions(Collections.singletonList("gen")));
+
+        Assert.assertEquals(Arrays.asList("java.lang.Runnable", "java.lang.Object"), ancestorNames(service, "p.MyType"));
+        Assert.assertEquals(1, service.getEstimatedAvoidedResolutionCount());
+    }
+
+    @Test
+    public void GivenNoExclusionsWholeHierarchyIsResolved() throws IOException {
+        writeSource("p/MyList.java", "package p;\npublic class MyList extends java.util.ArrayList<String> { }");
+
+        TypeSolverService service = serviceExcluding(PackageExclusions.none());
+        List<String> ancestors = ancestorNames(service, "p.MyList");
+
+        Assert.assertEquals("java.util.ArrayList", ancestors.get(0));
+        Assert.assertTrue(ancestors.contains("java.util.Collection"));
+        Assert.assertTrue(ancestors.toString(), ancestors.contains("java.lang.Object"));
+        Assert.assertEquals(0, service.getEstimatedAvoidedResolutionCount());
+    }
+
+    @Test
+    public void GivenDefaultExclusionsOnlyJavaLangIsLeftOut() throws IOException {
+        writeSource("p/MyList.java", "package p;\npublic class MyList extends java.util.ArrayList<String> { }");
+
+        TypeSolverService service = serviceExcluding(PackageExclusions.defaults());
+        List<String> ancestors = ancestorNames(service, "p.MyList");
+
+        Assert.assertTrue(ancestors.contains("java.util.AbstractList"));
+        Assert.assertFalse(ancestors.contains("java.lang.Object"));
+        Assert.assertEquals(Arrays.asList("java.util.ArrayList", "java.util.AbstractList", "java.util.AbstractCollection"),
+                service.getAllSuperClasses(service.getTypeDeclaration("p.MyList")).stream()
+                        .map(ReferenceType::getQualifiedName)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void GivenProjectFileExcludedPackagesAreRead() throws IOException {
+        writeSource(ProjectConfiguration.PROJECT_FILE_NAME, "excludedPackages = java.*, javax.*\n");
+
+        ProjectConfiguration configuration = ProjectConfiguration.forProject(projectDir.getRoot().toPath());
+
+        Assert.assertEquals(Arrays.asList("java.*", "javax.*"), configuration.getExcludedPackages().getPatterns());
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.MethodAnalyzer.LibraryTypeSolver;
+import analysis.MethodAnalyzer.TypeSolverService;
+import analysis.project.JarIndex;
+import analysis.project.ProjectConfiguration;
+import com.github.javaparser.symbolsolver.model.declarations.ReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.model.typesystem.ReferenceType;
+import org.apache.commons.cli.DefaultParser;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ProjectConfigurationTests {
+
+    @Rule
+    public TemporaryFolder projectDir = new TemporaryFolder();
+
+    private Path write(String relativePath, String content) throws IOException {
+        Path file = projectDir.getRoot().toPath().resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static Path commonsCliJar() throws URISyntaxException {
+        return Paths.get(DefaultParser.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    @Test
+    public void GivenProjectFileRootsAndJarsAreRelativeToIt() throws IOException {
+        Path root = projectDir.getRoot().toPath();
+        write("lib/a.jar", "");
+        write("lib/b.jar", "");
+        write("lib/readme.txt", "");
+        write(ProjectConfiguration.PROJECT_FILE_NAME, "sourceRoots = src/main/java, gen\nclasspath = lib/, other/c.jar\n");
+
+        ProjectConfiguration configuration = ProjectConfiguration.forProject(root);
+
+        Assert.assertEquals(Arrays.asList(root.resolve("src/main/java"), root.resolve("gen")), configuration.getSourceRoots());
+        Assert.assertEquals(Arrays.asList(root.resolve("lib/a.jar"), root.resolve("lib/b.jar"), root.resolve("other/c.jar")),
+                configuration.getJars());
+    }
+
+    @Test
+    public void GivenNoProjectFileMavenSourceRootIsUsed() throws IOException {
+        Path root = projectDir.getRoot().toPath();
+        Files.createDirectories(root.resolve("src/main/java"));
+
+        ProjectConfiguration configuration = ProjectConfiguration.forProject(root);
+
+        Assert.assertEquals(Collections.singletonList(root.resolve("src/main/java")), configuration.getSourceRoots());
+        Assert.assertTrue(configuration.getJars().isEmpty());
+    }
+
+    @Test
+    public void GivenNoConfigurationDefaultIsTheWorkingDirectory() {
+        Path workingDirectory = Paths.get("").toAbsolutePath();
+
+        Assert.assertEquals(workingDirectory, ProjectConfiguration.getDefault().getProjectRoot());
+        Assert.assertEquals(Collections.singletonList(workingDirectory.resolve("src/main/java")),
+                ProjectConfiguration.getDefault().getSourceRoots());
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void GivenMissingProjectDirectoryConfigurationFails() throws IOException {
+        ProjectConfiguration.forProject(projectDir.getRoot().toPath().resolve("missing"));
+    }
+
+    @Test
+    public void GivenOverridesOtherSettingsAreKept() throws IOException {
+        Path root = projectDir.getRoot().toPath();
+        write(ProjectConfiguration.PROJECT_FILE_NAME, "classpath = x.jar\n");
+
+        ProjectConfiguration configuration = ProjectConfiguration.forProject(root)
+                .withSourceRoots(ProjectConfiguration.parsePaths(root, " a , ,b "));
+
+        Assert.assertEquals(Arrays.asList(root.resolve("a"), root.resolve("b")), configuration.getSourceRoots());
+        Assert.assertEquals(Collections.singletonList(root.resolve("x.jar")), configuration.getJars());
+    }
+
+    @Test
+    public void GivenJarItsIndexIsStoredOnce() throws Exception {
+        Path indexDir = projectDir.newFolder("index").toPath();
+
+        JarIndex first = JarIndex.open(commonsCliJar(), indexDir);
+        long written = Files.getLastModifiedTime(first.getFile()).toMillis();
+        JarIndex second = JarIndex.open(commonsCliJar(), indexDir);
+
+        Assert.assertEquals(first.getFile(), second.getFile());
+        Assert.assertEquals(written, Files.getLastModifiedTime(second.getFile()).toMillis());
+        Assert.assertTrue(second.getInterfaces("org.apache.commons.cli.DefaultParser").contains("org.apache.commons.cli.CommandLineParser"));
+        Assert.assertTrue(second.contains("org.apache.commons.cli.Option.Builder"));
+        Assert.assertFalse(second.contains("java.lang.Object"));
+    }
+
+    @Test
+    public void GivenJarLibraryTypeIsResolvedFromIt() throws Exception {
+        LibraryTypeSolver solver = new LibraryTypeSolver(
+                Collections.singletonList(JarIndex.open(commonsCliJar(), projectDir.newFolder("index").toPath())));
+
+        ReferenceTypeDeclaration declaration = solver.solveType("org.apache.commons.cli.DefaultParser");
+
+        Assert.assertEquals("org.apache.commons.cli.DefaultParser", declaration.getQualifiedName());
+        Assert.assertFalse(solver.tryToSolveType("java.lang.String").isSolved());
+        Assert.assertEquals(1, solver.getRejectedCount());
+    }
+
+    @Test
+    public void GivenProjectClassExtendingLibraryTypeAncestorsAreResolved() throws Exception {
+        Path root = projectDir.getRoot().toPath();
+        write("src/main/java/p/MyParser.java", "package p;\npublic class MyParser extends org.apache.commons.cli.DefaultParser { }");
+
+        ProjectConfiguration configuration = ProjectConfiguration.forProject(root)
+                .withJars(Collections.singletonList(commonsCliJar()));
+        TypeSolverService service = new TypeSolverService(configuration, 16);
+
+        List<String> ancestors = service.getAllAncestors(service.getTypeDeclaration("p.MyParser")).stream()
+                .map(ReferenceType::getQualifiedName)
+                .collect(Collectors.toList());
+
+        Assert.assertTrue(ancestors.contains("org.apache.commons.cli.DefaultParser"));
+        Assert.assertTrue(ancestors.contains("org.apache.commons.cli.CommandLineParser"));
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.project.ProjectLoader;
+import com.github.javaparser.ast.CompilationUnit;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public class ProjectLoaderTests {
+
+    @Rule
+    public TemporaryFolder projectDir = new TemporaryFolder();
+
+    private Path writeSource(String relativePath, String content) throws IOException {
+        Path file = projectDir.getRoot().toPath().resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private ProjectLoader loadProject() throws IOException {
+        ProjectLoader loader = new ProjectLoader(projectDir.getRoot().toPath());
+        loader.load();
+        return loader;
+    }
+
+    @Test
+    public void GivenProjectAllSourceFilesAreParsed() throws IOException {
+        writeSource("p/Base.java", "package p;\npublic class Base { public void m() {} }");
+        writeSource("p/Middle.java", "package p;\npublic class Middle extends Base { }");
+        writeSource("q/MyClass.java", "package q;\npublic class MyClass extends p.Middle { class Inner {} }");
+
+        ProjectLoader loader = loadProject();
+
+        Assert.assertEquals(3, loader.getCompilationUnits().size());
+        Assert.assertTrue(loader.getFailures().isEmpty());
+    }
+
+    @Test
+    public void GivenReloadsWhileLookingUpOtherClassesAreAlwaysFound() throws Exception {
+        writeSource("p/Base.java", "package p;\npublic class Base { }");
+        Path other = writeSource("q/Other.java", "package q;\npublic class Other { }");
+
+        ProjectLoader loader = loadProject();
+
+        CompletableFuture<Void> reloads = CompletableFuture.runAsync(() -> {
+            for (int reload = 0; reload < 200; reload++) {
+                loader.reload(other);
+            }
+        });
+
+        while (!reloads.isDone()) {
+            Assert.assertTrue(loader.findCompilationUnitDeclaring("p.Base").isPresent());
+        }
+        reloads.get();
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void GivenMissingProjectRootLoadFails() throws IOException {
+        new ProjectLoader(projectDir.getRoot().toPath().resolve("missing")).loadDeclaring("p.Base");
+    }
+
+    @Test
+    public void GivenClassNameDeclaringCompilationUnitIsFound() throws IOException {
+        writeSource("p/Base.java", "package p;\npublic class Base { }");
+        Path myClass = writeSource("q/MyClass.java", "package q;\npublic class MyClass { class Inner {} }");
+
+        ProjectLoader loader = loadProject();
+
+        Optional<CompilationUnit> bySimpleName = loader.findCompilationUnitDeclaring("MyClass");
+        Optional<CompilationUnit> byQualifiedName = loader.findCompilationUnitDeclaring("q.MyClass");
+        Optional<CompilationUnit> byNestedName = loader.findCompilationUnitDeclaring("q.MyClass.Inner");
+
+        Assert.assertTrue(bySimpleName.isPresent());
+        Assert.assertEquals(myClass, bySimpleName.get().getStorage().get().getPath());
+        Assert.assertSame(bySimpleName.get(), byQualifiedName.get());
+        Assert.assertSame(bySimpleName.get(), byNestedName.get());
+        Assert.assertFalse(loader.findCompilationUnitDeclaring("Unknown").isPresent());
+    }
+
+    @Test
+    public void GivenFileWithSyntaxErrorsOtherFilesAreStillLoaded() throws IOException {
+        writeSource("Good.java", "public class Good { }");
+        Path broken = writeSource("Broken.java", "public class Broken { void m( { }");
+
+        ProjectLoader loader = loadProject();
+
+        Assert.assertEquals(1, loader.getCompilationUnits().size());
+        Assert.assertTrue(loader.getFailures().containsKey(broken));
+        Assert.assertTrue(loader.findCompilationUnitDeclaring("Good").isPresent());
+    }
+
+    @Test
+    public void GivenRenameScenarioProjectMyClassIsFound() throws IOException {
+        ProjectLoader loader = new ProjectLoader(java.nio.file.Paths.get("RefactorScenarios", "SimpleRename"));
+        loader.load();
+
+        Assert.assertTrue(loader.findCompilationUnitDeclaring("MyClass").isPresent());
+    }
+}
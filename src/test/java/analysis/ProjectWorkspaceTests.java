@@ -0,0 +1,132 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.project.ProjectWorkspace;
+import com.github.javaparser.ast.CompilationUnit;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+
+public class ProjectWorkspaceTests {
+
+    @Rule
+    public TemporaryFolder projectDir = new TemporaryFolder();
+
+    private Path writeSource(String relativePath, String content) throws IOException {
+        Path file = projectDir.getRoot().toPath().resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Rewrites a file with a later modification time, file systems with a coarse clock would otherwise not tell
+     */
+    private void changeSource(Path file, String content) throws IOException {
+        FileTime previous = Files.getLastModifiedTime(file);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(previous.toMillis() + 10_000));
+    }
+
+    private ProjectWorkspace workspace() {
+        return new ProjectWorkspace(projectDir.getRoot().toPath(), null);
+    }
+
+    @Test
+    public void GivenLoadedWorkspaceIndexesAreBuilt() throws IOException {
+        writeSource("p/Base.java", "package p;\npublic class Base { public void m() {} }");
+        writeSource("p/MyClass.java", "package p;\npublic class MyClass extends Base { void n() { m(); } }");
+
+        ProjectWorkspace workspace = workspace();
+        Assert.assertNull(workspace.getTypeHierarchyIndex());
+
+        workspace.load();
+
+        Assert.assertTrue(workspace.getTypeHierarchyIndex().getAllSupertypes("p.MyClass").contains("p.Base"));
+        Assert.assertEquals(1, workspace.getCallSiteIndex().getCallSites("m").size());
+    }
+
+    @Test
+    public void GivenUnchangedFileSameCompilationUnitIsReturned() throws IOException {
+        writeSource("p/MyClass.java", "package p;\npublic class MyClass { }");
+
+        ProjectWorkspace workspace = workspace();
+        CompilationUnit first = workspace.loadDeclaring("p.MyClass").get();
+
+        Assert.assertSame(first, workspace.loadDeclaring("MyClass").get());
+        Assert.assertTrue(workspace.refresh().isEmpty());
+    }
+
+    @Test
+    public void GivenChangedFileItIsLoadedAgainAndIndexesAreUpdated() throws IOException {
+        writeSource("p/Base.java", "package p;\npublic class Base { public void m() {} }");
+        writeSource("p/Other.java", "package p;\npublic class Other { }");
+        Path myClass = writeSource("p/MyClass.java", "package p;\npublic class MyClass extends Base { }");
+
+        ProjectWorkspace workspace = workspace();
+        workspace.load();
+        CompilationUnit before = workspace.loadDeclaring("p.MyClass").get();
+
+        changeSource(myClass, "package p;\npublic class MyClass extends Other { void n() { m(); } }");
+        CompilationUnit after = workspace.loadDeclaring("p.MyClass").get();
+
+        Assert.assertNotSame(before, after);
+        Assert.assertTrue(after.toString().contains("extends Other"));
+        Assert.assertEquals(Collections.singletonList("p.Other"), workspace.getTypeHierarchyIndex().getSupertypes("p.MyClass"));
+        Assert.assertEquals(1, workspace.getCallSiteIndex().getCallSites("m").size());
+    }
+
+    @Test
+    public void GivenChangedFileRefreshUpdatesTheIndexes() throws IOException {
+        Path base = writeSource("p/Base.java", "package p;\npublic class Base { }");
+        writeSource("p/MyClass.java", "package p;\npublic class MyClass extends Base { }");
+
+        ProjectWorkspace workspace = workspace();
+        workspace.load();
+
+        changeSource(base, "package p;\npublic class Base extends Root { }\nclass Root { }");
+
+        Assert.assertEquals(Collections.singletonList(base), workspace.refresh());
+        Assert.assertTrue(workspace.getTypeHierarchyIndex().getAllSupertypes("p.MyClass").contains("p.Root"));
+    }
+
+    @Test
+    public void GivenAddedFileInvalidateMakesItFindable() throws IOException {
+        writeSource("p/MyClass.java", "package p;\npublic class MyClass { }");
+
+        ProjectWorkspace workspace = workspace();
+        workspace.loadDeclaring("p.MyClass");
+        Assert.assertFalse(workspace.loadDeclaring("p.Added").isPresent());
+
+        Path added = writeSource("p/Added.java", "package p;\npublic class Added { }");
+        workspace.invalidate(added);
+
+        Assert.assertTrue(workspace.loadDeclaring("p.Added").isPresent());
+    }
+}
@@ -26,6 +26,7 @@ import analysis.context.ContextAnalyzer;
 import analysis.context.ContextConfiguration;
 import analysis.context.ContextDetectorSetBuilder;
 import com.github.javaparser.ast.CompilationUnit;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -113,6 +114,18 @@ public class RenameTest {
         return ca.getDetectedContextSet();
     }
 
+    @Test
+    public void GivenResourceWithoutIndexNoSubclassOverrideIsReported()
+    {
+        String instructions = String.join("\n",
+                _analyzer.generateInstructions("Rename", "RenameMethod.java.txt", "MyMethod", "NewName", 22, -1));
+
+        Assert.assertTrue(instructions, instructions.contains("In the current context there is no risk"));
+        Assert.assertFalse(instructions, instructions.contains("Not all code context could be analyzed"));
+        Assert.assertFalse(instructions, instructions.contains("[Method Subclass Override]"));
+        Assert.assertFalse(instructions, instructions.contains("#subclass-list"));
+    }
+
     @Test
     @Deprecated
     public void MethodIsDeclaredInInterface()
@@ -0,0 +1,129 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.MethodAnalyzer.ClassMethodFinder;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.MethodAnalyzer.TypeSolverService;
+import analysis.context.MethodOverride;
+import analysis.project.ProjectLoader;
+import analysis.project.SignatureSource;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserClassDeclaration;
+import com.github.javaparser.symbolsolver.model.declarations.ReferenceTypeDeclaration;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class SignatureSourceTests {
+
+    @Rule
+    public TemporaryFolder projectDir = new TemporaryFolder();
+
+    private static final String BASE_SOURCE =
+            "package p;\n" +
+            "public class Base {\n" +
+            "    static { System.out.println(\"}\"); }\n" +
+            "    private int[] values = { 1, 2 };\n" +
+            "    private Runnable r = () -> { values[0]++; };\n" +
+            "    public Base() { this.values[1] = 3; }\n" +
+            "    public int compute(int x) throws Exception {\n" +
+            "        // a } in a comment\n" +
+            "        return new Object() { int f() { return x; } }.f();\n" +
+            "    }\n" +
+            "    enum Kind { A { void g() {} }, B; void h() { } }\n" +
+            "    interface Callback { default void done() { compute(); } }\n" +
+            "}\n";
+
+    private Path writeSource(String relativePath, String content) throws IOException {
+        Path file = projectDir.getRoot().toPath().resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void GivenSourceBodiesAreEmptiedAndPositionsKept() {
+        String stripped = SignatureSource.stripBodies(BASE_SOURCE);
+
+        Assert.assertEquals(BASE_SOURCE.length(), stripped.length());
+        Assert.assertEquals(BASE_SOURCE.split("\n").length, stripped.split("\n").length);
+        Assert.assertFalse(stripped.contains("return"));
+        Assert.assertFalse(stripped.contains("System.out"));
+
+        CompilationUnit full = JavaParser.parse(BASE_SOURCE);
+        CompilationUnit signatures = JavaParser.parse(stripped);
+
+        Assert.assertEquals(full.getTypes().get(0).getMembers().size(), signatures.getTypes().get(0).getMembers().size());
+
+        MethodDeclaration compute = signatures.getClassByName("Base").get().getMethodsByName("compute").get(0);
+        Assert.assertEquals("compute(int)", compute.getSignature().asString());
+        Assert.assertEquals(7, compute.getBegin().get().line);
+        Assert.assertTrue(compute.getBody().get().getStatements().isEmpty());
+    }
+
+    @Test
+    public void GivenProjectSourcesStrippedSourcesStillParse() throws IOException {
+        ProjectLoader loader = new ProjectLoader(java.nio.file.Paths.get("src", "main", "java"));
+        loader.load();
+
+        for (Path file : loader.getSummaries().keySet()) {
+            String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            CompilationUnit cu = JavaParser.parse(SignatureSource.stripBodies(source));
+
+            Assert.assertEquals("Types of " + file,
+                    loader.getCompilationUnit(file).get().getTypes().size(), cu.getTypes().size());
+        }
+    }
+
+    @Test
+    public void GivenAncestorInProjectOnlyItsSignaturesAreParsed() throws Exception {
+        writeSource("p/Base.java", BASE_SOURCE);
+        writeSource("q/MyClass.java",
+                "package q;\n" +
+                "public class MyClass extends p.Base {\n" +
+                "    public int compute(int x) throws Exception { return x; }\n" +
+                "}\n");
+
+        ProjectLoader loader = new ProjectLoader(projectDir.getRoot().toPath());
+        CompilationUnit cu = loader.loadDeclaring("MyClass").get();
+
+        TypeSolverService service = new TypeSolverService(Collections.singletonList(projectDir.getRoot()), 16);
+        ClassMethodFinder cmf = new ClassMethodFinder();
+        cmf.initialize(cu, "MyClass", service);
+
+        MethodOverride detector = new MethodOverride(cmf, new MethodDescriber("int", "compute", "(int)"));
+        Assert.assertTrue(detector.detect());
+
+        ReferenceTypeDeclaration base = service.getTypeDeclaration("p.Base");
+        MethodDeclaration compute = ((JavaParserClassDeclaration) base).getWrappedNode().getMethodsByName("compute").get(0);
+
+        Assert.assertTrue(compute.getBody().get().getStatements().isEmpty());
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.project.FileSummary;
+import analysis.project.MethodSummary;
+import analysis.project.ProjectLoader;
+import analysis.project.SummaryCache;
+import analysis.project.TypeSummary;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SummaryCacheTests {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private Path _projectRoot;
+    private SummaryCache _cache;
+
+    @Before
+    public void Setup() throws IOException
+    {
+        _projectRoot = tempDir.newFolder("project").toPath();
+        _cache = new SummaryCache(tempDir.newFolder("cache").toPath());
+    }
+
+    private Path writeSource(String relativePath, String content) throws IOException {
+        Path file = _projectRoot.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private ProjectLoader loadProject() throws IOException {
+        ProjectLoader loader = new ProjectLoader(_projectRoot, _cache);
+        loader.load();
+        return loader;
+    }
+
+    @Test
+    public void GivenParsedFileSummaryDescribesTypesMethodsAndFields() throws IOException {
+        Path file = writeSource("p/A.java",
+                "package p;\n" +
+                "import java.util.List;\n" +
+                "public class A extends B implements q.C {\n" +
+                "    private int counter;\n" +
+                "    @Override\n" +
+                "    public void MethodOne() { }\n" +
+                "    public int MethodFour(boolean t) { return 0; }\n" +
+                "    interface Inner { }\n" +
+                "}\n");
+
+        FileSummary summary = loadProject().getSummaries().get(file);
+
+        Assert.assertEquals("p", summary.getPackageName());
+        Assert.assertEquals("java.util.List", summary.getImports().get(0));
+        Assert.assertEquals(2, summary.getTypes().size());
+
+        TypeSummary a = summary.getTypes().get(0);
+        Assert.assertEquals("p.A", a.getQualifiedName());
+        Assert.assertEquals("B", a.getExtendedTypes().get(0));
+        Assert.assertEquals("q.C", a.getImplementedTypes().get(0));
+        Assert.assertEquals("counter", a.getFields().get(0).getName());
+        Assert.assertEquals(3, a.getBeginLine());
+
+        MethodSummary methodFour = a.getMethods().get(1);
+        Assert.assertEquals("int MethodFour(boolean)", methodFour.fullTypeSignature());
+        Assert.assertEquals("Override", a.getMethods().get(0).getAnnotations().get(0));
+
+        Assert.assertEquals("p.A.Inner", summary.getTypes().get(1).getQualifiedName());
+        Assert.assertTrue(summary.getTypes().get(1).isInterface());
+    }
+
+    @Test
+    public void GivenUnchangedFilesSecondLoadUsesCache() throws IOException {
+        writeSource("p/A.java", "package p;\npublic class A { void m() { } }");
+        writeSource("p/B.java", "package p;\npublic class B extends A { }");
+
+        loadProject();
+        Assert.assertEquals(2, _cache.getMissCount());
+
+        ProjectLoader warmLoader = loadProject();
+        Assert.assertEquals(2, _cache.getHitCount());
+
+        // Compilation units of cached files are parsed when requested
+        Assert.assertTrue(warmLoader.findCompilationUnitDeclaring("p.B").isPresent());
+        Assert.assertEquals(2, warmLoader.getCompilationUnits().size());
+    }
+
+    @Test
+    public void GivenChangedFileItIsParsedAgain() throws IOException {
+        Path file = writeSource("A.java", "public class A { }");
+        loadProject();
+
+        writeSource("A.java", "public class A { void added() { } }");
+        ProjectLoader loader = loadProject();
+
+        Assert.assertEquals(0, _cache.getHitCount());
+        Assert.assertEquals(1, loader.getSummaries().get(file).getTypes().get(0).getMethods().size());
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.project.ProjectLoader;
+import analysis.project.SymbolIndex;
+import analysis.project.TypeSummary;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+public class SymbolIndexTests {
+
+    @Rule
+    public TemporaryFolder projectDir = new TemporaryFolder();
+
+    private Path writeSource(String relativePath, String content) throws IOException {
+        Path file = projectDir.getRoot().toPath().resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private SymbolIndex buildIndex() throws IOException {
+        SymbolIndex index = new SymbolIndex(Collections.singletonList(projectDir.getRoot().toPath()));
+        index.build();
+        return index;
+    }
+
+    @Test
+    public void GivenChangedFileUpdateReplacesItsTypes() throws IOException {
+        Path file = writeSource("p/MyClass.java", "package p;\npublic class MyClass { }\nclass Helper { }");
+        SymbolIndex index = buildIndex();
+
+        Files.write(file, "package p;\npublic class MyClass { }\nclass Renamed { }".getBytes(StandardCharsets.UTF_8));
+        index.update(file);
+
+        Assert.assertFalse(index.findFile("p.Helper").isPresent());
+        Assert.assertFalse(index.findFile("Helper").isPresent());
+        Assert.assertEquals(file, index.findFile("p.Renamed").get());
+
+        Files.delete(file);
+        index.update(file);
+
+        Assert.assertFalse(index.findFile("p.MyClass").isPresent());
+        Assert.assertFalse(index.getDeclaredTypes().containsKey(file));
+    }
+
+    @Test
+    public void GivenUpdatesWhileLookingUpUnchangedTypesAreAlwaysFound() throws Exception {
+        Path file = writeSource("p/Stable.java", "package p;\npublic class Stable { }\nclass Helper { }");
+        SymbolIndex index = buildIndex();
+
+        CompletableFuture<Void> updates = CompletableFuture.runAsync(() -> {
+            for (int update = 0; update < 500; update++) {
+                index.update(file);
+            }
+        });
+
+        while (!updates.isDone()) {
+            Assert.assertEquals(file, index.findFile("p.Stable").get());
+            Assert.assertEquals(1, index.findFilesBySimpleName("Helper").size());
+        }
+        updates.get();
+    }
+
+    @Test
+    public void GivenMemberTypesTheyAreIndexedUnderQualifiedName() throws IOException {
+        Path file = writeSource("q/MyClass.java",
+                "package q;\n" +
+                "import java.util.List;\n" +
+                "public class MyClass {\n" +
+                "    interface Listener { void changed(); }\n" +
+                "    enum Mode { ON { void m() {} }, OFF; class InEnum {} }\n" +
+                "    @interface Marker {}\n" +
+                "}\n" +
+                "class Helper {}\n");
+
+        SymbolIndex index = buildIndex();
+
+        Assert.assertEquals(
+                Arrays.asList("q.MyClass", "q.MyClass.Listener", "q.MyClass.Mode", "q.MyClass.Mode.InEnum",
+                              "q.MyClass.Marker", "q.Helper"),
+                index.getDeclaredTypes().get(file));
+        Assert.assertEquals(file, index.findFile("q.MyClass.Listener").get());
+        Assert.assertEquals(file, index.findFile("Helper").get());
+    }
+
+    @Test
+    public void GivenCommentsLiteralsAndLocalClassesNoTypesAreIndexed() throws IOException {
+        Path file = writeSource("p/Only.java",
+                "/* class InComment {} */\n" +
+                "package p;\n" +
+                "// class InLineComment {}\n" +
+                "public class Only {\n" +
+                "    String s = \"class InString {\\\" }\";\n" +
+                "    char c = '{';\n" +
+                "    Class<?> k = String.class;\n" +
+                "    void m() {\n" +
+                "        class Local {}\n" +
+                "        Runnable r = new Runnable() { public void run() {} };\n" +
+                "    }\n" +
+                "}\n");
+
+        SymbolIndex index = buildIndex();
+
+        Assert.assertEquals(Collections.singletonList("p.Only"), index.getDeclaredTypes().get(file));
+        Assert.assertFalse(index.findFile("Local").isPresent());
+    }
+
+    @Test
+    public void GivenSameSimpleNameInTwoPackagesBothFilesAreFound() throws IOException {
+        Path first = writeSource("a/Item.java", "package a; class Item {}");
+        Path second = writeSource("b/Item.java", "package b; class Item {}");
+
+        SymbolIndex index = buildIndex();
+
+        Assert.assertEquals(2, index.findFilesBySimpleName("Item").size());
+        Assert.assertEquals(first, index.findFile("a.Item").get());
+        Assert.assertEquals(second, index.findFile("b.Item").get());
+    }
+
+    @Test
+    public void GivenClassNameLoaderParsesOnlyDeclaringFile() throws IOException {
+        writeSource("p/Base.java", "package p;\npublic class Base { }");
+        writeSource("p/Other.java", "package p;\npublic class Other { }");
+        Path myClass = writeSource("q/MyClass.java", "package q;\npublic class MyClass extends p.Base { }");
+
+        ProjectLoader loader = new ProjectLoader(projectDir.getRoot().toPath());
+
+        Assert.assertEquals(myClass, loader.loadDeclaring("MyClass").get().getStorage().get().getPath());
+        Assert.assertEquals(Collections.singleton(myClass), loader.getSummaries().keySet());
+        Assert.assertFalse(loader.loadDeclaring("Unknown").isPresent());
+    }
+
+    @Test
+    public void GivenProjectSourcesIndexMatchesParsedDeclarations() throws IOException {
+        Path sources = Paths.get("src", "main", "java");
+
+        SymbolIndex index = new SymbolIndex(Collections.singletonList(sources));
+        index.build();
+
+        ProjectLoader loader = new ProjectLoader(sources);
+        loader.load();
+
+        loader.getSummaries().forEach((file, summary) -> {
+            List<String> parsedTypes = summary.getTypes().stream()
+                    .map(TypeSummary::getQualifiedName)
+                    .sorted()
+                    .collect(Collectors.toList());
+            List<String> indexedTypes = index.getDeclaredTypes().get(file).stream()
+                    .sorted()
+                    .collect(Collectors.toList());
+
+            Assert.assertEquals("Types of " + file, parsedTypes, indexedTypes);
+        });
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import aig.CodeContext;
+import analysis.MethodAnalyzer.ClassMethodFinder;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.MethodAnalyzer.TypeSolverService;
+import analysis.context.ContextAnalyzer;
+import analysis.context.MethodNoneSubclassOverride;
+import analysis.context.MethodSubclassOverride;
+import analysis.context.ParameterCollector;
+import analysis.project.ProjectLoader;
+import analysis.project.TypeHierarchyIndex;
+import analysis.project.TypeHierarchyIndex.DeclaredMethod;
+import com.github.javaparser.ast.CompilationUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TypeHierarchyIndexTests {
+
+    @Rule
+    public TemporaryFolder projectDir = new TemporaryFolder();
+
+    private ProjectLoader _loader;
+    private TypeHierarchyIndex _index;
+
+    private Path writeSource(String relativePath, String content) throws IOException {
+        Path file = projectDir.getRoot().toPath().resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> typesOf(List<DeclaredMethod> methods) {
+        return methods.stream().map(DeclaredMethod::getTypeName).collect(Collectors.toList());
+    }
+
+    @Before
+    public void Setup() throws IOException {
+        writeSource("p/Shape.java", "package p;\npublic interface Shape { double area(); }");
+        writeSource("p/Base.java",
+                "package p;\n" +
+                "public class Base {\n" +
+                "    public void m() { }\n" +
+                "    public void n(int x) { }\n" +
+                "    public static class Nested extends Base { }\n" +
+                "}\n");
+        writeSource("q/Circle.java",
+                "package q;\n" +
+                "import p.*;\n" +
+                "public class Circle extends Base implements Shape {\n" +
+                "    public double area() { return 1; }\n" +
+                "    public void n(String s) { }\n" +
+                "}\n");
+        writeSource("q/Ring.java",
+                "package q;\n" +
+                "public class Ring extends Circle {\n" +
+                "    public void m() { }\n" +
+                "    public double area() { return 2; }\n" +
+                "}\n");
+        writeSource("q/Items.java", "package q;\npublic class Items extends java.util.ArrayList<String> { }");
+
+        _loader = new ProjectLoader(projectDir.getRoot().toPath());
+        _loader.load();
+
+        _index = new TypeHierarchyIndex();
+        _index.build(_loader.getSummaries());
+    }
+
+    @Test
+    public void GivenProjectSuperAndSubtypesAreResolved() {
+        Assert.assertEquals(Arrays.asList("q.Circle", "p.Base", "p.Shape"), _index.getAllSupertypes("q.Ring"));
+        Assert.assertEquals(Arrays.asList("q.Circle", "p.Base"), _index.getAllSuperClasses("q.Ring"));
+        Assert.assertEquals(Collections.singletonList("p.Shape"), _index.getAllInterfaces("q.Ring"));
+        Assert.assertEquals(Collections.singletonList("p.Base"), _index.getSupertypes("p.Base.Nested"));
+
+        Assert.assertEquals(Arrays.asList("p.Base.Nested", "q.Circle", "q.Ring"), _index.getAllSubtypes("p.Base"));
+        Assert.assertTrue(_index.isHierarchyComplete("q.Ring"));
+        Assert.assertFalse(_index.isHierarchyComplete("q.Items"));
+    }
+
+    @Test
+    public void GivenSignatureDeclarationsOverridersAndOverloadsAreFound() {
+        Assert.assertEquals(Collections.singletonList("p.Base"), typesOf(_index.findFirstDeclarations("q.Ring", "m()")));
+        Assert.assertEquals(Collections.singletonList("p.Shape"), typesOf(_index.findFirstDeclarations("q.Ring", "area()")));
+
+        Assert.assertEquals(Collections.singletonList("q.Ring"), typesOf(_index.findOverriders("p.Base", "m()")));
+        Assert.assertEquals(Arrays.asList("q.Circle", "q.Ring"), typesOf(_index.findOverriders("p.Shape", "area()")));
+
+        Assert.assertEquals(Arrays.asList("q.Circle", "p.Base"), typesOf(_index.findOverloads("q.Ring", "n", "n(double)")));
+    }
+
+    @Test
+    public void GivenChangedFileOnlyItsHierarchyIsUpdated() throws IOException {
+        Path ring = writeSource("q/Ring.java", "package q;\npublic class Ring extends p.Base { }");
+        _index.update(ring, _loader.reload(ring).get());
+
+        Assert.assertEquals(Collections.singletonList("p.Base"), _index.getSupertypes("q.Ring"));
+        Assert.assertTrue(_index.getSubtypes("q.Circle").isEmpty());
+
+        Path circle = projectDir.getRoot().toPath().resolve("q/Circle.java");
+        Files.delete(circle);
+        _index.update(circle, _loader.reload(circle).orElse(null));
+
+        Assert.assertFalse(_index.contains("q.Circle"));
+        Assert.assertEquals(Arrays.asList("p.Base.Nested", "q.Ring"), _index.getAllSubtypes("p.Base"));
+    }
+
+    @Test
+    public void GivenAddedFileUnresolvedSupertypesAreResolved() throws IOException {
+        writeSource("q/Square.java", "package q;\npublic class Square extends Quad { }");
+        Path square = projectDir.getRoot().toPath().resolve("q/Square.java");
+        _index.update(square, _loader.reload(square).get());
+        Assert.assertFalse(_index.isHierarchyComplete("q.Square"));
+
+        Path quad = writeSource("q/Quad.java", "package q;\npublic class Quad extends Circle { }");
+        _index.update(quad, _loader.reload(quad).get());
+
+        Assert.assertTrue(_index.isHierarchyComplete("q.Square"));
+        Assert.assertEquals(Arrays.asList("q.Quad", "q.Circle", "p.Base"), _index.getAllSuperClasses("q.Square"));
+    }
+
+    @Test
+    public void GivenIndexClassMethodFinderAnswersLikeTypeSolver() throws Exception {
+        CompilationUnit cu = _loader.findCompilationUnitDeclaring("q.Ring").get();
+        TypeSolverService service = new TypeSolverService(Collections.singletonList(projectDir.getRoot()), 64);
+
+        ClassMethodFinder withSolver = new ClassMethodFinder();
+        withSolver.initialize(cu, "Ring", service);
+
+        ClassMethodFinder withIndex = new ClassMethodFinder();
+        withIndex.initialize(cu, "Ring", service);
+        withIndex.setTypeHierarchyIndex(_index);
+
+        MethodDescriber m = new MethodDescriber("void", "m", "()");
+        MethodDescriber area = new MethodDescriber("double", "area", "()");
+
+        Assert.assertTrue(withIndex.isMethodDefinedInSuperClass(m));
+        Assert.assertEquals(withSolver.isMethodDefinedInSuperClass(m), withIndex.isMethodDefinedInSuperClass(m));
+        Assert.assertEquals(withSolver.isMethodDeclaredFirstTimeInInterface(area), withIndex.isMethodDeclaredFirstTimeInInterface(area));
+        Assert.assertEquals(withSolver.methodDefinedInInterface(), withIndex.methodDefinedInInterface());
+        Assert.assertEquals(withSolver.isMethodDefinedInSuperClass(area), withIndex.isMethodDefinedInSuperClass(area));
+    }
+
+    @Test
+    public void GivenStringParameterBothModesFindItInSuperClass() throws Exception {
+        Path disk = writeSource("q/Disk.java",
+                "package q;\n" +
+                "public class Disk extends Circle {\n" +
+                "    public void n(String s) { }\n" +
+                "    public void n(java.util.List<String> s) { }\n" +
+                "}\n");
+        _index.update(disk, _loader.reload(disk).get());
+
+        CompilationUnit cu = _loader.findCompilationUnitDeclaring("q.Disk").get();
+        TypeSolverService service = new TypeSolverService(Collections.singletonList(projectDir.getRoot()), 64);
+
+        ClassMethodFinder withSolver = new ClassMethodFinder();
+        withSolver.initialize(cu, "Disk", service);
+
+        ClassMethodFinder withIndex = new ClassMethodFinder();
+        withIndex.initialize(cu, "Disk", service);
+        withIndex.setTypeHierarchyIndex(_index);
+
+        MethodDescriber n = new MethodDescriber("void", "n", "(String)");
+        MethodDescriber list = new MethodDescriber("void", "n", "(java.util.List<String>)");
+
+        Assert.assertTrue(withSolver.isMethodDefinedInSuperClass(n));
+        Assert.assertTrue(withIndex.isMethodDefinedInSuperClass(n));
+        Assert.assertFalse(withSolver.isMethodDefinedInSuperClass(list));
+        Assert.assertFalse(withIndex.isMethodDefinedInSuperClass(list));
+    }
+
+    @Test
+    public void GivenIndexOverridingSubclassesAreDetected() throws Exception {
+        MethodDescriber m = new MethodDescriber("void", "m", "()");
+        MethodDescriber n = new MethodDescriber("void", "n", "(int)");
+
+        MethodSubclassOverride overridden = new MethodSubclassOverride(_index, "p.Base", m);
+
+        Assert.assertTrue(overridden.detect());
+        Assert.assertEquals(Collections.singletonList("q.Ring"),
+                overridden.getParameters().getCollection().get(new ParameterCollector().getSubclassListType()));
+
+        Assert.assertTrue(new MethodNoneSubclassOverride(_index, "p.Base", n).detect());
+        Assert.assertFalse(new MethodSubclassOverride(_index, "p.NotInProject", m).detect());
+    }
+
+    @Test
+    public void GivenNoIndexSubclassOverrideIsUnknown() {
+        MethodDescriber m = new MethodDescriber("void", "m", "()");
+
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(Arrays.asList(
+                new MethodSubclassOverride(null, "p.Base", m),
+                new MethodNoneSubclassOverride(null, "p.Base", m)));
+
+        Assert.assertTrue(ca.isPresent(CodeContext.CodeContextEnum.MethodSubclassOverride));
+        Assert.assertFalse(ca.isPresent(CodeContext.CodeContextEnum.MethodNoneSubclassOverride));
+        Assert.assertEquals(EnumSet.of(CodeContext.CodeContextEnum.MethodSubclassOverride,
+                CodeContext.CodeContextEnum.MethodNoneSubclassOverride), ca.getUnknownContextSet());
+    }
+}
@@ -0,0 +1,282 @@
+/**
+ *  This file is part of RefactorGuidance project. Which explores possibilities to generate context based
+ *  instructions on how to refactor a piece of Java code. This applied in an education setting (bachelor SE students)
+ *
+ *      Copyright (C) 2018, Patrick de Beer, p.debeer@fontys.nl
+ *
+ *          This program is free software: you can redistribute it and/or modify
+ *          it under the terms of the GNU General Public License as published by
+ *          the Free Software Foundation, either version 3 of the License, or
+ *          (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful,
+ *          but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *          MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *          GNU General Public License for more details.
+ *
+ *          You should have received a copy of the GNU General Public License
+ *          along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package analysis;
+
+import analysis.MethodAnalyzer.ClassMethodFinder;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.MethodAnalyzer.TypeSolverService;
+import analysis.MethodAnalyzer.TypeSolverService.Lookup;
+import analysis.context.MethodOverride;
+import analysis.project.PackageExclusions;
+import analysis.project.ProjectConfiguration;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.symbolsolver.model.declarations.ReferenceTypeDeclaration;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.concurrent.CountDownLatch;
+
+public class TypeSolverServiceTests {
+
+    @Rule
+    public TemporaryFolder projectDir = new TemporaryFolder();
+
+    private ResourceExampleClassParser _loader;
+    private TypeSolverService _service;
+
+    @Before
+    public void Setup()
+    {
+        _loader = new ResourceExampleClassParser();
+        _service = new TypeSolverService(Collections.emptyList(), 16);
+    }
+
+    private static Path writeSource(Path file, String content) throws IOException
+    {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private ClassMethodFinder createFinder(CompilationUnit cu, String className)
+    {
+        ClassMethodFinder cmf = new ClassMethodFinder();
+        cmf.initialize(cu, className, _service);
+        return cmf;
+    }
+
+    @Test
+    public void GivenSameClassTwiceSecondLookupIsMemoized()
+    {
+        CompilationUnit cu = _loader.Parse("ExtendedClassA_BWith2Methods.java.txt");
+
+        createFinder(cu, "A").getAllAncestors();
+        long missesAfterFirst = _service.getMissCount(Lookup.ANCESTORS);
+
+        createFinder(cu, "A").getAllAncestors();
+
+        Assert.assertEquals(missesAfterFirst, _service.getMissCount(Lookup.ANCESTORS));
+        Assert.assertEquals(1, _service.getHitCount(Lookup.ANCESTORS));
+        Assert.assertEquals(1, _service.getHitCount(Lookup.TYPE_DECLARATION));
+    }
+
+    @Test
+    public void GivenSameClassNameFromOtherParseLookupIsNotShared()
+    {
+        CompilationUnit first = _loader.Parse("ExtendedClassA_BWith2Methods.java.txt");
+        CompilationUnit second = _loader.Parse("ExtendedClassA_BWith2Methods.java.txt");
+
+        createFinder(first, "A").getAllAncestors();
+        createFinder(second, "A").getAllAncestors();
+
+        Assert.assertEquals(0, _service.getHitCount(Lookup.ANCESTORS));
+        Assert.assertEquals(2, _service.getMissCount(Lookup.ANCESTORS));
+    }
+
+    @Test
+    public void GivenMemoizedLookupsDetectionResultIsUnchanged() throws Exception
+    {
+        CompilationUnit cu = _loader.Parse("ExtendedClassA_BWith2Methods.java.txt");
+        MethodDescriber method = new MethodDescriber("void","MethodOne","()");
+
+        boolean firstRun = new MethodOverride(createFinder(cu, "A"), method).detect();
+        boolean secondRun = new MethodOverride(createFinder(cu, "A"), method).detect();
+
+        Assert.assertEquals(firstRun, secondRun);
+        Assert.assertTrue(_service.getHitCount(Lookup.DECLARED_METHODS) > 0);
+    }
+
+    @Test
+    public void GivenSmallCapacityMemoIsBounded()
+    {
+        TypeSolverService service = new TypeSolverService(Collections.emptyList(), 2);
+
+        service.getTypeDeclaration("java.lang.String");
+        service.getTypeDeclaration("java.lang.Integer");
+        service.getTypeDeclaration("java.lang.Long");
+
+        Assert.assertEquals(2, service.getMemoSize());
+        Assert.assertEquals(3, service.getMissCount(Lookup.TYPE_DECLARATION));
+    }
+
+    /**
+     * Declaration whose ancestors are only returned after the release, interrupting does not end the wait
+     */
+    private static ReferenceTypeDeclaration stuckDeclaration(CountDownLatch entered, CountDownLatch release)
+    {
+        return (ReferenceTypeDeclaration) Proxy.newProxyInstance(ReferenceTypeDeclaration.class.getClassLoader(),
+                new Class<?>[] { ReferenceTypeDeclaration.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getQualifiedName": return "stuck.Type";
+                        case "hasName": return true;
+                        case "getAncestors":
+                            entered.countDown();
+                            boolean interrupted = false;
+                            while (release.getCount() > 0) {
+                                try {
+                                    release.await();
+                                } catch (InterruptedException e) {
+                                    interrupted = true;
+                                }
+                            }
+                            if (interrupted) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return Collections.emptyList();
+                        default: return null;
+                    }
+                });
+    }
+
+    @Test
+    public void GivenLookupStuckInCancelledRequestServiceIsReplaced() throws InterruptedException
+    {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread lookup = new Thread(() -> _service.getAllAncestors(stuckDeclaration(entered, release)));
+        lookup.start();
+        entered.await();
+
+        try {
+            Assert.assertFalse(_service.isAbandoned());
+            Assert.assertSame(_service, TypeSolverService.replaceIfAbandoned(_service));
+
+            lookup.interrupt();
+
+            Assert.assertTrue(_service.isAbandoned());
+            TypeSolverService replacement = TypeSolverService.replaceIfAbandoned(_service);
+            Assert.assertNotSame(_service, replacement);
+            Assert.assertFalse(replacement.isAbandoned());
+            Assert.assertNotNull(replacement.getTypeDeclaration("java.lang.Integer"));
+        }
+        finally {
+            release.countDown();
+            lookup.join();
+        }
+    }
+
+    @Test
+    public void AnalyzersWithoutExplicitServiceShareProjectInstance()
+    {
+        CompilationUnit cu = _loader.Parse("SimpleClassWith2Methods.java.txt");
+
+        ClassMethodFinder first = new ClassMethodFinder();
+        first.initialize(cu, "TwoMethodClass");
+        ClassMethodFinder second = new ClassMethodFinder();
+        second.initialize(cu, "TwoMethodClass");
+
+        Assert.assertSame(first.getTypeSolverService(), second.getTypeSolverService());
+        Assert.assertSame(TypeSolverService.getProjectInstance(), first.getTypeSolverService());
+    }
+
+    @Test
+    public void GivenAncestorsInSameUnitNoAncestorSourceFilesAreReported()
+    {
+        CompilationUnit cu = _loader.Parse("ExtendedClassA_BWith2Methods.java.txt");
+
+        Optional<Set<Path>> files = _service.getAncestorSourceFiles(_service.getTypeDeclaration(cu.getClassByName("A").get()));
+
+        Assert.assertEquals(Optional.of(Collections.emptySet()), files);
+    }
+
+    @Test
+    public void GivenAncestorInOtherFileItsSourceFileIsReported() throws IOException
+    {
+        Path root = projectDir.getRoot().toPath();
+        Path base = writeSource(root.resolve("p/Base.java"), "package p; public class Base { public void m() {} }");
+        Path sub = writeSource(root.resolve("p/Sub.java"), "package p; public class Sub extends Base { }");
+
+        TypeSolverService service = new TypeSolverService(Collections.singletonList(root.toFile()), 16);
+        CompilationUnit cu = JavaParser.parse(sub);
+
+        Optional<Set<Path>> files = service.getAncestorSourceFiles(service.getTypeDeclaration(cu.getClassByName("Sub").get()));
+
+        Assert.assertEquals(Optional.of(Collections.singleton(base)), files);
+    }
+
+    @Test
+    public void GivenOtherExcludedPackagesConfigurationHashDiffers()
+    {
+        Path root = projectDir.getRoot().toPath();
+        ProjectConfiguration configuration = new ProjectConfiguration(root, Collections.singletonList(root), Collections.emptyList());
+
+        String hash = new TypeSolverService(configuration, 16).getConfigurationHash();
+
+        Assert.assertEquals(hash, new TypeSolverService(configuration, 16).getConfigurationHash());
+        Assert.assertNotEquals(hash, new TypeSolverService(
+                configuration.withExcludedPackages(new PackageExclusions(Collections.singletonList("p"))), 16).getConfigurationHash());
+    }
+
+    @Test
+    public void GivenConcurrentLookupsEachTypeResolvesToOneDeclaration() throws Exception
+    {
+        Path root = projectDir.getRoot().toPath();
+        List<String> names = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            writeSource(root.resolve("p/T" + i + ".java"), "package p; public class T" + i + " { public void m" + i + "() {} }");
+            names.add("p.T" + i);
+        }
+
+        TypeSolverService service = new TypeSolverService(Collections.singletonList(root.toFile()), 16);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<List<ReferenceTypeDeclaration>>> lookups = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++) {
+                lookups.add(executor.submit(() -> names.stream()
+                        .map(name -> service.getTypeSolver().solveType(name))
+                        .collect(Collectors.toList())));
+            }
+
+            List<ReferenceTypeDeclaration> first = lookups.get(0).get();
+
+            for (Future<List<ReferenceTypeDeclaration>> lookup : lookups) {
+                List<ReferenceTypeDeclaration> declarations = lookup.get();
+
+                for (int i = 0; i < names.size(); i++) {
+                    Assert.assertSame(first.get(i), declarations.get(i));
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package context;
+
+import aig.AIG_RenameGeneration;
+import aig.AdaptiveInstructionGraph;
+import analysis.JavaParserTestSetup;
+import analysis.ResourceExampleClassParser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Latency of a sequential and a parallel ContextAnalyzer run.
+ * Not part of the default test run, run with mvn test -Pbenchmarks
+ */
+public class ContextAnalyzerParallelBenchmark extends JavaParserTestSetup {
+
+    private static final int BENCHMARK_RUNS = 20;
+
+    @Before
+    public void Setup() {
+        _loader = new ResourceExampleClassParser();
+        CreateCompilationUnitFromTestClass("ExtendedClassA_BWith2Methods.java.txt");
+    }
+
+    /**
+     * Compares the wall-clock latency of a sequential and a parallel run. Timings are only reported, they
+     * depend too much on the machine to be asserted.
+     */
+    @Test
+    public void BenchmarkSequentialAgainstParallelRun() throws Exception {
+        AdaptiveInstructionGraph graph = new AIG_RenameGeneration().getAdaptiveInstructionGraph();
+        int parallelism = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        // Warm up class loading and the JDK index before measuring
+        ContextAnalyzerParallelTests.analyze(_cu, graph, 1);
+        ContextAnalyzerParallelTests.analyze(_cu, graph, parallelism);
+
+        long sequentialNanos = 0;
+        long parallelNanos = 0;
+
+        for (int run = 0; run < BENCHMARK_RUNS; run++) {
+            long start = System.nanoTime();
+            ContextAnalyzerParallelTests.analyze(_cu, graph, 1);
+            sequentialNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ContextAnalyzerParallelTests.analyze(_cu, graph, parallelism);
+            parallelNanos += System.nanoTime() - start;
+        }
+
+        System.out.println(String.format("ContextAnalyzer over %d runs: sequential %.2f ms/run, parallel (%d threads) %.2f ms/run",
+                BENCHMARK_RUNS, sequentialNanos / 1e6 / BENCHMARK_RUNS, parallelism, parallelNanos / 1e6 / BENCHMARK_RUNS));
+
+        Assert.assertTrue(sequentialNanos > 0 && parallelNanos > 0);
+    }
+}
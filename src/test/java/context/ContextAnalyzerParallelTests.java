@@ -0,0 +1,124 @@
+package context;
+
+import aig.AIG_RenameGeneration;
+import aig.AdaptiveInstructionGraph;
+import aig.CodeContext.CodeContextEnum;
+import aig.InstructionGenerator;
+import analysis.JavaParserTestSetup;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.MethodAnalyzer.TypeSolverService;
+import analysis.ResourceExampleClassParser;
+import analysis.context.ContextAnalyzer;
+import analysis.context.ContextConfiguration;
+import analysis.context.ContextDetector;
+import analysis.context.ContextDetectorSetBuilder;
+import analysis.context.IContextDetector;
+import com.github.javaparser.ast.CompilationUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ContextAnalyzerParallelTests extends JavaParserTestSetup {
+
+    @Before
+    public void Setup() {
+        _loader = new ResourceExampleClassParser();
+        CreateCompilationUnitFromTestClass("ExtendedClassA_BWith2Methods.java.txt");
+    }
+
+    private ContextAnalyzer analyze(AdaptiveInstructionGraph graph, int parallelism) throws Exception {
+        return analyze(_cu, graph, parallelism);
+    }
+
+    /**
+     * Runs all Rename Method detectors for method MethodOne of class A, with a type solver without memoized lookups
+     */
+    static ContextAnalyzer analyze(CompilationUnit cu, AdaptiveInstructionGraph graph, int parallelism) throws Exception {
+        ContextConfiguration cc = new ContextConfiguration();
+        cc.setMethodDescriber(new MethodDescriber("void", "MethodOne", "()"));
+        cc.setCompilationUnit(cu);
+        cc.setClassName("A");
+        cc.setTypeSolverService(new TypeSolverService(Collections.emptyList(), TypeSolverService.DEFAULT_MEMO_CAPACITY));
+
+        ContextDetectorSetBuilder cb = new ContextDetectorSetBuilder();
+        cb.setContextConfiguration(cc);
+        cb.setAIT(graph);
+
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(cb.getContextDetectors());
+        ca.setParallelism(parallelism);
+        ca.run();
+
+        return ca;
+    }
+
+    private List<String> instructions(AdaptiveInstructionGraph graph, ContextAnalyzer ca) {
+        InstructionGenerator generator = new InstructionGenerator(graph);
+        generator.setParameterMap(ca.getParameterMap());
+        generator.setContext(ca.getDetectedContextSet());
+
+        return generator.generateInstruction(true);
+    }
+
+    @Test
+    public void GivenParallelRunResultsEqualSequentialRun() throws Exception {
+        AdaptiveInstructionGraph graph = new AIG_RenameGeneration().getAdaptiveInstructionGraph();
+
+        ContextAnalyzer sequential = analyze(graph, 1);
+        ContextAnalyzer parallel = analyze(graph, 4);
+
+        Assert.assertEquals(sequential.getDetectedContextSet(), parallel.getDetectedContextSet());
+        Assert.assertEquals(sequential.getParameterMap(), parallel.getParameterMap());
+        Assert.assertEquals(instructions(graph, sequential), instructions(graph, parallel));
+    }
+
+    @Test
+    public void GivenParallelRunAtMostParallelismDetectorsRunOnTheDetectorPool() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        List<IContextDetector> detectors = new ArrayList<>();
+
+        for (CodeContextEnum type : Arrays.asList(CodeContextEnum.MethodOverride, CodeContextEnum.MethodOverload,
+                CodeContextEnum.MethodInterfaceDeclaration, CodeContextEnum.MethodMultipleDeclarations,
+                CodeContextEnum.MethodSingleDeclaration, CodeContextEnum.MethodOverrideNoAnnotation)) {
+            detectors.add(new ContextDetector() {
+                @Override
+                public boolean detect() throws Exception {
+                    mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    threadNames.add(Thread.currentThread().getName());
+                    Thread.sleep(20);
+                    running.decrementAndGet();
+                    return true;
+                }
+
+                @Override
+                public CodeContextEnum getType() {
+                    return type;
+                }
+            });
+        }
+
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(detectors);
+        ca.setParallelism(2);
+        ca.run();
+
+        Assert.assertEquals(6, ca.getDetectedContextSet().size());
+        Assert.assertTrue("at most " + mostRunning.get(), mostRunning.get() <= 2);
+        Assert.assertTrue(threadNames.toString(), threadNames.stream().allMatch(name -> name.equals("context-detector")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void GivenParallelismBelowOneItIsRejected() {
+        new ContextAnalyzer().setParallelism(0);
+    }
+}
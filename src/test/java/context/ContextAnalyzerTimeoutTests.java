@@ -0,0 +1,177 @@
+package context;
+
+import aig.AIG_RenameGeneration;
+import aig.AdaptiveInstructionGraph;
+import aig.CodeContext.CodeContextEnum;
+import aig.InstructionGenerator;
+import analysis.JavaParserTestSetup;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.ResourceExampleClassParser;
+import analysis.context.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ContextAnalyzerTimeoutTests extends JavaParserTestSetup {
+
+    /**
+     * Detector that takes the given time, and stops early when it is interrupted
+     */
+    private static IContextDetector detector(CodeContextEnum type, long millis, boolean result) {
+        return new ContextDetector() {
+            @Override
+            public boolean detect() throws Exception {
+                Thread.sleep(millis);
+                return result;
+            }
+
+            @Override
+            public CodeContextEnum getType() {
+                return type;
+            }
+        };
+    }
+
+    @Test
+    public void GivenHangingDetectorItIsReportedUnknownWithinItsBudget() {
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(Arrays.asList(
+                detector(CodeContextEnum.MethodOverride, 60_000, true),
+                detector(CodeContextEnum.MethodOverload, 0, true)));
+        ca.setDetectorTimeout(50, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        ca.run();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assert.assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 5_000);
+        Assert.assertEquals(EnumSet.of(CodeContextEnum.MethodOverride), ca.getUnknownContextSet());
+        Assert.assertEquals(EnumSet.of(CodeContextEnum.MethodOverload), ca.getDetectedContextSet());
+    }
+
+    @Test
+    public void GivenDetectorsThatNeverReturnLaterDetectionsStillRun() {
+        AtomicBoolean release = new AtomicBoolean();
+        int stuckCount = Runtime.getRuntime().availableProcessors() + 4;
+
+        // Like solver code that swallows its interruption, it only stops when the test ends
+        IContextDetector stuck = new ContextDetector() {
+            @Override
+            public boolean detect() {
+                while (!release.get()) {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        // ignored
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public CodeContextEnum getType() {
+                return CodeContextEnum.MethodOverride;
+            }
+        };
+
+        try {
+            for (int request = 0; request < stuckCount; request++) {
+                ContextAnalyzer ca = new ContextAnalyzer();
+                ca.setContextDetectors(Collections.singletonList(stuck));
+                ca.setDetectorTimeout(20, TimeUnit.MILLISECONDS);
+                ca.run();
+
+                Assert.assertEquals(EnumSet.of(CodeContextEnum.MethodOverride), ca.getUnknownContextSet());
+            }
+
+            Assert.assertTrue(ContextAnalyzer.getDetectionsInFlight() >= stuckCount);
+
+            ContextAnalyzer ca = new ContextAnalyzer();
+            ca.setContextDetectors(Collections.singletonList(detector(CodeContextEnum.MethodOverload, 0, true)));
+            ca.setDetectorTimeout(1, TimeUnit.SECONDS);
+            ca.run();
+
+            Assert.assertTrue(ca.getUnknownContextSet().isEmpty());
+            Assert.assertEquals(EnumSet.of(CodeContextEnum.MethodOverload), ca.getDetectedContextSet());
+        }
+        finally {
+            release.set(true);
+        }
+    }
+
+    @Test
+    public void GivenRequestBudgetAllDetectorsTogetherStayWithinIt() {
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(Arrays.asList(
+                detector(CodeContextEnum.MethodOverride, 60_000, true),
+                detector(CodeContextEnum.MethodOverload, 60_000, true),
+                detector(CodeContextEnum.MethodInterfaceDeclaration, 60_000, true)));
+        ca.setParallelism(2);
+        ca.setRequestTimeout(100, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        ca.run();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assert.assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 5_000);
+        Assert.assertEquals(3, ca.getUnknownContextSet().size());
+        Assert.assertTrue(ca.getDetectedContextSet().isEmpty());
+    }
+
+    @Test
+    public void GivenLazyDetectionTimeoutTheConservativeAnswerIsGiven() {
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(Arrays.asList(
+                detector(CodeContextEnum.MethodOverride, 60_000, false),
+                detector(CodeContextEnum.MethodNoneOverride, 60_000, true)));
+        ca.setDetectorTimeout(50, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(ca.isPresent(CodeContextEnum.MethodOverride));
+        Assert.assertFalse(ca.isPresent(CodeContextEnum.MethodNoneOverride));
+        Assert.assertEquals(EnumSet.of(CodeContextEnum.MethodOverride, CodeContextEnum.MethodNoneOverride),
+                ca.getUnknownContextSet());
+    }
+
+    @Test
+    public void GivenUnknownOverrideGeneratorTakesTheOverridePath() throws Exception {
+        _loader = new ResourceExampleClassParser();
+        CreateCompilationUnitFromTestClass("ExtendedClassA_BWith2Methods.java.txt");
+        AdaptiveInstructionGraph graph = new AIG_RenameGeneration().getAdaptiveInstructionGraph();
+
+        ContextConfiguration cc = new ContextConfiguration();
+        cc.setMethodDescriber(new MethodDescriber("void", "MethodOne", "()"));
+        cc.setCompilationUnit(_cu);
+        cc.setClassName("A");
+
+        ContextDetectorSetBuilder cb = new ContextDetectorSetBuilder();
+        cb.setContextConfiguration(cc);
+        cb.setAIT(graph);
+
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(cb.getContextDetectors());
+        ca.run();
+
+        InstructionGenerator generator = new InstructionGenerator(graph);
+        generator.setParameterMap(ca.getParameterMap());
+        generator.setContext(EnumSet.copyOf(ca.getDetectedContextSet()));
+        List<String> detected = generator.generateInstruction(true);
+
+        EnumSet<CodeContextEnum> withoutOverride = EnumSet.copyOf(ca.getDetectedContextSet());
+        withoutOverride.removeAll(EnumSet.of(CodeContextEnum.MethodOverride, CodeContextEnum.MethodNoneOverride));
+
+        generator = new InstructionGenerator(graph);
+        generator.setParameterMap(ca.getParameterMap());
+        generator.setContext(withoutOverride);
+        generator.setUnknownContexts(EnumSet.of(CodeContextEnum.MethodOverride, CodeContextEnum.MethodNoneOverride));
+        List<String> assumed = generator.generateInstruction(true);
+
+        Assert.assertTrue(assumed.get(0).contains("MethodOverride"));
+        Assert.assertEquals(detected, assumed.subList(1, assumed.size()));
+    }
+}
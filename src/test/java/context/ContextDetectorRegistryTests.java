@@ -0,0 +1,107 @@
+package context;
+
+import aig.AIG_ExtractMethodGeneration;
+import aig.AdaptiveInstructionGraph;
+import aig.CodeContext.CodeContextEnum;
+import analysis.context.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ContextDetectorRegistryTests {
+
+    @Test
+    public void GivenDefaultRegistryEveryContextHasADetector() {
+        ContextDetectorRegistry registry = ContextDetectorRegistry.getDefault();
+
+        for (CodeContextEnum context : CodeContextEnum.values()) {
+            Assert.assertEquals(context.name(), context != CodeContextEnum.always_true, registry.getFactory(context).isPresent());
+        }
+
+        Assert.assertSame(registry, ContextDetectorRegistry.getDefault());
+    }
+
+    @Test
+    public void GivenGraphDetectorsAreCreatedInContextOrder() {
+        AdaptiveInstructionGraph graph = new AIG_ExtractMethodGeneration().getAdaptiveInstructionGraph();
+        EnumSet<CodeContextEnum> contexts = graph.allUniqueCodeContextInGraph();
+
+        List<IContextDetector> detectors = ContextDetectorRegistry.getDefault().createDetectors(contexts, new ContextConfiguration());
+
+        contexts.remove(CodeContextEnum.always_true);
+        Assert.assertEquals(contexts.size(), detectors.size());
+
+        int i = 0;
+        for (CodeContextEnum context : contexts) {
+            Assert.assertEquals(context, detectors.get(i++).getType());
+        }
+    }
+
+    @Test
+    public void GivenProviderItsDetectorReplacesTheBuiltInOne() {
+        ContextDetectorProvider provider = () -> Collections.singletonMap(CodeContextEnum.MethodOverload,
+                cc -> new ContextDetector() {
+                    @Override
+                    public CodeContextEnum getType() {
+                        return CodeContextEnum.MethodOverload;
+                    }
+                });
+
+        ContextDetectorRegistry registry = ContextDetectorRegistry.load(Collections.singletonList(provider));
+        IContextDetector detector = registry.createDetectors(EnumSet.of(CodeContextEnum.MethodOverload), new ContextConfiguration()).get(0);
+
+        Assert.assertFalse(detector instanceof MethodOverload);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void GivenMissingDetectorRegistryIsRejected() {
+        Map<CodeContextEnum, ContextDetectorRegistry.DetectorFactory> factories = ContextDetectorRegistry.builtInDetectors();
+        factories.remove(CodeContextEnum.MethodExtractNameHiding);
+
+        new ContextDetectorRegistry(factories);
+    }
+
+    @Test
+    public void GivenComplementAndBaseTheBaseDetectorRunsOnce() throws Exception {
+        AtomicInteger evaluations = new AtomicInteger();
+
+        Map<CodeContextEnum, ContextDetectorRegistry.DetectorFactory> factories = ContextDetectorRegistry.builtInDetectors();
+        factories.put(CodeContextEnum.MethodOverload, cc -> new ContextDetector() {
+            @Override
+            public boolean detect() {
+                evaluations.incrementAndGet();
+                return true;
+            }
+
+            @Override
+            public CodeContextEnum getType() {
+                return CodeContextEnum.MethodOverload;
+            }
+        });
+
+        ContextDetectorRegistry registry = new ContextDetectorRegistry(factories, ContextDetectorRegistry.builtInComplements());
+        List<IContextDetector> detectors = registry.createDetectors(
+                EnumSet.of(CodeContextEnum.MethodOverload, CodeContextEnum.MethodNoneOverload), new ContextConfiguration());
+
+        Assert.assertEquals(CodeContextEnum.MethodOverload, detectors.get(0).getType());
+        Assert.assertEquals(CodeContextEnum.MethodNoneOverload, detectors.get(1).getType());
+        Assert.assertTrue(detectors.get(0).detect());
+        Assert.assertFalse(detectors.get(1).detect());
+        Assert.assertEquals(1, evaluations.get());
+        Assert.assertEquals(Optional.of(CodeContextEnum.MethodOverload), registry.getComplementBase(CodeContextEnum.MethodNoneOverload));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void GivenComplementOfAComplementRegistryIsRejected() {
+        Map<CodeContextEnum, CodeContextEnum> complements = ContextDetectorRegistry.builtInComplements();
+        complements.put(CodeContextEnum.MethodOverride, CodeContextEnum.MethodNoneOverload);
+
+        new ContextDetectorRegistry(ContextDetectorRegistry.builtInDetectors(), complements);
+    }
+}
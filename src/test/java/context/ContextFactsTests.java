@@ -0,0 +1,155 @@
+package context;
+
+import aig.AIG_RenameGeneration;
+import aig.CodeContext.CodeContextEnum;
+import analysis.JavaParserTestSetup;
+import analysis.MethodAnalyzer.ClassMethodFinder;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.context.*;
+import analysis.context.ContextFacts.Fact;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ContextFactsTests extends JavaParserTestSetup {
+
+    @Test
+    public void GivenRenameDetectorsEachHierarchyFactIsComputedOnce() throws Exception {
+        CreateCompilationUnitFromTestClass("ExtendedClassA_BWith2Methods.java.txt");
+
+        ContextConfiguration cc = new ContextConfiguration();
+        cc.setMethodDescriber(new MethodDescriber("void", "MethodOne", "()"));
+        cc.setCompilationUnit(_cu);
+        cc.setClassName("A");
+
+        ContextDetectorSetBuilder cb = new ContextDetectorSetBuilder();
+        cb.setContextConfiguration(cc);
+        cb.setAIT(new AIG_RenameGeneration().getAdaptiveInstructionGraph());
+
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(cb.getContextDetectors());
+        ca.run();
+
+        ContextFacts facts = cc.getFacts();
+
+        for (Fact fact : Arrays.asList(Fact.SUPER_CLASS_DECLARATION, Fact.OVERRIDDEN_METHODS)) {
+            Assert.assertEquals(fact.name(), 1, facts.getComputationCount(fact));
+            Assert.assertTrue(fact.name(), facts.getReadCount(fact) > 1);
+        }
+
+        // The None* complements are derived from their base detector, so these facts are read by one detector
+        for (Fact fact : Arrays.asList(Fact.INTERFACE_DECLARATION, Fact.OVERLOADS)) {
+            Assert.assertEquals(fact.name(), 1, facts.getComputationCount(fact));
+            Assert.assertEquals(fact.name(), 1, facts.getReadCount(fact));
+        }
+
+        Assert.assertEquals(0, facts.getComputationCount(Fact.INPUT_VARIABLES));
+        Assert.assertEquals("C", facts.getDeclaringInterface().get());
+    }
+
+    @Test
+    public void GivenExtractDetectorsVariableFactsAreComputedOnce() throws Exception {
+        extractRegion(19, 22);
+        setupTestClass("ExtractMethodCases", "ExtractionWith1Input");
+
+        ContextConfiguration cc = mdfaAnalysis();
+
+        List<IContextDetector> detectors = Arrays.asList(
+                new MethodExtractNoneArguments(cc),
+                new MethodExtractSingleArgument(cc),
+                new MethodExtractMultiArgument(cc),
+                new MethodExtractNoneResults(cc),
+                new MethodExtractSingleResult(cc),
+                new MethodExtractMultiResult(cc));
+
+        for (IContextDetector detector : detectors) {
+            detector.detect();
+        }
+
+        Assert.assertEquals(1, cc.getFacts().getComputationCount(Fact.INPUT_VARIABLES));
+        Assert.assertEquals(1, cc.getFacts().getComputationCount(Fact.OUTPUT_VARIABLES));
+        Assert.assertEquals(Arrays.asList("a"), cc.getFacts().getInputVariables());
+    }
+
+    @Test(expected = Exception.class)
+    public void GivenFailingFactEveryReaderGetsTheFailure() throws Exception {
+        ContextConfiguration cc = new ContextConfiguration();
+
+        try {
+            cc.getFacts().getInputVariables();
+        }
+        catch (Exception e) {
+            Assert.assertEquals(1, cc.getFacts().getComputationCount(Fact.INPUT_VARIABLES));
+        }
+
+        cc.getFacts().getInputVariables();
+    }
+
+    @Test
+    public void GivenReaderTimesOutComputingASharedFactOtherReaderComputesItAgain() {
+        CountDownLatch computing = new CountDownLatch(1);
+
+        ClassMethodFinder cmf = new ClassMethodFinder() {
+            private final AtomicInteger _calls = new AtomicInteger();
+
+            @Override
+            public boolean isMethodDefinedInSuperClass(MethodDescriber method) {
+                if (_calls.incrementAndGet() == 1) {
+                    computing.countDown();
+
+                    try {
+                        Thread.sleep(60_000);
+                    } catch (InterruptedException e) {
+                        // Like solver code that reports an interruption as a failure of its own
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Lookup interrupted");
+                    }
+                }
+
+                return true;
+            }
+        };
+
+        ContextConfiguration cc = new ContextConfiguration();
+        cc.setCMFAnalyzer(cmf);
+        cc.setMethodDescriber(new MethodDescriber("void", "MethodOne", "()"));
+
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(Arrays.asList(
+                superClassReader(CodeContextEnum.MethodOverride, cc, null),
+                superClassReader(CodeContextEnum.MethodMultipleDeclarations, cc, computing)));
+        ca.setDetectorTimeout(100, TimeUnit.MILLISECONDS);
+        ca.run();
+
+        Assert.assertEquals(EnumSet.of(CodeContextEnum.MethodOverride), ca.getUnknownContextSet());
+        Assert.assertEquals(EnumSet.of(CodeContextEnum.MethodMultipleDeclarations), ca.getDetectedContextSet());
+        Assert.assertEquals(2, cc.getFacts().getComputationCount(Fact.SUPER_CLASS_DECLARATION));
+    }
+
+    /**
+     * Detector reading the super class declaration fact, after the fact is being computed when a latch is given
+     */
+    private static IContextDetector superClassReader(CodeContextEnum type, ContextConfiguration cc, CountDownLatch computing) {
+        return new ContextDetector() {
+            @Override
+            public boolean detect() throws Exception {
+                if (computing != null) {
+                    computing.await();
+                }
+
+                return cc.getFacts().isDeclaredInSuperClass();
+            }
+
+            @Override
+            public CodeContextEnum getType() {
+                return type;
+            }
+        };
+    }
+}
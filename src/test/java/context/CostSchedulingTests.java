@@ -0,0 +1,120 @@
+package context;
+
+import aig.AIG_ExtractMethodGeneration;
+import aig.AIG_RenameGeneration;
+import aig.AdaptiveInstructionGraph;
+import aig.CodeContext.CodeContextEnum;
+import analysis.JavaParserTestSetup;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.ResourceExampleClassParser;
+import analysis.context.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CostSchedulingTests extends JavaParserTestSetup {
+
+    private ContextAnalyzer renameAnalyzer(boolean scheduling) throws Exception {
+        _loader = new ResourceExampleClassParser();
+        CreateCompilationUnitFromTestClass("ExtendedClassA_BWith2Methods.java.txt");
+
+        ContextConfiguration cc = new ContextConfiguration();
+        cc.setMethodDescriber(new MethodDescriber("void", "MethodOne", "()"));
+        cc.setCompilationUnit(_cu);
+        cc.setClassName("A");
+
+        return analyzer(cc, new AIG_RenameGeneration(true).getAdaptiveInstructionGraph(), scheduling);
+    }
+
+    private ContextAnalyzer extractAnalyzer(boolean scheduling) throws Exception {
+        extractRegion(19, 22);
+        setupTestClass("ExtractMethodCases", "ExtractionWith1Input");
+
+        ContextConfiguration cc = new ContextConfiguration();
+        cc.setCompilationUnit(_cu);
+        cc.setClassName("ExtractMethodCases");
+        cc.setMethodDescriber(_cmf.getMethodDescriberForLocation(19));
+        cc.setCodeSection(new CodeSection(19, 22));
+
+        return analyzer(cc, new AIG_ExtractMethodGeneration().getAdaptiveInstructionGraph(), scheduling);
+    }
+
+    private static ContextAnalyzer analyzer(ContextConfiguration cc, AdaptiveInstructionGraph graph, boolean scheduling)
+            throws Exception {
+        ContextDetectorSetBuilder cb = new ContextDetectorSetBuilder();
+        cb.setContextConfiguration(cc);
+        cb.setAIT(graph);
+
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(cb.getContextDetectors());
+        ca.setCostScheduling(scheduling);
+        ca.run();
+
+        return ca;
+    }
+
+    private static IContextDetector detector(CodeContextEnum type, IContextDetector.Cost cost, List<CodeContextEnum> order) {
+        return new ContextDetector() {
+            @Override
+            public boolean detect() {
+                order.add(type);
+                return true;
+            }
+
+            @Override
+            public Cost getCost() {
+                return cost;
+            }
+
+            @Override
+            public CodeContextEnum getType() {
+                return type;
+            }
+        };
+    }
+
+    @Test
+    public void GivenScheduledRunResultsEqualListOrderRun() throws Exception {
+        ContextAnalyzer listOrder = renameAnalyzer(false);
+        ContextAnalyzer scheduled = renameAnalyzer(true);
+
+        Assert.assertEquals(listOrder.getDetectedContextSet(), scheduled.getDetectedContextSet());
+        Assert.assertEquals(listOrder.getParameterMap(), scheduled.getParameterMap());
+
+        listOrder = extractAnalyzer(false);
+        scheduled = extractAnalyzer(true);
+
+        Assert.assertEquals(listOrder.getDetectedContextSet(), scheduled.getDetectedContextSet());
+        Assert.assertEquals(listOrder.getParameterMap(), scheduled.getParameterMap());
+    }
+
+    @Test
+    public void GivenCostHintsCheapDetectorsRunFirst() {
+        List<CodeContextEnum> order = new ArrayList<>();
+
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(Arrays.asList(
+                detector(CodeContextEnum.MethodExtractNameHiding, IContextDetector.Cost.MODERATE, order),
+                detector(CodeContextEnum.MethodExtractControlReturn, IContextDetector.Cost.CHEAP, order)));
+        ca.setCostScheduling(true);
+        ca.run();
+
+        Assert.assertEquals(Arrays.asList(CodeContextEnum.MethodExtractControlReturn, CodeContextEnum.MethodExtractNameHiding), order);
+        Assert.assertEquals(Arrays.asList("inline MethodExtractControlReturn (CHEAP)", "inline MethodExtractNameHiding (MODERATE)"),
+                ca.getScheduleTrace());
+    }
+
+    @Test
+    public void GivenSharedFactsExpensiveDetectorsAreGroupedInTheBackground() throws Exception {
+        List<String> trace = renameAnalyzer(true).getScheduleTrace();
+
+        Assert.assertTrue(trace.toString(), trace.contains(
+                "background group 2: [MethodOverload, MethodNoneOverload] sharing [OVERLOADS]"));
+        Assert.assertTrue(trace.toString(), trace.contains("settled MethodNoneOverride without detection"));
+        Assert.assertTrue(trace.toString(), trace.contains("inline MethodSubclassOverride (CHEAP)"));
+        Assert.assertFalse(trace.toString(), trace.stream().anyMatch(entry -> entry.startsWith("inline MethodOverride ")));
+    }
+}
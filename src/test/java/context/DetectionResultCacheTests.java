@@ -0,0 +1,109 @@
+package context;
+
+import aig.CodeContext.CodeContextEnum;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.RenameMethodAnalyzer;
+import analysis.context.CodeSection;
+import analysis.context.DetectionResultCache;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.*;
+
+public class DetectionResultCacheTests {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private static DetectionResultCache.Result result() {
+        Map<String, List<String>> parameters = new HashMap<>();
+        parameters.put("#variable-list", new ArrayList<>(Arrays.asList("a", "b")));
+
+        return new DetectionResultCache.Result(EnumSet.of(CodeContextEnum.MethodExtractMultiArgument), parameters);
+    }
+
+    private static String key(String source, CodeSection section) {
+        return DetectionResultCache.keyOf("ExtractMethod", source, "ExtractMethodCases",
+                new MethodDescriber("void", "ExtractionWith1Input", "()"), section, "-");
+    }
+
+    @Test
+    public void GivenStoredResultCallersGetIndependentCopies() {
+        DetectionResultCache cache = new DetectionResultCache(4);
+        cache.store(key("source", new CodeSection(19, 22)), result());
+
+        DetectionResultCache.Result cached = cache.load(key("source", new CodeSection(19, 22))).get();
+        cached.getDetectedContextSet().add(CodeContextEnum.always_true);
+        cached.getParameterMap().get("#variable-list").clear();
+
+        Assert.assertEquals(EnumSet.of(CodeContextEnum.MethodExtractMultiArgument), cached.getDetectedContextSet());
+        Assert.assertEquals(Arrays.asList("a", "b"), cached.getParameterMap().get("#variable-list"));
+        Assert.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void GivenChangedSourceOrSectionKeyDiffers() {
+        String original = key("source", new CodeSection(19, 22));
+
+        Assert.assertEquals(original, key("source", new CodeSection(19, 22)));
+        Assert.assertNotEquals(original, key("changed source", new CodeSection(19, 22)));
+        Assert.assertNotEquals(original, key("source", new CodeSection(19, 23)));
+        Assert.assertNotEquals(original, key("source", null));
+    }
+
+    @Test
+    public void GivenFullMemoryLeastRecentlyUsedResultIsEvicted() {
+        DetectionResultCache cache = new DetectionResultCache(1);
+        cache.store("first", result());
+        cache.store("second", result());
+
+        Assert.assertFalse(cache.load("first").isPresent());
+        Assert.assertTrue(cache.load("second").isPresent());
+    }
+
+    @Test
+    public void GivenDiskTierResultSurvivesANewCache() throws Exception {
+        Path directory = tempDir.newFolder("detections").toPath();
+        new DetectionResultCache(4, directory).store("key", result());
+
+        DetectionResultCache restarted = new DetectionResultCache(4, directory);
+
+        Assert.assertEquals(EnumSet.of(CodeContextEnum.MethodExtractMultiArgument),
+                restarted.load("key").get().getDetectedContextSet());
+    }
+
+    @Test
+    public void GivenRepeatedExtractRequestDetectorsAreNotRunAgain() throws Exception {
+        DetectionResultCache cache = new DetectionResultCache(4, tempDir.newFolder("rpg").toPath());
+
+        RenameMethodAnalyzer analyzer = new RenameMethodAnalyzer();
+        analyzer.setDetectionResultCache(cache);
+
+        List<String> first = analyzer.generateInstructions("ExtractMethod", "ExtractMethodCases.java.txt",
+                "ExtractMethodCases", "", 19, 22);
+        List<String> second = analyzer.generateInstructions("ExtractMethod", "ExtractMethodCases.java.txt",
+                "ExtractMethodCases", "", 19, 22);
+
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(first, second);
+    }
+
+    @Test
+    public void GivenRepeatedRenameRequestFromResourceSecondIsACacheHit() {
+        DetectionResultCache cache = new DetectionResultCache(4);
+
+        RenameMethodAnalyzer analyzer = new RenameMethodAnalyzer();
+        analyzer.setDetectionResultCache(cache);
+
+        List<String> first = analyzer.generateInstructions("Rename", "RenameMethod.java.txt", "MyMethod", "NewName", 22, -1);
+        List<String> second = analyzer.generateInstructions("Rename", "RenameMethod.java.txt", "MyMethod", "NewName", 22, -1);
+
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(first, second);
+    }
+}
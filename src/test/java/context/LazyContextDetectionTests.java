@@ -0,0 +1,89 @@
+package context;
+
+import aig.AIG_RenameGeneration;
+import aig.AdaptiveInstructionGraph;
+import aig.InstructionGenerator;
+import analysis.JavaParserTestSetup;
+import analysis.MethodAnalyzer.MethodDescriber;
+import analysis.ResourceExampleClassParser;
+import analysis.context.ContextAnalyzer;
+import analysis.context.ContextConfiguration;
+import analysis.context.ContextDetectorSetBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class LazyContextDetectionTests extends JavaParserTestSetup {
+
+    private AdaptiveInstructionGraph _graph;
+
+    @Before
+    public void Setup() {
+        _loader = new ResourceExampleClassParser();
+        CreateCompilationUnitFromTestClass("ExtendedClassA_BWith2Methods.java.txt");
+        _graph = new AIG_RenameGeneration().getAdaptiveInstructionGraph();
+    }
+
+    private ContextAnalyzer analyzer(String className, MethodDescriber method) throws Exception {
+        ContextConfiguration cc = new ContextConfiguration();
+        cc.setMethodDescriber(method);
+        cc.setCompilationUnit(_cu);
+        cc.setClassName(className);
+
+        ContextDetectorSetBuilder cb = new ContextDetectorSetBuilder();
+        cb.setContextConfiguration(cc);
+        cb.setAIT(_graph);
+
+        ContextAnalyzer ca = new ContextAnalyzer();
+        ca.setContextDetectors(cb.getContextDetectors());
+
+        return ca;
+    }
+
+    private List<String> eagerInstructions(ContextAnalyzer ca) {
+        ca.run();
+
+        InstructionGenerator generator = new InstructionGenerator(_graph);
+        generator.setParameterMap(ca.getParameterMap());
+        generator.setContext(ca.getDetectedContextSet());
+        generator.setUnknownContexts(ca.getUnknownContextSet());
+
+        return generator.generateInstruction(true);
+    }
+
+    private List<String> lazyInstructions(ContextAnalyzer ca) {
+        InstructionGenerator generator = new InstructionGenerator(_graph);
+        generator.setParameterMap(ca.getParameterMap());
+        generator.setContextSource(ca);
+        generator.setUnknownContexts(ca.getUnknownContextSet());
+
+        return generator.generateInstruction(true);
+    }
+
+    @Test
+    public void GivenOverriddenMethodLazyInstructionsEqualEagerInstructions() throws Exception {
+        MethodDescriber method = new MethodDescriber("void", "MethodOne", "()");
+
+        Assert.assertEquals(eagerInstructions(analyzer("A", method)), lazyInstructions(analyzer("A", method)));
+    }
+
+    @Test
+    public void GivenSingleDeclarationLazyInstructionsEqualEagerInstructions() throws Exception {
+        MethodDescriber method = new MethodDescriber("void", "MethodThree", "()");
+
+        Assert.assertEquals(eagerInstructions(analyzer("B", method)), lazyInstructions(analyzer("B", method)));
+    }
+
+    @Test
+    public void GivenLazyDetectionDetectorsOfUntakenBranchesDoNotRun() throws Exception {
+        ContextAnalyzer ca = analyzer("A", new MethodDescriber("void", "MethodOne", "()"));
+        int detectorCount = ca.getContextDetectorCount();
+
+        lazyInstructions(ca);
+
+        Assert.assertTrue(ca.getDetectionCount() > 0);
+        Assert.assertTrue(ca.getDetectionCount() < detectorCount);
+    }
+}